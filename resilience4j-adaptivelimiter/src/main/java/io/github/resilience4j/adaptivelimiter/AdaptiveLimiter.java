@@ -0,0 +1,423 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adaptivelimiter;
+
+import io.github.resilience4j.adaptivelimiter.event.AdaptiveLimiterEvent;
+import io.github.resilience4j.adaptivelimiter.event.AdaptiveLimiterOnCallRejectedEvent;
+import io.github.resilience4j.adaptivelimiter.event.AdaptiveLimiterOnLimitChangedEvent;
+import io.github.resilience4j.adaptivelimiter.internal.AdaptiveLimiterImpl;
+import io.github.resilience4j.adaptivelimiter.utils.AdaptiveLimiterUtils;
+import io.github.resilience4j.core.EventConsumer;
+import io.vavr.CheckedFunction0;
+import io.vavr.CheckedFunction1;
+import io.vavr.CheckedRunnable;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An AdaptiveLimiter instance is thread-safe can be used to decorate multiple requests.
+ *
+ * An {@link AdaptiveLimiter} limits the amount of parallel calls like a Bulkhead,
+ * but the limit is not configured statically. It is adjusted by a
+ * {@link io.github.resilience4j.adaptivelimiter.algorithm.LimitAlgorithm} from the round-trip times and the drops
+ * of the completed calls, so that the limit follows the real capacity of the backend.
+ *
+ * In order to execute an operation protected by this limiter, a permission must be obtained by calling
+ * {@link AdaptiveLimiter#isCallPermitted()}. Once the operation is complete, the client has to call
+ * {@link AdaptiveLimiter#onSuccess(long)} or {@link AdaptiveLimiter#onError(long, Throwable)} with the duration
+ * of the call. The decorators measure the duration themselves.
+ */
+public interface AdaptiveLimiter {
+
+    /**
+     * Attempts to acquire a permit, which allows a call to be executed.
+     *
+     * @return boolean whether a call should be executed
+     */
+    boolean isCallPermitted();
+
+    /**
+     * Records a successful call and releases its permit.
+     *
+     * @param durationInNanos The elapsed time duration of the call
+     */
+    void onSuccess(long durationInNanos);
+
+    /**
+     * Records a failed call and releases its permit.
+     * The call is recorded as dropped, if the exception matches {@link AdaptiveLimiterConfig#getRecordDropPredicate()}.
+     *
+     * @param durationInNanos The elapsed time duration of the call
+     * @param throwable The throwable which must be recorded
+     */
+    void onError(long durationInNanos, Throwable throwable);
+
+    /**
+     * Returns the name of this adaptive limiter.
+     *
+     * @return the name of this adaptive limiter
+     */
+    String getName();
+
+    /**
+     * Returns the AdaptiveLimiterConfig of this AdaptiveLimiter.
+     *
+     * @return adaptive limiter config
+     */
+    AdaptiveLimiterConfig getAdaptiveLimiterConfig();
+
+    /**
+     * Get the Metrics of this AdaptiveLimiter.
+     *
+     * @return the Metrics of this AdaptiveLimiter
+     */
+    Metrics getMetrics();
+
+    /**
+     * Returns an EventPublisher which can be used to register event consumers.
+     *
+     * @return an EventPublisher
+     */
+    EventPublisher getEventPublisher();
+
+    /**
+     * Decorates and executes the decorated Supplier.
+     *
+     * @param supplier the original Supplier
+     * @param <T> the type of results supplied by this supplier
+     * @return the result of the decorated Supplier.
+     */
+    default <T> T executeSupplier(Supplier<T> supplier){
+        return decorateSupplier(this, supplier).get();
+    }
+
+    /**
+     * Decorates and executes the decorated Callable.
+     *
+     * @param callable the original Callable
+     *
+     * @return the result of the decorated Callable.
+     * @param <T> the result type of callable
+     * @throws Exception if unable to compute a result
+     */
+    default <T> T executeCallable(Callable<T> callable) throws Exception{
+        return decorateCallable(this, callable).call();
+    }
+
+    /**
+     * Decorates and executes the decorated Runnable.
+     *
+     * @param runnable the original Runnable
+     */
+    default void executeRunnable(Runnable runnable){
+        decorateRunnable(this, runnable).run();
+    }
+
+    /**
+     * Decorates and executes the decorated CompletionStage.
+     *
+     * @param supplier the original CompletionStage
+     * @param <T> the type of results supplied by this supplier
+     * @return the decorated CompletionStage.
+     */
+    default <T> CompletionStage<T> executeCompletionStage(Supplier<CompletionStage<T>> supplier){
+        return decorateCompletionStage(this, supplier).get();
+    }
+
+    /**
+     * Returns a supplier which is decorated by an AdaptiveLimiter.
+     *
+     * @param adaptiveLimiter the AdaptiveLimiter
+     * @param supplier the original supplier
+     * @param <T> the type of results supplied by this supplier
+     * @return a supplier which is decorated by an AdaptiveLimiter.
+     */
+    static <T> CheckedFunction0<T> decorateCheckedSupplier(AdaptiveLimiter adaptiveLimiter, CheckedFunction0<T> supplier){
+        return () -> {
+            AdaptiveLimiterUtils.isCallPermitted(adaptiveLimiter);
+            long start = System.nanoTime();
+            try {
+                T returnValue = supplier.apply();
+                long durationInNanos = System.nanoTime() - start;
+                adaptiveLimiter.onSuccess(durationInNanos);
+                return returnValue;
+            } catch (Throwable throwable) {
+                long durationInNanos = System.nanoTime() - start;
+                adaptiveLimiter.onError(durationInNanos, throwable);
+                throw throwable;
+            }
+        };
+    }
+
+    /**
+     * Returns a supplier which is decorated by an AdaptiveLimiter.
+     * The duration of a call lasts until the returned CompletionStage is completed.
+     *
+     * @param adaptiveLimiter the AdaptiveLimiter
+     * @param supplier the original supplier
+     * @param <T> the type of the returned CompletionStage's result
+     * @return a supplier which is decorated by an AdaptiveLimiter.
+     */
+    static <T> Supplier<CompletionStage<T>> decorateCompletionStage(AdaptiveLimiter adaptiveLimiter, Supplier<CompletionStage<T>> supplier) {
+        return () -> {
+
+            final CompletableFuture<T> promise = new CompletableFuture<>();
+
+            if (!adaptiveLimiter.isCallPermitted()) {
+                promise.completeExceptionally(
+                        new AdaptiveLimiterFullException(
+                                String.format("AdaptiveLimiter '%s' is full", adaptiveLimiter.getName())));
+
+            } else {
+                final long start = System.nanoTime();
+
+                try {
+                    supplier.get().whenComplete((result, throwable) -> {
+                        long durationInNanos = System.nanoTime() - start;
+                        if (throwable != null) {
+                            adaptiveLimiter.onError(durationInNanos, throwable);
+                            promise.completeExceptionally(throwable);
+                        } else {
+                            adaptiveLimiter.onSuccess(durationInNanos);
+                            promise.complete(result);
+                        }
+                    });
+                } catch (Throwable throwable) {
+                    long durationInNanos = System.nanoTime() - start;
+                    adaptiveLimiter.onError(durationInNanos, throwable);
+                    throw throwable;
+                }
+            }
+
+            return promise;
+        };
+    }
+
+    /**
+     * Returns a runnable which is decorated by an AdaptiveLimiter.
+     *
+     * @param adaptiveLimiter the AdaptiveLimiter
+     * @param runnable the original runnable
+     *
+     * @return a runnable which is decorated by an AdaptiveLimiter.
+     */
+    static CheckedRunnable decorateCheckedRunnable(AdaptiveLimiter adaptiveLimiter, CheckedRunnable runnable){
+        return () -> {
+            AdaptiveLimiterUtils.isCallPermitted(adaptiveLimiter);
+            long start = System.nanoTime();
+            try{
+                runnable.run();
+                long durationInNanos = System.nanoTime() - start;
+                adaptiveLimiter.onSuccess(durationInNanos);
+            } catch (Throwable throwable){
+                long durationInNanos = System.nanoTime() - start;
+                adaptiveLimiter.onError(durationInNanos, throwable);
+                throw throwable;
+            }
+        };
+    }
+
+    /**
+     * Returns a callable which is decorated by an AdaptiveLimiter.
+     *
+     * @param adaptiveLimiter the AdaptiveLimiter
+     * @param callable the original Callable
+     * @param <T> the result type of callable
+     *
+     * @return a callable which is decorated by an AdaptiveLimiter.
+     */
+    static <T> Callable<T> decorateCallable(AdaptiveLimiter adaptiveLimiter, Callable<T> callable){
+        return () -> {
+            AdaptiveLimiterUtils.isCallPermitted(adaptiveLimiter);
+            long start = System.nanoTime();
+            try {
+                T returnValue = callable.call();
+                long durationInNanos = System.nanoTime() - start;
+                adaptiveLimiter.onSuccess(durationInNanos);
+                return returnValue;
+            } catch (Throwable throwable) {
+                long durationInNanos = System.nanoTime() - start;
+                adaptiveLimiter.onError(durationInNanos, throwable);
+                throw throwable;
+            }
+        };
+    }
+
+    /**
+     * Returns a supplier which is decorated by an AdaptiveLimiter.
+     *
+     * @param adaptiveLimiter the AdaptiveLimiter
+     * @param supplier the original supplier
+     * @param <T> the type of results supplied by this supplier
+     *
+     * @return a supplier which is decorated by an AdaptiveLimiter.
+     */
+    static <T> Supplier<T> decorateSupplier(AdaptiveLimiter adaptiveLimiter, Supplier<T> supplier){
+        return () -> {
+            AdaptiveLimiterUtils.isCallPermitted(adaptiveLimiter);
+            long start = System.nanoTime();
+            try {
+                T returnValue = supplier.get();
+                long durationInNanos = System.nanoTime() - start;
+                adaptiveLimiter.onSuccess(durationInNanos);
+                return returnValue;
+            } catch (Throwable throwable) {
+                long durationInNanos = System.nanoTime() - start;
+                adaptiveLimiter.onError(durationInNanos, throwable);
+                throw throwable;
+            }
+        };
+    }
+
+    /**
+     * Returns a runnable which is decorated by an AdaptiveLimiter.
+     *
+     * @param adaptiveLimiter the AdaptiveLimiter
+     * @param runnable the original runnable
+     *
+     * @return a runnable which is decorated by an AdaptiveLimiter.
+     */
+    static Runnable decorateRunnable(AdaptiveLimiter adaptiveLimiter, Runnable runnable){
+        return () -> {
+            AdaptiveLimiterUtils.isCallPermitted(adaptiveLimiter);
+            long start = System.nanoTime();
+            try{
+                runnable.run();
+                long durationInNanos = System.nanoTime() - start;
+                adaptiveLimiter.onSuccess(durationInNanos);
+            } catch (Throwable throwable){
+                long durationInNanos = System.nanoTime() - start;
+                adaptiveLimiter.onError(durationInNanos, throwable);
+                throw throwable;
+            }
+        };
+    }
+
+    /**
+     * Returns a function which is decorated by an AdaptiveLimiter.
+     *
+     * @param adaptiveLimiter the AdaptiveLimiter
+     * @param function the original function
+     * @param <T> the type of the input to the function
+     * @param <R> the type of the result of the function
+     * @return a function which is decorated by an AdaptiveLimiter.
+     */
+    static <T, R> Function<T, R> decorateFunction(AdaptiveLimiter adaptiveLimiter, Function<T, R> function){
+        return (T t) -> {
+            AdaptiveLimiterUtils.isCallPermitted(adaptiveLimiter);
+            long start = System.nanoTime();
+            try{
+                R returnValue = function.apply(t);
+                long durationInNanos = System.nanoTime() - start;
+                adaptiveLimiter.onSuccess(durationInNanos);
+                return returnValue;
+            } catch (Throwable throwable){
+                long durationInNanos = System.nanoTime() - start;
+                adaptiveLimiter.onError(durationInNanos, throwable);
+                throw throwable;
+            }
+        };
+    }
+
+    /**
+     * Returns a function which is decorated by an AdaptiveLimiter.
+     *
+     * @param adaptiveLimiter the AdaptiveLimiter
+     * @param function the original function
+     * @param <T> the type of the input to the function
+     * @param <R> the type of the result of the function
+     * @return a function which is decorated by an AdaptiveLimiter.
+     */
+    static <T, R> CheckedFunction1<T, R> decorateCheckedFunction(AdaptiveLimiter adaptiveLimiter, CheckedFunction1<T, R> function){
+        return (T t) -> {
+            AdaptiveLimiterUtils.isCallPermitted(adaptiveLimiter);
+            long start = System.nanoTime();
+            try{
+                R returnValue = function.apply(t);
+                long durationInNanos = System.nanoTime() - start;
+                adaptiveLimiter.onSuccess(durationInNanos);
+                return returnValue;
+            } catch (Throwable throwable){
+                long durationInNanos = System.nanoTime() - start;
+                adaptiveLimiter.onError(durationInNanos, throwable);
+                throw throwable;
+            }
+        };
+    }
+
+    /**
+     * Creates an AdaptiveLimiter with a default configuration.
+     *
+     * @param name the name of the AdaptiveLimiter
+     * @return an AdaptiveLimiter instance
+     */
+    static AdaptiveLimiter ofDefaults(String name) {
+        return new AdaptiveLimiterImpl(name, AdaptiveLimiterConfig.ofDefaults());
+    }
+
+    /**
+     * Creates an AdaptiveLimiter with a custom configuration
+     *
+     * @param name the name of the AdaptiveLimiter
+     * @param config a custom AdaptiveLimiterConfig configuration
+     * @return an AdaptiveLimiter instance
+     */
+    static AdaptiveLimiter of(String name, AdaptiveLimiterConfig config) {
+        return new AdaptiveLimiterImpl(name, config);
+    }
+
+    interface Metrics {
+
+        /**
+         * Returns the current limit of concurrent calls.
+         *
+         * @return the current limit
+         */
+        int getLimit();
+
+        /**
+         * Returns the number of calls which are executed at the moment.
+         *
+         * @return the number of calls in flight
+         */
+        int getNumberOfInFlightCalls();
+
+        /**
+         * Returns the number of calls which would be permitted at this point in time.
+         * Can be negative after the limit has been decreased.
+         *
+         * @return the number of available calls
+         */
+        int getAvailableConcurrentCalls();
+    }
+
+    /**
+     * An EventPublisher which can be used to register event consumers.
+     */
+    interface EventPublisher extends io.github.resilience4j.core.EventPublisher<AdaptiveLimiterEvent> {
+
+        EventPublisher onCallRejected(EventConsumer<AdaptiveLimiterOnCallRejectedEvent> eventConsumer);
+
+        EventPublisher onLimitChanged(EventConsumer<AdaptiveLimiterOnLimitChangedEvent> eventConsumer);
+    }
+}
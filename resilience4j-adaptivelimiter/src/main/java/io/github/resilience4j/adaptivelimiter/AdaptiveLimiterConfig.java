@@ -0,0 +1,179 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adaptivelimiter;
+
+import io.github.resilience4j.adaptivelimiter.algorithm.AimdLimitAlgorithm;
+import io.github.resilience4j.adaptivelimiter.algorithm.LimitAlgorithm;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link AdaptiveLimiterConfig} configures an {@link AdaptiveLimiter}
+ */
+public class AdaptiveLimiterConfig {
+
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 200;
+
+    private int initialLimit = DEFAULT_INITIAL_LIMIT;
+    private int minLimit = DEFAULT_MIN_LIMIT;
+    private int maxLimit = DEFAULT_MAX_LIMIT;
+    private Supplier<LimitAlgorithm> limitAlgorithmSupplier = AimdLimitAlgorithm::new;
+    private Predicate<? super Throwable> recordDropPredicate = (exception) -> true;
+
+    private AdaptiveLimiterConfig() { }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public Supplier<LimitAlgorithm> getLimitAlgorithmSupplier() {
+        return limitAlgorithmSupplier;
+    }
+
+    public Predicate<? super Throwable> getRecordDropPredicate() {
+        return recordDropPredicate;
+    }
+
+    /**
+     * Returns a builder to create a custom AdaptiveLimiterConfig.
+     *
+     * @return a {@link Builder}
+     */
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a default AdaptiveLimiter configuration.
+     *
+     * @return a default AdaptiveLimiter configuration.
+     */
+    public static AdaptiveLimiterConfig ofDefaults() {
+        return new Builder().build();
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveLimiterConfig{" +
+            "initialLimit=" + initialLimit +
+            ", minLimit=" + minLimit +
+            ", maxLimit=" + maxLimit +
+            '}';
+    }
+
+    public static class Builder {
+
+        private AdaptiveLimiterConfig config = new AdaptiveLimiterConfig();
+
+        /**
+         * Configures the limit of concurrent calls before the first call has completed.
+         *
+         * @param initialLimit the initial limit of concurrent calls
+         * @return the AdaptiveLimiterConfig.Builder
+         */
+        public Builder initialLimit(int initialLimit) {
+            if (initialLimit < 1) {
+                throw new IllegalArgumentException("initialLimit must be a positive integer value >= 1");
+            }
+            config.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * Configures the lower bound of the limit of concurrent calls.
+         *
+         * @param minLimit the lower bound of the limit
+         * @return the AdaptiveLimiterConfig.Builder
+         */
+        public Builder minLimit(int minLimit) {
+            if (minLimit < 1) {
+                throw new IllegalArgumentException("minLimit must be a positive integer value >= 1");
+            }
+            config.minLimit = minLimit;
+            return this;
+        }
+
+        /**
+         * Configures the upper bound of the limit of concurrent calls.
+         *
+         * @param maxLimit the upper bound of the limit
+         * @return the AdaptiveLimiterConfig.Builder
+         */
+        public Builder maxLimit(int maxLimit) {
+            if (maxLimit < 1) {
+                throw new IllegalArgumentException("maxLimit must be a positive integer value >= 1");
+            }
+            config.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * Configures the algorithm which adjusts the limit. Every AdaptiveLimiter gets its own instance,
+         * because the algorithms keep the state of their measurements.
+         *
+         * @param limitAlgorithmSupplier creates the algorithm for each AdaptiveLimiter
+         * @return the AdaptiveLimiterConfig.Builder
+         */
+        public Builder limitAlgorithm(Supplier<LimitAlgorithm> limitAlgorithmSupplier) {
+            config.limitAlgorithmSupplier = requireNonNull(limitAlgorithmSupplier, "LimitAlgorithmSupplier must not be null");
+            return this;
+        }
+
+        /**
+         * Configures a Predicate which evaluates if an exception should be recorded as a dropped call and thus decrease the limit.
+         * The Predicate must return true if the exception signals an overloaded backend, for example a timeout.
+         * Other exceptions only release the permission of the call and are not used as a sample.
+         *
+         * @param predicate the Predicate which evaluates if an exception should be recorded as a dropped call
+         * @return the AdaptiveLimiterConfig.Builder
+         */
+        public Builder recordDrop(Predicate<? super Throwable> predicate) {
+            config.recordDropPredicate = requireNonNull(predicate, "RecordDropPredicate must not be null");
+            return this;
+        }
+
+        /**
+         * Builds an AdaptiveLimiterConfig
+         *
+         * @return the AdaptiveLimiterConfig
+         */
+        public AdaptiveLimiterConfig build() {
+            if (config.minLimit > config.maxLimit) {
+                throw new IllegalArgumentException("minLimit must not be greater than maxLimit");
+            }
+            if (config.initialLimit < config.minLimit || config.initialLimit > config.maxLimit) {
+                throw new IllegalArgumentException("initialLimit must be between minLimit and maxLimit");
+            }
+            return config;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adaptivelimiter.algorithm;
+
+/**
+ * Additive increase, multiplicative decrease like the congestion control of TCP.
+ * <p>Every window of calls without a drop increases the limit by one,
+ * a window with a dropped call multiplies the limit by the backoff ratio.
+ * The limit is not increased while less than half of it is used, because such samples
+ * say nothing about the capacity of the backend.
+ * <p>AIMD only reacts to drops, so calls which take too long must be recorded as drops,
+ * for example with a {@code TimeLimiter}.
+ */
+public class AimdLimitAlgorithm implements LimitAlgorithm {
+
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+    private final double backoffRatio;
+
+    public AimdLimitAlgorithm() {
+        this(DEFAULT_BACKOFF_RATIO);
+    }
+
+    /**
+     * Creates an AIMD algorithm.
+     *
+     * @param backoffRatio the factor which is applied to the limit after a dropped call, between 0 and 1
+     */
+    public AimdLimitAlgorithm(double backoffRatio) {
+        if (backoffRatio <= 0.0 || backoffRatio >= 1.0) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        }
+        this.backoffRatio = backoffRatio;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double update(double limit, long rttInNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            return limit * backoffRatio;
+        }
+        if (inFlight * 2 < limit) {
+            return limit;
+        }
+        return limit + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "AimdLimitAlgorithm{backoffRatio=" + backoffRatio + '}';
+    }
+}
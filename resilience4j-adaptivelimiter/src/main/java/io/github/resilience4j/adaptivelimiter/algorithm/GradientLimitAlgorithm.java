@@ -0,0 +1,97 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adaptivelimiter.algorithm;
+
+/**
+ * Delay based limit, which follows the gradient between the long-term and the current round-trip time.
+ * <p>The long-term round-trip time is an exponential moving average over roughly the last {@code longWindow} samples.
+ * The gradient {@code longRtt / rtt} is 1 as long as the backend is not slower than usual and shrinks
+ * down to 0.5 while it is getting slower. The new limit is {@code limit * gradient + sqrt(limit)},
+ * so the limit grows while the latency is stable and shrinks as soon as requests start to queue up.
+ * The change is smoothed, a dropped call is handled like the smallest gradient.
+ * <p>If the backend stays slow, the moving average catches up with the slower round-trip time,
+ * so the limit can grow again. If the backend gets faster, the moving average is decayed faster than usual.
+ */
+public class GradientLimitAlgorithm implements LimitAlgorithm {
+
+    public static final double DEFAULT_SMOOTHING = 0.2;
+    public static final int DEFAULT_LONG_WINDOW = 100;
+    private static final int WARM_UP_SAMPLES = 10;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final double smoothing;
+    private final int longWindow;
+    private final double longRttFactor;
+    private double longRttInNanos;
+    private long samples;
+
+    public GradientLimitAlgorithm() {
+        this(DEFAULT_SMOOTHING, DEFAULT_LONG_WINDOW);
+    }
+
+    /**
+     * Creates a gradient algorithm.
+     *
+     * @param smoothing  the weight of the new limit, between 0 exclusive and 1 inclusive
+     * @param longWindow the number of samples which are averaged for the long-term round-trip time
+     */
+    public GradientLimitAlgorithm(double smoothing, int longWindow) {
+        if (smoothing <= 0.0 || smoothing > 1.0) {
+            throw new IllegalArgumentException("smoothing must be greater than 0 and not greater than 1");
+        }
+        if (longWindow < 1) {
+            throw new IllegalArgumentException("longWindow must be a positive integer value >= 1");
+        }
+        this.smoothing = smoothing;
+        this.longWindow = longWindow;
+        this.longRttFactor = 2.0 / (longWindow + 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double update(double limit, long rttInNanos, int inFlight, boolean dropped) {
+        double rtt = Math.max(1L, rttInNanos);
+        samples++;
+        if (samples <= WARM_UP_SAMPLES) {
+            longRttInNanos += (rtt - longRttInNanos) / samples;
+        } else {
+            longRttInNanos += (rtt - longRttInNanos) * longRttFactor;
+        }
+        if (longRttInNanos > 2 * rtt) {
+            longRttInNanos *= 0.95;
+        }
+
+        if (!dropped && inFlight * 2 < limit) {
+            return limit;
+        }
+        double gradient = dropped ? MIN_GRADIENT : Math.max(MIN_GRADIENT, Math.min(1.0, longRttInNanos / rtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        return limit * (1 - smoothing) + newLimit * smoothing;
+    }
+
+    @Override
+    public String toString() {
+        return "GradientLimitAlgorithm{" +
+            "smoothing=" + smoothing +
+            ", longWindow=" + longWindow +
+            '}';
+    }
+}
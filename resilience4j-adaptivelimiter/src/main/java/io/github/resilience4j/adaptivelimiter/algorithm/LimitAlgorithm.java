@@ -0,0 +1,41 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adaptivelimiter.algorithm;
+
+/**
+ * A {@link LimitAlgorithm} calculates the concurrency limit of an
+ * {@link io.github.resilience4j.adaptivelimiter.AdaptiveLimiter} from the samples of completed calls.
+ * <p>An AdaptiveLimiter aggregates the samples of a window of roughly one round-trip and passes
+ * one aggregated sample per window. The samples are passed one at a time, so an implementation can keep
+ * mutable state without synchronization, but an instance must not be shared between limiters.
+ */
+public interface LimitAlgorithm {
+
+    /**
+     * Calculates the new limit after a window of calls has completed.
+     * The result is kept within the minimum and maximum limit by the AdaptiveLimiter.
+     *
+     * @param limit      the current limit
+     * @param rttInNanos the average round-trip time of the calls in nanoseconds
+     * @param inFlight   the maximum number of calls in flight when a call completed, including the call
+     * @param dropped    true if a call was dropped, for example because of a timeout or an overloaded backend
+     * @return the new limit
+     */
+    double update(double limit, long rttInNanos, int inFlight, boolean dropped);
+}
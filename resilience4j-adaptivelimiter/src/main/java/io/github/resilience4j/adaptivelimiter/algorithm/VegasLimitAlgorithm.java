@@ -0,0 +1,100 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adaptivelimiter.algorithm;
+
+/**
+ * Delay based limit like TCP Vegas.
+ * <p>The smallest observed round-trip time is taken as the time without any queueing.
+ * The queue in front of the backend is estimated as {@code limit * (1 - rttNoLoad / rtt)}.
+ * The limit is increased quickly while there is almost no queue, slowly while the queue is shorter than alpha,
+ * decreased while the queue is longer than beta and kept in between. Alpha and beta grow with the logarithm
+ * of the limit. A dropped call decreases the limit.
+ * <p>The backend can get faster or slower after a while, for example after scaling out. Therefore the round-trip
+ * time without queueing is probed again after a number of samples. A probe halves the limit for one window,
+ * so that the queue in front of the backend drains and the following samples measure the backend without queueing.
+ */
+public class VegasLimitAlgorithm implements LimitAlgorithm {
+
+    public static final int DEFAULT_PROBE_INTERVAL = 30;
+
+    private final int probeInterval;
+    private long rttNoLoadInNanos;
+    private long samplesUntilProbe;
+
+    public VegasLimitAlgorithm() {
+        this(DEFAULT_PROBE_INTERVAL);
+    }
+
+    /**
+     * Creates a Vegas algorithm.
+     *
+     * @param probeInterval the round-trip time without queueing is probed again every probeInterval samples
+     */
+    public VegasLimitAlgorithm(int probeInterval) {
+        if (probeInterval < 1) {
+            throw new IllegalArgumentException("probeInterval must be a positive integer value >= 1");
+        }
+        this.probeInterval = probeInterval;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double update(double limit, long rttInNanos, int inFlight, boolean dropped) {
+        long rtt = Math.max(1L, rttInNanos);
+        if (rttNoLoadInNanos == 0) {
+            rttNoLoadInNanos = rtt;
+            samplesUntilProbe = probeInterval;
+        } else if (--samplesUntilProbe <= 0) {
+            samplesUntilProbe = probeInterval;
+            rttNoLoadInNanos = rtt;
+            return limit / 2;
+        } else if (rtt < rttNoLoadInNanos) {
+            rttNoLoadInNanos = rtt;
+        }
+
+        double log = Math.max(1.0, Math.log10(limit));
+        if (dropped) {
+            return limit - log;
+        }
+        if (inFlight * 2 < limit) {
+            return limit;
+        }
+
+        double queueSize = Math.ceil(limit * (1.0 - (double) rttNoLoadInNanos / rtt));
+        double alpha = 3 * log;
+        double beta = 6 * log;
+        if (queueSize <= log) {
+            return limit + beta;
+        }
+        if (queueSize < alpha) {
+            return limit + log;
+        }
+        if (queueSize > beta) {
+            return limit - log;
+        }
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return "VegasLimitAlgorithm{probeInterval=" + probeInterval + '}';
+    }
+}
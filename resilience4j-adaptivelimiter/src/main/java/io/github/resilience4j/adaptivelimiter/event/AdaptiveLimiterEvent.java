@@ -0,0 +1,58 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adaptivelimiter.event;
+
+import java.time.ZonedDateTime;
+
+/**
+ * An event which is created by an adaptive limiter.
+ */
+public interface AdaptiveLimiterEvent {
+
+    /**
+     * Returns the name of the adaptive limiter which has created the event.
+     *
+     * @return the name of the adaptive limiter which has created the event
+     */
+    String getAdaptiveLimiterName();
+
+    /**
+     * Returns the type of the adaptive limiter event.
+     *
+     * @return the type of the adaptive limiter event
+     */
+    Type getEventType();
+
+    /**
+     * Returns the creation time of adaptive limiter event.
+     *
+     * @return the creation time of adaptive limiter event
+     */
+    ZonedDateTime getCreationTime();
+
+    /**
+     * Event types which are created by an adaptive limiter.
+     */
+    enum Type {
+        /** An AdaptiveLimiterEvent which informs that a call was rejected due to the limit being reached */
+        CALL_REJECTED,
+        /** An AdaptiveLimiterEvent which informs that the limit of concurrent calls has changed */
+        LIMIT_CHANGED,
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adaptivelimiter.event;
+
+/**
+ * An AdaptiveLimiterEvent which informs that a call has been rejected, because the limit of concurrent calls is reached.
+ */
+public class AdaptiveLimiterOnCallRejectedEvent extends AbstractAdaptiveLimiterEvent {
+
+    public AdaptiveLimiterOnCallRejectedEvent(String adaptiveLimiterName) {
+        super(adaptiveLimiterName);
+    }
+
+    @Override
+    public Type getEventType() {
+        return Type.CALL_REJECTED;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: AdaptiveLimiter '%s' rejected a call.",
+                   getCreationTime(),
+                   getAdaptiveLimiterName()
+               );
+    }
+}
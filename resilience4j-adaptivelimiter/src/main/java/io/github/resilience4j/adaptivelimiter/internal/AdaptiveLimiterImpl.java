@@ -0,0 +1,206 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adaptivelimiter.internal;
+
+import io.github.resilience4j.adaptivelimiter.AdaptiveLimiter;
+import io.github.resilience4j.adaptivelimiter.AdaptiveLimiterConfig;
+import io.github.resilience4j.adaptivelimiter.algorithm.LimitAlgorithm;
+import io.github.resilience4j.adaptivelimiter.event.AdaptiveLimiterEvent;
+import io.github.resilience4j.adaptivelimiter.event.AdaptiveLimiterOnCallRejectedEvent;
+import io.github.resilience4j.adaptivelimiter.event.AdaptiveLimiterOnLimitChangedEvent;
+import io.github.resilience4j.core.EventConsumer;
+import io.github.resilience4j.core.EventProcessor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An AdaptiveLimiter implementation, which counts the calls in flight with an {@link AtomicInteger}.
+ * <p>Permits are acquired with a compare-and-set against the current limit, which is a volatile field.
+ * <p>The samples of completed calls are collected in windows of {@code limit} calls, which is roughly one
+ * round-trip of a fully used limiter, like the congestion window of TCP. At the end of each window the
+ * {@link LimitAlgorithm} is updated once with the average round-trip time, the maximum number of calls in flight
+ * and whether any call was dropped. Updating the limit after every single call would overshoot at high call rates.
+ * The exact limit is kept as a double and the limiter exposes its integer part.
+ */
+public class AdaptiveLimiterImpl implements AdaptiveLimiter {
+
+    private static final String NAME_MUST_NOT_BE_NULL = "Name must not be null";
+    private static final String CONFIG_MUST_NOT_BE_NULL = "Config must not be null";
+
+    private final String name;
+    private final AdaptiveLimiterConfig adaptiveLimiterConfig;
+    private final LimitAlgorithm limitAlgorithm;
+    private final AtomicInteger inFlight;
+    private final AdaptiveLimiterMetrics metrics;
+    private final AdaptiveLimiterEventProcessor eventProcessor;
+    private double exactLimit;
+    private volatile int limit;
+    private int windowSamples;
+    private long windowRttSumInNanos;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    /**
+     * Creates an adaptive limiter using a custom configuration
+     *
+     * @param name the name of this adaptive limiter
+     * @param adaptiveLimiterConfig custom adaptive limiter configuration
+     */
+    public AdaptiveLimiterImpl(String name, AdaptiveLimiterConfig adaptiveLimiterConfig) {
+        this.name = requireNonNull(name, NAME_MUST_NOT_BE_NULL);
+        this.adaptiveLimiterConfig = requireNonNull(adaptiveLimiterConfig, CONFIG_MUST_NOT_BE_NULL);
+        this.limitAlgorithm = adaptiveLimiterConfig.getLimitAlgorithmSupplier().get();
+        this.inFlight = new AtomicInteger(0);
+        this.exactLimit = adaptiveLimiterConfig.getInitialLimit();
+        this.limit = adaptiveLimiterConfig.getInitialLimit();
+        this.metrics = new AdaptiveLimiterMetrics();
+        this.eventProcessor = new AdaptiveLimiterEventProcessor();
+    }
+
+    @Override
+    public boolean isCallPermitted() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                publishAdaptiveLimiterEvent(() -> new AdaptiveLimiterOnCallRejectedEvent(name));
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    @Override
+    public void onSuccess(long durationInNanos) {
+        int inFlightCalls = inFlight.getAndDecrement();
+        updateLimit(durationInNanos, inFlightCalls, false);
+    }
+
+    @Override
+    public void onError(long durationInNanos, Throwable throwable) {
+        int inFlightCalls = inFlight.getAndDecrement();
+        if (adaptiveLimiterConfig.getRecordDropPredicate().test(throwable)) {
+            updateLimit(durationInNanos, inFlightCalls, true);
+        }
+    }
+
+    private void updateLimit(long durationInNanos, int inFlightCalls, boolean dropped) {
+        int previousLimit;
+        int newLimit;
+        synchronized (this) {
+            windowSamples++;
+            windowRttSumInNanos += durationInNanos;
+            windowMaxInFlight = Math.max(windowMaxInFlight, inFlightCalls);
+            windowDropped |= dropped;
+            if (windowSamples < limit) {
+                return;
+            }
+            long averageRttInNanos = windowRttSumInNanos / windowSamples;
+            int maxInFlight = windowMaxInFlight;
+            boolean anyDropped = windowDropped;
+            windowSamples = 0;
+            windowRttSumInNanos = 0;
+            windowMaxInFlight = 0;
+            windowDropped = false;
+
+            previousLimit = limit;
+            double updatedLimit = limitAlgorithm.update(exactLimit, averageRttInNanos, maxInFlight, anyDropped);
+            exactLimit = Math.max(adaptiveLimiterConfig.getMinLimit(), Math.min(adaptiveLimiterConfig.getMaxLimit(), updatedLimit));
+            newLimit = (int) exactLimit;
+            limit = newLimit;
+        }
+        if (previousLimit != newLimit) {
+            publishAdaptiveLimiterEvent(() -> new AdaptiveLimiterOnLimitChangedEvent(name, previousLimit, newLimit));
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public AdaptiveLimiterConfig getAdaptiveLimiterConfig() {
+        return adaptiveLimiterConfig;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return eventProcessor;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AdaptiveLimiter '%s'", this.name);
+    }
+
+    private void publishAdaptiveLimiterEvent(Supplier<AdaptiveLimiterEvent> eventSupplier) {
+        if (eventProcessor.hasConsumers()) {
+            eventProcessor.consumeEvent(eventSupplier.get());
+        }
+    }
+
+    private class AdaptiveLimiterEventProcessor extends EventProcessor<AdaptiveLimiterEvent> implements EventPublisher, EventConsumer<AdaptiveLimiterEvent> {
+
+        @Override
+        public EventPublisher onCallRejected(EventConsumer<AdaptiveLimiterOnCallRejectedEvent> onCallRejectedEventConsumer) {
+            registerConsumer(AdaptiveLimiterOnCallRejectedEvent.class, onCallRejectedEventConsumer);
+            return this;
+        }
+
+        @Override
+        public EventPublisher onLimitChanged(EventConsumer<AdaptiveLimiterOnLimitChangedEvent> onLimitChangedEventConsumer) {
+            registerConsumer(AdaptiveLimiterOnLimitChangedEvent.class, onLimitChangedEventConsumer);
+            return this;
+        }
+
+        @Override
+        public void consumeEvent(AdaptiveLimiterEvent event) {
+            super.processEvent(event);
+        }
+    }
+
+    private final class AdaptiveLimiterMetrics implements Metrics {
+        private AdaptiveLimiterMetrics() {
+        }
+
+        @Override
+        public int getLimit() {
+            return limit;
+        }
+
+        @Override
+        public int getNumberOfInFlightCalls() {
+            return inFlight.get();
+        }
+
+        @Override
+        public int getAvailableConcurrentCalls() {
+            return limit - inFlight.get();
+        }
+    }
+}
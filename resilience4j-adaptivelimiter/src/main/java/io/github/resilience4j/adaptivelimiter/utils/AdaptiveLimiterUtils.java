@@ -0,0 +1,33 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adaptivelimiter.utils;
+
+import io.github.resilience4j.adaptivelimiter.AdaptiveLimiter;
+import io.github.resilience4j.adaptivelimiter.AdaptiveLimiterFullException;
+
+public final class AdaptiveLimiterUtils {
+
+    private AdaptiveLimiterUtils(){}
+
+    public static void isCallPermitted(AdaptiveLimiter adaptiveLimiter) {
+        if(!adaptiveLimiter.isCallPermitted()) {
+            throw new AdaptiveLimiterFullException(String.format("AdaptiveLimiter '%s' is full", adaptiveLimiter.getName()));
+        }
+    }
+}
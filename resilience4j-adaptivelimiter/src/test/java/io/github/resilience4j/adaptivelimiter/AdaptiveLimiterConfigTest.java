@@ -0,0 +1,84 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adaptivelimiter;
+
+import io.github.resilience4j.adaptivelimiter.algorithm.VegasLimitAlgorithm;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class AdaptiveLimiterConfigTest {
+
+    @Test
+    public void builderDefaults() {
+        AdaptiveLimiterConfig config = AdaptiveLimiterConfig.ofDefaults();
+
+        then(config.getInitialLimit()).isEqualTo(AdaptiveLimiterConfig.DEFAULT_INITIAL_LIMIT);
+        then(config.getMinLimit()).isEqualTo(AdaptiveLimiterConfig.DEFAULT_MIN_LIMIT);
+        then(config.getMaxLimit()).isEqualTo(AdaptiveLimiterConfig.DEFAULT_MAX_LIMIT);
+        then(config.getLimitAlgorithmSupplier().get()).isNotNull();
+        then(config.getRecordDropPredicate().test(new IOException())).isTrue();
+    }
+
+    @Test
+    public void builderCustom() {
+        AdaptiveLimiterConfig config = AdaptiveLimiterConfig.custom()
+            .initialLimit(10)
+            .minLimit(5)
+            .maxLimit(50)
+            .limitAlgorithm(VegasLimitAlgorithm::new)
+            .recordDrop(throwable -> throwable instanceof TimeoutException)
+            .build();
+
+        then(config.getInitialLimit()).isEqualTo(10);
+        then(config.getMinLimit()).isEqualTo(5);
+        then(config.getMaxLimit()).isEqualTo(50);
+        then(config.getLimitAlgorithmSupplier().get()).isInstanceOf(VegasLimitAlgorithm.class);
+        then(config.getRecordDropPredicate().test(new TimeoutException())).isTrue();
+        then(config.getRecordDropPredicate().test(new IOException())).isFalse();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroInitialLimitShouldFail() {
+        AdaptiveLimiterConfig.custom().initialLimit(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroMinLimitShouldFail() {
+        AdaptiveLimiterConfig.custom().minLimit(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void minLimitGreaterThanMaxLimitShouldFail() {
+        AdaptiveLimiterConfig.custom().minLimit(10).maxLimit(5).initialLimit(5).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void initialLimitOutsideOfBoundsShouldFail() {
+        AdaptiveLimiterConfig.custom().minLimit(10).maxLimit(20).initialLimit(30).build();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullLimitAlgorithmShouldFail() {
+        AdaptiveLimiterConfig.custom().limitAlgorithm(null);
+    }
+}
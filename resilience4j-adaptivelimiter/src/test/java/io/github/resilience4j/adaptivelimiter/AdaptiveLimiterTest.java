@@ -0,0 +1,147 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adaptivelimiter;
+
+import io.vavr.CheckedFunction0;
+import io.vavr.control.Try;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class AdaptiveLimiterTest {
+
+    private AdaptiveLimiterConfig config;
+
+    @Before
+    public void setUp() {
+        config = AdaptiveLimiterConfig.custom()
+            .initialLimit(1)
+            .maxLimit(10)
+            .recordDrop(throwable -> throwable instanceof TimeoutException)
+            .build();
+    }
+
+    @Test
+    public void shouldDecorateSupplierAndReturnWithSuccess() {
+        AdaptiveLimiter adaptiveLimiter = AdaptiveLimiter.of("test", config);
+
+        Supplier<String> supplier = AdaptiveLimiter.decorateSupplier(adaptiveLimiter, () -> "Hello world");
+
+        then(supplier.get()).isEqualTo("Hello world");
+        then(adaptiveLimiter.getMetrics().getNumberOfInFlightCalls()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldDecorateCheckedSupplierAndReturnWithException() {
+        AdaptiveLimiter adaptiveLimiter = AdaptiveLimiter.of("test", config);
+
+        CheckedFunction0<String> supplier = AdaptiveLimiter.decorateCheckedSupplier(adaptiveLimiter, () -> {
+            throw new IOException("BAM!");
+        });
+        Try<String> result = Try.of(supplier);
+
+        then(result.isFailure()).isTrue();
+        then(result.failed().get()).isInstanceOf(IOException.class);
+        then(adaptiveLimiter.getMetrics().getNumberOfInFlightCalls()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldDecorateFunctionAndReturnWithSuccess() {
+        AdaptiveLimiter adaptiveLimiter = AdaptiveLimiter.of("test", config);
+
+        Function<String, Integer> function = AdaptiveLimiter.decorateFunction(adaptiveLimiter, String::length);
+
+        then(function.apply("Hello")).isEqualTo(5);
+        then(adaptiveLimiter.getMetrics().getNumberOfInFlightCalls()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldRejectCallsAboveTheLimit() {
+        AdaptiveLimiter adaptiveLimiter = AdaptiveLimiter.of("test", config);
+        adaptiveLimiter.isCallPermitted();
+
+        Supplier<String> supplier = AdaptiveLimiter.decorateSupplier(adaptiveLimiter, () -> "Hello world");
+
+        assertThatThrownBy(supplier::get)
+            .isInstanceOf(AdaptiveLimiterFullException.class)
+            .hasMessage("AdaptiveLimiter 'test' is full");
+        then(adaptiveLimiter.getMetrics().getNumberOfInFlightCalls()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldDecorateCompletionStageAndReleaseThePermissionOnCompletion() throws Exception {
+        AdaptiveLimiter adaptiveLimiter = AdaptiveLimiter.of("test", config);
+        CompletableFuture<String> future = new CompletableFuture<>();
+
+        Supplier<CompletionStage<String>> supplier = AdaptiveLimiter.decorateCompletionStage(adaptiveLimiter, () -> future);
+        CompletionStage<String> stage = supplier.get();
+
+        then(adaptiveLimiter.getMetrics().getNumberOfInFlightCalls()).isEqualTo(1);
+        future.complete("Hello world");
+        then(stage.toCompletableFuture().get()).isEqualTo("Hello world");
+        then(adaptiveLimiter.getMetrics().getNumberOfInFlightCalls()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldFailCompletionStageWhenFull() {
+        AdaptiveLimiter adaptiveLimiter = AdaptiveLimiter.of("test", config);
+        adaptiveLimiter.isCallPermitted();
+
+        CompletionStage<String> stage = AdaptiveLimiter
+            .decorateCompletionStage(adaptiveLimiter, () -> CompletableFuture.completedFuture("Hello world"))
+            .get();
+
+        assertThatThrownBy(() -> stage.toCompletableFuture().get())
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(AdaptiveLimiterFullException.class);
+    }
+
+    @Test
+    public void onlyDroppedCallsShouldDecreaseTheLimit() {
+        AdaptiveLimiter adaptiveLimiter = AdaptiveLimiter.of("test", AdaptiveLimiterConfig.custom()
+            .initialLimit(4)
+            .recordDrop(throwable -> throwable instanceof TimeoutException)
+            .build());
+
+        for (int i = 0; i < 4; i++) {
+            Try.run(() -> adaptiveLimiter.executeCallable(() -> {
+                throw new IOException("BAM!");
+            }));
+        }
+        then(adaptiveLimiter.getMetrics().getLimit()).isEqualTo(4);
+
+        for (int i = 0; i < 4; i++) {
+            Try.run(() -> adaptiveLimiter.executeCallable(() -> {
+                throw new TimeoutException();
+            }));
+        }
+        then(adaptiveLimiter.getMetrics().getLimit()).isEqualTo(3);
+        then(adaptiveLimiter.getMetrics().getNumberOfInFlightCalls()).isEqualTo(0);
+    }
+}
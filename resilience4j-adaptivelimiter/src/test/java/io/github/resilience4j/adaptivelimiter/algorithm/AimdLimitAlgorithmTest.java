@@ -0,0 +1,54 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adaptivelimiter.algorithm;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class AimdLimitAlgorithmTest {
+
+    private static final long RTT = 1_000_000L;
+
+    @Test
+    public void shouldIncreaseTheLimitWhenUsed() {
+        AimdLimitAlgorithm algorithm = new AimdLimitAlgorithm();
+
+        then(algorithm.update(10, RTT, 10, false)).isEqualTo(11);
+    }
+
+    @Test
+    public void shouldKeepTheLimitWhenMostlyUnused() {
+        AimdLimitAlgorithm algorithm = new AimdLimitAlgorithm();
+
+        then(algorithm.update(10, RTT, 4, false)).isEqualTo(10);
+    }
+
+    @Test
+    public void shouldBackOffOnDrop() {
+        AimdLimitAlgorithm algorithm = new AimdLimitAlgorithm(0.5);
+
+        then(algorithm.update(10, RTT, 10, true)).isEqualTo(5.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBackoffRatioShouldFail() {
+        new AimdLimitAlgorithm(1.5);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adaptivelimiter.algorithm;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class GradientLimitAlgorithmTest {
+
+    private static final long RTT = 1_000_000L;
+
+    @Test
+    public void shouldIncreaseTheLimitWhileTheLatencyIsStable() {
+        GradientLimitAlgorithm algorithm = new GradientLimitAlgorithm();
+
+        then(algorithm.update(100, RTT, 100, false)).isGreaterThan(100);
+    }
+
+    @Test
+    public void shouldDecreaseTheLimitWhenTheLatencyGrows() {
+        GradientLimitAlgorithm algorithm = new GradientLimitAlgorithm();
+        for (int i = 0; i < 20; i++) {
+            algorithm.update(100, RTT, 100, false);
+        }
+
+        then(algorithm.update(100, 2 * RTT, 100, false)).isLessThan(100);
+    }
+
+    @Test
+    public void shouldDecreaseTheLimitOnDrop() {
+        GradientLimitAlgorithm algorithm = new GradientLimitAlgorithm();
+
+        then(algorithm.update(100, RTT, 100, true)).isLessThan(100);
+    }
+
+    @Test
+    public void shouldKeepTheLimitWhenMostlyUnused() {
+        GradientLimitAlgorithm algorithm = new GradientLimitAlgorithm();
+
+        then(algorithm.update(100, 2 * RTT, 10, false)).isEqualTo(100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSmoothingShouldFail() {
+        new GradientLimitAlgorithm(0, 100);
+    }
+}
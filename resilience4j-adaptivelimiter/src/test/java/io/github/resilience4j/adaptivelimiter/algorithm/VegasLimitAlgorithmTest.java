@@ -0,0 +1,68 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adaptivelimiter.algorithm;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class VegasLimitAlgorithmTest {
+
+    private static final long RTT = 1_000_000L;
+
+    @Test
+    public void shouldIncreaseTheLimitWithoutQueueing() {
+        VegasLimitAlgorithm algorithm = new VegasLimitAlgorithm();
+
+        double limit = algorithm.update(10, RTT, 10, false);
+
+        then(algorithm.update(limit, RTT, (int) limit, false)).isGreaterThan(limit);
+    }
+
+    @Test
+    public void shouldDecreaseTheLimitWhenRequestsAreQueued() {
+        VegasLimitAlgorithm algorithm = new VegasLimitAlgorithm();
+        algorithm.update(100, RTT, 100, false);
+
+        then(algorithm.update(100, 2 * RTT, 100, false)).isLessThan(100);
+    }
+
+    @Test
+    public void shouldDecreaseTheLimitOnDrop() {
+        VegasLimitAlgorithm algorithm = new VegasLimitAlgorithm();
+        algorithm.update(100, RTT, 100, false);
+
+        then(algorithm.update(100, RTT, 100, true)).isLessThan(100);
+    }
+
+    @Test
+    public void shouldHalveTheLimitWhenProbing() {
+        VegasLimitAlgorithm algorithm = new VegasLimitAlgorithm(2);
+        algorithm.update(100, RTT, 100, false);
+        algorithm.update(100, 2 * RTT, 100, false);
+
+        then(algorithm.update(100, 2 * RTT, 100, false)).isEqualTo(50);
+        then(algorithm.update(50, RTT, 50, false)).isGreaterThan(50);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidProbeIntervalShouldFail() {
+        new VegasLimitAlgorithm(0);
+    }
+}
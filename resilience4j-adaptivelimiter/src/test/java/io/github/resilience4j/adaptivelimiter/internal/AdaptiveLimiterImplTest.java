@@ -0,0 +1,143 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adaptivelimiter.internal;
+
+import io.github.resilience4j.adaptivelimiter.AdaptiveLimiterConfig;
+import io.github.resilience4j.adaptivelimiter.event.AdaptiveLimiterEvent;
+import io.github.resilience4j.adaptivelimiter.event.AdaptiveLimiterOnLimitChangedEvent;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class AdaptiveLimiterImplTest {
+
+    private static final long RTT = 1_000_000L;
+
+    @Test
+    public void shouldPermitCallsUpToTheLimit() {
+        AdaptiveLimiterImpl adaptiveLimiter = new AdaptiveLimiterImpl("test", AdaptiveLimiterConfig.custom()
+            .initialLimit(2)
+            .build());
+        List<AdaptiveLimiterEvent> events = new ArrayList<>();
+        adaptiveLimiter.getEventPublisher().onCallRejected(events::add);
+
+        then(adaptiveLimiter.isCallPermitted()).isTrue();
+        then(adaptiveLimiter.isCallPermitted()).isTrue();
+        then(adaptiveLimiter.isCallPermitted()).isFalse();
+        then(adaptiveLimiter.getMetrics().getNumberOfInFlightCalls()).isEqualTo(2);
+        then(adaptiveLimiter.getMetrics().getAvailableConcurrentCalls()).isEqualTo(0);
+        then(events).hasSize(1);
+        then(events.get(0).getEventType()).isEqualTo(AdaptiveLimiterEvent.Type.CALL_REJECTED);
+    }
+
+    @Test
+    public void shouldUpdateTheLimitOncePerWindow() {
+        AdaptiveLimiterImpl adaptiveLimiter = new AdaptiveLimiterImpl("test", AdaptiveLimiterConfig.custom()
+            .initialLimit(4)
+            .limitAlgorithm(() -> (limit, rttInNanos, inFlight, dropped) -> limit + 1)
+            .build());
+        List<AdaptiveLimiterOnLimitChangedEvent> events = new ArrayList<>();
+        adaptiveLimiter.getEventPublisher().onLimitChanged(events::add);
+
+        completeCalls(adaptiveLimiter, 3);
+        then(adaptiveLimiter.getMetrics().getLimit()).isEqualTo(4);
+
+        completeCalls(adaptiveLimiter, 1);
+        then(adaptiveLimiter.getMetrics().getLimit()).isEqualTo(5);
+
+        completeCalls(adaptiveLimiter, 4);
+        then(adaptiveLimiter.getMetrics().getLimit()).isEqualTo(5);
+        completeCalls(adaptiveLimiter, 1);
+        then(adaptiveLimiter.getMetrics().getLimit()).isEqualTo(6);
+
+        then(events).hasSize(2);
+        then(events.get(0).getPreviousLimit()).isEqualTo(4);
+        then(events.get(0).getNewLimit()).isEqualTo(5);
+        then(events.get(1).getEventType()).isEqualTo(AdaptiveLimiterEvent.Type.LIMIT_CHANGED);
+    }
+
+    @Test
+    public void shouldPassTheAggregatedWindowToTheAlgorithm() {
+        long[] samples = new long[3];
+        AdaptiveLimiterImpl adaptiveLimiter = new AdaptiveLimiterImpl("test", AdaptiveLimiterConfig.custom()
+            .initialLimit(2)
+            .limitAlgorithm(() -> (limit, rttInNanos, inFlight, dropped) -> {
+                samples[0] = rttInNanos;
+                samples[1] = inFlight;
+                samples[2] = dropped ? 1 : 0;
+                return limit;
+            })
+            .build());
+
+        adaptiveLimiter.isCallPermitted();
+        adaptiveLimiter.isCallPermitted();
+        adaptiveLimiter.onSuccess(RTT);
+        adaptiveLimiter.onError(3 * RTT, new IOException("BAM!"));
+
+        then(samples[0]).isEqualTo(2 * RTT);
+        then(samples[1]).isEqualTo(2);
+        then(samples[2]).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldKeepTheLimitWithinBounds() {
+        AdaptiveLimiterImpl growing = new AdaptiveLimiterImpl("test", AdaptiveLimiterConfig.custom()
+            .initialLimit(2)
+            .maxLimit(3)
+            .limitAlgorithm(() -> (limit, rttInNanos, inFlight, dropped) -> limit * 10)
+            .build());
+        AdaptiveLimiterImpl shrinking = new AdaptiveLimiterImpl("test", AdaptiveLimiterConfig.custom()
+            .initialLimit(2)
+            .minLimit(2)
+            .limitAlgorithm(() -> (limit, rttInNanos, inFlight, dropped) -> 0)
+            .build());
+
+        completeCalls(growing, 2);
+        completeCalls(shrinking, 2);
+
+        then(growing.getMetrics().getLimit()).isEqualTo(3);
+        then(shrinking.getMetrics().getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldIgnoreErrorsWhichAreNotDrops() {
+        AdaptiveLimiterImpl adaptiveLimiter = new AdaptiveLimiterImpl("test", AdaptiveLimiterConfig.custom()
+            .initialLimit(1)
+            .limitAlgorithm(() -> (limit, rttInNanos, inFlight, dropped) -> limit + 1)
+            .recordDrop(throwable -> false)
+            .build());
+
+        adaptiveLimiter.isCallPermitted();
+        adaptiveLimiter.onError(RTT, new IOException("BAM!"));
+
+        then(adaptiveLimiter.getMetrics().getLimit()).isEqualTo(1);
+        then(adaptiveLimiter.getMetrics().getNumberOfInFlightCalls()).isEqualTo(0);
+    }
+
+    private static void completeCalls(AdaptiveLimiterImpl adaptiveLimiter, int calls) {
+        for (int i = 0; i < calls; i++) {
+            then(adaptiveLimiter.isCallPermitted()).isTrue();
+            adaptiveLimiter.onSuccess(RTT);
+        }
+    }
+}
@@ -49,10 +49,18 @@ public class BulkheadBenchmark {
     private static final int WARMUP_COUNT = 10;
     private static final int THREAD_COUNT = 2;
     private static final int FORK_COUNT = 2;
+    private static final int CONTENDED_THREAD_COUNT = 4;
+    private static final long MAX_WAIT_TIME = 100;
 
     private Supplier<String> protectedSupplier;
     private Supplier<String> protectedSupplierWithSb;
     private Supplier<String> stringSupplier;
+    private Bulkhead fairSemaphoreBulkhead;
+    private Bulkhead unfairSemaphoreBulkhead;
+    private Bulkhead fairAtomicBulkhead;
+    private Bulkhead unfairAtomicBulkhead;
+    private Bulkhead nonWaitingSemaphoreBulkhead;
+    private Bulkhead nonWaitingAtomicBulkhead;
 
     public static void main(String[] args) throws RunnerException {
         Options options = new OptionsBuilder()
@@ -79,6 +87,33 @@ public class BulkheadBenchmark {
         Bulkhead bulkheadWithSubscriber = Bulkhead.of("test-with-subscriber", config);
         RxJava2Adapter.toFlowable(bulkheadWithSubscriber.getEventPublisher()).subscribe();
         protectedSupplierWithSb = Bulkhead.decorateSupplier(bulkheadWithSubscriber, stringSupplier);
+
+        fairSemaphoreBulkhead = Bulkhead.of("fair-semaphore", contendedConfig(BulkheadConfig.BulkheadType.SEMAPHORE, true, MAX_WAIT_TIME));
+        unfairSemaphoreBulkhead = Bulkhead.of("unfair-semaphore", contendedConfig(BulkheadConfig.BulkheadType.SEMAPHORE, false, MAX_WAIT_TIME));
+        fairAtomicBulkhead = Bulkhead.of("fair-atomic", contendedConfig(BulkheadConfig.BulkheadType.ATOMIC, true, MAX_WAIT_TIME));
+        unfairAtomicBulkhead = Bulkhead.of("unfair-atomic", contendedConfig(BulkheadConfig.BulkheadType.ATOMIC, false, MAX_WAIT_TIME));
+        nonWaitingSemaphoreBulkhead = Bulkhead.of("non-waiting-semaphore", contendedConfig(BulkheadConfig.BulkheadType.SEMAPHORE, true, 0));
+        nonWaitingAtomicBulkhead = Bulkhead.of("non-waiting-atomic", contendedConfig(BulkheadConfig.BulkheadType.ATOMIC, true, 0));
+    }
+
+    private static BulkheadConfig contendedConfig(BulkheadConfig.BulkheadType bulkheadType, boolean fair, long maxWaitTime) {
+        return BulkheadConfig.custom()
+            .bulkheadType(bulkheadType)
+            .fairCallHandling(fair)
+            .maxConcurrentCalls(2)
+            .maxWaitTime(maxWaitTime)
+            .build();
+    }
+
+    private String callThrough(Bulkhead bulkhead) {
+        if (!bulkhead.isCallPermitted()) {
+            return null;
+        }
+        try {
+            return stringSupplier.get();
+        } finally {
+            bulkhead.onComplete();
+        }
     }
 
     @Benchmark
@@ -107,4 +142,58 @@ public class BulkheadBenchmark {
     public String protectedSupplierWithSubscriber() {
         return protectedSupplierWithSb.get();
     }
-}
\ No newline at end of file
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = CONTENDED_THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public String contendedFairSemaphore() {
+        return callThrough(fairSemaphoreBulkhead);
+    }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = CONTENDED_THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public String contendedUnfairSemaphore() {
+        return callThrough(unfairSemaphoreBulkhead);
+    }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = CONTENDED_THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public String contendedFairAtomic() {
+        return callThrough(fairAtomicBulkhead);
+    }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = CONTENDED_THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public String contendedUnfairAtomic() {
+        return callThrough(unfairAtomicBulkhead);
+    }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = CONTENDED_THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public String contendedNonWaitingSemaphore() {
+        return callThrough(nonWaitingSemaphoreBulkhead);
+    }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = CONTENDED_THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public String contendedNonWaitingAtomic() {
+        return callThrough(nonWaitingAtomicBulkhead);
+    }
+}
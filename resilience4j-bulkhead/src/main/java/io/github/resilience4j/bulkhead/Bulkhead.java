@@ -21,6 +21,8 @@ package io.github.resilience4j.bulkhead;
 import io.github.resilience4j.bulkhead.event.BulkheadEvent;
 import io.github.resilience4j.bulkhead.event.BulkheadOnCallPermittedEvent;
 import io.github.resilience4j.bulkhead.event.BulkheadOnCallRejectedEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnConfigChangedEvent;
+import io.github.resilience4j.bulkhead.internal.AtomicBulkhead;
 import io.github.resilience4j.bulkhead.internal.SemaphoreBulkhead;
 import io.github.resilience4j.bulkhead.utils.BulkheadUtils;
 import io.github.resilience4j.core.EventConsumer;
@@ -65,6 +67,57 @@ public interface Bulkhead {
      */
     void onComplete();
 
+    /**
+     * Acquires a permit, which allows a call to be executed, without blocking the calling thread.
+     * <p>The returned CompletionStage is completed with a {@link Permit} as soon as the bulkhead has a free slot.
+     * It is completed exceptionally with a {@link BulkheadFullException} if no slot became free within the max wait time.
+     * The permit must be released exactly once, when the call has completed.
+     * <p>The default implementation falls back to {@link Bulkhead#isCallPermitted()} and may block the calling thread.
+     *
+     * @return a CompletionStage which is completed with a permit
+     */
+    default CompletionStage<Permit> acquirePermit() {
+        final CompletableFuture<Permit> promise = new CompletableFuture<>();
+        if (isCallPermitted()) {
+            promise.complete(this::onComplete);
+        }
+        else {
+            promise.completeExceptionally(new BulkheadFullException(String.format("Bulkhead '%s' is full", getName())));
+        }
+        return promise;
+    }
+
+    /**
+     * Dynamic bulkhead configuration change.
+     * This method allows to change the max concurrent calls and the max wait time at runtime.
+     * The new configuration is returned by {@link #getBulkheadConfig()} immediately.
+     * If the max concurrent calls grow, the additional slots are available immediately and are handed over
+     * to waiting calls first. If they shrink, calls which have already been permitted are not affected.
+     * The difference is absorbed as these calls complete, so no further calls are permitted until the number
+     * of calls in flight has dropped below the new max concurrent calls.
+     * A {@link BulkheadOnConfigChangedEvent} is published for every change.
+     * NOTE! The bulkhead type is chosen when the bulkhead is created and can't be changed.
+     * A semaphore based bulkhead keeps the fair call handling it was created with.
+     * Bulkheads which don't support dynamic configuration changes throw an {@link UnsupportedOperationException}.
+     *
+     * @param newConfig new configuration
+     */
+    default void changeConfig(BulkheadConfig newConfig) {
+        throw new UnsupportedOperationException("Bulkhead '" + getName() + "' does not support configuration changes");
+    }
+
+    /**
+     * Dynamic bulkhead configuration change.
+     * This method allows to change the max concurrent calls, see {@link #changeConfig(BulkheadConfig)}.
+     *
+     * @param maxConcurrentCalls new max concurrent calls
+     */
+    default void changeMaxConcurrentCalls(int maxConcurrentCalls) {
+        changeConfig(BulkheadConfig.from(getBulkheadConfig())
+                                   .maxConcurrentCalls(maxConcurrentCalls)
+                                   .build());
+    }
+
     /**
      * Returns the name of this bulkhead.
      *
@@ -160,6 +213,8 @@ public interface Bulkhead {
 
     /**
      * Returns a supplier which is decorated by a bulkhead.
+     * The permit is acquired with {@link Bulkhead#acquirePermit()}, so the supplier may be invoked
+     * later on the thread which released a slot of the bulkhead.
      *
      * @param bulkhead the bulkhead
      * @param supplier the original supplier
@@ -171,29 +226,33 @@ public interface Bulkhead {
 
             final CompletableFuture<T> promise = new CompletableFuture<>();
 
-            if (!bulkhead.isCallPermitted()) {
-                promise.completeExceptionally(new BulkheadFullException(String.format("Bulkhead '%s' is open", bulkhead.getName())));
-            }
-            else {
-                try {
-                    supplier.get()
-                            .whenComplete(
-                                (result, throwable) -> {
-                                    bulkhead.onComplete();
-                                    if (throwable != null) {
-                                        promise.completeExceptionally(throwable);
-                                    }
-                                    else {
-                                        promise.complete(result);
-                                    }
-                                }
-                            );
-                }
-                catch (Throwable throwable) {
-                    bulkhead.onComplete();
-                    promise.completeExceptionally(throwable);
-                }
-            }
+            bulkhead.acquirePermit()
+                    .whenComplete(
+                        (permit, permitThrowable) -> {
+                            if (permitThrowable != null) {
+                                promise.completeExceptionally(permitThrowable);
+                                return;
+                            }
+                            try {
+                                supplier.get()
+                                        .whenComplete(
+                                            (result, throwable) -> {
+                                                permit.release();
+                                                if (throwable != null) {
+                                                    promise.completeExceptionally(throwable);
+                                                }
+                                                else {
+                                                    promise.complete(result);
+                                                }
+                                            }
+                                        );
+                            }
+                            catch (Throwable throwable) {
+                                permit.release();
+                                promise.completeExceptionally(throwable);
+                            }
+                        }
+                    );
 
             return promise;
         };
@@ -376,13 +435,17 @@ public interface Bulkhead {
     }
 
     /**
-     * Creates a bulkhead with a custom configuration
+     * Creates a bulkhead with a custom configuration.
+     * The implementation is selected by {@link BulkheadConfig#getBulkheadType()}.
      *
      * @param name the name of the bulkhead
      * @param config a custom BulkheadConfig configuration
      * @return a Bulkhead instance
      */
     static Bulkhead of(String name, BulkheadConfig config) {
+        if (config != null && config.getBulkheadType() == BulkheadConfig.BulkheadType.ATOMIC) {
+            return new AtomicBulkhead(name, config);
+        }
         return new SemaphoreBulkhead(name, config);
     }
 
@@ -394,7 +457,7 @@ public interface Bulkhead {
      * @return a Bulkhead instance
      */
     static Bulkhead of(String name, Supplier<BulkheadConfig> bulkheadConfigSupplier) {
-        return new SemaphoreBulkhead(name, bulkheadConfigSupplier);
+        return of(name, bulkheadConfigSupplier.get());
     }
 
     interface Metrics {
@@ -406,6 +469,58 @@ public interface Bulkhead {
          * @return remaining bulkhead depth
          */
         int getAvailableConcurrentCalls();
+
+        /**
+         * Returns the highest number of calls which have been in flight at the same time since the bulkhead was created.
+         * Bulkheads which don't record statistics return 0.
+         *
+         * @return the high-water mark of calls in flight
+         */
+        default int getMaxInFlightCalls() {
+            return 0;
+        }
+
+        /**
+         * Returns the number of calls which have been permitted since the bulkhead was created.
+         * Bulkheads which don't record statistics return 0.
+         *
+         * @return the number of permitted calls
+         */
+        default long getNumberOfPermittedCalls() {
+            return 0L;
+        }
+
+        /**
+         * Returns the number of calls which have been rejected since the bulkhead was created.
+         * Bulkheads which don't record statistics return 0.
+         *
+         * @return the number of rejected calls
+         */
+        default long getNumberOfRejectedCalls() {
+            return 0L;
+        }
+
+        /**
+         * Returns the histogram of the time calls have waited to enter the bulkhead.
+         * Bulkheads which don't record statistics return an empty histogram.
+         *
+         * @return the wait time histogram
+         */
+        default WaitTimeHistogram getWaitTimeHistogram() {
+            return WaitTimeHistogram.empty();
+        }
+    }
+
+    /**
+     * A permit to execute one call, which has been acquired with {@link Bulkhead#acquirePermit()}.
+     */
+    @FunctionalInterface
+    interface Permit {
+
+        /**
+         * Releases the permit, so that the slot can be used by another call.
+         */
+        void release();
     }
 
     /**
@@ -417,5 +532,9 @@ public interface Bulkhead {
 
         EventPublisher onCallPermitted(EventConsumer<BulkheadOnCallPermittedEvent> eventConsumer);
 
+        default EventPublisher onConfigChanged(EventConsumer<BulkheadOnConfigChangedEvent> eventConsumer) {
+            return this;
+        }
+
     }
 }
@@ -28,6 +28,8 @@ public class BulkheadConfig {
 
     private int maxConcurrentCalls = DEFAULT_MAX_CONCURRENT_CALLS;
     private long maxWaitTime = DEFAULT_MAX_WAIT_TIME;
+    private BulkheadType bulkheadType = BulkheadType.SEMAPHORE;
+    private boolean fairCallHandling = true;
 
     private BulkheadConfig() { }
 
@@ -39,6 +41,14 @@ public class BulkheadConfig {
         return maxWaitTime;
     }
 
+    public BulkheadType getBulkheadType() {
+        return bulkheadType;
+    }
+
+    public boolean isFairCallHandling() {
+        return fairCallHandling;
+    }
+
     /**
      * Returns a builder to create a custom BulkheadConfig.
      *
@@ -48,6 +58,16 @@ public class BulkheadConfig {
         return new Builder();
     }
 
+    /**
+     * Returns a builder to create a custom BulkheadConfig using specified config as prototype
+     *
+     * @param prototype the BulkheadConfig which values are copied
+     * @return a {@link Builder}
+     */
+    public static Builder from(BulkheadConfig prototype) {
+        return new Builder(prototype);
+    }
+
     /**
      * Creates a default Bulkhead configuration.
      *
@@ -61,6 +81,16 @@ public class BulkheadConfig {
 
         private BulkheadConfig config = new BulkheadConfig();
 
+        public Builder() {
+        }
+
+        public Builder(BulkheadConfig prototype) {
+            config.maxConcurrentCalls = prototype.maxConcurrentCalls;
+            config.maxWaitTime = prototype.maxWaitTime;
+            config.bulkheadType = prototype.bulkheadType;
+            config.fairCallHandling = prototype.fairCallHandling;
+        }
+
         /**
          * Configures the max amount of concurrent calls the bulkhead will support.
          *
@@ -93,6 +123,37 @@ public class BulkheadConfig {
             return this;
         }
 
+        /**
+         * Configures the implementation which is created by {@link Bulkhead#of(String, BulkheadConfig)}
+         * and the {@link BulkheadRegistry}.
+         * Default value is {@link BulkheadType#SEMAPHORE}.
+         *
+         * @param bulkheadType the type of the bulkhead
+         * @return the BulkheadConfig.Builder
+         */
+        public Builder bulkheadType(BulkheadType bulkheadType) {
+            if (bulkheadType == null) {
+                throw new IllegalArgumentException("bulkheadType must not be null");
+            }
+            config.bulkheadType = bulkheadType;
+            return this;
+        }
+
+        /**
+         * Configures whether threads waiting to enter a saturated bulkhead are served in arrival order.
+         * It only applies if maxWaitTime is greater than 0, without waiting there is no order to keep.
+         * An unfair bulkhead lets arriving calls take a released slot ahead of waiting calls, which is faster
+         * under contention, but some waiting calls may wait much longer than others.
+         * Default value is true.
+         *
+         * @param fairCallHandling true to serve waiting calls in arrival order
+         * @return the BulkheadConfig.Builder
+         */
+        public Builder fairCallHandling(boolean fairCallHandling) {
+            config.fairCallHandling = fairCallHandling;
+            return this;
+        }
+
         /**
          * Builds a BulkheadConfig
          *
@@ -102,4 +163,14 @@ public class BulkheadConfig {
             return config;
         }
     }
+
+    /**
+     * The implementation of a bulkhead.
+     */
+    public enum BulkheadType {
+        /** Permits are acquired from a {@link java.util.concurrent.Semaphore}, see {@code SemaphoreBulkhead}. */
+        SEMAPHORE,
+        /** Permits are counted by a single atomic counter, see {@code AtomicBulkhead}. */
+        ATOMIC
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler, Lucas Lech
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.bulkhead;
+
+/**
+ * The histogram of bulkheads which don't record waiting times.
+ */
+final class EmptyWaitTimeHistogram implements WaitTimeHistogram {
+
+    static final EmptyWaitTimeHistogram INSTANCE = new EmptyWaitTimeHistogram();
+
+    private EmptyWaitTimeHistogram() {
+    }
+
+    @Override
+    public long[] getBucketUpperBoundsInMillis() {
+        return new long[0];
+    }
+
+    @Override
+    public long[] getBucketCounts() {
+        return new long[1];
+    }
+
+    @Override
+    public long getCount() {
+        return 0L;
+    }
+
+    @Override
+    public long getSumInNanos() {
+        return 0L;
+    }
+}
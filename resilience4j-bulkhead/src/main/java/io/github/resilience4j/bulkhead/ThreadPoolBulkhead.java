@@ -0,0 +1,245 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler, Lucas Lech
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.bulkhead;
+
+import io.github.resilience4j.bulkhead.internal.FixedThreadPoolBulkhead;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * A ThreadPoolBulkhead instance is thread-safe can be used to decorate multiple requests.
+ *
+ * A {@link ThreadPoolBulkhead} executes the calls on its own bounded thread pool instead of the caller's thread.
+ * A slow backend can therefore only block the threads of its bulkhead, while the threads of the caller are free
+ * to serve other requests. The caller gets a {@link CompletionStage} of the result.
+ *
+ * If all threads are busy, calls wait in a bounded queue. If the queue is full as well, the call is rejected
+ * and the returned CompletionStage is completed with a {@link BulkheadFullException}.
+ *
+ * A ThreadPoolBulkhead which is not used anymore must be closed, so that its threads are terminated.
+ */
+public interface ThreadPoolBulkhead extends AutoCloseable {
+
+    /**
+     * Submits a call to the thread pool of this bulkhead.
+     *
+     * @param callable the call
+     * @param <T> the result type of the call
+     * @return a CompletionStage of the result, which is completed exceptionally with a
+     * {@link BulkheadFullException} if the bulkhead is full
+     */
+    <T> CompletionStage<T> submit(Callable<T> callable);
+
+    /**
+     * Submits a call to the thread pool of this bulkhead.
+     *
+     * @param runnable the call
+     * @return a CompletionStage which is completed when the call is finished, or completed exceptionally with a
+     * {@link BulkheadFullException} if the bulkhead is full
+     */
+    CompletionStage<Void> submit(Runnable runnable);
+
+    /**
+     * Returns the name of this bulkhead.
+     *
+     * @return the name of this bulkhead
+     */
+    String getName();
+
+    /**
+     * Returns the ThreadPoolBulkheadConfig of this bulkhead.
+     *
+     * @return bulkhead config
+     */
+    ThreadPoolBulkheadConfig getBulkheadConfig();
+
+    /**
+     * Get the Metrics of this bulkhead.
+     *
+     * @return the Metrics of this bulkhead
+     */
+    Metrics getMetrics();
+
+    /**
+     * Returns an EventPublisher which subscribes to the reactive stream of BulkheadEvent and
+     * can be used to register event consumers.
+     *
+     * @return an EventPublisher
+     */
+    Bulkhead.EventPublisher getEventPublisher();
+
+    /**
+     * Stops accepting calls and terminates the threads of this bulkhead after the submitted calls are finished.
+     */
+    @Override
+    void close();
+
+    /**
+     * Decorates and executes the decorated Supplier on the thread pool of this bulkhead.
+     *
+     * @param supplier the original Supplier
+     * @param <T> the type of results supplied by this supplier
+     * @return a CompletionStage of the result of the decorated Supplier.
+     */
+    default <T> CompletionStage<T> executeSupplier(Supplier<T> supplier){
+        return decorateSupplier(this, supplier).get();
+    }
+
+    /**
+     * Decorates and executes the decorated Callable on the thread pool of this bulkhead.
+     *
+     * @param callable the original Callable
+     * @param <T> the result type of callable
+     * @return a CompletionStage of the result of the decorated Callable.
+     */
+    default <T> CompletionStage<T> executeCallable(Callable<T> callable){
+        return decorateCallable(this, callable).get();
+    }
+
+    /**
+     * Decorates and executes the decorated Runnable on the thread pool of this bulkhead.
+     *
+     * @param runnable the original Runnable
+     * @return a CompletionStage which is completed when the Runnable is finished.
+     */
+    default CompletionStage<Void> executeRunnable(Runnable runnable){
+        return decorateRunnable(this, runnable).get();
+    }
+
+    /**
+     * Returns a supplier which submits the original supplier to the thread pool of a bulkhead.
+     *
+     * @param bulkhead the bulkhead
+     * @param supplier the original supplier
+     * @param <T> the type of results supplied by this supplier
+     * @return a supplier which is decorated by a ThreadPoolBulkhead.
+     */
+    static <T> Supplier<CompletionStage<T>> decorateSupplier(ThreadPoolBulkhead bulkhead, Supplier<T> supplier){
+        return () -> bulkhead.submit(supplier::get);
+    }
+
+    /**
+     * Returns a supplier which submits the original callable to the thread pool of a bulkhead.
+     *
+     * @param bulkhead the bulkhead
+     * @param callable the original Callable
+     * @param <T> the result type of callable
+     * @return a supplier which is decorated by a ThreadPoolBulkhead.
+     */
+    static <T> Supplier<CompletionStage<T>> decorateCallable(ThreadPoolBulkhead bulkhead, Callable<T> callable){
+        return () -> bulkhead.submit(callable);
+    }
+
+    /**
+     * Returns a supplier which submits the original runnable to the thread pool of a bulkhead.
+     *
+     * @param bulkhead the bulkhead
+     * @param runnable the original runnable
+     * @return a supplier which is decorated by a ThreadPoolBulkhead.
+     */
+    static Supplier<CompletionStage<Void>> decorateRunnable(ThreadPoolBulkhead bulkhead, Runnable runnable){
+        return () -> bulkhead.submit(runnable);
+    }
+
+    /**
+     * Create a ThreadPoolBulkhead with a default configuration.
+     *
+     * @param name the name of the bulkhead
+     * @return a ThreadPoolBulkhead instance
+     */
+    static ThreadPoolBulkhead ofDefaults(String name) {
+        return new FixedThreadPoolBulkhead(name);
+    }
+
+    /**
+     * Creates a ThreadPoolBulkhead with a custom configuration
+     *
+     * @param name the name of the bulkhead
+     * @param config a custom ThreadPoolBulkheadConfig configuration
+     * @return a ThreadPoolBulkhead instance
+     */
+    static ThreadPoolBulkhead of(String name, ThreadPoolBulkheadConfig config) {
+        return new FixedThreadPoolBulkhead(name, config);
+    }
+
+    /**
+     * Creates a ThreadPoolBulkhead with a custom configuration
+     *
+     * @param name the name of the bulkhead
+     * @param bulkheadConfigSupplier custom configuration supplier
+     * @return a ThreadPoolBulkhead instance
+     */
+    static ThreadPoolBulkhead of(String name, Supplier<ThreadPoolBulkheadConfig> bulkheadConfigSupplier) {
+        return new FixedThreadPoolBulkhead(name, bulkheadConfigSupplier);
+    }
+
+    interface Metrics {
+
+        /**
+         * Returns the core number of threads.
+         *
+         * @return the core number of threads
+         */
+        int getCoreThreadPoolSize();
+
+        /**
+         * Returns the current number of threads in the pool.
+         *
+         * @return the current number of threads
+         */
+        int getThreadPoolSize();
+
+        /**
+         * Returns the maximum allowed number of threads.
+         *
+         * @return the maximum allowed number of threads
+         */
+        int getMaximumThreadPoolSize();
+
+        /**
+         * Returns the approximate number of threads which are executing calls.
+         *
+         * @return the number of active threads
+         */
+        int getActiveThreadCount();
+
+        /**
+         * Returns the number of calls which wait in the queue for a free thread.
+         *
+         * @return the queue depth
+         */
+        int getQueueDepth();
+
+        /**
+         * Returns the number of calls which can be queued before the bulkhead rejects calls.
+         *
+         * @return the remaining queue capacity
+         */
+        int getRemainingQueueCapacity();
+
+        /**
+         * Returns the capacity of the queue.
+         *
+         * @return the queue capacity
+         */
+        int getQueueCapacity();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler, Lucas Lech
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.bulkhead;
+
+/**
+ * A read-only histogram of the time calls have waited to enter a {@link Bulkhead}.
+ * <p>Only calls which could not enter the bulkhead immediately are recorded, whether they were permitted
+ * or rejected at the end. The histogram is a live view, so its values change while calls are recorded.
+ */
+public interface WaitTimeHistogram {
+
+    /**
+     * Returns a histogram without any recorded waiting times. It has a single bucket without upper bound.
+     *
+     * @return the shared empty histogram
+     */
+    static WaitTimeHistogram empty() {
+        return EmptyWaitTimeHistogram.INSTANCE;
+    }
+
+    /**
+     * Returns the inclusive upper bounds of the buckets in milliseconds.
+     * The last bucket of {@link #getBucketCounts()} has no upper bound.
+     *
+     * @return the upper bounds of the buckets
+     */
+    long[] getBucketUpperBoundsInMillis();
+
+    /**
+     * Returns the number of recorded waiting times per bucket. The counts are not cumulative,
+     * the last count is the number of waiting times above the largest upper bound.
+     *
+     * @return the number of recorded waiting times per bucket
+     */
+    long[] getBucketCounts();
+
+    /**
+     * Returns the number of recorded waiting times.
+     *
+     * @return the number of recorded waiting times
+     */
+    long getCount();
+
+    /**
+     * Returns the sum of the recorded waiting times in nanoseconds.
+     *
+     * @return the sum of the recorded waiting times
+     */
+    long getSumInNanos();
+}
@@ -0,0 +1,61 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler, Lucas Lech
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.bulkhead.event;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+
+/**
+ * A BulkheadEvent which informs that the configuration of a bulkhead has been changed at runtime.
+ */
+public class BulkheadOnConfigChangedEvent extends AbstractBulkheadEvent {
+
+    private final BulkheadConfig previousConfig;
+    private final BulkheadConfig newConfig;
+
+    public BulkheadOnConfigChangedEvent(String bulkheadName, BulkheadConfig previousConfig, BulkheadConfig newConfig) {
+        super(bulkheadName);
+        this.previousConfig = previousConfig;
+        this.newConfig = newConfig;
+    }
+
+    public BulkheadConfig getPreviousConfig() {
+        return previousConfig;
+    }
+
+    public BulkheadConfig getNewConfig() {
+        return newConfig;
+    }
+
+    @Override
+    public Type getEventType() {
+        return Type.CONFIG_CHANGED;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: Bulkhead '%s' changed max concurrent calls from %d to %d and max wait time from %d to %d.",
+                   getCreationTime(),
+                   getBulkheadName(),
+                   previousConfig.getMaxConcurrentCalls(),
+                   newConfig.getMaxConcurrentCalls(),
+                   previousConfig.getMaxWaitTime(),
+                   newConfig.getMaxWaitTime()
+               );
+    }
+}
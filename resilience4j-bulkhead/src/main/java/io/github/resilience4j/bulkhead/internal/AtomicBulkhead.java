@@ -0,0 +1,448 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler, Lucas Lech
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.bulkhead.internal;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.WaitTimeHistogram;
+import io.github.resilience4j.bulkhead.event.BulkheadEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallPermittedEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallRejectedEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnConfigChangedEvent;
+import io.github.resilience4j.core.EventConsumer;
+import io.github.resilience4j.core.EventProcessor;
+import io.github.resilience4j.core.Schedulers;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A Bulkhead implementation, which counts the available concurrent calls with a single {@link AtomicInteger}.
+ * <p>A call enters the bulkhead with a compare-and-set on the counter, so an unsaturated bulkhead never
+ * touches a queue or a lock. Calls which wait for a slot, because maxWaitTime is greater than 0, are kept
+ * in a lock-free queue. Waiting threads are parked, waiting {@link #acquirePermit()} calls are not.
+ * A released slot is handed over to the oldest waiting call.
+ * <p>With fair call handling, arriving calls queue up behind the waiting calls and a released slot is handed over
+ * before it is returned to the counter. Without it, a released slot is returned to the counter first,
+ * so arriving calls can take it ahead of the waiting calls. Both follow the current configuration,
+ * so a configuration change switches the call handling for the following calls.
+ */
+public class AtomicBulkhead implements Bulkhead {
+
+    private static final String CONFIG_MUST_NOT_BE_NULL = "Config must not be null";
+
+    private final String name;
+    private volatile BulkheadConfig bulkheadConfig;
+    private final AtomicInteger availableConcurrentCalls;
+    private final BulkheadMetrics metrics;
+    private final BulkheadEventProcessor eventProcessor;
+    private final Queue<Waiter> waiters;
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final Permit permit;
+    private final ThreadLocal<PendingReleases> pendingReleases;
+    private final BulkheadStatistics statistics;
+
+    /**
+     * Creates a bulkhead using a configuration supplied
+     *
+     * @param name the name of this bulkhead
+     * @param bulkheadConfig custom bulkhead configuration
+     */
+    public AtomicBulkhead(String name, BulkheadConfig bulkheadConfig) {
+        this.name = name;
+        this.bulkheadConfig = bulkheadConfig != null ? bulkheadConfig
+                                                     : BulkheadConfig.ofDefaults();
+        this.availableConcurrentCalls = new AtomicInteger(this.bulkheadConfig.getMaxConcurrentCalls());
+
+        this.metrics = new BulkheadMetrics();
+        this.eventProcessor = new BulkheadEventProcessor();
+        this.waiters = new ConcurrentLinkedQueue<>();
+        this.scheduler = Schedulers.shared();
+        this.executor = ForkJoinPool.commonPool();
+        this.permit = this::onComplete;
+        this.pendingReleases = ThreadLocal.withInitial(PendingReleases::new);
+        this.statistics = new BulkheadStatistics();
+    }
+
+    /**
+     * Creates a bulkhead with a default config.
+     *
+     * @param name the name of this bulkhead
+     */
+    public AtomicBulkhead(String name) {
+        this(name, BulkheadConfig.ofDefaults());
+    }
+
+    @Override
+    public boolean isCallPermitted() {
+
+        boolean callPermitted = tryEnterBulkhead();
+
+        if (callPermitted) {
+            statistics.onCallPermitted(inFlightCalls());
+        }
+        else {
+            statistics.onCallRejected();
+        }
+        publishBulkheadEvent(
+            () -> callPermitted ? new BulkheadOnCallPermittedEvent(name)
+                                : new BulkheadOnCallRejectedEvent(name)
+        );
+
+        return callPermitted;
+    }
+
+    @Override
+    public void onComplete() {
+        if (waiters.isEmpty()) {
+            availableConcurrentCalls.incrementAndGet();
+            drainWaiters();
+            return;
+        }
+        // a granted waiter may complete its call and release the permit on this thread,
+        // nested releases are handed over in a loop instead of recursively
+        PendingReleases pending = pendingReleases.get();
+        if (pending.releasing) {
+            pending.count++;
+            return;
+        }
+        pending.releasing = true;
+        try {
+            releaseSlot();
+            while (pending.count > 0) {
+                pending.count--;
+                releaseSlot();
+            }
+        }
+        finally {
+            pending.releasing = false;
+        }
+    }
+
+    @Override
+    public void changeConfig(BulkheadConfig newConfig) {
+        requireNonNull(newConfig, CONFIG_MUST_NOT_BE_NULL);
+        BulkheadConfig previousConfig;
+        synchronized (this) {
+            previousConfig = bulkheadConfig;
+            // a negative counter is absorbed when the calls in flight are released
+            availableConcurrentCalls.addAndGet(newConfig.getMaxConcurrentCalls() - previousConfig.getMaxConcurrentCalls());
+            bulkheadConfig = newConfig;
+        }
+        drainWaiters();
+        publishBulkheadEvent(() -> new BulkheadOnConfigChangedEvent(name, previousConfig, newConfig));
+    }
+
+    @Override
+    public CompletionStage<Permit> acquirePermit() {
+        AsyncWaiter waiter = new AsyncWaiter();
+        if (tryAcquire()) {
+            waiter.grant();
+            return waiter.future;
+        }
+
+        long timeout = bulkheadConfig.getMaxWaitTime();
+        if (timeout == 0) {
+            waiter.reject();
+            return waiter.future;
+        }
+
+        waiter.queuedAt = System.nanoTime();
+        waiter.queued = true;
+        waiters.offer(waiter);
+        // the rejection runs on the executor, so that continuations of the caller do not run on the scheduler thread
+        ScheduledFuture<?> timer = scheduler.schedule(
+            () -> executor.execute(waiter::reject), timeout, TimeUnit.MILLISECONDS);
+        waiter.future.whenComplete((result, throwable) -> timer.cancel(false));
+        // a slot could have been returned to the counter before the waiter was queued
+        drainWaiters();
+        return waiter.future;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public BulkheadConfig getBulkheadConfig() {
+        return bulkheadConfig;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return eventProcessor;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Bulkhead '%s'", this.name);
+    }
+
+    boolean tryEnterBulkhead() {
+        if (tryAcquire()) {
+            return true;
+        }
+        long timeout = bulkheadConfig.getMaxWaitTime();
+        if (timeout == 0) {
+            return false;
+        }
+
+        ThreadWaiter waiter = new ThreadWaiter(Thread.currentThread());
+        long start = System.nanoTime();
+        waiters.offer(waiter);
+        drainWaiters();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeout);
+        boolean interrupted = false;
+        while (!waiter.isGranted()) {
+            long remaining = deadline - System.nanoTime();
+            interrupted = Thread.interrupted();
+            if (remaining <= 0 || interrupted) {
+                if (waiter.cancel()) {
+                    break;
+                }
+            }
+            else {
+                LockSupport.parkNanos(this, remaining);
+            }
+        }
+        statistics.onCallWaited(System.nanoTime() - start);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return waiter.isGranted();
+    }
+
+    private boolean isFair() {
+        BulkheadConfig config = bulkheadConfig;
+        return config.isFairCallHandling() && config.getMaxWaitTime() > 0;
+    }
+
+    private boolean tryAcquire() {
+        if (isFair() && !waiters.isEmpty()) {
+            return false;
+        }
+        return tryAcquireSlot();
+    }
+
+    private boolean tryAcquireSlot() {
+        int available;
+        do {
+            available = availableConcurrentCalls.get();
+            if (available <= 0) {
+                return false;
+            }
+        } while (!availableConcurrentCalls.compareAndSet(available, available - 1));
+        return true;
+    }
+
+    private void releaseSlot() {
+        if (!isFair()) {
+            availableConcurrentCalls.incrementAndGet();
+            drainWaiters();
+        }
+        // a slot is not handed over while a shrunk bulkhead has more calls in flight than it permits
+        else if (availableConcurrentCalls.get() < 0 || !grantToNextWaiter()) {
+            availableConcurrentCalls.incrementAndGet();
+            drainWaiters();
+        }
+    }
+
+    private boolean grantToNextWaiter() {
+        Waiter waiter;
+        while ((waiter = waiters.poll()) != null) {
+            if (waiter.grant()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void drainWaiters() {
+        while (!waiters.isEmpty() && tryAcquireSlot()) {
+            if (!grantToNextWaiter()) {
+                availableConcurrentCalls.incrementAndGet();
+            }
+        }
+    }
+
+    private int inFlightCalls() {
+        return bulkheadConfig.getMaxConcurrentCalls() - availableConcurrentCalls.get();
+    }
+
+    private void publishBulkheadEvent(Supplier<BulkheadEvent> eventSupplier) {
+        if(eventProcessor.hasConsumers()) {
+            eventProcessor.consumeEvent(eventSupplier.get());
+        }
+    }
+
+    private interface Waiter {
+
+        /**
+         * Hands a slot over to the waiting call.
+         *
+         * @return false if the call does not wait anymore
+         */
+        boolean grant();
+    }
+
+    private static final class ThreadWaiter implements Waiter {
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final Thread thread;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private ThreadWaiter(Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        public boolean grant() {
+            if (state.compareAndSet(WAITING, GRANTED)) {
+                LockSupport.unpark(thread);
+                return true;
+            }
+            return false;
+        }
+
+        private boolean cancel() {
+            return state.compareAndSet(WAITING, CANCELLED);
+        }
+
+        private boolean isGranted() {
+            return state.get() == GRANTED;
+        }
+    }
+
+    private final class AsyncWaiter implements Waiter {
+        private final CompletableFuture<Permit> future = new CompletableFuture<>();
+        private boolean queued;
+        private long queuedAt;
+
+        @Override
+        public boolean grant() {
+            boolean granted = future.complete(permit);
+            if (granted) {
+                statistics.onCallPermitted(inFlightCalls());
+                recordWaitTime();
+                publishBulkheadEvent(() -> new BulkheadOnCallPermittedEvent(name));
+            }
+            return granted;
+        }
+
+        private boolean reject() {
+            boolean rejected = future.completeExceptionally(
+                new BulkheadFullException(String.format("Bulkhead '%s' is full", name)));
+            if (rejected) {
+                statistics.onCallRejected();
+                recordWaitTime();
+                publishBulkheadEvent(() -> new BulkheadOnCallRejectedEvent(name));
+            }
+            return rejected;
+        }
+
+        private void recordWaitTime() {
+            if (queued) {
+                statistics.onCallWaited(System.nanoTime() - queuedAt);
+            }
+        }
+    }
+
+    private static final class PendingReleases {
+        private boolean releasing;
+        private int count;
+    }
+
+    private class BulkheadEventProcessor extends EventProcessor<BulkheadEvent> implements EventPublisher, EventConsumer<BulkheadEvent> {
+
+        @Override
+        public EventPublisher onCallPermitted(EventConsumer<BulkheadOnCallPermittedEvent> onCallPermittedEventConsumer) {
+            registerConsumer(BulkheadOnCallPermittedEvent.class, onCallPermittedEventConsumer);
+            return this;
+        }
+
+        @Override
+        public EventPublisher onCallRejected(EventConsumer<BulkheadOnCallRejectedEvent> onCallRejectedEventConsumer) {
+            registerConsumer(BulkheadOnCallRejectedEvent.class, onCallRejectedEventConsumer);
+            return this;
+        }
+
+        @Override
+        public EventPublisher onConfigChanged(EventConsumer<BulkheadOnConfigChangedEvent> onConfigChangedEventConsumer) {
+            registerConsumer(BulkheadOnConfigChangedEvent.class, onConfigChangedEventConsumer);
+            return this;
+        }
+
+        @Override
+        public void consumeEvent(BulkheadEvent event) {
+            super.processEvent(event);
+        }
+    }
+
+    private final class BulkheadMetrics implements Metrics {
+        private BulkheadMetrics() {
+        }
+
+        @Override
+        public int getAvailableConcurrentCalls() {
+            return Math.max(0, availableConcurrentCalls.get());
+        }
+
+        @Override
+        public int getMaxInFlightCalls() {
+            return statistics.getMaxInFlightCalls();
+        }
+
+        @Override
+        public long getNumberOfPermittedCalls() {
+            return statistics.getNumberOfPermittedCalls();
+        }
+
+        @Override
+        public long getNumberOfRejectedCalls() {
+            return statistics.getNumberOfRejectedCalls();
+        }
+
+        @Override
+        public WaitTimeHistogram getWaitTimeHistogram() {
+            return statistics.getWaitTimeHistogram();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler, Lucas Lech
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.bulkhead.internal;
+
+import io.github.resilience4j.bulkhead.WaitTimeHistogram;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the permitted and rejected calls of a bulkhead with {@link LongAdder}s
+ * and keeps the high-water mark of calls in flight and the wait time histogram.
+ */
+final class BulkheadStatistics {
+
+    private final LongAdder permittedCalls = new LongAdder();
+    private final LongAdder rejectedCalls = new LongAdder();
+    private final AtomicInteger maxInFlightCalls = new AtomicInteger();
+    private final WaitTimeRecorder waitTimeRecorder = new WaitTimeRecorder();
+
+    void onCallPermitted(int inFlightCalls) {
+        permittedCalls.increment();
+        int max;
+        while (inFlightCalls > (max = maxInFlightCalls.get())) {
+            if (maxInFlightCalls.compareAndSet(max, inFlightCalls)) {
+                return;
+            }
+        }
+    }
+
+    void onCallRejected() {
+        rejectedCalls.increment();
+    }
+
+    void onCallWaited(long waitTimeInNanos) {
+        waitTimeRecorder.record(waitTimeInNanos);
+    }
+
+    long getNumberOfPermittedCalls() {
+        return permittedCalls.sum();
+    }
+
+    long getNumberOfRejectedCalls() {
+        return rejectedCalls.sum();
+    }
+
+    int getMaxInFlightCalls() {
+        return maxInFlightCalls.get();
+    }
+
+    WaitTimeHistogram getWaitTimeHistogram() {
+        return waitTimeRecorder;
+    }
+}
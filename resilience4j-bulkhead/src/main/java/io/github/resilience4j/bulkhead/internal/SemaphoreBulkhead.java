@@ -21,26 +21,53 @@ package io.github.resilience4j.bulkhead.internal;
 
 import io.github.resilience4j.bulkhead.Bulkhead;
 import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.WaitTimeHistogram;
 import io.github.resilience4j.bulkhead.event.BulkheadEvent;
 import io.github.resilience4j.bulkhead.event.BulkheadOnCallPermittedEvent;
 import io.github.resilience4j.bulkhead.event.BulkheadOnCallRejectedEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnConfigChangedEvent;
 import io.github.resilience4j.core.EventConsumer;
 import io.github.resilience4j.core.EventProcessor;
-
+import io.github.resilience4j.core.Schedulers;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * A Bulkhead implementation based on a semaphore.
+ * <p>Calls which acquire a permit with {@link #acquirePermit()} do not wait on the semaphore.
+ * They are kept in a lock-free queue and a released slot is handed over to the oldest of them, before it is
+ * returned to the semaphore. Their timeout is scheduled on the shared scheduler of resilience4j, but timed out calls
+ * are rejected by the {@link ForkJoinPool#commonPool()}. Timed out calls stay in the queue until a released slot
+ * skips them.
  */
 public class SemaphoreBulkhead implements Bulkhead{
 
+    private static final String CONFIG_MUST_NOT_BE_NULL = "Config must not be null";
+
     private final String name;
-    private final Semaphore semaphore;
-    private final BulkheadConfig bulkheadConfig;
+    private final ResizableSemaphore semaphore;
+    private volatile BulkheadConfig bulkheadConfig;
     private final BulkheadMetrics metrics;
     private final BulkheadEventProcessor eventProcessor;
+    private final Queue<AsyncWaiter> waiters;
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final Permit permit;
+    private final ThreadLocal<PendingReleases> pendingReleases;
+    private final BulkheadStatistics statistics;
 
     /**
      * Creates a bulkhead using a configuration supplied
@@ -53,10 +80,17 @@ public class SemaphoreBulkhead implements Bulkhead{
         this.bulkheadConfig = bulkheadConfig != null ? bulkheadConfig
                                                      : BulkheadConfig.ofDefaults();
         // init semaphore
-        this.semaphore = new Semaphore(this.bulkheadConfig.getMaxConcurrentCalls(), true);
+        this.semaphore = new ResizableSemaphore(this.bulkheadConfig.getMaxConcurrentCalls(),
+                                       this.bulkheadConfig.isFairCallHandling() && this.bulkheadConfig.getMaxWaitTime() > 0);
 
         this.metrics = new BulkheadMetrics();
         this.eventProcessor = new BulkheadEventProcessor();
+        this.waiters = new ConcurrentLinkedQueue<>();
+        this.scheduler = Schedulers.shared();
+        this.executor = ForkJoinPool.commonPool();
+        this.permit = this::onComplete;
+        this.pendingReleases = ThreadLocal.withInitial(PendingReleases::new);
+        this.statistics = new BulkheadStatistics();
     }
 
     /**
@@ -84,6 +118,12 @@ public class SemaphoreBulkhead implements Bulkhead{
 
         boolean callPermitted = tryEnterBulkhead();
 
+        if (callPermitted) {
+            statistics.onCallPermitted(inFlightCalls());
+        }
+        else {
+            statistics.onCallRejected();
+        }
         publishBulkheadEvent(
             () -> callPermitted ? new BulkheadOnCallPermittedEvent(name)
                                 : new BulkheadOnCallRejectedEvent(name)
@@ -94,7 +134,83 @@ public class SemaphoreBulkhead implements Bulkhead{
 
     @Override
     public void onComplete() {
-        semaphore.release();
+        if (waiters.isEmpty()) {
+            semaphore.release();
+            drainWaiters();
+            return;
+        }
+        // a granted waiter may complete its call and release the permit on this thread,
+        // nested releases are handed over in a loop instead of recursively
+        PendingReleases pending = pendingReleases.get();
+        if (pending.releasing) {
+            pending.count++;
+            return;
+        }
+        pending.releasing = true;
+        try {
+            releaseSlot();
+            while (pending.count > 0) {
+                pending.count--;
+                releaseSlot();
+            }
+        }
+        finally {
+            pending.releasing = false;
+        }
+    }
+
+    private void releaseSlot() {
+        // a slot is not handed over while a shrunk bulkhead has more calls in flight than it permits
+        if (semaphore.availablePermits() < 0 || !grantToNextWaiter()) {
+            semaphore.release();
+            drainWaiters();
+        }
+    }
+
+    @Override
+    public void changeConfig(BulkheadConfig newConfig) {
+        requireNonNull(newConfig, CONFIG_MUST_NOT_BE_NULL);
+        BulkheadConfig previousConfig;
+        synchronized (this) {
+            previousConfig = bulkheadConfig;
+            int delta = newConfig.getMaxConcurrentCalls() - previousConfig.getMaxConcurrentCalls();
+            if (delta > 0) {
+                semaphore.release(delta);
+            }
+            else if (delta < 0) {
+                // permits of calls in flight are absorbed when they are released
+                semaphore.reducePermits(-delta);
+            }
+            bulkheadConfig = newConfig;
+        }
+        drainWaiters();
+        publishBulkheadEvent(() -> new BulkheadOnConfigChangedEvent(name, previousConfig, newConfig));
+    }
+
+    @Override
+    public CompletionStage<Permit> acquirePermit() {
+        AsyncWaiter waiter = new AsyncWaiter();
+        if (waiters.isEmpty() && semaphore.tryAcquire()) {
+            grant(waiter);
+            return waiter;
+        }
+
+        long timeout = bulkheadConfig.getMaxWaitTime();
+        if (timeout == 0) {
+            reject(waiter);
+            return waiter;
+        }
+
+        waiter.queuedAt = System.nanoTime();
+        waiter.queued = true;
+        waiters.offer(waiter);
+        // the rejection runs on the executor, so that continuations of the caller do not run on the scheduler thread
+        ScheduledFuture<?> timer = scheduler.schedule(
+            () -> executor.execute(() -> reject(waiter)), timeout, TimeUnit.MILLISECONDS);
+        waiter.whenComplete((result, throwable) -> timer.cancel(false));
+        // a slot could have been returned to the semaphore before the waiter was queued
+        drainWaiters();
+        return waiter;
     }
 
     @Override
@@ -132,6 +248,12 @@ public class SemaphoreBulkhead implements Bulkhead{
             return this;
         }
 
+        @Override
+        public EventPublisher onConfigChanged(EventConsumer<BulkheadOnConfigChangedEvent> onConfigChangedEventConsumer) {
+            registerConsumer(BulkheadOnConfigChangedEvent.class, onConfigChangedEventConsumer);
+            return this;
+        }
+
         @Override
         public void consumeEvent(BulkheadEvent event) {
             super.processEvent(event);
@@ -153,7 +275,13 @@ public class SemaphoreBulkhead implements Bulkhead{
         }
         else {
             try {
-                callPermitted = semaphore.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+                // a timed tryAcquire keeps the fairness of the semaphore
+                callPermitted = semaphore.tryAcquire(0, TimeUnit.NANOSECONDS);
+                if (!callPermitted) {
+                    long start = System.nanoTime();
+                    callPermitted = semaphore.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+                    statistics.onCallWaited(System.nanoTime() - start);
+                }
             }
             catch (InterruptedException ex) {
                 callPermitted = false;
@@ -163,19 +291,110 @@ public class SemaphoreBulkhead implements Bulkhead{
         return callPermitted;
     }
 
+    private boolean grantToNextWaiter() {
+        AsyncWaiter waiter;
+        while ((waiter = waiters.poll()) != null) {
+            if (grant(waiter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void drainWaiters() {
+        while (!waiters.isEmpty() && semaphore.tryAcquire()) {
+            if (!grantToNextWaiter()) {
+                semaphore.release();
+            }
+        }
+    }
+
+    private boolean grant(AsyncWaiter waiter) {
+        boolean granted = waiter.complete(permit);
+        if (granted) {
+            statistics.onCallPermitted(inFlightCalls());
+            waiter.recordWaitTime();
+            publishBulkheadEvent(() -> new BulkheadOnCallPermittedEvent(name));
+        }
+        return granted;
+    }
+
+    private boolean reject(AsyncWaiter waiter) {
+        boolean rejected = waiter.completeExceptionally(
+            new BulkheadFullException(String.format("Bulkhead '%s' is full", name)));
+        if (rejected) {
+            statistics.onCallRejected();
+            waiter.recordWaitTime();
+            publishBulkheadEvent(() -> new BulkheadOnCallRejectedEvent(name));
+        }
+        return rejected;
+    }
+
+    private int inFlightCalls() {
+        return bulkheadConfig.getMaxConcurrentCalls() - semaphore.availablePermits();
+    }
+
     private void publishBulkheadEvent(Supplier<BulkheadEvent> eventSupplier) {
         if(eventProcessor.hasConsumers()) {
             eventProcessor.consumeEvent(eventSupplier.get());
         }
     }
 
+    private final class AsyncWaiter extends CompletableFuture<Permit> {
+        private boolean queued;
+        private long queuedAt;
+
+        private void recordWaitTime() {
+            if (queued) {
+                statistics.onCallWaited(System.nanoTime() - queuedAt);
+            }
+        }
+    }
+
+    private static final class ResizableSemaphore extends Semaphore {
+
+        private ResizableSemaphore(int permits, boolean fair) {
+            super(permits, fair);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+
+    private static final class PendingReleases {
+        private boolean releasing;
+        private int count;
+    }
+
     private final class BulkheadMetrics implements Metrics {
         private BulkheadMetrics() {
         }
 
         @Override
         public int getAvailableConcurrentCalls() {
-            return semaphore.availablePermits();
+            return Math.max(0, semaphore.availablePermits());
+        }
+
+        @Override
+        public int getMaxInFlightCalls() {
+            return statistics.getMaxInFlightCalls();
+        }
+
+        @Override
+        public long getNumberOfPermittedCalls() {
+            return statistics.getNumberOfPermittedCalls();
+        }
+
+        @Override
+        public long getNumberOfRejectedCalls() {
+            return statistics.getNumberOfRejectedCalls();
+        }
+
+        @Override
+        public WaitTimeHistogram getWaitTimeHistogram() {
+            return statistics.getWaitTimeHistogram();
         }
     }
 
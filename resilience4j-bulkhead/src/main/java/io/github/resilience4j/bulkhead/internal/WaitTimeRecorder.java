@@ -0,0 +1,107 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler, Lucas Lech
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.bulkhead.internal;
+
+import io.github.resilience4j.bulkhead.WaitTimeHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the time calls have waited to enter a bulkhead and exposes them as a read-only {@link WaitTimeHistogram}.
+ * <p>The waiting times are counted in fixed buckets with {@link LongAdder}s,
+ * so recording a waiting time does not contend with other threads.
+ */
+final class WaitTimeRecorder implements WaitTimeHistogram {
+
+    private static final long[] BUCKET_UPPER_BOUNDS_IN_MILLIS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+    private static final long[] BUCKET_UPPER_BOUNDS_IN_NANOS = new long[BUCKET_UPPER_BOUNDS_IN_MILLIS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_UPPER_BOUNDS_IN_MILLIS.length; i++) {
+            BUCKET_UPPER_BOUNDS_IN_NANOS[i] = TimeUnit.MILLISECONDS.toNanos(BUCKET_UPPER_BOUNDS_IN_MILLIS[i]);
+        }
+    }
+
+    private final LongAdder[] buckets;
+    private final LongAdder sumInNanos;
+
+    WaitTimeRecorder() {
+        this.buckets = new LongAdder[BUCKET_UPPER_BOUNDS_IN_MILLIS.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+        this.sumInNanos = new LongAdder();
+    }
+
+    /**
+     * Records the time a call has waited to enter the bulkhead.
+     *
+     * @param waitTimeInNanos the waiting time in nanoseconds
+     */
+    void record(long waitTimeInNanos) {
+        long waitTime = Math.max(0L, waitTimeInNanos);
+        int bucket = 0;
+        while (bucket < BUCKET_UPPER_BOUNDS_IN_NANOS.length && waitTime > BUCKET_UPPER_BOUNDS_IN_NANOS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        sumInNanos.add(waitTime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] getBucketUpperBoundsInMillis() {
+        return BUCKET_UPPER_BOUNDS_IN_MILLIS.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSumInNanos() {
+        return sumInNanos.sum();
+    }
+}
@@ -43,6 +43,62 @@ public class BulkheadConfigTest {
         assertThat(config.getMaxWaitTime()).isEqualTo(maxWait);
     }
 
+    @Test
+    public void testBuildDefaults() {
+
+        // when
+        BulkheadConfig config = BulkheadConfig.ofDefaults();
+
+        // then
+        assertThat(config.getBulkheadType()).isEqualTo(BulkheadConfig.BulkheadType.SEMAPHORE);
+        assertThat(config.isFairCallHandling()).isTrue();
+    }
+
+    @Test
+    public void testBuildAtomicUnfair() {
+
+        // when
+        BulkheadConfig config = BulkheadConfig.custom()
+                                              .bulkheadType(BulkheadConfig.BulkheadType.ATOMIC)
+                                              .fairCallHandling(false)
+                                              .build();
+
+        // then
+        assertThat(config.getBulkheadType()).isEqualTo(BulkheadConfig.BulkheadType.ATOMIC);
+        assertThat(config.isFairCallHandling()).isFalse();
+    }
+
+    @Test
+    public void testBuildFromPrototype() {
+
+        // given
+        BulkheadConfig prototype = BulkheadConfig.custom()
+                                                 .bulkheadType(BulkheadConfig.BulkheadType.ATOMIC)
+                                                 .maxConcurrentCalls(10)
+                                                 .maxWaitTime(100)
+                                                 .build();
+
+        // when
+        BulkheadConfig config = BulkheadConfig.from(prototype)
+                                              .maxConcurrentCalls(20)
+                                              .build();
+
+        // then
+        assertThat(config.getMaxConcurrentCalls()).isEqualTo(20);
+        assertThat(config.getMaxWaitTime()).isEqualTo(100);
+        assertThat(config.getBulkheadType()).isEqualTo(BulkheadConfig.BulkheadType.ATOMIC);
+        assertThat(prototype.getMaxConcurrentCalls()).isEqualTo(10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildWithNullBulkheadType() {
+
+        // when
+        BulkheadConfig.custom()
+                      .bulkheadType(null)
+                      .build();
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testBuildWithIllegalMaxConcurrent() {
 
@@ -96,5 +96,22 @@ public class BulkheadEventPublisherTest {
         then(logger).should(times(1)).info("CALL_REJECTED");
     }
 
+    @Test
+    public void shouldConsumeOnConfigChangedEvent() {
+
+        // Given
+        Bulkhead bulkhead = Bulkhead.of("test", config);
+
+        // When
+        bulkhead.getEventPublisher()
+                .onConfigChanged(event ->
+                        logger.info(event.getEventType().toString()));
+
+        bulkhead.changeMaxConcurrentCalls(2);
+
+        // Then
+        then(logger).should(times(1)).info("CONFIG_CHANGED");
+    }
+
 
 }
@@ -0,0 +1,123 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler, Lucas Lech
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.bulkhead;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class ThreadPoolBulkheadConfigTest {
+
+    @Test
+    public void testBuildCustom() {
+
+        // given
+        int maxThreadPoolSize = 20;
+        int coreThreadPoolSize = 2;
+        int queueCapacity = 50;
+        long keepAliveTime = 10;
+
+        // when
+        ThreadPoolBulkheadConfig config = ThreadPoolBulkheadConfig.custom()
+                                                                  .maxThreadPoolSize(maxThreadPoolSize)
+                                                                  .coreThreadPoolSize(coreThreadPoolSize)
+                                                                  .queueCapacity(queueCapacity)
+                                                                  .keepAliveTime(keepAliveTime)
+                                                                  .build();
+
+        // then
+        assertThat(config).isNotNull();
+        assertThat(config.getMaxThreadPoolSize()).isEqualTo(maxThreadPoolSize);
+        assertThat(config.getCoreThreadPoolSize()).isEqualTo(coreThreadPoolSize);
+        assertThat(config.getQueueCapacity()).isEqualTo(queueCapacity);
+        assertThat(config.getKeepAliveTime()).isEqualTo(keepAliveTime);
+    }
+
+    @Test
+    public void testBuildDefaults() {
+
+        // when
+        ThreadPoolBulkheadConfig config = ThreadPoolBulkheadConfig.ofDefaults();
+
+        // then
+        assertThat(config.getMaxThreadPoolSize()).isEqualTo(ThreadPoolBulkheadConfig.DEFAULT_MAX_THREAD_POOL_SIZE);
+        assertThat(config.getCoreThreadPoolSize()).isEqualTo(ThreadPoolBulkheadConfig.DEFAULT_CORE_THREAD_POOL_SIZE);
+        assertThat(config.getCoreThreadPoolSize()).isLessThanOrEqualTo(config.getMaxThreadPoolSize());
+        assertThat(config.getQueueCapacity()).isEqualTo(ThreadPoolBulkheadConfig.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    @Test
+    public void testBuildWithMaxThreadPoolSizeBelowDefaultCoreThreadPoolSize() {
+
+        // when
+        ThreadPoolBulkheadConfig config = ThreadPoolBulkheadConfig.custom()
+                                                                  .maxThreadPoolSize(1)
+                                                                  .build();
+
+        // then
+        assertThat(config.getMaxThreadPoolSize()).isEqualTo(1);
+        assertThat(config.getCoreThreadPoolSize()).isEqualTo(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildWithIllegalMaxThreadPoolSize() {
+
+        // when
+        ThreadPoolBulkheadConfig.custom()
+                                .maxThreadPoolSize(0)
+                                .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildWithIllegalCoreThreadPoolSize() {
+
+        // when
+        ThreadPoolBulkheadConfig.custom()
+                                .coreThreadPoolSize(0)
+                                .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildWithCoreThreadPoolSizeAboveMax() {
+
+        // when
+        ThreadPoolBulkheadConfig.custom()
+                                .maxThreadPoolSize(2)
+                                .coreThreadPoolSize(3)
+                                .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildWithIllegalQueueCapacity() {
+
+        // when
+        ThreadPoolBulkheadConfig.custom()
+                                .queueCapacity(0)
+                                .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildWithIllegalKeepAliveTime() {
+
+        // when
+        ThreadPoolBulkheadConfig.custom()
+                                .keepAliveTime(-1)
+                                .build();
+    }
+}
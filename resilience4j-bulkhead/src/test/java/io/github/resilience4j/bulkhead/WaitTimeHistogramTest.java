@@ -0,0 +1,41 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler, Lucas Lech
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.bulkhead;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WaitTimeHistogramTest {
+
+    @Test
+    public void shouldShareTheEmptyHistogram() {
+
+        // when
+        WaitTimeHistogram histogram = WaitTimeHistogram.empty();
+
+        // then
+        assertThat(histogram).isSameAs(WaitTimeHistogram.empty());
+        assertThat(histogram.getBucketUpperBoundsInMillis().length).isEqualTo(0);
+        assertThat(histogram.getBucketCounts().length).isEqualTo(1);
+        assertThat(histogram.getBucketCounts()[0]).isEqualTo(0L);
+        assertThat(histogram.getCount()).isEqualTo(0L);
+        assertThat(histogram.getSumInNanos()).isEqualTo(0L);
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler, Lucas Lech
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.bulkhead.internal;
+
+import io.github.resilience4j.adapter.RxJava2Adapter;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.event.BulkheadEvent;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.github.resilience4j.bulkhead.event.BulkheadEvent.Type.CALL_PERMITTED;
+import static io.github.resilience4j.bulkhead.event.BulkheadEvent.Type.CALL_REJECTED;
+import static io.github.resilience4j.bulkhead.event.BulkheadEvent.Type.CONFIG_CHANGED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class AtomicBulkheadTest {
+
+    private Bulkhead bulkhead;
+    private TestSubscriber<BulkheadEvent.Type> testSubscriber;
+
+    @Before
+    public void setUp(){
+
+        BulkheadConfig config = BulkheadConfig.custom()
+                                              .bulkheadType(BulkheadConfig.BulkheadType.ATOMIC)
+                                              .maxConcurrentCalls(2)
+                                              .maxWaitTime(0)
+                                              .build();
+
+        bulkhead = Bulkhead.of("test", config);
+        testSubscriber = RxJava2Adapter.toFlowable(bulkhead.getEventPublisher())
+                                 .map(BulkheadEvent::getEventType)
+                                 .test();
+    }
+
+    @Test
+    public void shouldCreateAtomicBulkheadFromConfig() {
+        assertThat(bulkhead).isInstanceOf(AtomicBulkhead.class);
+    }
+
+    @Test
+    public void testBulkhead() {
+
+        bulkhead.isCallPermitted();
+        bulkhead.isCallPermitted();
+
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(0);
+
+        bulkhead.isCallPermitted();
+        bulkhead.onComplete();
+
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+
+        bulkhead.onComplete();
+
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(2);
+
+        bulkhead.isCallPermitted();
+
+        testSubscriber.assertValueCount(4)
+                      .assertValues(CALL_PERMITTED, CALL_PERMITTED, CALL_REJECTED, CALL_PERMITTED);
+    }
+
+    @Test
+    public void testToString() {
+
+        // when
+        String result = bulkhead.toString();
+
+        // then
+        assertThat(result).isEqualTo("Bulkhead 'test'");
+    }
+
+    @Test
+    public void testTimedOutPermitIsNotRejectedOnSharedScheduler() throws Exception {
+
+        // given
+        BulkheadConfig config = BulkheadConfig.custom()
+                                              .maxConcurrentCalls(1)
+                                              .maxWaitTime(50)
+                                              .build();
+
+        AtomicBulkhead bulkhead = new AtomicBulkhead("test", config);
+        bulkhead.isCallPermitted();
+
+        // when
+        CompletableFuture<String> rejectingThread = bulkhead.acquirePermit()
+            .handle((permit, throwable) -> Thread.currentThread().getName())
+            .toCompletableFuture();
+
+        // then
+        assertThat(rejectingThread.get(5, TimeUnit.SECONDS)).isNotEqualTo("resilience4j-shared-scheduler");
+        bulkhead.onComplete();
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+
+        // given
+        BulkheadConfig config = BulkheadConfig.custom()
+                                              .bulkheadType(BulkheadConfig.BulkheadType.ATOMIC)
+                                              .maxConcurrentCalls(2)
+                                              .maxWaitTime(10)
+                                              .build();
+
+        Bulkhead bulkhead = Bulkhead.of("test", config);
+
+        // when
+        bulkhead.isCallPermitted();
+        bulkhead.isCallPermitted();
+        bulkhead.isCallPermitted();
+        CompletableFuture<Bulkhead.Permit> waiting = bulkhead.acquirePermit().toCompletableFuture();
+        bulkhead.onComplete();
+        waiting.get().release();
+        bulkhead.onComplete();
+
+        // then
+        Bulkhead.Metrics metrics = bulkhead.getMetrics();
+        assertThat(metrics.getAvailableConcurrentCalls()).isEqualTo(2);
+        assertThat(metrics.getMaxInFlightCalls()).isEqualTo(2);
+        assertThat(metrics.getNumberOfPermittedCalls()).isEqualTo(3L);
+        assertThat(metrics.getNumberOfRejectedCalls()).isEqualTo(1L);
+        assertThat(metrics.getWaitTimeHistogram().getCount()).isEqualTo(2L);
+    }
+
+    @Test
+    public void testGrowingReleasesSlots() {
+
+        // given
+        bulkhead.isCallPermitted();
+        bulkhead.isCallPermitted();
+
+        // when
+        bulkhead.changeMaxConcurrentCalls(3);
+
+        // then
+        assertThat(bulkhead.getBulkheadConfig().getMaxConcurrentCalls()).isEqualTo(3);
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+        assertThat(bulkhead.isCallPermitted()).isTrue();
+        assertThat(bulkhead.isCallPermitted()).isFalse();
+    }
+
+    @Test
+    public void testShrinkingIsAbsorbedByCompletingCalls() {
+
+        // given
+        bulkhead.isCallPermitted();
+        bulkhead.isCallPermitted();
+
+        // when
+        bulkhead.changeMaxConcurrentCalls(1);
+
+        // then
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(0);
+        bulkhead.onComplete();
+        assertThat(bulkhead.isCallPermitted()).isFalse();
+        bulkhead.onComplete();
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+        assertThat(bulkhead.isCallPermitted()).isTrue();
+
+        testSubscriber.assertValueCount(5)
+                      .assertValues(CALL_PERMITTED, CALL_PERMITTED, CONFIG_CHANGED, CALL_REJECTED, CALL_PERMITTED);
+    }
+
+    @Test
+    public void testGrowingHandsOverSlotsToWaitingCalls() throws Exception {
+
+        // given
+        BulkheadConfig config = BulkheadConfig.custom()
+                                              .bulkheadType(BulkheadConfig.BulkheadType.ATOMIC)
+                                              .maxConcurrentCalls(1)
+                                              .maxWaitTime(10000)
+                                              .build();
+
+        Bulkhead bulkhead = Bulkhead.of("test", config);
+        CompletableFuture<Bulkhead.Permit> first = bulkhead.acquirePermit().toCompletableFuture();
+        CompletableFuture<Bulkhead.Permit> second = bulkhead.acquirePermit().toCompletableFuture();
+
+        // when
+        bulkhead.changeMaxConcurrentCalls(2);
+
+        // then
+        assertThat(second.isDone()).isTrue();
+
+        first.get().release();
+        second.get().release();
+
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(2);
+    }
+
+    @Test
+    public void testEntryTimeout() {
+
+        // given
+        AtomicBulkhead bulkhead = new AtomicBulkhead("test", waitingConfig(true, 10));
+        bulkhead.isCallPermitted(); // consume the permit
+
+        // when
+        boolean entered = bulkhead.tryEnterBulkhead();
+
+        // then
+        assertThat(entered).isFalse();
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(0);
+    }
+
+    @Test
+    public void testWaitingThreadEntersWhenSlotIsReleased() throws Exception {
+        shouldHandOverReleasedSlotToWaitingThread(true);
+        shouldHandOverReleasedSlotToWaitingThread(false);
+    }
+
+    @Test
+    public void testFairBulkheadQueuesArrivingCallsBehindWaitingCalls() throws Exception {
+
+        // given
+        AtomicBulkhead bulkhead = new AtomicBulkhead("test", waitingConfig(true, 10000));
+        bulkhead.isCallPermitted(); // consume the permit
+        CompletableFuture<Bulkhead.Permit> waiting = bulkhead.acquirePermit().toCompletableFuture();
+
+        // when
+        bulkhead.onComplete();
+        CompletableFuture<Bulkhead.Permit> arriving = bulkhead.acquirePermit().toCompletableFuture();
+
+        // then
+        assertThat(waiting.isDone()).isTrue();
+        assertThat(arriving.isDone()).isFalse();
+
+        waiting.get().release();
+        arriving.get(5, TimeUnit.SECONDS).release();
+
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+    }
+
+    @Test
+    public void testChangedConfigSwitchesToFairCallHandling() throws Exception {
+
+        // given
+        AtomicBulkhead bulkhead = new AtomicBulkhead("test", waitingConfig(false, 0));
+        bulkhead.isCallPermitted(); // consume the permit
+        assertThat(bulkhead.acquirePermit().toCompletableFuture().isCompletedExceptionally()).isTrue();
+
+        // when
+        bulkhead.changeConfig(waitingConfig(true, 10000));
+        CompletableFuture<Bulkhead.Permit> waiting = bulkhead.acquirePermit().toCompletableFuture();
+        bulkhead.onComplete();
+        CompletableFuture<Bulkhead.Permit> arriving = bulkhead.acquirePermit().toCompletableFuture();
+
+        // then
+        assertThat(waiting.isDone()).isTrue();
+        assertThat(arriving.isDone()).isFalse();
+
+        waiting.get().release();
+        arriving.get(5, TimeUnit.SECONDS).release();
+
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+    }
+
+    @Test
+    public void testAcquirePermitTimeout() throws Exception {
+
+        // given
+        AtomicBulkhead bulkhead = new AtomicBulkhead("test", waitingConfig(false, 10));
+        CompletableFuture<Bulkhead.Permit> first = bulkhead.acquirePermit().toCompletableFuture();
+
+        // when
+        CompletableFuture<Bulkhead.Permit> second = bulkhead.acquirePermit().toCompletableFuture();
+
+        // then
+        try {
+            second.get(5, TimeUnit.SECONDS);
+            fail("Expected an ExecutionException");
+        }
+        catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(BulkheadFullException.class);
+        }
+
+        first.get().release();
+
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+    }
+
+    private void shouldHandOverReleasedSlotToWaitingThread(boolean fair) throws Exception {
+
+        // given
+        AtomicBulkhead bulkhead = new AtomicBulkhead("test", waitingConfig(fair, 10000));
+        bulkhead.isCallPermitted(); // consume the permit
+        AtomicBoolean entered = new AtomicBoolean(false);
+        CountDownLatch started = new CountDownLatch(1);
+        Thread waiting = new Thread(() -> {
+            started.countDown();
+            entered.set(bulkhead.tryEnterBulkhead());
+        });
+
+        // when
+        waiting.start();
+        started.await();
+        Thread.sleep(50);
+        bulkhead.onComplete();
+        waiting.join(5000);
+
+        // then
+        assertThat(entered.get()).isTrue();
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(0);
+    }
+
+    private static BulkheadConfig waitingConfig(boolean fair, long maxWaitTime) {
+        return BulkheadConfig.custom()
+                             .bulkheadType(BulkheadConfig.BulkheadType.ATOMIC)
+                             .fairCallHandling(fair)
+                             .maxConcurrentCalls(1)
+                             .maxWaitTime(maxWaitTime)
+                             .build();
+    }
+}
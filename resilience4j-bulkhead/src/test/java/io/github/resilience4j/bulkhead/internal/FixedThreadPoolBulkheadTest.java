@@ -0,0 +1,177 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler, Lucas Lech
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.bulkhead.internal;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.event.BulkheadEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.resilience4j.bulkhead.event.BulkheadEvent.Type.CALL_PERMITTED;
+import static io.github.resilience4j.bulkhead.event.BulkheadEvent.Type.CALL_REJECTED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class FixedThreadPoolBulkheadTest {
+
+    private ThreadPoolBulkhead bulkhead;
+    private List<BulkheadEvent.Type> events;
+
+    @Before
+    public void setUp() {
+
+        ThreadPoolBulkheadConfig config = ThreadPoolBulkheadConfig.custom()
+                                                                  .maxThreadPoolSize(1)
+                                                                  .coreThreadPoolSize(1)
+                                                                  .queueCapacity(1)
+                                                                  .build();
+
+        bulkhead = ThreadPoolBulkhead.of("test", config);
+        events = new CopyOnWriteArrayList<>();
+        bulkhead.getEventPublisher()
+                .onCallPermitted(event -> events.add(event.getEventType()))
+                .onCallRejected(event -> events.add(event.getEventType()));
+    }
+
+    @After
+    public void tearDown() {
+        bulkhead.close();
+    }
+
+    @Test
+    public void shouldReturnTheCorrectName() {
+        assertThat(bulkhead.getName()).isEqualTo("test");
+    }
+
+    @Test
+    public void shouldExecuteCallOnThreadOfBulkhead() throws Exception {
+
+        // when
+        CompletionStage<String> result = bulkhead.executeSupplier(() -> Thread.currentThread().getName());
+
+        // then
+        assertThat(result.toCompletableFuture().get(5, TimeUnit.SECONDS)).isEqualTo("bulkhead-test-1");
+        assertThat(events).containsExactly(CALL_PERMITTED);
+    }
+
+    @Test
+    public void shouldQueueCallsAndRejectWhenQueueIsFull() throws Exception {
+
+        // given
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // when
+        CompletionStage<String> first = bulkhead.executeCallable(() -> {
+            running.countDown();
+            release.await();
+            return "first";
+        });
+        running.await(5, TimeUnit.SECONDS);
+        CompletionStage<String> second = bulkhead.executeSupplier(() -> "second");
+        CompletionStage<String> third = bulkhead.executeSupplier(() -> "third");
+
+        // then
+        assertThat(bulkhead.getMetrics().getActiveThreadCount()).isEqualTo(1);
+        assertThat(bulkhead.getMetrics().getQueueDepth()).isEqualTo(1);
+        assertThat(bulkhead.getMetrics().getRemainingQueueCapacity()).isEqualTo(0);
+        assertThat(third.toCompletableFuture().isCompletedExceptionally()).isTrue();
+        assertThatCauseIsBulkheadFull(third.toCompletableFuture());
+
+        release.countDown();
+        assertThat(first.toCompletableFuture().get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(second.toCompletableFuture().get(5, TimeUnit.SECONDS)).isEqualTo("second");
+        assertThat(events).containsExactly(CALL_PERMITTED, CALL_PERMITTED, CALL_REJECTED);
+    }
+
+    @Test
+    public void shouldCompleteExceptionallyIfCallFails() throws Exception {
+
+        // when
+        CompletionStage<Void> result = bulkhead.executeRunnable(() -> {
+            throw new IllegalStateException("BAM!");
+        });
+
+        // then
+        try {
+            result.toCompletableFuture().get(5, TimeUnit.SECONDS);
+            fail("Expected an ExecutionException");
+        }
+        catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    public void testMetrics() {
+
+        // when
+        ThreadPoolBulkhead.Metrics metrics = bulkhead.getMetrics();
+
+        // then
+        assertThat(metrics.getCoreThreadPoolSize()).isEqualTo(1);
+        assertThat(metrics.getMaximumThreadPoolSize()).isEqualTo(1);
+        assertThat(metrics.getThreadPoolSize()).isEqualTo(0);
+        assertThat(metrics.getQueueCapacity()).isEqualTo(1);
+        assertThat(metrics.getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void testToString() {
+
+        // when
+        String result = bulkhead.toString();
+
+        // then
+        assertThat(result).isEqualTo("ThreadPoolBulkhead 'test'");
+    }
+
+    @Test
+    public void testCreateWithNullConfig() {
+
+        // when
+        ThreadPoolBulkhead bulkhead = ThreadPoolBulkhead.of("test", () -> null);
+
+        // then
+        assertThat(bulkhead).isNotNull();
+        assertThat(bulkhead.getBulkheadConfig()).isNotNull();
+        bulkhead.close();
+    }
+
+    private static void assertThatCauseIsBulkheadFull(CompletableFuture<?> future) throws InterruptedException {
+        try {
+            future.get();
+            fail("Expected an ExecutionException");
+        }
+        catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(BulkheadFullException.class);
+        }
+    }
+}
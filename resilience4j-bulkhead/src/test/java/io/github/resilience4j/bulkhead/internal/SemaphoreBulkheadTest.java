@@ -21,17 +21,22 @@ package io.github.resilience4j.bulkhead.internal;
 import io.github.resilience4j.adapter.RxJava2Adapter;
 import io.github.resilience4j.bulkhead.Bulkhead;
 import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
 import io.github.resilience4j.bulkhead.event.BulkheadEvent;
 import io.reactivex.subscribers.TestSubscriber;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
 import static io.github.resilience4j.bulkhead.event.BulkheadEvent.Type.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 
 public class SemaphoreBulkheadTest {
 
@@ -152,6 +157,206 @@ public class SemaphoreBulkheadTest {
         assertThat(entered).isFalse();
     }
 
+    @Test
+    public void testAcquirePermitWithoutWaitTime() throws Exception {
+
+        // when
+        CompletableFuture<Bulkhead.Permit> first = bulkhead.acquirePermit().toCompletableFuture();
+        CompletableFuture<Bulkhead.Permit> second = bulkhead.acquirePermit().toCompletableFuture();
+        CompletableFuture<Bulkhead.Permit> third = bulkhead.acquirePermit().toCompletableFuture();
+
+        // then
+        assertThat(first.isDone()).isTrue();
+        assertThat(second.isDone()).isTrue();
+        assertThat(third.isCompletedExceptionally()).isTrue();
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(0);
+
+        first.get().release();
+        second.get().release();
+
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(2);
+        testSubscriber.assertValueCount(3)
+                      .assertValues(CALL_PERMITTED, CALL_PERMITTED, CALL_REJECTED);
+    }
+
+    @Test
+    public void testAcquirePermitIsGrantedWhenSlotIsReleased() throws Exception {
+
+        // given
+        BulkheadConfig config = BulkheadConfig.custom()
+                                              .maxConcurrentCalls(1)
+                                              .maxWaitTime(10000)
+                                              .build();
+
+        SemaphoreBulkhead bulkhead = new SemaphoreBulkhead("test", config);
+        CompletableFuture<Bulkhead.Permit> first = bulkhead.acquirePermit().toCompletableFuture();
+
+        // when
+        CompletableFuture<Bulkhead.Permit> second = bulkhead.acquirePermit().toCompletableFuture();
+        CompletableFuture<Bulkhead.Permit> third = bulkhead.acquirePermit().toCompletableFuture();
+
+        // then
+        assertThat(second.isDone()).isFalse();
+        assertThat(third.isDone()).isFalse();
+
+        first.get().release();
+
+        assertThat(second.isDone()).isTrue();
+        assertThat(third.isDone()).isFalse();
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(0);
+
+        second.get().release();
+        third.get().release();
+
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+    }
+
+    @Test
+    public void testAcquirePermitTimeout() throws Exception {
+
+        // given
+        BulkheadConfig config = BulkheadConfig.custom()
+                                              .maxConcurrentCalls(1)
+                                              .maxWaitTime(10)
+                                              .build();
+
+        SemaphoreBulkhead bulkhead = new SemaphoreBulkhead("test", config);
+        CompletableFuture<Bulkhead.Permit> first = bulkhead.acquirePermit().toCompletableFuture();
+
+        // when
+        CompletableFuture<Bulkhead.Permit> second = bulkhead.acquirePermit().toCompletableFuture();
+
+        // then
+        try {
+            second.get(5, TimeUnit.SECONDS);
+            fail("Expected an ExecutionException");
+        }
+        catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(BulkheadFullException.class);
+        }
+
+        first.get().release();
+
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+    }
+
+    @Test
+    public void testTimedOutPermitIsNotRejectedOnSharedScheduler() throws Exception {
+
+        // given
+        BulkheadConfig config = BulkheadConfig.custom()
+                                              .maxConcurrentCalls(1)
+                                              .maxWaitTime(50)
+                                              .build();
+
+        SemaphoreBulkhead bulkhead = new SemaphoreBulkhead("test", config);
+        bulkhead.isCallPermitted();
+
+        // when
+        CompletableFuture<String> rejectingThread = bulkhead.acquirePermit()
+            .handle((permit, throwable) -> Thread.currentThread().getName())
+            .toCompletableFuture();
+
+        // then
+        assertThat(rejectingThread.get(5, TimeUnit.SECONDS)).isNotEqualTo("resilience4j-shared-scheduler");
+        bulkhead.onComplete();
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+
+        // given
+        BulkheadConfig config = BulkheadConfig.custom()
+                                              .bulkheadType(BulkheadConfig.BulkheadType.SEMAPHORE)
+                                              .maxConcurrentCalls(2)
+                                              .maxWaitTime(10)
+                                              .build();
+
+        Bulkhead bulkhead = Bulkhead.of("test", config);
+
+        // when
+        bulkhead.isCallPermitted();
+        bulkhead.isCallPermitted();
+        bulkhead.isCallPermitted();
+        CompletableFuture<Bulkhead.Permit> waiting = bulkhead.acquirePermit().toCompletableFuture();
+        bulkhead.onComplete();
+        waiting.get().release();
+        bulkhead.onComplete();
+
+        // then
+        Bulkhead.Metrics metrics = bulkhead.getMetrics();
+        assertThat(metrics.getAvailableConcurrentCalls()).isEqualTo(2);
+        assertThat(metrics.getMaxInFlightCalls()).isEqualTo(2);
+        assertThat(metrics.getNumberOfPermittedCalls()).isEqualTo(3L);
+        assertThat(metrics.getNumberOfRejectedCalls()).isEqualTo(1L);
+        assertThat(metrics.getWaitTimeHistogram().getCount()).isEqualTo(2L);
+    }
+
+    @Test
+    public void testGrowingReleasesSlots() {
+
+        // given
+        bulkhead.isCallPermitted();
+        bulkhead.isCallPermitted();
+
+        // when
+        bulkhead.changeMaxConcurrentCalls(3);
+
+        // then
+        assertThat(bulkhead.getBulkheadConfig().getMaxConcurrentCalls()).isEqualTo(3);
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+        assertThat(bulkhead.isCallPermitted()).isTrue();
+        assertThat(bulkhead.isCallPermitted()).isFalse();
+    }
+
+    @Test
+    public void testShrinkingIsAbsorbedByCompletingCalls() {
+
+        // given
+        bulkhead.isCallPermitted();
+        bulkhead.isCallPermitted();
+
+        // when
+        bulkhead.changeMaxConcurrentCalls(1);
+
+        // then
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(0);
+        bulkhead.onComplete();
+        assertThat(bulkhead.isCallPermitted()).isFalse();
+        bulkhead.onComplete();
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+        assertThat(bulkhead.isCallPermitted()).isTrue();
+
+        testSubscriber.assertValueCount(5)
+                      .assertValues(CALL_PERMITTED, CALL_PERMITTED, CONFIG_CHANGED, CALL_REJECTED, CALL_PERMITTED);
+    }
+
+    @Test
+    public void testGrowingHandsOverSlotsToWaitingCalls() throws Exception {
+
+        // given
+        BulkheadConfig config = BulkheadConfig.custom()
+                                              .bulkheadType(BulkheadConfig.BulkheadType.SEMAPHORE)
+                                              .maxConcurrentCalls(1)
+                                              .maxWaitTime(10000)
+                                              .build();
+
+        Bulkhead bulkhead = Bulkhead.of("test", config);
+        CompletableFuture<Bulkhead.Permit> first = bulkhead.acquirePermit().toCompletableFuture();
+        CompletableFuture<Bulkhead.Permit> second = bulkhead.acquirePermit().toCompletableFuture();
+
+        // when
+        bulkhead.changeMaxConcurrentCalls(2);
+
+        // then
+        assertThat(second.isDone()).isTrue();
+
+        first.get().release();
+        second.get().release();
+
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(2);
+    }
+
     @Test // best effort, no asserts
     public void testEntryInterrupted() {
 
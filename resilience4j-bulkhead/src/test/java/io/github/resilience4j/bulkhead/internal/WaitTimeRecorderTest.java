@@ -0,0 +1,65 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler, Lucas Lech
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.bulkhead.internal;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WaitTimeRecorderTest {
+
+    @Test
+    public void shouldCountWaitTimesInBuckets() {
+
+        // given
+        WaitTimeRecorder histogram = new WaitTimeRecorder();
+
+        // when
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(500));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        histogram.record(TimeUnit.SECONDS.toNanos(60));
+
+        // then
+        long[] counts = histogram.getBucketCounts();
+        assertThat(counts.length).isEqualTo(histogram.getBucketUpperBoundsInMillis().length + 1);
+        assertThat(counts[0]).isEqualTo(2L);
+        assertThat(counts[1]).isEqualTo(0L);
+        assertThat(counts[2]).isEqualTo(1L);
+        assertThat(counts[counts.length - 1]).isEqualTo(1L);
+        assertThat(histogram.getCount()).isEqualTo(4L);
+        assertThat(histogram.getSumInNanos()).isEqualTo(TimeUnit.MICROSECONDS.toNanos(60_004_500));
+    }
+
+    @Test
+    public void shouldRecordNegativeWaitTimeAsZero() {
+
+        // given
+        WaitTimeRecorder histogram = new WaitTimeRecorder();
+
+        // when
+        histogram.record(-1);
+
+        // then
+        assertThat(histogram.getBucketCounts()[0]).isEqualTo(1L);
+        assertThat(histogram.getSumInNanos()).isEqualTo(0L);
+    }
+}
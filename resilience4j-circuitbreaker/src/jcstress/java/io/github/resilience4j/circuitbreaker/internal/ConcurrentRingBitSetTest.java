@@ -0,0 +1,89 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler and Bohdan Storozhuk
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.circuitbreaker.internal;
+
+import org.openjdk.jcstress.annotations.*;
+import org.openjdk.jcstress.infra.results.StringResult1;
+
+import java.text.MessageFormat;
+
+public class ConcurrentRingBitSetTest {
+
+    /**
+     * Both bits live in the same word, so a lost CAS update would show up as a missing bit.
+     */
+    @JCStressTest
+    @State
+    @Outcome(id = "cardinality=2 length=2 bits=11", expect = Expect.ACCEPTABLE)
+    public static class SameWord {
+
+        private final RingBitSet ringBitSet = new RingBitSet(2);
+
+        @Actor
+        public void firstActor() {
+            ringBitSet.setNextBit(true);
+        }
+
+        @Actor
+        public void secondActor() {
+            ringBitSet.setNextBit(true);
+        }
+
+        @Arbiter
+        public void arbiter(StringResult1 result1) {
+            result1.r1 = describe(ringBitSet);
+        }
+    }
+
+    /**
+     * Both actors race for the only slot, the cardinality must always match the surviving bit.
+     */
+    @JCStressTest
+    @State
+    @Outcome(id = "cardinality=1 length=1 bits=1", expect = Expect.ACCEPTABLE)
+    @Outcome(id = "cardinality=0 length=1 bits=0", expect = Expect.ACCEPTABLE)
+    public static class Overwrite {
+
+        private final RingBitSet ringBitSet = new RingBitSet(1);
+
+        @Actor
+        public void firstActor() {
+            ringBitSet.setNextBit(true);
+        }
+
+        @Actor
+        public void secondActor() {
+            ringBitSet.setNextBit(false);
+        }
+
+        @Arbiter
+        public void arbiter(StringResult1 result1) {
+            result1.r1 = describe(ringBitSet);
+        }
+    }
+
+    private static String describe(RingBitSet ringBitSet) {
+        return MessageFormat.format(
+            "cardinality={0} length={1} bits={2}",
+            ringBitSet.cardinality(),
+            ringBitSet.length(),
+            ringBitSet.toString()
+        );
+    }
+}
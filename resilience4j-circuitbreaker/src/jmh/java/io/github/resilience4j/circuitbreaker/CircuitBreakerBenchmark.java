@@ -36,6 +36,7 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
@@ -52,6 +53,7 @@ public class CircuitBreakerBenchmark {
     private Supplier<String> protectedSupplier;
     private Supplier<String> protectedSupplierWithSb;
     private Supplier<String> stringSupplier;
+    private CircuitBreaker openCircuitBreaker;
 
     @Setup
     public void setUp() {
@@ -65,6 +67,11 @@ public class CircuitBreakerBenchmark {
 
         CircuitBreaker circuitBreakerWithSubscriber = CircuitBreaker.ofDefaults("testCircuitBreakerWithSb");
         protectedSupplierWithSb = CircuitBreaker.decorateSupplier(circuitBreakerWithSubscriber, stringSupplier);
+
+        openCircuitBreaker = CircuitBreaker.of("testOpenCircuitBreaker", CircuitBreakerConfig.custom()
+            .waitDurationInOpenState(Duration.ofDays(1))
+            .build());
+        openCircuitBreaker.transitionToOpenState();
     }
 
     @Benchmark
@@ -94,6 +101,15 @@ public class CircuitBreakerBenchmark {
         return protectedSupplierWithSb.get();
     }
 
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public boolean rejectedCallInOpenState() {
+        return openCircuitBreaker.isCallPermitted();
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options options = new OptionsBuilder()
             .addProfiler(GCProfiler.class)
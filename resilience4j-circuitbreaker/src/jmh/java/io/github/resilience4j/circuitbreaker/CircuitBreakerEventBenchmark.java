@@ -0,0 +1,131 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.circuitbreaker;
+
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerCallListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the cost of recording successful calls with different kinds of event consumers.
+ * Run it with the GC profiler ({@code -prof gc}) to compare the allocation rates.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.Throughput)
+public class CircuitBreakerEventBenchmark {
+
+    private static final int ITERATION_COUNT = 10;
+    private static final int WARMUP_COUNT = 10;
+    private static final int THREAD_COUNT = 2;
+    private static final int FORK_COUNT = 2;
+
+    private CircuitBreaker circuitBreakerWithoutConsumer;
+    private CircuitBreaker circuitBreakerWithEventConsumer;
+    private CircuitBreaker circuitBreakerWithStateTransitionConsumer;
+    private CircuitBreaker circuitBreakerWithCallListener;
+
+    @Setup
+    public void setUp() {
+        circuitBreakerWithoutConsumer = CircuitBreaker.ofDefaults("withoutConsumer");
+
+        LongAdder events = new LongAdder();
+        circuitBreakerWithEventConsumer = CircuitBreaker.ofDefaults("withEventConsumer");
+        circuitBreakerWithEventConsumer.getEventPublisher()
+            .onEvent(event -> events.increment());
+
+        LongAdder stateTransitions = new LongAdder();
+        circuitBreakerWithStateTransitionConsumer = CircuitBreaker.ofDefaults("withStateTransitionConsumer");
+        circuitBreakerWithStateTransitionConsumer.getEventPublisher()
+            .onStateTransition(event -> stateTransitions.increment());
+
+        LongAdder successfulCalls = new LongAdder();
+        LongAdder totalDurationInNanos = new LongAdder();
+        circuitBreakerWithCallListener = CircuitBreaker.ofDefaults("withCallListener");
+        circuitBreakerWithCallListener.getEventPublisher()
+            .onCallOutcome(new CircuitBreakerCallListener() {
+                @Override
+                public void onSuccess(String circuitBreakerName, long durationInNanos) {
+                    successfulCalls.increment();
+                    totalDurationInNanos.add(durationInNanos);
+                }
+            });
+    }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public void withoutConsumer() {
+        circuitBreakerWithoutConsumer.onSuccess(1000);
+    }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public void withEventConsumer() {
+        circuitBreakerWithEventConsumer.onSuccess(1000);
+    }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public void withStateTransitionConsumer() {
+        circuitBreakerWithStateTransitionConsumer.onSuccess(1000);
+    }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public void withCallListener() {
+        circuitBreakerWithCallListener.onSuccess(1000);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(CircuitBreakerEventBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
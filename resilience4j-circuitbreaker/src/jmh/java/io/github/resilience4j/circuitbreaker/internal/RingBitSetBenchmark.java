@@ -33,13 +33,16 @@ public class RingBitSetBenchmark {
     private static final int ITERATION_COUNT = 10;
     private static final int WARMUP_COUNT = 10;
     private static final int THREAD_COUNT = 2;
+    private static final int CONTENDED_THREAD_COUNT = 32;
     private static final int FORK_COUNT = 2;
 
     private RingBitSet ringBitSet;
+    private RingBitSet contendedRingBitSet;
 
     @Setup
     public void setUp() {
         ringBitSet = new RingBitSet(CAPACITY);
+        contendedRingBitSet = new RingBitSet(CAPACITY);
     }
 
     @Fork(value = FORK_COUNT)
@@ -64,4 +67,30 @@ public class RingBitSetBenchmark {
         int cardinality = ringBitSet.cardinality();
         bh.consume(cardinality);
     }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Group("contendedRingBitSet")
+    @GroupThreads(CONTENDED_THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public void contendedSetBits(Blackhole bh) {
+        int firstCardinality = contendedRingBitSet.setNextBit(true);
+        bh.consume(firstCardinality);
+        int secondCardinality = contendedRingBitSet.setNextBit(false);
+        bh.consume(secondCardinality);
+    }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Group("contendedRingBitSet")
+    @GroupThreads(1)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public void contendedCardinality(Blackhole bh) {
+        int cardinality = contendedRingBitSet.cardinality();
+        bh.consume(cardinality);
+        int length = contendedRingBitSet.length();
+        bh.consume(length);
+    }
 }
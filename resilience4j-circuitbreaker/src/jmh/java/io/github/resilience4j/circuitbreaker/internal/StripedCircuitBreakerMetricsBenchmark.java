@@ -0,0 +1,104 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.circuitbreaker.internal;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.Throughput)
+public class StripedCircuitBreakerMetricsBenchmark {
+
+    private static final int CAPACITY = 1000;
+    private static final int ITERATION_COUNT = 10;
+    private static final int WARMUP_COUNT = 10;
+    private static final int FORK_COUNT = 2;
+
+    private CircuitBreakerMetrics ringBitSetMetrics;
+    private StripedCircuitBreakerMetrics stripedMetrics;
+
+    @Setup
+    public void setUp() {
+        ringBitSetMetrics = new CircuitBreakerMetrics(CAPACITY);
+        stripedMetrics = new StripedCircuitBreakerMetrics(CAPACITY);
+    }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = 1)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public void ringBitSetWith1Thread(Blackhole bh) {
+        record(ringBitSetMetrics, bh);
+    }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = 8)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public void ringBitSetWith8Threads(Blackhole bh) {
+        record(ringBitSetMetrics, bh);
+    }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = 64)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public void ringBitSetWith64Threads(Blackhole bh) {
+        record(ringBitSetMetrics, bh);
+    }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = 1)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public void stripedWith1Thread(Blackhole bh) {
+        record(stripedMetrics, bh);
+    }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = 8)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public void stripedWith8Threads(Blackhole bh) {
+        record(stripedMetrics, bh);
+    }
+
+    @Benchmark
+    @Fork(value = FORK_COUNT)
+    @Threads(value = 64)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public void stripedWith64Threads(Blackhole bh) {
+        record(stripedMetrics, bh);
+    }
+
+    private static void record(RecordingMetrics metrics, Blackhole bh) {
+        bh.consume(metrics.onSuccess());
+        bh.consume(metrics.onError());
+    }
+}
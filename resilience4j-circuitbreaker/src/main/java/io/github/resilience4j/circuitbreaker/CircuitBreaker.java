@@ -289,6 +289,18 @@ public interface CircuitBreaker {
 
         EventPublisher onCallNotPermitted(EventConsumer<CircuitBreakerOnCallNotPermittedEvent> eventConsumer);
 
+        /**
+         * Registers a listener which is notified about the outcome of calls without creating events.
+         * Listeners which have been registered before are kept. Publishers which do not support
+         * listeners ignore them.
+         *
+         * @param callListener the listener
+         * @return the EventPublisher
+         */
+        default EventPublisher onCallOutcome(CircuitBreakerCallListener callListener) {
+            return this;
+        }
+
     }
 
     interface Metrics {
@@ -316,10 +328,11 @@ public interface CircuitBreaker {
         int getNumberOfFailedCalls();
 
         /**
-         * Returns the current number of not permitted calls, when the state is OPEN.
+         * Returns the current number of not permitted calls, when the state is OPEN or HALF_OPEN.
          *
-         * The number of denied calls is always 0, when the CircuitBreaker state is CLOSED or HALF_OPEN.
-         * The number of denied calls is only increased when the CircuitBreaker state is OPEN.
+         * The number of denied calls is always 0, when the CircuitBreaker state is CLOSED.
+         * The number of denied calls is increased when the CircuitBreaker state is OPEN or when all trial calls
+         * of the HALF_OPEN state have been permitted already.
          *
          * @return the current number of not permitted calls
          */
@@ -338,6 +351,26 @@ public interface CircuitBreaker {
          * @return the current number of successful calls
          */
         int getNumberOfSuccessfulCalls();
+
+        /**
+         * Returns the slow call rate in percentage. If the number of measured calls is below the minimum number of measured calls,
+         * it returns -1. Implementations which do not record slow calls always return -1.
+         *
+         * @return the slow call rate in percentage
+         */
+        default float getSlowCallRate() {
+            return -1.0f;
+        }
+
+        /**
+         * Returns the current number of calls which took longer than the slow call duration threshold.
+         * Implementations which do not record slow calls always return 0.
+         *
+         * @return the current number of slow calls
+         */
+        default int getNumberOfSlowCalls() {
+            return 0;
+        }
     }
 
     /**
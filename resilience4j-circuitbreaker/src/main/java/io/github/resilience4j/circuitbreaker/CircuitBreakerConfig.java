@@ -31,11 +31,20 @@ public class CircuitBreakerConfig {
     public static final int DEFAULT_WAIT_DURATION_IN_OPEN_STATE = 60; // Seconds
     public static final int DEFAULT_RING_BUFFER_SIZE_IN_HALF_OPEN_STATE = 10;
     public static final int DEFAULT_RING_BUFFER_SIZE_IN_CLOSED_STATE = 100;
+    public static final int DEFAULT_SLIDING_TIME_WINDOW_SIZE = 60; // Seconds
+    public static final int DEFAULT_SLOW_CALL_RATE_THRESHOLD = 100; // Percentage
+    public static final int DEFAULT_SLOW_CALL_DURATION_THRESHOLD = 60; // Seconds
 
     private float failureRateThreshold = DEFAULT_MAX_FAILURE_THRESHOLD;
     private int ringBufferSizeInHalfOpenState = DEFAULT_RING_BUFFER_SIZE_IN_HALF_OPEN_STATE;
     private int ringBufferSizeInClosedState = DEFAULT_RING_BUFFER_SIZE_IN_CLOSED_STATE;
     private Duration waitDurationInOpenState = Duration.ofSeconds(DEFAULT_WAIT_DURATION_IN_OPEN_STATE);
+    private boolean stripedMetrics = false;
+    private boolean automaticTransitionFromOpenToHalfOpenEnabled = false;
+    private SlidingWindowType slidingWindowType = SlidingWindowType.COUNT_BASED;
+    private int slidingTimeWindowSizeInSeconds = DEFAULT_SLIDING_TIME_WINDOW_SIZE;
+    private float slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+    private Duration slowCallDurationThreshold = Duration.ofSeconds(DEFAULT_SLOW_CALL_DURATION_THRESHOLD);
     // The default exception predicate counts all exceptions as failures.
     private Predicate<? super Throwable> recordFailurePredicate = (exception) -> true;
 
@@ -62,6 +71,30 @@ public class CircuitBreakerConfig {
         return recordFailurePredicate;
     }
 
+    public boolean isStripedMetrics() {
+        return stripedMetrics;
+    }
+
+    public boolean isAutomaticTransitionFromOpenToHalfOpenEnabled() {
+        return automaticTransitionFromOpenToHalfOpenEnabled;
+    }
+
+    public SlidingWindowType getSlidingWindowType() {
+        return slidingWindowType;
+    }
+
+    public int getSlidingTimeWindowSizeInSeconds() {
+        return slidingTimeWindowSizeInSeconds;
+    }
+
+    public float getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public Duration getSlowCallDurationThreshold() {
+        return slowCallDurationThreshold;
+    }
+
     /**
      * Returns a builder to create a custom CircuitBreakerConfig.
      *
@@ -100,6 +133,39 @@ public class CircuitBreakerConfig {
             return this;
         }
 
+        /**
+         * Configures the slow call rate threshold in percentage above which the CircuitBreaker should trip open and start short-circuiting calls.
+         * A call is slow, if it takes longer than the {@code slowCallDurationThreshold}. The slow call rate is evaluated over the same sliding window
+         * as the failure rate, so that the CircuitBreaker also opens when a backend slows down instead of failing.
+         *
+         * The threshold must be greater than 0 and not greater than 100. Default value is 100 percentage.
+         *
+         * @param slowCallRateThreshold the slow call rate threshold in percentage
+         * @return the CircuitBreakerConfig.Builder
+         */
+        public Builder slowCallRateThreshold(float slowCallRateThreshold) {
+            if (slowCallRateThreshold <= 0 || slowCallRateThreshold > 100) {
+                throw new IllegalArgumentException("slowCallRateThreshold must be between 1 and 100");
+            }
+            config.slowCallRateThreshold = slowCallRateThreshold;
+            return this;
+        }
+
+        /**
+         * Configures the duration threshold above which calls are considered as slow and increase the slow call rate.
+         * Default value is 60 seconds.
+         *
+         * @param slowCallDurationThreshold the duration above which calls are considered as slow
+         * @return the CircuitBreakerConfig.Builder
+         */
+        public Builder slowCallDurationThreshold(Duration slowCallDurationThreshold) {
+            if (slowCallDurationThreshold.isNegative() || slowCallDurationThreshold.isZero()) {
+                throw new IllegalArgumentException("slowCallDurationThreshold must be greater than 0");
+            }
+            config.slowCallDurationThreshold = slowCallDurationThreshold;
+            return this;
+        }
+
         /**
          * Configures the wait duration which specifies how long the CircuitBreaker should stay open, before it switches to half open.
          * Default value is 60 seconds.
@@ -119,6 +185,7 @@ public class CircuitBreakerConfig {
          * Configures the size of the ring buffer when the CircuitBreaker is half open. The CircuitBreaker stores the success/failure success / failure status of the latest calls in a ring buffer.
          * For example, if {@code ringBufferSizeInClosedState} is 10, then at least 10 calls must be evaluated, before the failure rate can be calculated.
          * If only 9 calls have been evaluated the CircuitBreaker will not trip back to closed or open even if all 9 calls have failed.
+         * The size is also the number of trial calls which are permitted when the CircuitBreaker is half open. Further calls are not permitted.
          *
          * The size must be greater than 0. Default size is 10.
          *
@@ -163,6 +230,69 @@ public class CircuitBreakerConfig {
             return this;
         }
 
+        /**
+         * Enables striped metrics. The outcomes of calls are recorded into several stripes, one per available processor,
+         * which are only aggregated when the failure rate is needed. This reduces the contention of CircuitBreakers which
+         * are used by many threads concurrently, but the ring buffer only approximates the order of the latest calls.
+         * Default value is false.
+         *
+         * @param stripedMetrics true, if the outcomes of calls should be recorded into striped ring buffers
+         * @return the CircuitBreakerConfig.Builder
+         */
+        public Builder stripedMetrics(boolean stripedMetrics) {
+            config.stripedMetrics = stripedMetrics;
+            return this;
+        }
+
+        /**
+         * Enables the automatic transition from open to half open. A scheduler transitions the CircuitBreaker as soon as
+         * the {@code waitDurationInOpenState} has elapsed, even if no call is made. Otherwise the transition happens when
+         * the first call is made after the wait duration. The scheduler is shared by all CircuitBreakers of a CircuitBreakerRegistry.
+         * Default value is false.
+         *
+         * @param automaticTransitionFromOpenToHalfOpenEnabled true, if the CircuitBreaker should switch to half open automatically
+         * @return the CircuitBreakerConfig.Builder
+         */
+        public Builder automaticTransitionFromOpenToHalfOpenEnabled(boolean automaticTransitionFromOpenToHalfOpenEnabled) {
+            config.automaticTransitionFromOpenToHalfOpenEnabled = automaticTransitionFromOpenToHalfOpenEnabled;
+            return this;
+        }
+
+        /**
+         * Configures the type of the sliding window which is used to calculate the failure rate when the CircuitBreaker is closed.
+         * A {@link SlidingWindowType#COUNT_BASED} sliding window evaluates the latest {@code ringBufferSizeInClosedState} calls.
+         * A {@link SlidingWindowType#TIME_BASED} sliding window evaluates the calls of the last {@code slidingTimeWindowSizeInSeconds} seconds,
+         * as soon as at least {@code ringBufferSizeInClosedState} calls have been recorded within the time window.
+         * Default value is {@link SlidingWindowType#COUNT_BASED}.
+         *
+         * @param slidingWindowType the type of the sliding window
+         * @return the CircuitBreakerConfig.Builder
+         */
+        public Builder slidingWindowType(SlidingWindowType slidingWindowType) {
+            if (slidingWindowType == null) {
+                throw new IllegalArgumentException("slidingWindowType must not be null");
+            }
+            config.slidingWindowType = slidingWindowType;
+            return this;
+        }
+
+        /**
+         * Configures the size of the time window in seconds, if the sliding window type is {@link SlidingWindowType#TIME_BASED}.
+         * The calls are counted in one bucket per second.
+         *
+         * The size must be greater than 0. Default size is 60 seconds.
+         *
+         * @param slidingTimeWindowSizeInSeconds the size of the time window in seconds
+         * @return the CircuitBreakerConfig.Builder
+         */
+        public Builder slidingTimeWindowSizeInSeconds(int slidingTimeWindowSizeInSeconds) {
+            if (slidingTimeWindowSizeInSeconds < 1) {
+                throw new IllegalArgumentException("slidingTimeWindowSizeInSeconds must be greater than 0");
+            }
+            config.slidingTimeWindowSizeInSeconds = slidingTimeWindowSizeInSeconds;
+            return this;
+        }
+
         /**
          * Builds a CircuitBreakerConfig
          *
@@ -172,4 +302,14 @@ public class CircuitBreakerConfig {
             return config;
         }
     }
+
+    /**
+     * The type of the sliding window which is used to calculate the failure rate when the CircuitBreaker is closed.
+     */
+    public enum SlidingWindowType {
+        /** The failure rate is calculated over the latest calls stored in a ring buffer. */
+        COUNT_BASED,
+        /** The failure rate is calculated over the calls of the last seconds. */
+        TIME_BASED
+    }
 }
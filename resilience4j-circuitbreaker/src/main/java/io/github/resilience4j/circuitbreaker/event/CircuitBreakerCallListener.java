@@ -0,0 +1,66 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.circuitbreaker.event;
+
+/**
+ * A listener which is notified about the outcome of calls with primitive arguments instead of {@link CircuitBreakerEvent CircuitBreakerEvents}.
+ * <p>
+ * Notifying a listener does not allocate any objects, which makes it suitable for consumers which only need aggregated data,
+ * for example counters or histograms. The listener is invoked synchronously on the thread which records the outcome,
+ * so implementations must be thread-safe and fast. All methods do nothing by default.
+ */
+public interface CircuitBreakerCallListener {
+
+    /**
+     * Called when a successful call has been recorded.
+     *
+     * @param circuitBreakerName the name of the CircuitBreaker
+     * @param durationInNanos    the elapsed duration of the call in nanoseconds
+     */
+    default void onSuccess(String circuitBreakerName, long durationInNanos) {
+    }
+
+    /**
+     * Called when a failed call has been recorded.
+     *
+     * @param circuitBreakerName the name of the CircuitBreaker
+     * @param durationInNanos    the elapsed duration of the call in nanoseconds
+     * @param throwable          the throwable which has been recorded as a failure
+     */
+    default void onError(String circuitBreakerName, long durationInNanos, Throwable throwable) {
+    }
+
+    /**
+     * Called when a failed call has been ignored.
+     *
+     * @param circuitBreakerName the name of the CircuitBreaker
+     * @param durationInNanos    the elapsed duration of the call in nanoseconds
+     * @param throwable          the throwable which has been ignored
+     */
+    default void onIgnoredError(String circuitBreakerName, long durationInNanos, Throwable throwable) {
+    }
+
+    /**
+     * Called when a call has not been permitted.
+     *
+     * @param circuitBreakerName the name of the CircuitBreaker
+     */
+    default void onCallNotPermitted(String circuitBreakerName) {
+    }
+}
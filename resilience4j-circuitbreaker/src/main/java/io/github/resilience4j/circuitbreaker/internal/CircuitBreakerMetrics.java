@@ -19,27 +19,31 @@
 package io.github.resilience4j.circuitbreaker.internal;
 
 
-import io.github.resilience4j.circuitbreaker.CircuitBreaker;
-
 import java.util.concurrent.atomic.LongAdder;
 
-class CircuitBreakerMetrics implements CircuitBreaker.Metrics {
+class CircuitBreakerMetrics implements RecordingMetrics {
 
     private final int ringBufferSize;
     private final RingBitSet ringBitSet;
+    private final RingBitSet slowCallRingBitSet;
     private final LongAdder numberOfNotPermittedCalls;
 
     CircuitBreakerMetrics(int ringBufferSize) {
-        this(ringBufferSize, null);
+        this(ringBufferSize, null, null);
     }
 
-    CircuitBreakerMetrics(int ringBufferSize, RingBitSet sourceSet) {
+    CircuitBreakerMetrics(int ringBufferSize, RingBitSet sourceSet, RingBitSet slowCallSourceSet) {
         this.ringBufferSize = ringBufferSize;
         if(sourceSet != null) {
             this.ringBitSet = new RingBitSet(this.ringBufferSize, sourceSet);
         }else{
             this.ringBitSet = new RingBitSet(this.ringBufferSize);
         }
+        if(slowCallSourceSet != null) {
+            this.slowCallRingBitSet = new RingBitSet(this.ringBufferSize, slowCallSourceSet);
+        }else{
+            this.slowCallRingBitSet = new RingBitSet(this.ringBufferSize);
+        }
         this.numberOfNotPermittedCalls = new LongAdder();
     }
 
@@ -50,34 +54,53 @@ class CircuitBreakerMetrics implements CircuitBreaker.Metrics {
      * @param targetRingBufferSize the ringBufferSize of the new CircuitBreakerMetrics instances
      * @return a CircuitBreakerMetrics
      */
+    @Override
     public CircuitBreakerMetrics copy(int targetRingBufferSize) {
-        return new CircuitBreakerMetrics(targetRingBufferSize, this.ringBitSet);
+        return new CircuitBreakerMetrics(targetRingBufferSize, this.ringBitSet, this.slowCallRingBitSet);
+    }
+
+    /**
+     * Creates a new StripedCircuitBreakerMetrics instance and spreads the content of the current RingBitSet
+     * over its stripes.
+     *
+     * @param targetRingBufferSize the ringBufferSize of the new StripedCircuitBreakerMetrics instance
+     * @return a StripedCircuitBreakerMetrics
+     */
+    StripedCircuitBreakerMetrics copyToStripes(int targetRingBufferSize) {
+        return new StripedCircuitBreakerMetrics(targetRingBufferSize, this.ringBitSet, this.slowCallRingBitSet);
     }
 
     /**
      * Records a failed call and returns the current failure rate in percentage.
      *
+     * @param slowCall true, if the call took longer than the slow call duration threshold
      * @return the current failure rate  in percentage.
      */
-    float onError() {
+    @Override
+    public float onError(boolean slowCall) {
+        slowCallRingBitSet.setNextBit(slowCall);
         int currentNumberOfFailedCalls = ringBitSet.setNextBit(true);
-        return getFailureRate(currentNumberOfFailedCalls);
+        return getRate(currentNumberOfFailedCalls);
     }
 
     /**
      * Records a successful call and returns the current failure rate in percentage.
      *
+     * @param slowCall true, if the call took longer than the slow call duration threshold
      * @return the current failure rate in percentage.
      */
-    float onSuccess() {
+    @Override
+    public float onSuccess(boolean slowCall) {
+        slowCallRingBitSet.setNextBit(slowCall);
         int currentNumberOfFailedCalls = ringBitSet.setNextBit(false);
-        return getFailureRate(currentNumberOfFailedCalls);
+        return getRate(currentNumberOfFailedCalls);
     }
 
     /**
      * Records a call which was not permitted, because the CircuitBreaker state is OPEN.
      */
-    void onCallNotPermitted() {
+    @Override
+    public void onCallNotPermitted() {
         numberOfNotPermittedCalls.increment();
     }
 
@@ -86,7 +109,7 @@ class CircuitBreakerMetrics implements CircuitBreaker.Metrics {
      */
     @Override
     public float getFailureRate() {
-        return getFailureRate(getNumberOfFailedCalls());
+        return getRate(getNumberOfFailedCalls());
     }
 
     /**
@@ -129,10 +152,26 @@ class CircuitBreakerMetrics implements CircuitBreaker.Metrics {
         return this.ringBitSet.cardinality();
     }
 
-    private float getFailureRate(int numberOfFailedCalls) {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public float getSlowCallRate() {
+        return getRate(getNumberOfSlowCalls());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfSlowCalls() {
+        return this.slowCallRingBitSet.cardinality();
+    }
+
+    private float getRate(int numberOfCalls) {
         if (getNumberOfBufferedCalls() < ringBufferSize) {
             return -1.0f;
         }
-        return numberOfFailedCalls * 100.0f / ringBufferSize;
+        return numberOfCalls * 100.0f / ringBufferSize;
     }
 }
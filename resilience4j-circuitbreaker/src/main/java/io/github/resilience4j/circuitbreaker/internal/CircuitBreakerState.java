@@ -33,11 +33,19 @@ abstract class CircuitBreakerState{
 
     abstract boolean isCallPermitted();
 
-    abstract void onError(Throwable throwable);
+    abstract void onError(long durationInNanos, Throwable throwable);
 
-    abstract void onSuccess();
+    abstract void onSuccess(long durationInNanos);
+
+    /**
+     * Returns the permission of a call whose outcome was not recorded.
+     * Only states which limit the number of permitted calls have to release the permission.
+     */
+    void releasePermission() {
+        // Nothing to release by default
+    }
 
     abstract CircuitBreaker.State getState();
 
-    abstract CircuitBreakerMetrics getMetrics();
+    abstract RecordingMetrics getMetrics();
 }
@@ -24,10 +24,15 @@ import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.event.*;
 import io.github.resilience4j.core.EventConsumer;
 import io.github.resilience4j.core.EventProcessor;
+import io.github.resilience4j.core.NanoClock;
+import io.github.resilience4j.core.Schedulers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
@@ -44,6 +49,8 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
     private final AtomicReference<CircuitBreakerState> stateReference;
     private final CircuitBreakerConfig circuitBreakerConfig;
     private final CircuitBreakerEventProcessor eventProcessor;
+    private final NanoClock clock;
+    private final ScheduledExecutorService transitionScheduler;
 
     /**
      * Creates a circuitBreaker.
@@ -52,10 +59,36 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
      * @param circuitBreakerConfig The CircuitBreaker configuration.
      */
     public CircuitBreakerStateMachine(String name, CircuitBreakerConfig circuitBreakerConfig) {
+        this(name, circuitBreakerConfig, NanoClock.system());
+    }
+
+    /**
+     * Creates a circuitBreaker which measures the elapsed time with a custom clock.
+     *
+     * @param name                 the name of the CircuitBreaker
+     * @param circuitBreakerConfig The CircuitBreaker configuration.
+     * @param clock                The clock which is used to measure the wait duration in open state and the sliding time window.
+     */
+    public CircuitBreakerStateMachine(String name, CircuitBreakerConfig circuitBreakerConfig, NanoClock clock) {
+        this(name, circuitBreakerConfig, clock, null);
+    }
+
+    /**
+     * Creates a circuitBreaker which uses a custom scheduler to transition automatically from open to half open,
+     * if the automatic transition is enabled in the configuration.
+     *
+     * @param name                 the name of the CircuitBreaker
+     * @param circuitBreakerConfig The CircuitBreaker configuration.
+     * @param clock                The clock which is used to measure the wait duration in open state and the sliding time window.
+     * @param transitionScheduler  The scheduler which transitions the CircuitBreaker from open to half open or null, if a shared default scheduler should be used.
+     */
+    public CircuitBreakerStateMachine(String name, CircuitBreakerConfig circuitBreakerConfig, NanoClock clock, ScheduledExecutorService transitionScheduler) {
         this.name = name;
         this.circuitBreakerConfig = circuitBreakerConfig;
-        this.stateReference = new AtomicReference<>(new ClosedState(this));
+        this.clock = clock;
+        this.transitionScheduler = transitionScheduler;
         this.eventProcessor = new CircuitBreakerEventProcessor();
+        this.stateReference = new AtomicReference<>(new ClosedState(this));
     }
 
     /**
@@ -91,6 +124,15 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
         return callPermitted;
     }
 
+    /**
+     * Requests permission from the current state without publishing an event.
+     *
+     * @return true, if the call is allowed by the current state.
+     */
+    boolean isCallPermittedInCurrentState() {
+        return stateReference.get().isCallPermitted();
+    }
+
     @Override
     public void onError(long durationInNanos, Throwable throwable) {
         if (circuitBreakerConfig.getRecordFailurePredicate().test(throwable)) {
@@ -98,16 +140,17 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
                 LOG.debug(String.format("CircuitBreaker '%s' recorded a failure:", name), throwable);
             }
             publishCircuitErrorEvent(name, durationInNanos, throwable);
-            stateReference.get().onError(throwable);
+            stateReference.get().onError(durationInNanos, throwable);
         } else {
             publishCircuitIgnoredErrorEvent(name, durationInNanos, throwable);
+            stateReference.get().releasePermission();
         }
     }
 
     @Override
     public void onSuccess(long durationInNanos) {
         publishSuccessEvent(durationInNanos);
-        stateReference.get().onSuccess();
+        stateReference.get().onSuccess(durationInNanos);
     }
 
     /**
@@ -141,6 +184,15 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
         return circuitBreakerConfig;
     }
 
+    /**
+     * Get the clock of this CircuitBreaker.
+     *
+     * @return the clock of this CircuitBreaker
+     */
+    NanoClock getClock() {
+        return clock;
+    }
+
     @Override
     public Metrics getMetrics() {
         return this.stateReference.get().getMetrics();
@@ -178,7 +230,28 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
         });
         if (previousState.getState() != OPEN) {
             publishStateTransitionEvent(StateTransition.transitionToOpenState(previousState.getState()));
+            if (circuitBreakerConfig.isAutomaticTransitionFromOpenToHalfOpenEnabled()) {
+                scheduleTransitionToHalfOpenState(stateReference.get());
+            }
+        }
+    }
+
+    /**
+     * Schedules the transition from the given open state to half open after the wait duration.
+     * The transition is skipped, if the CircuitBreaker has left the given open state in the meantime.
+     *
+     * @param openState the open state which should be left
+     */
+    private void scheduleTransitionToHalfOpenState(CircuitBreakerState openState) {
+        if (openState.getState() != OPEN) {
+            return;
         }
+        ScheduledExecutorService scheduler = transitionScheduler != null ? transitionScheduler : Schedulers.shared();
+        scheduler.schedule(() -> {
+            if (stateReference.compareAndSet(openState, new HalfOpenState(this))) {
+                publishStateTransitionEvent(StateTransition.transitionToHalfOpenState(OPEN));
+            }
+        }, circuitBreakerConfig.getWaitDurationInOpenState().toNanos(), TimeUnit.NANOSECONDS);
     }
 
     @Override
@@ -201,32 +274,44 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
                     name, stateTransition.getFromState(), stateTransition.getToState())
             );
         }
-        if(eventProcessor.hasConsumers()){
+        if(eventProcessor.hasConsumers(CircuitBreakerEvent.Type.STATE_TRANSITION)){
             eventProcessor.consumeEvent(new CircuitBreakerOnStateTransitionEvent(name, stateTransition));
         }
 
     }
 
     private void publishCallNotPermittedEvent() {
-        if(eventProcessor.hasConsumers()) {
+        for (CircuitBreakerCallListener callListener : eventProcessor.callListeners) {
+            callListener.onCallNotPermitted(name);
+        }
+        if(eventProcessor.hasConsumers(CircuitBreakerEvent.Type.NOT_PERMITTED)) {
             eventProcessor.consumeEvent(new CircuitBreakerOnCallNotPermittedEvent(name));
         }
     }
 
     private void publishSuccessEvent(final long durationInNanos) {
-        if(eventProcessor.hasConsumers()) {
+        for (CircuitBreakerCallListener callListener : eventProcessor.callListeners) {
+            callListener.onSuccess(name, durationInNanos);
+        }
+        if(eventProcessor.hasConsumers(CircuitBreakerEvent.Type.SUCCESS)) {
             eventProcessor.consumeEvent(new CircuitBreakerOnSuccessEvent(name, Duration.ofNanos(durationInNanos)));
         }
     }
 
     private void publishCircuitErrorEvent(final String name, final long durationInNanos, final Throwable throwable) {
-        if(eventProcessor.hasConsumers()) {
+        for (CircuitBreakerCallListener callListener : eventProcessor.callListeners) {
+            callListener.onError(name, durationInNanos, throwable);
+        }
+        if(eventProcessor.hasConsumers(CircuitBreakerEvent.Type.ERROR)) {
             eventProcessor.consumeEvent(new CircuitBreakerOnErrorEvent(name, Duration.ofNanos(durationInNanos), throwable));
         }
     }
 
     private void publishCircuitIgnoredErrorEvent(String name, long durationInNanos, Throwable throwable) {
-        if(eventProcessor.hasConsumers()) {
+        for (CircuitBreakerCallListener callListener : eventProcessor.callListeners) {
+            callListener.onIgnoredError(name, durationInNanos, throwable);
+        }
+        if(eventProcessor.hasConsumers(CircuitBreakerEvent.Type.IGNORED_ERROR)) {
             eventProcessor.consumeEvent(new CircuitBreakerOnIgnoredErrorEvent(name, Duration.ofNanos(durationInNanos), throwable));
         }
     }
@@ -237,33 +322,52 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
     }
 
     private class CircuitBreakerEventProcessor extends EventProcessor<CircuitBreakerEvent> implements EventConsumer<CircuitBreakerEvent>, EventPublisher {
+
+        private volatile CircuitBreakerCallListener[] callListeners = new CircuitBreakerCallListener[0];
+
+        CircuitBreakerEventProcessor() {
+            super(event -> event.getEventType().ordinal(), CircuitBreakerEvent.Type.values().length);
+        }
+
+        boolean hasConsumers(CircuitBreakerEvent.Type eventType) {
+            return hasConsumers(eventType.ordinal());
+        }
+
         @Override
         public EventPublisher onSuccess(EventConsumer<CircuitBreakerOnSuccessEvent> onSuccessEventConsumer) {
-            registerConsumer(CircuitBreakerOnSuccessEvent.class, onSuccessEventConsumer);
+            registerConsumer(CircuitBreakerEvent.Type.SUCCESS.ordinal(), onSuccessEventConsumer);
             return this;
         }
 
         @Override
         public EventPublisher onError(EventConsumer<CircuitBreakerOnErrorEvent> onErrorEventConsumer) {
-            registerConsumer(CircuitBreakerOnErrorEvent.class, onErrorEventConsumer);
+            registerConsumer(CircuitBreakerEvent.Type.ERROR.ordinal(), onErrorEventConsumer);
             return this;
         }
 
         @Override
         public EventPublisher onStateTransition(EventConsumer<CircuitBreakerOnStateTransitionEvent> onStateTransitionEventConsumer) {
-            registerConsumer(CircuitBreakerOnStateTransitionEvent.class, onStateTransitionEventConsumer);
+            registerConsumer(CircuitBreakerEvent.Type.STATE_TRANSITION.ordinal(), onStateTransitionEventConsumer);
             return this;
         }
 
         @Override
         public EventPublisher onIgnoredError(EventConsumer<CircuitBreakerOnIgnoredErrorEvent> onIgnoredErrorEventConsumer) {
-            registerConsumer(CircuitBreakerOnIgnoredErrorEvent.class, onIgnoredErrorEventConsumer);
+            registerConsumer(CircuitBreakerEvent.Type.IGNORED_ERROR.ordinal(), onIgnoredErrorEventConsumer);
             return this;
         }
 
         @Override
         public EventPublisher onCallNotPermitted(EventConsumer<CircuitBreakerOnCallNotPermittedEvent> onCallNotPermittedEventConsumer) {
-            registerConsumer(CircuitBreakerOnCallNotPermittedEvent.class, onCallNotPermittedEventConsumer);
+            registerConsumer(CircuitBreakerEvent.Type.NOT_PERMITTED.ordinal(), onCallNotPermittedEventConsumer);
+            return this;
+        }
+
+        @Override
+        public synchronized EventPublisher onCallOutcome(CircuitBreakerCallListener callListener) {
+            CircuitBreakerCallListener[] listeners = Arrays.copyOf(callListeners, callListeners.length + 1);
+            listeners[callListeners.length] = callListener;
+            callListeners = listeners;
             return this;
         }
 
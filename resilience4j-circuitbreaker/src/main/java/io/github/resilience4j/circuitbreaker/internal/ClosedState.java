@@ -23,23 +23,22 @@ import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 
 final class ClosedState extends CircuitBreakerState {
 
-    private final CircuitBreakerMetrics circuitBreakerMetrics;
+    private final RecordingMetrics circuitBreakerMetrics;
     private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long slowCallDurationThresholdInNanos;
 
     ClosedState(CircuitBreakerStateMachine stateMachine) {
         this(stateMachine, null);
     }
 
-    ClosedState(CircuitBreakerStateMachine stateMachine, CircuitBreakerMetrics circuitBreakerMetrics) {
+    ClosedState(CircuitBreakerStateMachine stateMachine, RecordingMetrics circuitBreakerMetrics) {
         super(stateMachine);
         CircuitBreakerConfig circuitBreakerConfig = stateMachine.getCircuitBreakerConfig();
-        if(circuitBreakerMetrics == null){
-            this.circuitBreakerMetrics = new CircuitBreakerMetrics(
-                circuitBreakerConfig.getRingBufferSizeInClosedState());
-        }else{
-            this.circuitBreakerMetrics = circuitBreakerMetrics.copy(circuitBreakerConfig.getRingBufferSizeInClosedState());
-        }
-        this.failureRateThreshold = stateMachine.getCircuitBreakerConfig().getFailureRateThreshold();
+        this.circuitBreakerMetrics = RecordingMetrics.ofClosedState(circuitBreakerConfig, circuitBreakerMetrics, stateMachine.getClock());
+        this.failureRateThreshold = circuitBreakerConfig.getFailureRateThreshold();
+        this.slowCallRateThreshold = circuitBreakerConfig.getSlowCallRateThreshold();
+        this.slowCallDurationThresholdInNanos = circuitBreakerConfig.getSlowCallDurationThreshold().toNanos();
     }
 
     /**
@@ -53,26 +52,31 @@ final class ClosedState extends CircuitBreakerState {
     }
 
     @Override
-    void onError(Throwable throwable) {
-        // CircuitBreakerMetrics is thread-safe
-        checkFailureRate(circuitBreakerMetrics.onError());
+    void onError(long durationInNanos, Throwable throwable) {
+        // RecordingMetrics is thread-safe
+        boolean slowCall = durationInNanos >= slowCallDurationThresholdInNanos;
+        checkFailureRate(circuitBreakerMetrics.onError(slowCall), slowCall);
     }
 
     @Override
-    void onSuccess() {
-        // CircuitBreakerMetrics is thread-safe
-        checkFailureRate(circuitBreakerMetrics.onSuccess());
+    void onSuccess(long durationInNanos) {
+        // RecordingMetrics is thread-safe
+        boolean slowCall = durationInNanos >= slowCallDurationThresholdInNanos;
+        checkFailureRate(circuitBreakerMetrics.onSuccess(slowCall), slowCall);
     }
 
     /**
-     * Checks if the current failure rate is above the threshold.
-     * If the failure rate is above the threshold, transitions the state machine to OPEN state.
+     * Checks if the current failure rate or slow call rate is above the threshold.
+     * If one of the rates is above its threshold, transitions the state machine to OPEN state.
+     * The slow call rate is only checked after a slow call, because a fast call can not increase it.
      *
      * @param currentFailureRate the current failure rate
+     * @param slowCall true, if the recorded call was slow
      */
-    private void checkFailureRate(float currentFailureRate) {
-        if (currentFailureRate >= failureRateThreshold) {
-            // Transition the state machine to OPEN state, because the failure rate is above the threshold
+    private void checkFailureRate(float currentFailureRate, boolean slowCall) {
+        if (currentFailureRate >= failureRateThreshold
+            || (slowCall && circuitBreakerMetrics.getSlowCallRate() >= slowCallRateThreshold)) {
+            // Transition the state machine to OPEN state, because the failure rate or slow call rate is above the threshold
             stateMachine.transitionToOpenState();
         }
     }
@@ -89,7 +93,7 @@ final class ClosedState extends CircuitBreakerState {
      * Get metricsof the CircuitBreaker
      */
     @Override
-    CircuitBreakerMetrics getMetrics() {
+    RecordingMetrics getMetrics() {
         return circuitBreakerMetrics;
     }
 }
@@ -21,51 +21,85 @@ package io.github.resilience4j.circuitbreaker.internal;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 final class HalfOpenState extends CircuitBreakerState {
 
-    private CircuitBreakerMetrics circuitBreakerMetrics;
+    private RecordingMetrics circuitBreakerMetrics;
     private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long slowCallDurationThresholdInNanos;
+    private final AtomicInteger permittedNumberOfCalls;
 
     HalfOpenState(CircuitBreakerStateMachine stateMachine) {
         super(stateMachine);
         CircuitBreakerConfig circuitBreakerConfig = stateMachine.getCircuitBreakerConfig();
-        this.circuitBreakerMetrics = new CircuitBreakerMetrics(
-                circuitBreakerConfig.getRingBufferSizeInHalfOpenState());
-        this.failureRateThreshold = stateMachine.getCircuitBreakerConfig().getFailureRateThreshold();
+        this.circuitBreakerMetrics = RecordingMetrics.ofHalfOpenState(circuitBreakerConfig);
+        this.failureRateThreshold = circuitBreakerConfig.getFailureRateThreshold();
+        this.slowCallRateThreshold = circuitBreakerConfig.getSlowCallRateThreshold();
+        this.slowCallDurationThresholdInNanos = circuitBreakerConfig.getSlowCallDurationThreshold().toNanos();
+        this.permittedNumberOfCalls = new AtomicInteger(circuitBreakerConfig.getRingBufferSizeInHalfOpenState());
     }
 
     /**
-     * Returns always true, because the CircuitBreaker is half open.
+     * Returns true, as long as the number of trial calls does not exceed the size of the ring buffer in half open state.
+     * Otherwise returns false, so that a barely recovered backend does not get the full load, before the CircuitBreaker
+     * has decided whether to close or open again.
      *
-     * @return always true, because the CircuitBreaker is half open.
+     * @return true, if a trial call is permitted. false, if all trial calls have been permitted already.
      */
     @Override
     boolean isCallPermitted() {
+        // Thread-safe
+        if (tryAcquirePermission()) {
+            return true;
+        }
+        circuitBreakerMetrics.onCallNotPermitted();
+        return false;
+    }
+
+    /**
+     * Returns the permission of a trial call whose outcome was ignored, so that another trial call is permitted.
+     */
+    @Override
+    void releasePermission() {
+        permittedNumberOfCalls.incrementAndGet();
+    }
+
+    private boolean tryAcquirePermission() {
+        int currentNumberOfPermittedCalls;
+        do {
+            currentNumberOfPermittedCalls = permittedNumberOfCalls.get();
+            if (currentNumberOfPermittedCalls <= 0) {
+                return false;
+            }
+        } while (!permittedNumberOfCalls.compareAndSet(currentNumberOfPermittedCalls, currentNumberOfPermittedCalls - 1));
         return true;
     }
 
     @Override
-    void onError(Throwable throwable) {
-        // CircuitBreakerMetrics is thread-safe
-        checkFailureRate(circuitBreakerMetrics.onError());
+    void onError(long durationInNanos, Throwable throwable) {
+        // RecordingMetrics is thread-safe
+        checkFailureRate(circuitBreakerMetrics.onError(durationInNanos >= slowCallDurationThresholdInNanos));
     }
 
     @Override
-    void onSuccess() {
-        // CircuitBreakerMetrics is thread-safe
-        checkFailureRate(circuitBreakerMetrics.onSuccess());
+    void onSuccess(long durationInNanos) {
+        // RecordingMetrics is thread-safe
+        checkFailureRate(circuitBreakerMetrics.onSuccess(durationInNanos >= slowCallDurationThresholdInNanos));
     }
 
     /**
-     * Checks if the current failure rate is above or below the threshold.
-     * If the failure rate is above the threshold, transition the state machine to OPEN state.
-     * If the failure rate is below the threshold, transition the state machine to CLOSED state.
+     * Checks if the current failure rate and slow call rate are above or below the thresholds.
+     * If one of the rates is above its threshold, transition the state machine to OPEN state.
+     * If both rates are below the thresholds, transition the state machine to CLOSED state.
      *
      * @param currentFailureRate the current failure rate
      */
     private void checkFailureRate(float currentFailureRate) {
         if(currentFailureRate != -1){
-            if(currentFailureRate >= failureRateThreshold) {
+            if(currentFailureRate >= failureRateThreshold
+                || circuitBreakerMetrics.getSlowCallRate() >= slowCallRateThreshold) {
                 stateMachine.transitionToOpenState();
             }else{
                 stateMachine.transitionToClosedState();
@@ -82,7 +116,7 @@ final class HalfOpenState extends CircuitBreakerState {
     }
 
     @Override
-    CircuitBreakerMetrics getMetrics() {
+    RecordingMetrics getMetrics() {
         return circuitBreakerMetrics;
     }
 }
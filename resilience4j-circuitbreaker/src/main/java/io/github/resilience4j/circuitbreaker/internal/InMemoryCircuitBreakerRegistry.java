@@ -21,12 +21,15 @@ package io.github.resilience4j.circuitbreaker.internal;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.NanoClock;
+import io.github.resilience4j.core.Schedulers;
 import io.vavr.collection.Array;
 import io.vavr.collection.Seq;
 
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Supplier;
 
 /**
@@ -42,6 +45,12 @@ public final class InMemoryCircuitBreakerRegistry implements CircuitBreakerRegis
      */
     private final ConcurrentMap<String, CircuitBreaker> circuitBreakers;
 
+    /**
+     * The scheduler which transitions the circuitBreakers from open to half open, shared by all circuitBreakers of this registry.
+     * It is only created, if the automatic transition is enabled for at least one circuitBreaker.
+     */
+    private volatile ScheduledExecutorService transitionScheduler;
+
     /**
      * The constructor with default circuitBreaker properties.
      */
@@ -70,7 +79,7 @@ public final class InMemoryCircuitBreakerRegistry implements CircuitBreakerRegis
      */
     @Override
     public CircuitBreaker circuitBreaker(String name) {
-        return circuitBreakers.computeIfAbsent(Objects.requireNonNull(name, "Name must not be null"), (k) -> CircuitBreaker.of(name,
+        return circuitBreakers.computeIfAbsent(Objects.requireNonNull(name, "Name must not be null"), (k) -> createCircuitBreaker(name,
                 defaultCircuitBreakerConfig));
     }
 
@@ -79,13 +88,33 @@ public final class InMemoryCircuitBreakerRegistry implements CircuitBreakerRegis
      */
     @Override
     public CircuitBreaker circuitBreaker(String name, CircuitBreakerConfig customCircuitBreakerConfig) {
-        return circuitBreakers.computeIfAbsent(Objects.requireNonNull(name, "Name must not be null"), (k) -> CircuitBreaker.of(name,
+        return circuitBreakers.computeIfAbsent(Objects.requireNonNull(name, "Name must not be null"), (k) -> createCircuitBreaker(name,
                 customCircuitBreakerConfig));
     }
 
     @Override
     public CircuitBreaker circuitBreaker(String name, Supplier<CircuitBreakerConfig> circuitBreakerConfigSupplier) {
-        return circuitBreakers.computeIfAbsent(Objects.requireNonNull(name, "Name must not be null"), (k) -> CircuitBreaker.of(name,
+        return circuitBreakers.computeIfAbsent(Objects.requireNonNull(name, "Name must not be null"), (k) -> createCircuitBreaker(name,
                 circuitBreakerConfigSupplier.get()));
     }
+
+    private CircuitBreaker createCircuitBreaker(String name, CircuitBreakerConfig circuitBreakerConfig) {
+        Objects.requireNonNull(circuitBreakerConfig, "CircuitBreakerConfig must not be null");
+        ScheduledExecutorService scheduler = circuitBreakerConfig.isAutomaticTransitionFromOpenToHalfOpenEnabled() ? getTransitionScheduler() : null;
+        return new CircuitBreakerStateMachine(name, circuitBreakerConfig, NanoClock.system(), scheduler);
+    }
+
+    private ScheduledExecutorService getTransitionScheduler() {
+        ScheduledExecutorService scheduler = transitionScheduler;
+        if (scheduler == null) {
+            synchronized (this) {
+                scheduler = transitionScheduler;
+                if (scheduler == null) {
+                    scheduler = Schedulers.newSingleThreadScheduler("CircuitBreakerRegistry-transition-scheduler");
+                    transitionScheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
 }
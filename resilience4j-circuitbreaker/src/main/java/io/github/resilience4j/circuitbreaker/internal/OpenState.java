@@ -19,32 +19,36 @@
 package io.github.resilience4j.circuitbreaker.internal;
 
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
-
-import java.time.Instant;
+import io.github.resilience4j.core.NanoClock;
 
 final class OpenState extends CircuitBreakerState {
 
-    private final Instant retryAfterWaitDuration;
-    private final CircuitBreakerMetrics circuitBreakerMetrics;
+    private final NanoClock clock;
+    private final long retryAfterWaitDurationInNanos;
+    private final RecordingMetrics circuitBreakerMetrics;
+    private final long slowCallDurationThresholdInNanos;
 
-    OpenState(CircuitBreakerStateMachine stateMachine, CircuitBreakerMetrics circuitBreakerMetrics) {
+    OpenState(CircuitBreakerStateMachine stateMachine, RecordingMetrics circuitBreakerMetrics) {
         super(stateMachine);
-        this.retryAfterWaitDuration = Instant.now().plus(stateMachine.getCircuitBreakerConfig().getWaitDurationInOpenState());
+        this.clock = stateMachine.getClock();
+        this.retryAfterWaitDurationInNanos = clock.nanoTime() + stateMachine.getCircuitBreakerConfig().getWaitDurationInOpenState().toNanos();
         this.circuitBreakerMetrics = circuitBreakerMetrics;
+        this.slowCallDurationThresholdInNanos = stateMachine.getCircuitBreakerConfig().getSlowCallDurationThreshold().toNanos();
     }
 
     /**
      * Returns false, if the wait duration has not elapsed.
-     * Returns true, if the wait duration has elapsed and transitions the state machine to HALF_OPEN state.
+     * If the wait duration has elapsed, transitions the state machine to HALF_OPEN state and
+     * returns whether the HALF_OPEN state permits the call.
      *
-     * @return false, if the wait duration has not elapsed. true, if the wait duration has elapsed.
+     * @return false, if the wait duration has not elapsed. true, if the wait duration has elapsed and a trial call is permitted.
      */
     @Override
     boolean isCallPermitted() {
-        // Thread-safe
-        if (Instant.now().isAfter(retryAfterWaitDuration)) {
+        // Thread-safe and allocation-free, the difference is compared to be safe against overflows of the clock
+        if (clock.nanoTime() - retryAfterWaitDurationInNanos > 0) {
             stateMachine.transitionToHalfOpenState();
-            return true;
+            return stateMachine.isCallPermittedInCurrentState();
         }
         circuitBreakerMetrics.onCallNotPermitted();
         return false;
@@ -54,22 +58,22 @@ final class OpenState extends CircuitBreakerState {
      * Should never be called when isCallPermitted returns false.
      */
     @Override
-    void onError(Throwable throwable) {
+    void onError(long durationInNanos, Throwable throwable) {
         // Could be called when Thread 1 invokes isCallPermitted when the state is CLOSED, but in the meantime another
         // Thread 2 calls onError and the state changes from CLOSED to OPEN before Thread 1 calls onError.
         // But the onError event should still be recorded, even if it happened after the state transition.
-        circuitBreakerMetrics.onError();
+        circuitBreakerMetrics.onError(durationInNanos >= slowCallDurationThresholdInNanos);
     }
 
     /**
      * Should never be called when isCallPermitted returns false.
      */
     @Override
-    void onSuccess() {
+    void onSuccess(long durationInNanos) {
         // Could be called when Thread 1 invokes isCallPermitted when the state is CLOSED, but in the meantime another
         // Thread 2 calls onError and the state changes from CLOSED to OPEN before Thread 1 calls onSuccess.
         // But the onSuccess event should still be recorded, even if it happened after the state transition.
-        circuitBreakerMetrics.onSuccess();
+        circuitBreakerMetrics.onSuccess(durationInNanos >= slowCallDurationThresholdInNanos);
     }
 
     /**
@@ -81,7 +85,7 @@ final class OpenState extends CircuitBreakerState {
     }
 
     @Override
-    CircuitBreakerMetrics getMetrics() {
+    RecordingMetrics getMetrics() {
         return circuitBreakerMetrics;
     }
 }
@@ -0,0 +1,125 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.circuitbreaker.internal;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.NanoClock;
+
+/**
+ * {@link CircuitBreaker.Metrics} which are recorded by the states of the {@link CircuitBreakerStateMachine}.
+ */
+interface RecordingMetrics extends CircuitBreaker.Metrics {
+
+    /**
+     * Records a failed call and returns the current failure rate in percentage.
+     *
+     * @param slowCall true, if the call took longer than the slow call duration threshold
+     * @return the current failure rate in percentage or -1, if the failure rate could not be calculated yet.
+     */
+    float onError(boolean slowCall);
+
+    /**
+     * Records a successful call and returns the current failure rate in percentage.
+     *
+     * @param slowCall true, if the call took longer than the slow call duration threshold
+     * @return the current failure rate in percentage or -1, if the failure rate could not be calculated yet.
+     */
+    float onSuccess(boolean slowCall);
+
+    /**
+     * Records a failed call which was not slow and returns the current failure rate in percentage.
+     *
+     * @return the current failure rate in percentage or -1, if the failure rate could not be calculated yet.
+     */
+    default float onError() {
+        return onError(false);
+    }
+
+    /**
+     * Records a successful call which was not slow and returns the current failure rate in percentage.
+     *
+     * @return the current failure rate in percentage or -1, if the failure rate could not be calculated yet.
+     */
+    default float onSuccess() {
+        return onSuccess(false);
+    }
+
+    /**
+     * Records a call which was not permitted, because the CircuitBreaker state is OPEN.
+     */
+    void onCallNotPermitted();
+
+    /**
+     * Creates a new RecordingMetrics instance of the same kind and copies the recorded calls into it.
+     *
+     * @param targetRingBufferSize the ringBufferSize of the new RecordingMetrics instance
+     * @return a RecordingMetrics
+     */
+    RecordingMetrics copy(int targetRingBufferSize);
+
+    /**
+     * Creates the RecordingMetrics configured by the given CircuitBreakerConfig.
+     *
+     * @param circuitBreakerConfig the CircuitBreaker configuration
+     * @param ringBufferSize the size of the ring buffer
+     * @return a RecordingMetrics
+     */
+    static RecordingMetrics of(CircuitBreakerConfig circuitBreakerConfig, int ringBufferSize) {
+        if (circuitBreakerConfig.isStripedMetrics()) {
+            return new StripedCircuitBreakerMetrics(ringBufferSize);
+        }
+        return new CircuitBreakerMetrics(ringBufferSize);
+    }
+
+    /**
+     * Creates the RecordingMetrics of the HALF_OPEN state. They are never striped, because a stripe of
+     * the small ring buffer of the HALF_OPEN state would only hold one or two calls.
+     *
+     * @param circuitBreakerConfig the CircuitBreaker configuration
+     * @return a RecordingMetrics
+     */
+    static RecordingMetrics ofHalfOpenState(CircuitBreakerConfig circuitBreakerConfig) {
+        return new CircuitBreakerMetrics(circuitBreakerConfig.getRingBufferSizeInHalfOpenState());
+    }
+
+    /**
+     * Creates the RecordingMetrics of the CLOSED state configured by the given CircuitBreakerConfig.
+     * The calls recorded by the previous metrics are copied, if the sliding window is count-based.
+     *
+     * @param circuitBreakerConfig the CircuitBreaker configuration
+     * @param previousMetrics the metrics of the previous state or null
+     * @param clock the clock which is used by a time-based sliding window
+     * @return a RecordingMetrics
+     */
+    static RecordingMetrics ofClosedState(CircuitBreakerConfig circuitBreakerConfig, RecordingMetrics previousMetrics, NanoClock clock) {
+        if (circuitBreakerConfig.getSlidingWindowType() == CircuitBreakerConfig.SlidingWindowType.TIME_BASED) {
+            return new SlidingTimeWindowMetrics(circuitBreakerConfig.getSlidingTimeWindowSizeInSeconds(),
+                circuitBreakerConfig.getRingBufferSizeInClosedState(), clock);
+        }
+        if (previousMetrics == null) {
+            return of(circuitBreakerConfig, circuitBreakerConfig.getRingBufferSizeInClosedState());
+        }
+        if (circuitBreakerConfig.isStripedMetrics() && previousMetrics instanceof CircuitBreakerMetrics) {
+            // the calls of the HALF_OPEN state are spread over the stripes
+            return ((CircuitBreakerMetrics) previousMetrics).copyToStripes(circuitBreakerConfig.getRingBufferSizeInClosedState());
+        }
+        return previousMetrics.copy(circuitBreakerConfig.getRingBufferSizeInClosedState());
+    }
+}
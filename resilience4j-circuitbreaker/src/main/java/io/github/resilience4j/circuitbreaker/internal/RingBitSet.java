@@ -18,19 +18,24 @@
  */
 package io.github.resilience4j.circuitbreaker.internal;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * A ring bit set which stores bits up to a maximum size of bits.
+ * A lock-free ring bit set which stores bits up to a maximum size of bits.
+ * <p>
+ * Every call to {@link #setNextBit(boolean)} claims the next slot with an atomic
+ * increment of a sequence counter and updates the bit with a CAS on the containing word.
+ * The cardinality is adjusted by the observed difference between the previous and the new bit,
+ * so it always matches the number of bits set to {@code true} once all writers have finished.
  */
 class RingBitSet {
 
     private final int size;
     private final BitSetMod bitSet;
 
-    private boolean notFull;
-    private int index = -1;
-
-    private volatile int length;
-    private volatile int cardinality = 0;
+    private final AtomicLong sequence;
+    private final AtomicInteger cardinality;
 
 
     /**
@@ -43,9 +48,10 @@ class RingBitSet {
      *                                    is negative
      */
     RingBitSet(int bitSetSize) {
-        notFull = true;
         size = bitSetSize;
         bitSet = new BitSetMod(bitSetSize);
+        sequence = new AtomicLong();
+        cardinality = new AtomicInteger();
     }
 
     /**
@@ -61,8 +67,8 @@ class RingBitSet {
     RingBitSet(int bitSetSize, RingBitSet sourceSet) {
         this(bitSetSize);
 
-        int targetLength = Integer.min(bitSetSize, sourceSet.length);
-        int sourceIndex = sourceSet.index;
+        int targetLength = Integer.min(bitSetSize, sourceSet.length());
+        int sourceIndex = sourceSet.getIndex();
         int forwardIndex = sourceSet.size - sourceIndex;
         for (int i = 0; i < targetLength; i++) {
             this.setNextBit(sourceSet.bitSet.get(sourceIndex));
@@ -72,20 +78,45 @@ class RingBitSet {
         }
     }
 
+    /**
+     * Copies the bits of this ring bit set into the given ring bit sets in turns, like
+     * {@link #RingBitSet(int, RingBitSet)} starting with the newest bit. Only as many bits are copied
+     * as the given ring bit sets can hold together.
+     *
+     * @param targetSets the ring bit sets to copy the bits into
+     */
+    void copyInto(RingBitSet[] targetSets) {
+        int capacity = 0;
+        for (RingBitSet targetSet : targetSets) {
+            capacity += targetSet.size;
+        }
+        int targetLength = Integer.min(capacity, length());
+        int sourceIndex = getIndex();
+        int forwardIndex = size - sourceIndex;
+        for (int i = 0; i < targetLength; i++) {
+            targetSets[i % targetSets.length].setNextBit(bitSet.get(sourceIndex));
+            // looping sourceIndex backwards without conditional statements
+            forwardIndex = (forwardIndex + 1) % size;
+            sourceIndex = (size - forwardIndex) % size;
+        }
+    }
+
     /**
      * Sets the bit at the next index to the specified value.
      *
      * @param value a boolean value to set
      * @return the number of bits set to {@code true}
      */
-    public synchronized int setNextBit(boolean value) {
-        increaseLength();
-        index = (index + 1) % size;
+    public int setNextBit(boolean value) {
+        int nextIndex = (int) (sequence.getAndIncrement() % size);
 
-        int previous = bitSet.set(index, value);
+        int previous = bitSet.set(nextIndex, value);
         int current = value ? 1 : 0;
-        cardinality = cardinality - previous + current;
-        return cardinality;
+        int delta = current - previous;
+        if (delta == 0) {
+            return cardinality.get();
+        }
+        return cardinality.addAndGet(delta);
     }
 
     /**
@@ -94,7 +125,7 @@ class RingBitSet {
      * @return the number of bits set to {@code true} in this {@code RingBitSet}
      */
     public int cardinality() {
-        return cardinality;
+        return cardinality.get();
     }
 
     /**
@@ -115,7 +146,7 @@ class RingBitSet {
      * @return the logical size of this {@code RingBitSet}
      */
     public int length() {
-        return length;
+        return (int) Long.min(sequence.get(), size);
     }
 
     /**
@@ -137,19 +168,7 @@ class RingBitSet {
      *
      * @return the current index of this {@code RingBitSet}
      */
-    synchronized int getIndex() {
-        return index;
-    }
-
-    private void increaseLength() {
-        if (notFull) {
-            int nextLength = length + 1;
-            if (nextLength < size) {
-                length = nextLength;
-            } else {
-                length = size;
-                notFull = false;
-            }
-        }
+    int getIndex() {
+        return (int) ((sequence.get() - 1) % size);
     }
 }
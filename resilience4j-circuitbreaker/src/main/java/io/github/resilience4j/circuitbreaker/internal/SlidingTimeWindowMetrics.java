@@ -0,0 +1,267 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.circuitbreaker.internal;
+
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.github.resilience4j.core.NanoClock;
+
+/**
+ * {@link RecordingMetrics} which evaluate the failure rate over the calls of the last N seconds.
+ * <p>
+ * The calls are counted in N one-second buckets of primitive counters. The totals over all buckets are
+ * maintained incrementally, so recording a call and calculating the failure rate are O(1) and allocation-free.
+ * A bucket is reset by the thread which first wins the CAS on its epoch, idle buckets are reset by the thread
+ * which first observes that time has advanced. No global lock is needed on rollover.
+ * <p>
+ * The failure rate can only be calculated once at least {@code minimumNumberOfCalls} calls have been recorded
+ * within the time window.
+ */
+class SlidingTimeWindowMetrics implements RecordingMetrics {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final int minimumNumberOfCalls;
+    private final int windowSizeInSeconds;
+    private final NanoClock clock;
+    private final long startNanos;
+
+    private final AtomicLongArray bucketEpochs;
+    private final AtomicLongArray bucketCalls;
+    private final AtomicLongArray bucketFailures;
+    private final AtomicLongArray bucketSlowCalls;
+    private final AtomicLong totalCalls;
+    private final AtomicLong totalFailures;
+    private final AtomicLong totalSlowCalls;
+    private final AtomicLong latestEpoch;
+    private final LongAdder numberOfNotPermittedCalls;
+
+    SlidingTimeWindowMetrics(int windowSizeInSeconds, int minimumNumberOfCalls) {
+        this(windowSizeInSeconds, minimumNumberOfCalls, NanoClock.system());
+    }
+
+    SlidingTimeWindowMetrics(int windowSizeInSeconds, int minimumNumberOfCalls, NanoClock clock) {
+        this.windowSizeInSeconds = windowSizeInSeconds;
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        this.clock = clock;
+        this.startNanos = clock.nanoTime();
+        this.bucketEpochs = new AtomicLongArray(windowSizeInSeconds);
+        this.bucketCalls = new AtomicLongArray(windowSizeInSeconds);
+        this.bucketFailures = new AtomicLongArray(windowSizeInSeconds);
+        this.bucketSlowCalls = new AtomicLongArray(windowSizeInSeconds);
+        this.totalCalls = new AtomicLong();
+        this.totalFailures = new AtomicLong();
+        this.totalSlowCalls = new AtomicLong();
+        this.latestEpoch = new AtomicLong();
+        this.numberOfNotPermittedCalls = new LongAdder();
+    }
+
+    /**
+     * Creates a new SlidingTimeWindowMetrics instance with an empty time window.
+     * The calls recorded within a time window are not carried over into another CircuitBreaker state.
+     *
+     * @param targetMinimumNumberOfCalls the minimum number of calls of the new SlidingTimeWindowMetrics instance
+     * @return a SlidingTimeWindowMetrics
+     */
+    @Override
+    public SlidingTimeWindowMetrics copy(int targetMinimumNumberOfCalls) {
+        return new SlidingTimeWindowMetrics(windowSizeInSeconds, targetMinimumNumberOfCalls, clock);
+    }
+
+    /**
+     * Records a failed call and returns the current failure rate in percentage.
+     *
+     * @param slowCall true, if the call took longer than the slow call duration threshold
+     * @return the current failure rate in percentage.
+     */
+    @Override
+    public float onError(boolean slowCall) {
+        record(true, slowCall);
+        return getFailureRate();
+    }
+
+    /**
+     * Records a successful call and returns the current failure rate in percentage.
+     *
+     * @param slowCall true, if the call took longer than the slow call duration threshold
+     * @return the current failure rate in percentage.
+     */
+    @Override
+    public float onSuccess(boolean slowCall) {
+        record(false, slowCall);
+        return getFailureRate();
+    }
+
+    /**
+     * Records a call which was not permitted, because the CircuitBreaker state is OPEN.
+     */
+    @Override
+    public void onCallNotPermitted() {
+        numberOfNotPermittedCalls.increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public float getFailureRate() {
+        return getRate(totalFailures);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public float getSlowCallRate() {
+        return getRate(totalSlowCalls);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfSlowCalls() {
+        advance(currentEpoch());
+        return toInt(Long.min(totalSlowCalls.get(), totalCalls.get()));
+    }
+
+    /**
+     * Returns the minimum number of calls which must be recorded within the time window,
+     * before the failure rate can be calculated.
+     *
+     * @return the minimum number of calls
+     */
+    @Override
+    public int getMaxNumberOfBufferedCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfSuccessfulCalls() {
+        return getNumberOfBufferedCalls() - getNumberOfFailedCalls();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfBufferedCalls() {
+        advance(currentEpoch());
+        return toInt(totalCalls.get());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getNumberOfNotPermittedCalls() {
+        return this.numberOfNotPermittedCalls.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfFailedCalls() {
+        advance(currentEpoch());
+        return toInt(Long.min(totalFailures.get(), totalCalls.get()));
+    }
+
+    /**
+     * Returns the size of the time window in seconds.
+     *
+     * @return the size of the time window in seconds
+     */
+    int getWindowSizeInSeconds() {
+        return windowSizeInSeconds;
+    }
+
+    private void record(boolean failure, boolean slowCall) {
+        long epoch = currentEpoch();
+        advance(epoch);
+        int bucketIndex = rollover(epoch);
+        bucketCalls.incrementAndGet(bucketIndex);
+        totalCalls.incrementAndGet();
+        if (failure) {
+            bucketFailures.incrementAndGet(bucketIndex);
+            totalFailures.incrementAndGet();
+        }
+        if (slowCall) {
+            bucketSlowCalls.incrementAndGet(bucketIndex);
+            totalSlowCalls.incrementAndGet();
+        }
+    }
+
+    private float getRate(AtomicLong total) {
+        advance(currentEpoch());
+        long numberOfCalls = totalCalls.get();
+        if (numberOfCalls < minimumNumberOfCalls || numberOfCalls == 0) {
+            return -1.0f;
+        }
+        long numberOfMatchingCalls = Long.min(total.get(), numberOfCalls);
+        return numberOfMatchingCalls * 100.0f / numberOfCalls;
+    }
+
+    /**
+     * Resets all buckets which have not been used since the latest observed epoch and fell out of the time window.
+     * Only the thread which advances the latest epoch resets the buckets.
+     *
+     * @param epoch the current epoch in seconds
+     */
+    private void advance(long epoch) {
+        long previousEpoch = latestEpoch.get();
+        if (epoch > previousEpoch && latestEpoch.compareAndSet(previousEpoch, epoch)) {
+            long firstEpoch = Long.max(previousEpoch + 1, epoch - windowSizeInSeconds + 1);
+            for (long expiredEpoch = firstEpoch; expiredEpoch <= epoch; expiredEpoch++) {
+                rollover(expiredEpoch);
+            }
+        }
+    }
+
+    /**
+     * Makes sure that the bucket of the given epoch only contains calls of that epoch.
+     *
+     * @param epoch the epoch in seconds
+     * @return the index of the bucket
+     */
+    private int rollover(long epoch) {
+        int bucketIndex = (int) (epoch % windowSizeInSeconds);
+        long bucketEpoch = bucketEpochs.get(bucketIndex);
+        if (bucketEpoch < epoch && bucketEpochs.compareAndSet(bucketIndex, bucketEpoch, epoch)) {
+            totalCalls.addAndGet(-bucketCalls.getAndSet(bucketIndex, 0));
+            totalFailures.addAndGet(-bucketFailures.getAndSet(bucketIndex, 0));
+            totalSlowCalls.addAndGet(-bucketSlowCalls.getAndSet(bucketIndex, 0));
+        }
+        return bucketIndex;
+    }
+
+    private long currentEpoch() {
+        return (clock.nanoTime() - startNanos) / NANOS_PER_SECOND;
+    }
+
+    private static int toInt(long value) {
+        return (int) Long.min(value, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.circuitbreaker.internal;
+
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link RecordingMetrics} which spread the recorded calls over several {@link RingBitSet} stripes,
+ * so that threads recording calls concurrently do not contend on the same cache line.
+ * <p>
+ * The capacities of all stripes add up to the ringBufferSize. Every thread records its calls into the stripes
+ * in turns, starting with a stripe selected by its thread id, so that all stripes are filled evenly, no matter
+ * how many threads are recording calls. The stripes therefore hold the last ringBufferSize calls, even if a single
+ * thread records all calls. The ring buffer counts as full, when all stripes are full.
+ * The stripes are only aggregated when a failure rate is needed. Once the ring buffer is full,
+ * a successful call can not increase the failure rate, so {@link #onSuccess()} does not aggregate anymore and returns -1.
+ */
+class StripedCircuitBreakerMetrics implements RecordingMetrics {
+
+    private static final int DEFAULT_NUMBER_OF_STRIPES = Runtime.getRuntime().availableProcessors();
+
+    private final int ringBufferSize;
+    private final RingBitSet[] stripes;
+    private final RingBitSet[] slowCallStripes;
+    private final LongAdder numberOfNotPermittedCalls;
+    private final ThreadLocal<StripeCursor> stripeCursor;
+
+    private volatile boolean full;
+
+    StripedCircuitBreakerMetrics(int ringBufferSize) {
+        this(ringBufferSize, DEFAULT_NUMBER_OF_STRIPES, null);
+    }
+
+    StripedCircuitBreakerMetrics(int ringBufferSize, int numberOfStripes) {
+        this(ringBufferSize, numberOfStripes, null);
+    }
+
+    /**
+     * Creates a StripedCircuitBreakerMetrics instance and spreads the calls of the given ring bit sets
+     * over its stripes.
+     *
+     * @param ringBufferSize    the ringBufferSize of the new StripedCircuitBreakerMetrics instance
+     * @param sourceSet         the recorded failures
+     * @param slowCallSourceSet the recorded slow calls
+     */
+    StripedCircuitBreakerMetrics(int ringBufferSize, RingBitSet sourceSet, RingBitSet slowCallSourceSet) {
+        this(ringBufferSize, DEFAULT_NUMBER_OF_STRIPES, null);
+        sourceSet.copyInto(stripes);
+        slowCallSourceSet.copyInto(slowCallStripes);
+    }
+
+    private StripedCircuitBreakerMetrics(int ringBufferSize, int numberOfStripes, StripedCircuitBreakerMetrics source) {
+        this.ringBufferSize = ringBufferSize;
+        int stripeCount = Integer.max(1, Integer.min(numberOfStripes, ringBufferSize));
+        this.stripes = createStripes(ringBufferSize, stripeCount, source != null ? source.stripes : null);
+        this.slowCallStripes = createStripes(ringBufferSize, stripeCount, source != null ? source.slowCallStripes : null);
+        this.numberOfNotPermittedCalls = new LongAdder();
+        this.stripeCursor = ThreadLocal.withInitial(() -> new StripeCursor(homeStripeIndex()));
+    }
+
+    private static RingBitSet[] createStripes(int ringBufferSize, int stripeCount, RingBitSet[] sourceStripes) {
+        RingBitSet[] stripes = new RingBitSet[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            int stripeSize = ringBufferSize / stripeCount + (i < ringBufferSize % stripeCount ? 1 : 0);
+            if (sourceStripes != null && i < sourceStripes.length) {
+                stripes[i] = new RingBitSet(stripeSize, sourceStripes[i]);
+            } else {
+                stripes[i] = new RingBitSet(stripeSize);
+            }
+        }
+        return stripes;
+    }
+
+    /**
+     * Creates a new StripedCircuitBreakerMetrics instance and copies the content of the current stripes
+     * into the new stripes.
+     *
+     * @param targetRingBufferSize the ringBufferSize of the new StripedCircuitBreakerMetrics instances
+     * @return a StripedCircuitBreakerMetrics
+     */
+    @Override
+    public StripedCircuitBreakerMetrics copy(int targetRingBufferSize) {
+        return new StripedCircuitBreakerMetrics(targetRingBufferSize, stripes.length, this);
+    }
+
+    /**
+     * Records a failed call and returns the current failure rate in percentage.
+     *
+     * @param slowCall true, if the call took longer than the slow call duration threshold
+     * @return the current failure rate in percentage.
+     */
+    @Override
+    public float onError(boolean slowCall) {
+        int stripeIndex = nextStripeIndex();
+        slowCallStripes[stripeIndex].setNextBit(slowCall);
+        stripes[stripeIndex].setNextBit(true);
+        return getFailureRate();
+    }
+
+    /**
+     * Records a successful call. Returns the current failure rate in percentage as long as the ring buffer is
+     * not full, otherwise -1, because a successful call can not increase the failure rate of a full ring buffer.
+     *
+     * @param slowCall true, if the call took longer than the slow call duration threshold
+     * @return the current failure rate in percentage or -1.
+     */
+    @Override
+    public float onSuccess(boolean slowCall) {
+        int stripeIndex = nextStripeIndex();
+        slowCallStripes[stripeIndex].setNextBit(slowCall);
+        stripes[stripeIndex].setNextBit(false);
+        if (full) {
+            return -1.0f;
+        }
+        return getFailureRate();
+    }
+
+    /**
+     * Records a call which was not permitted, because the CircuitBreaker state is OPEN.
+     */
+    @Override
+    public void onCallNotPermitted() {
+        numberOfNotPermittedCalls.increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public float getFailureRate() {
+        if (!isFull()) {
+            return -1.0f;
+        }
+        int numberOfBufferedCalls = 0;
+        int numberOfFailedCalls = 0;
+        for (RingBitSet stripe : stripes) {
+            numberOfBufferedCalls += stripe.length();
+            numberOfFailedCalls += stripe.cardinality();
+        }
+        return numberOfFailedCalls * 100.0f / numberOfBufferedCalls;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getMaxNumberOfBufferedCalls() {
+        return ringBufferSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfSuccessfulCalls() {
+        return getNumberOfBufferedCalls() - getNumberOfFailedCalls();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfBufferedCalls() {
+        int numberOfBufferedCalls = 0;
+        for (RingBitSet stripe : stripes) {
+            numberOfBufferedCalls += stripe.length();
+        }
+        return numberOfBufferedCalls;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getNumberOfNotPermittedCalls() {
+        return this.numberOfNotPermittedCalls.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfFailedCalls() {
+        int numberOfFailedCalls = 0;
+        for (RingBitSet stripe : stripes) {
+            numberOfFailedCalls += stripe.cardinality();
+        }
+        return numberOfFailedCalls;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public float getSlowCallRate() {
+        if (!isFull()) {
+            return -1.0f;
+        }
+        int numberOfBufferedCalls = 0;
+        int numberOfSlowCalls = 0;
+        for (RingBitSet stripe : slowCallStripes) {
+            numberOfBufferedCalls += stripe.length();
+            numberOfSlowCalls += stripe.cardinality();
+        }
+        return numberOfSlowCalls * 100.0f / numberOfBufferedCalls;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfSlowCalls() {
+        int numberOfSlowCalls = 0;
+        for (RingBitSet stripe : slowCallStripes) {
+            numberOfSlowCalls += stripe.cardinality();
+        }
+        return numberOfSlowCalls;
+    }
+
+    /**
+     * Returns the number of stripes of this {@code StripedCircuitBreakerMetrics}.
+     * Use only for debugging and testing
+     *
+     * @return the number of stripes
+     */
+    int getNumberOfStripes() {
+        return stripes.length;
+    }
+
+    private boolean isFull() {
+        if (!full && getNumberOfBufferedCalls() >= ringBufferSize) {
+            full = true;
+        }
+        return full;
+    }
+
+    private int nextStripeIndex() {
+        StripeCursor cursor = stripeCursor.get();
+        int stripeIndex = cursor.stripeIndex;
+        cursor.stripeIndex = stripeIndex + 1 == stripes.length ? 0 : stripeIndex + 1;
+        return stripeIndex;
+    }
+
+    private int homeStripeIndex() {
+        long threadId = Thread.currentThread().getId();
+        // spread the bits of the thread id, so that consecutive ids do not always share a stripe pattern
+        int hash = (int) (threadId ^ (threadId >>> 32)) * 0x9E3779B9;
+        return (hash >>> 1) % stripes.length;
+    }
+
+    /**
+     * The stripe a thread records its next call into.
+     */
+    private static final class StripeCursor {
+        private int stripeIndex;
+
+        private StripeCursor(int stripeIndex) {
+            this.stripeIndex = stripeIndex;
+        }
+    }
+}
@@ -46,6 +46,26 @@ public class CircuitBreakerConfigTest {
         CircuitBreakerConfig.custom().ringBufferSizeInClosedState(0).build();
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void slidingTimeWindowSizeBelowOneShouldFail() {
+        CircuitBreakerConfig.custom().slidingTimeWindowSizeInSeconds(0).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroSlowCallRateThresholdShouldFail() {
+        CircuitBreakerConfig.custom().slowCallRateThreshold(0).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void slowCallRateThresholdAboveHundredShouldFail() {
+        CircuitBreakerConfig.custom().slowCallRateThreshold(101).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroSlowCallDurationThresholdShouldFail() {
+        CircuitBreakerConfig.custom().slowCallDurationThreshold(Duration.ZERO).build();
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void zeroFailureRateThresholdShouldFail() {
         CircuitBreakerConfig.custom().failureRateThreshold(0).build();
@@ -64,6 +84,12 @@ public class CircuitBreakerConfigTest {
         then(circuitBreakerConfig.getRingBufferSizeInClosedState()).isEqualTo(CircuitBreakerConfig.DEFAULT_RING_BUFFER_SIZE_IN_CLOSED_STATE);
         then(circuitBreakerConfig.getWaitDurationInOpenState().getSeconds()).isEqualTo(CircuitBreakerConfig.DEFAULT_WAIT_DURATION_IN_OPEN_STATE);
         then(circuitBreakerConfig.getRecordFailurePredicate()).isNotNull();
+        then(circuitBreakerConfig.isStripedMetrics()).isFalse();
+        then(circuitBreakerConfig.isAutomaticTransitionFromOpenToHalfOpenEnabled()).isFalse();
+        then(circuitBreakerConfig.getSlidingWindowType()).isEqualTo(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED);
+        then(circuitBreakerConfig.getSlidingTimeWindowSizeInSeconds()).isEqualTo(CircuitBreakerConfig.DEFAULT_SLIDING_TIME_WINDOW_SIZE);
+        then(circuitBreakerConfig.getSlowCallRateThreshold()).isEqualTo(CircuitBreakerConfig.DEFAULT_SLOW_CALL_RATE_THRESHOLD);
+        then(circuitBreakerConfig.getSlowCallDurationThreshold().getSeconds()).isEqualTo(CircuitBreakerConfig.DEFAULT_SLOW_CALL_DURATION_THRESHOLD);
     }
 
     @Test()
@@ -102,4 +128,36 @@ public class CircuitBreakerConfigTest {
                 .recordFailure((Throwable throwable) -> true).build();
         then(circuitBreakerConfig.getRecordFailurePredicate()).isNotNull();
     }
+
+    @Test()
+    public void shouldEnableStripedMetrics() {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom().stripedMetrics(true).build();
+        then(circuitBreakerConfig.isStripedMetrics()).isTrue();
+    }
+
+    @Test()
+    public void shouldEnableAutomaticTransitionFromOpenToHalfOpen() {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom().automaticTransitionFromOpenToHalfOpenEnabled(true).build();
+        then(circuitBreakerConfig.isAutomaticTransitionFromOpenToHalfOpenEnabled()).isTrue();
+    }
+
+    @Test()
+    public void shouldSetTimeBasedSlidingWindow() {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.TIME_BASED)
+                .slidingTimeWindowSizeInSeconds(10)
+                .build();
+        then(circuitBreakerConfig.getSlidingWindowType()).isEqualTo(CircuitBreakerConfig.SlidingWindowType.TIME_BASED);
+        then(circuitBreakerConfig.getSlidingTimeWindowSizeInSeconds()).isEqualTo(10);
+    }
+
+    @Test()
+    public void shouldSetSlowCallThresholds() {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .slowCallRateThreshold(30)
+                .slowCallDurationThreshold(Duration.ofMillis(500))
+                .build();
+        then(circuitBreakerConfig.getSlowCallRateThreshold()).isEqualTo(30);
+        then(circuitBreakerConfig.getSlowCallDurationThreshold()).isEqualTo(Duration.ofMillis(500));
+    }
 }
@@ -18,12 +18,14 @@
  */
 package io.github.resilience4j.circuitbreaker;
 
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerCallListener;
 import org.junit.Before;
 import org.junit.Test;
 import org.slf4j.Logger;
 
 import javax.xml.ws.WebServiceException;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static io.vavr.API.*;
 import static io.vavr.Predicates.instanceOf;
@@ -77,6 +79,21 @@ public class CircuitBreakerEventPublisherTest {
         then(logger).should(times(1)).info("SUCCESS");
     }
 
+    @Test
+    public void shouldConsumeOnSuccessEventWithMultipleConsumers() {
+        circuitBreaker.getEventPublisher()
+                .onSuccess(event ->
+                        logger.info(event.getEventType().toString()))
+                .onSuccess(event ->
+                        logger.info(event.getEventType().toString()));
+
+
+        circuitBreaker.onSuccess(1000);
+
+
+        then(logger).should(times(2)).info("SUCCESS");
+    }
+
     @Test
     public void shouldConsumeOnErrorEvent() {
         circuitBreaker.getEventPublisher()
@@ -146,4 +163,83 @@ public class CircuitBreakerEventPublisherTest {
         then(logger).should(times(1)).info("IGNORED_ERROR");
     }
 
+    @Test
+    public void shouldNotifyCallListener() {
+        circuitBreaker = CircuitBreaker.of("test", CircuitBreakerConfig.custom()
+                .ringBufferSizeInClosedState(2).build());
+        AtomicLong successDuration = new AtomicLong();
+        AtomicLong errorDuration = new AtomicLong();
+        AtomicLong notPermittedCalls = new AtomicLong();
+
+        circuitBreaker.getEventPublisher()
+                .onCallOutcome(new CircuitBreakerCallListener() {
+                    @Override
+                    public void onSuccess(String circuitBreakerName, long durationInNanos) {
+                        successDuration.addAndGet(durationInNanos);
+                    }
+
+                    @Override
+                    public void onError(String circuitBreakerName, long durationInNanos, Throwable throwable) {
+                        errorDuration.addAndGet(durationInNanos);
+                    }
+
+                    @Override
+                    public void onCallNotPermitted(String circuitBreakerName) {
+                        notPermittedCalls.incrementAndGet();
+                    }
+                });
+
+
+        circuitBreaker.onSuccess(1000);
+        circuitBreaker.onError(2000, new IOException("BAM!"));
+        circuitBreaker.isCallPermitted();
+
+
+        assertThat(successDuration.get()).isEqualTo(1000);
+        assertThat(errorDuration.get()).isEqualTo(2000);
+        assertThat(notPermittedCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotifyAllCallListeners() {
+        AtomicLong firstListenerCalls = new AtomicLong();
+        AtomicLong secondListenerCalls = new AtomicLong();
+
+        circuitBreaker.getEventPublisher()
+                .onCallOutcome(new CircuitBreakerCallListener() {
+                    @Override
+                    public void onSuccess(String circuitBreakerName, long durationInNanos) {
+                        firstListenerCalls.incrementAndGet();
+                    }
+                })
+                .onCallOutcome(new CircuitBreakerCallListener() {
+                    @Override
+                    public void onSuccess(String circuitBreakerName, long durationInNanos) {
+                        secondListenerCalls.incrementAndGet();
+                    }
+                });
+
+
+        circuitBreaker.onSuccess(1000);
+
+
+        assertThat(firstListenerCalls.get()).isEqualTo(1);
+        assertThat(secondListenerCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldOnlyConsumeEventsOfRegisteredType() {
+        circuitBreaker.getEventPublisher()
+                .onError(event ->
+                        logger.info(event.getEventType().toString()));
+
+
+        circuitBreaker.onSuccess(1000);
+        circuitBreaker.onError(1000, new IOException("BAM!"));
+
+
+        then(logger).should(times(1)).info("ERROR");
+        then(logger).should(times(0)).info("SUCCESS");
+    }
+
 }
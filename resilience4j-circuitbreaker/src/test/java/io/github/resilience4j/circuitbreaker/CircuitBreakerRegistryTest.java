@@ -21,6 +21,8 @@ package io.github.resilience4j.circuitbreaker;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.Duration;
+
 import static org.assertj.core.api.BDDAssertions.assertThat;
 
 
@@ -56,4 +58,21 @@ public class CircuitBreakerRegistryTest {
 
         assertThat(circuitBreakerRegistry.getAllCircuitBreakers()).hasSize(2);
     }
+
+    @Test
+    public void shouldTransitionCircuitBreakersToHalfOpenWithSharedScheduler() throws InterruptedException {
+        CircuitBreakerRegistry automaticRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .waitDurationInOpenState(Duration.ofSeconds(1))
+            .automaticTransitionFromOpenToHalfOpenEnabled(true)
+            .build());
+        CircuitBreaker circuitBreaker = automaticRegistry.circuitBreaker("testName");
+        CircuitBreaker circuitBreaker2 = automaticRegistry.circuitBreaker("otherTestName");
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker2.transitionToOpenState();
+
+        Thread.sleep(1500);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(circuitBreaker2.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
 }
@@ -83,4 +83,30 @@ public class CircuitBreakerMetricsTest {
         assertThat(closedCircuitBreakerMetrics.getNumberOfSuccessfulCalls()).isEqualTo(2);
         assertThat(closedCircuitBreakerMetrics.getNumberOfNotPermittedCalls()).isEqualTo(0);
     }
+
+    @Test
+    public void testSlowCalls(){
+        CircuitBreakerMetrics circuitBreakerMetrics = new CircuitBreakerMetrics(4);
+
+        circuitBreakerMetrics.onSuccess(true);
+        circuitBreakerMetrics.onError(true);
+        circuitBreakerMetrics.onSuccess(false);
+
+        // The slow call rate must be -1, because the number of measured calls is below the buffer size of 4
+        assertThat(circuitBreakerMetrics.getSlowCallRate()).isEqualTo(-1);
+        assertThat(circuitBreakerMetrics.getNumberOfSlowCalls()).isEqualTo(2);
+
+        circuitBreakerMetrics.onError(false);
+
+        assertThat(circuitBreakerMetrics.getSlowCallRate()).isEqualTo(50);
+        assertThat(circuitBreakerMetrics.getFailureRate()).isEqualTo(50);
+
+        // The first slow call is overwritten by a fast call
+        circuitBreakerMetrics.onSuccess(false);
+        assertThat(circuitBreakerMetrics.getNumberOfSlowCalls()).isEqualTo(1);
+        assertThat(circuitBreakerMetrics.getSlowCallRate()).isEqualTo(25);
+
+        CircuitBreakerMetrics copy = circuitBreakerMetrics.copy(8);
+        assertThat(copy.getNumberOfSlowCalls()).isEqualTo(1);
+    }
 }
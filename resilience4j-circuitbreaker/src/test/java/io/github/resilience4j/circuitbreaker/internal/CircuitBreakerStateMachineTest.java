@@ -24,6 +24,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.lang.Thread.sleep;
 import static org.assertj.core.api.BDDAssertions.assertThat;
@@ -174,4 +175,164 @@ public class CircuitBreakerStateMachineTest {
         assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isEqualTo(1);
         assertThat(circuitBreaker.getMetrics().getFailureRate()).isEqualTo(-1f);
     }
+
+    @Test
+    public void shouldOpenWhenFailureRateOfTimeBasedSlidingWindowIsAboveThreshold() {
+        CircuitBreaker timeBasedCircuitBreaker = new CircuitBreakerStateMachine("testName", CircuitBreakerConfig.custom()
+                .failureRateThreshold(50)
+                .ringBufferSizeInClosedState(3)
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.TIME_BASED)
+                .slidingTimeWindowSizeInSeconds(60)
+                .build());
+
+        timeBasedCircuitBreaker.onSuccess(0);
+        timeBasedCircuitBreaker.onError(0, new RuntimeException());
+        // The minimum number of calls within the time window has not been reached yet
+        assertThat(timeBasedCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(timeBasedCircuitBreaker.getMetrics().getFailureRate()).isEqualTo(-1f);
+
+        timeBasedCircuitBreaker.onError(0, new RuntimeException());
+        assertThat(timeBasedCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(timeBasedCircuitBreaker.getMetrics().getNumberOfBufferedCalls()).isEqualTo(3);
+        assertThat(timeBasedCircuitBreaker.getMetrics().getNumberOfFailedCalls()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldOpenWhenSlowCallRateIsAboveThreshold() {
+        CircuitBreaker slowCallCircuitBreaker = new CircuitBreakerStateMachine("testName", CircuitBreakerConfig.custom()
+                .ringBufferSizeInClosedState(4)
+                .ringBufferSizeInHalfOpenState(2)
+                .slowCallRateThreshold(50)
+                .slowCallDurationThreshold(Duration.ofSeconds(1))
+                .build());
+        long slowCallDuration = Duration.ofSeconds(2).toNanos();
+
+        slowCallCircuitBreaker.onSuccess(0);
+        slowCallCircuitBreaker.onSuccess(slowCallDuration);
+        slowCallCircuitBreaker.onSuccess(0);
+        assertThat(slowCallCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(slowCallCircuitBreaker.getMetrics().getNumberOfSlowCalls()).isEqualTo(1);
+
+        // The fourth call is slow, 2 of 4 calls are slow although no call has failed
+        slowCallCircuitBreaker.onSuccess(slowCallDuration);
+        assertThat(slowCallCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(slowCallCircuitBreaker.getMetrics().getSlowCallRate()).isEqualTo(50f);
+        assertThat(slowCallCircuitBreaker.getMetrics().getFailureRate()).isEqualTo(0f);
+    }
+
+    @Test
+    public void shouldOpenAgainWhenSlowCallRateInHalfOpenStateIsAboveThreshold() {
+        CircuitBreaker slowCallCircuitBreaker = new CircuitBreakerStateMachine("testName", CircuitBreakerConfig.custom()
+                .ringBufferSizeInHalfOpenState(2)
+                .slowCallRateThreshold(50)
+                .slowCallDurationThreshold(Duration.ofSeconds(1))
+                .build());
+        slowCallCircuitBreaker.transitionToOpenState();
+        slowCallCircuitBreaker.transitionToHalfOpenState();
+
+        slowCallCircuitBreaker.onSuccess(Duration.ofSeconds(2).toNanos());
+        slowCallCircuitBreaker.onSuccess(0);
+
+        assertThat(slowCallCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    public void shouldOnlyPermitTrialCallsInHalfOpenState() {
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+
+        // The ring buffer in half open state has a size of 3, so only 3 trial calls are permitted
+        assertThat(circuitBreaker.isCallPermitted()).isEqualTo(true);
+        assertThat(circuitBreaker.isCallPermitted()).isEqualTo(true);
+        assertThat(circuitBreaker.isCallPermitted()).isEqualTo(true);
+        assertThat(circuitBreaker.isCallPermitted()).isEqualTo(false);
+        assertThat(circuitBreaker.getMetrics().getNumberOfNotPermittedCalls()).isEqualTo(1);
+
+        // An ignored error does not count as a trial call and releases its permission
+        circuitBreaker.onError(0, new NumberFormatException());
+        assertThat(circuitBreaker.isCallPermitted()).isEqualTo(true);
+        assertThat(circuitBreaker.isCallPermitted()).isEqualTo(false);
+
+        circuitBreaker.onSuccess(0);
+        circuitBreaker.onSuccess(0);
+        circuitBreaker.onSuccess(0);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.isCallPermitted()).isEqualTo(true);
+    }
+
+    @Test
+    public void shouldUseTrialCallPermissionWhenWaitDurationHasElapsed() throws InterruptedException {
+        circuitBreaker.transitionToOpenState();
+        sleep(1100);
+
+        // The call which transitions the state machine to HALF_OPEN is the first trial call
+        assertThat(circuitBreaker.isCallPermitted()).isEqualTo(true);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(circuitBreaker.isCallPermitted()).isEqualTo(true);
+        assertThat(circuitBreaker.isCallPermitted()).isEqualTo(true);
+        assertThat(circuitBreaker.isCallPermitted()).isEqualTo(false);
+    }
+
+    @Test
+    public void shouldTransitionToHalfOpenAutomaticallyWhenWaitDurationHasElapsed() throws InterruptedException {
+        CircuitBreaker automaticCircuitBreaker = new CircuitBreakerStateMachine("testName", CircuitBreakerConfig.custom()
+                .waitDurationInOpenState(Duration.ofSeconds(1))
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .build());
+        automaticCircuitBreaker.transitionToOpenState();
+        assertThat(automaticCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        // No call is made, but the scheduler transitions the CircuitBreaker
+        sleep(1500);
+        assertThat(automaticCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    public void shouldNotTransitionToHalfOpenAutomaticallyWhenOpenStateHasBeenLeft() throws InterruptedException {
+        CircuitBreaker automaticCircuitBreaker = new CircuitBreakerStateMachine("testName", CircuitBreakerConfig.custom()
+                .waitDurationInOpenState(Duration.ofSeconds(1))
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .build());
+        automaticCircuitBreaker.transitionToOpenState();
+        automaticCircuitBreaker.transitionToClosedState();
+
+        sleep(1500);
+        assertThat(automaticCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void shouldMeasureWaitDurationInOpenStateWithInjectedClock() {
+        AtomicLong nanoTime = new AtomicLong(Long.MAX_VALUE - Duration.ofMillis(500).toNanos());
+        CircuitBreaker clockedCircuitBreaker = new CircuitBreakerStateMachine("testName", CircuitBreakerConfig.custom()
+                .waitDurationInOpenState(Duration.ofSeconds(1))
+                .build(), nanoTime::get);
+        clockedCircuitBreaker.transitionToOpenState();
+
+        // The deadline of the wait duration overflows, which must not permit calls too early
+        nanoTime.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(clockedCircuitBreaker.isCallPermitted()).isEqualTo(false);
+        assertThat(clockedCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        nanoTime.incrementAndGet();
+        assertThat(clockedCircuitBreaker.isCallPermitted()).isEqualTo(true);
+        assertThat(clockedCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    public void shouldOpenStripedCircuitBreakerWhenCallsAreRecordedByASingleThread() {
+        CircuitBreaker stripedCircuitBreaker = new CircuitBreakerStateMachine("testName", CircuitBreakerConfig.custom()
+                .failureRateThreshold(50)
+                .ringBufferSizeInClosedState(Runtime.getRuntime().availableProcessors() * 4)
+                .stripedMetrics(true)
+                .build());
+
+        // A single thread only uses one stripe, but the ring buffer is full once enough calls are recorded
+        for (int i = 0; i < stripedCircuitBreaker.getMetrics().getMaxNumberOfBufferedCalls(); i++) {
+            assertThat(stripedCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+            stripedCircuitBreaker.onError(0, new RuntimeException());
+        }
+
+        assertThat(stripedCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(stripedCircuitBreaker.getMetrics().getFailureRate()).isEqualTo(100.0f);
+    }
 }
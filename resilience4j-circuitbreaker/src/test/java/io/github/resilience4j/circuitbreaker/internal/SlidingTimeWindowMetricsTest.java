@@ -0,0 +1,111 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.circuitbreaker.internal;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SlidingTimeWindowMetricsTest {
+
+    private AtomicLong nanoTime;
+
+    @Before
+    public void setUp() {
+        nanoTime = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    }
+
+    @Test
+    public void shouldCalculateFailureRateWhenMinimumNumberOfCallsIsReached() {
+        SlidingTimeWindowMetrics metrics = new SlidingTimeWindowMetrics(10, 4, nanoTime::get);
+        assertThat(metrics.getMaxNumberOfBufferedCalls()).isEqualTo(4);
+        assertThat(metrics.getWindowSizeInSeconds()).isEqualTo(10);
+
+        assertThat(metrics.onError()).isEqualTo(-1);
+        assertThat(metrics.onSuccess()).isEqualTo(-1);
+        assertThat(metrics.onSuccess()).isEqualTo(-1);
+        assertThat(metrics.onError()).isEqualTo(50);
+        metrics.onCallNotPermitted();
+
+        assertThat(metrics.getNumberOfBufferedCalls()).isEqualTo(4);
+        assertThat(metrics.getNumberOfFailedCalls()).isEqualTo(2);
+        assertThat(metrics.getNumberOfSuccessfulCalls()).isEqualTo(2);
+        assertThat(metrics.getNumberOfNotPermittedCalls()).isEqualTo(1);
+
+        // The time window is not limited by a number of calls
+        assertThat(metrics.onSuccess()).isEqualTo(40);
+        assertThat(metrics.getNumberOfBufferedCalls()).isEqualTo(5);
+    }
+
+    @Test
+    public void shouldDropCallsWhichFellOutOfTheTimeWindow() {
+        SlidingTimeWindowMetrics metrics = new SlidingTimeWindowMetrics(3, 1, nanoTime::get);
+
+        metrics.onError();
+        metrics.onError();
+        tick(1);
+        metrics.onSuccess();
+        tick(1);
+        metrics.onSuccess();
+
+        assertThat(metrics.getNumberOfBufferedCalls()).isEqualTo(4);
+        assertThat(metrics.getFailureRate()).isEqualTo(50);
+
+        // The two failures of the first second fall out of the time window
+        tick(1);
+        assertThat(metrics.getNumberOfBufferedCalls()).isEqualTo(2);
+        assertThat(metrics.getNumberOfFailedCalls()).isEqualTo(0);
+        assertThat(metrics.onError()).isEqualTo(100.0f / 3);
+    }
+
+    @Test
+    public void shouldDropAllCallsAfterAnIdlePeriod() {
+        SlidingTimeWindowMetrics metrics = new SlidingTimeWindowMetrics(5, 1, nanoTime::get);
+
+        metrics.onError();
+        tick(1);
+        metrics.onSuccess();
+        tick(60);
+
+        assertThat(metrics.getNumberOfBufferedCalls()).isEqualTo(0);
+        assertThat(metrics.getFailureRate()).isEqualTo(-1);
+        assertThat(metrics.onError()).isEqualTo(100);
+        assertThat(metrics.getNumberOfBufferedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCopyIntoAnEmptyTimeWindow() {
+        SlidingTimeWindowMetrics metrics = new SlidingTimeWindowMetrics(5, 1, nanoTime::get);
+        metrics.onError();
+
+        SlidingTimeWindowMetrics copy = metrics.copy(10);
+
+        assertThat(copy.getMaxNumberOfBufferedCalls()).isEqualTo(10);
+        assertThat(copy.getWindowSizeInSeconds()).isEqualTo(5);
+        assertThat(copy.getNumberOfBufferedCalls()).isEqualTo(0);
+    }
+
+    private void tick(int seconds) {
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
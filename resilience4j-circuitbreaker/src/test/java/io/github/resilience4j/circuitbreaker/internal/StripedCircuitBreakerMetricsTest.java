@@ -0,0 +1,149 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.circuitbreaker.internal;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.NanoClock;
+import org.junit.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StripedCircuitBreakerMetricsTest {
+
+    @Test
+    public void testStripedCircuitBreakerMetrics() {
+        StripedCircuitBreakerMetrics circuitBreakerMetrics = new StripedCircuitBreakerMetrics(10, 4);
+        assertThat(circuitBreakerMetrics.getMaxNumberOfBufferedCalls()).isEqualTo(10);
+        assertThat(circuitBreakerMetrics.getNumberOfStripes()).isEqualTo(4);
+
+        assertThat(circuitBreakerMetrics.onSuccess()).isEqualTo(-1);
+        assertThat(circuitBreakerMetrics.onError()).isEqualTo(-1);
+        circuitBreakerMetrics.onCallNotPermitted();
+
+        assertThat(circuitBreakerMetrics.getNumberOfBufferedCalls()).isEqualTo(2);
+        assertThat(circuitBreakerMetrics.getNumberOfFailedCalls()).isEqualTo(1);
+        assertThat(circuitBreakerMetrics.getNumberOfSuccessfulCalls()).isEqualTo(1);
+        assertThat(circuitBreakerMetrics.getNumberOfNotPermittedCalls()).isEqualTo(1);
+        assertThat(circuitBreakerMetrics.getFailureRate()).isEqualTo(-1);
+    }
+
+    @Test
+    public void shouldRecordAllCallsOfConcurrentThreads() {
+        StripedCircuitBreakerMetrics circuitBreakerMetrics = new StripedCircuitBreakerMetrics(8000, 8);
+        IntStream.range(0, 1000).parallel().forEach((i) -> {
+            if (i < 500) {
+                circuitBreakerMetrics.onError();
+            } else {
+                circuitBreakerMetrics.onSuccess();
+            }
+        });
+
+        // Every stripe can hold 1000 calls, so no call is overwritten, no matter which stripes the threads are using
+        assertThat(circuitBreakerMetrics.getNumberOfBufferedCalls()).isEqualTo(1000);
+        assertThat(circuitBreakerMetrics.getNumberOfFailedCalls()).isEqualTo(500);
+        assertThat(circuitBreakerMetrics.getNumberOfSuccessfulCalls()).isEqualTo(500);
+    }
+
+    @Test
+    public void shouldCalculateFailureRateWhenFull() {
+        StripedCircuitBreakerMetrics circuitBreakerMetrics = new StripedCircuitBreakerMetrics(4, 1);
+
+        circuitBreakerMetrics.onError();
+        circuitBreakerMetrics.onSuccess();
+        circuitBreakerMetrics.onSuccess();
+
+        assertThat(circuitBreakerMetrics.onError()).isEqualTo(50);
+        // A success can not increase the failure rate of a full ring buffer
+        assertThat(circuitBreakerMetrics.onSuccess()).isEqualTo(-1);
+        assertThat(circuitBreakerMetrics.getFailureRate()).isEqualTo(25);
+    }
+
+    @Test
+    public void shouldCalculateFailureRateOverRingBufferSizeCallsOfASingleThread() {
+        StripedCircuitBreakerMetrics circuitBreakerMetrics = new StripedCircuitBreakerMetrics(8, 4);
+
+        for (int i = 0; i < 7; i++) {
+            assertThat(circuitBreakerMetrics.onError()).isEqualTo(-1);
+        }
+
+        // A single thread records its calls into all stripes in turns
+        assertThat(circuitBreakerMetrics.onError()).isEqualTo(100);
+        assertThat(circuitBreakerMetrics.getNumberOfBufferedCalls()).isEqualTo(8);
+
+        for (int i = 0; i < 4; i++) {
+            circuitBreakerMetrics.onSuccess();
+        }
+        assertThat(circuitBreakerMetrics.getFailureRate()).isEqualTo(50);
+
+        for (int i = 0; i < 4; i++) {
+            circuitBreakerMetrics.onSuccess();
+        }
+        assertThat(circuitBreakerMetrics.getFailureRate()).isEqualTo(0);
+        assertThat(circuitBreakerMetrics.getNumberOfBufferedCalls()).isEqualTo(8);
+    }
+
+    @Test
+    public void shouldNotStripeTheHalfOpenState() {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+            .stripedMetrics(true)
+            .ringBufferSizeInHalfOpenState(4)
+            .ringBufferSizeInClosedState(8)
+            .build();
+        RecordingMetrics halfOpenMetrics = RecordingMetrics.ofHalfOpenState(config);
+        assertThat(halfOpenMetrics).isInstanceOf(CircuitBreakerMetrics.class);
+
+        halfOpenMetrics.onError();
+        halfOpenMetrics.onSuccess();
+        halfOpenMetrics.onSuccess();
+        assertThat(halfOpenMetrics.onError()).isEqualTo(50);
+
+        RecordingMetrics closedMetrics = RecordingMetrics.ofClosedState(config, halfOpenMetrics, NanoClock.system());
+        assertThat(closedMetrics).isInstanceOf(StripedCircuitBreakerMetrics.class);
+        assertThat(closedMetrics.getMaxNumberOfBufferedCalls()).isEqualTo(8);
+        assertThat(closedMetrics.getNumberOfBufferedCalls()).isEqualTo(4);
+        assertThat(closedMetrics.getNumberOfFailedCalls()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldNotCreateMoreStripesThanBufferedCalls() {
+        StripedCircuitBreakerMetrics circuitBreakerMetrics = new StripedCircuitBreakerMetrics(2, 8);
+
+        assertThat(circuitBreakerMetrics.getNumberOfStripes()).isEqualTo(2);
+        assertThat(circuitBreakerMetrics.getMaxNumberOfBufferedCalls()).isEqualTo(2);
+    }
+
+    @Test
+    public void testCopyStripedCircuitBreakerMetrics() {
+        StripedCircuitBreakerMetrics halfOpenCircuitBreakerMetrics = new StripedCircuitBreakerMetrics(10, 1);
+
+        halfOpenCircuitBreakerMetrics.onSuccess();
+        halfOpenCircuitBreakerMetrics.onSuccess();
+        halfOpenCircuitBreakerMetrics.onError();
+        halfOpenCircuitBreakerMetrics.onError();
+
+        StripedCircuitBreakerMetrics closedCircuitBreakerMetrics = halfOpenCircuitBreakerMetrics.copy(20);
+        assertThat(closedCircuitBreakerMetrics.getMaxNumberOfBufferedCalls()).isEqualTo(20);
+        assertThat(closedCircuitBreakerMetrics.getNumberOfBufferedCalls()).isEqualTo(4);
+        assertThat(closedCircuitBreakerMetrics.getNumberOfFailedCalls()).isEqualTo(2);
+        assertThat(closedCircuitBreakerMetrics.getNumberOfSuccessfulCalls()).isEqualTo(2);
+        assertThat(closedCircuitBreakerMetrics.getNumberOfNotPermittedCalls()).isEqualTo(0);
+    }
+}
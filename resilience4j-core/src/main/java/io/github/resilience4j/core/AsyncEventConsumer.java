@@ -0,0 +1,195 @@
+/*
+ *
+ *  Copyright 2017: Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An {@link EventConsumer} which dispatches events asynchronously to a delegate consumer.
+ * <p>
+ * Publishing threads only add events to a bounded lock-free ring buffer. A dedicated dispatcher thread drains all
+ * buffered events in batches and passes them to the delegate consumer, so that slow consumers do not add to the
+ * latency of the publishing threads. If the buffer is full, the event is dropped or the publishing thread waits,
+ * depending on the {@link AsyncEventConsumerConfig.OverflowPolicy}.
+ * <p>
+ * The dispatcher thread is a daemon thread, which is stopped by {@link #close()}.
+ *
+ * @param <T> the type of the events
+ */
+public class AsyncEventConsumer<T> implements EventConsumer<T>, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncEventConsumer.class);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final EventConsumer<T> delegate;
+    private final AsyncEventConsumerConfig.OverflowPolicy overflowPolicy;
+    private final MpscRingBuffer<T> ringBuffer;
+    private final LongAdder droppedEvents = new LongAdder();
+    private final LongAdder dispatchedEvents = new LongAdder();
+    private final Thread dispatcherThread;
+    private volatile boolean dispatcherWaiting;
+    private volatile boolean running = true;
+
+    /**
+     * Creates an AsyncEventConsumer and starts its dispatcher thread.
+     *
+     * @param delegate the consumer which is invoked by the dispatcher thread
+     * @param config   the configuration
+     */
+    public AsyncEventConsumer(EventConsumer<T> delegate, AsyncEventConsumerConfig config) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate must not be null");
+        }
+        this.delegate = delegate;
+        this.overflowPolicy = config.getOverflowPolicy();
+        this.ringBuffer = new MpscRingBuffer<>(config.getBufferSize());
+        this.dispatcherThread = new Thread(this::dispatch, config.getThreadName());
+        this.dispatcherThread.setDaemon(true);
+        this.dispatcherThread.start();
+    }
+
+    /**
+     * Creates an AsyncEventConsumer with a default configuration.
+     *
+     * @param delegate the consumer which is invoked by the dispatcher thread
+     * @param <T>      the type of the events
+     * @return an AsyncEventConsumer
+     */
+    public static <T> AsyncEventConsumer<T> of(EventConsumer<T> delegate) {
+        return new AsyncEventConsumer<>(delegate, AsyncEventConsumerConfig.ofDefaults());
+    }
+
+    /**
+     * Creates an AsyncEventConsumer with a custom configuration.
+     *
+     * @param delegate the consumer which is invoked by the dispatcher thread
+     * @param config   the configuration
+     * @param <T>      the type of the events
+     * @return an AsyncEventConsumer
+     */
+    public static <T> AsyncEventConsumer<T> of(EventConsumer<T> delegate, AsyncEventConsumerConfig config) {
+        return new AsyncEventConsumer<>(delegate, config);
+    }
+
+    @Override
+    public void consumeEvent(T event) {
+        if (!running) {
+            droppedEvents.increment();
+            return;
+        }
+        if (Thread.currentThread() == dispatcherThread) {
+            // An event which is published by the delegate itself must not wait for its own dispatcher thread
+            delegate.consumeEvent(event);
+            return;
+        }
+        boolean added = ringBuffer.offer(event);
+        if (!added && overflowPolicy == AsyncEventConsumerConfig.OverflowPolicy.BLOCK) {
+            while (!added && running) {
+                wakeUpDispatcher();
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                added = ringBuffer.offer(event);
+            }
+        }
+        if (added) {
+            if (dispatcherWaiting) {
+                wakeUpDispatcher();
+            }
+        } else {
+            droppedEvents.increment();
+        }
+    }
+
+    private void wakeUpDispatcher() {
+        LockSupport.unpark(dispatcherThread);
+    }
+
+    private void dispatch() {
+        while (running) {
+            if (drain() == 0) {
+                // The flag is set before the buffer is checked again, so that a publishing thread either sees the
+                // flag and wakes up the dispatcher, or the dispatcher sees the new event
+                dispatcherWaiting = true;
+                if (running && ringBuffer.isEmpty()) {
+                    LockSupport.park(this);
+                }
+                dispatcherWaiting = false;
+            }
+        }
+        drain();
+    }
+
+    private int drain() {
+        int count = 0;
+        T event;
+        while ((event = ringBuffer.poll()) != null) {
+            try {
+                delegate.consumeEvent(event);
+            } catch (RuntimeException exception) {
+                LOG.warn("Event consumer failed to consume event {}", event, exception);
+            }
+            count++;
+        }
+        if (count > 0) {
+            dispatchedEvents.add(count);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of events which have been dropped, because the buffer was full or the consumer was closed.
+     *
+     * @return the number of dropped events
+     */
+    public long getNumberOfDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    /**
+     * Returns the number of events which have been passed to the delegate consumer by the dispatcher thread.
+     *
+     * @return the number of dispatched events
+     */
+    public long getNumberOfDispatchedEvents() {
+        return dispatchedEvents.sum();
+    }
+
+    /**
+     * Returns the number of events which are waiting to be dispatched.
+     *
+     * @return the number of buffered events
+     */
+    public int getNumberOfBufferedEvents() {
+        return ringBuffer.size();
+    }
+
+    /**
+     * Stops the dispatcher thread after the buffered events have been dispatched.
+     * Events which are published afterwards are dropped.
+     */
+    @Override
+    public void close() {
+        running = false;
+        wakeUpDispatcher();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *
+ *  Copyright 2017: Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.core;
+
+/**
+ * The configuration of an {@link AsyncEventConsumer}.
+ */
+public class AsyncEventConsumerConfig {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+    private String threadName = "resilience4j-event-dispatcher";
+
+    private AsyncEventConsumerConfig() {
+    }
+
+    /**
+     * Returns a builder to create a custom AsyncEventConsumerConfig.
+     *
+     * @return a {@link Builder}
+     */
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a default AsyncEventConsumerConfig.
+     *
+     * @return a default AsyncEventConsumerConfig
+     */
+    public static AsyncEventConsumerConfig ofDefaults() {
+        return new Builder().build();
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * Defines what happens to an event, if the buffer of the AsyncEventConsumer is full.
+     */
+    public enum OverflowPolicy {
+        /** The event is dropped and counted, the publishing thread never waits. */
+        DROP,
+        /** The publishing thread waits until the dispatcher thread has made space in the buffer. */
+        BLOCK
+    }
+
+    public static class Builder {
+
+        private AsyncEventConsumerConfig config = new AsyncEventConsumerConfig();
+
+        /**
+         * Configures the number of events which can be buffered until they are dispatched.
+         * The size is rounded up to the next power of two, but at least 2. Default size is 1024.
+         *
+         * @param bufferSize the size of the buffer
+         * @return the AsyncEventConsumerConfig.Builder
+         */
+        public Builder bufferSize(int bufferSize) {
+            if (bufferSize < 1 || bufferSize > (1 << 30)) {
+                throw new IllegalArgumentException("bufferSize must be between 1 and 2^30");
+            }
+            config.bufferSize = bufferSize <= 2 ? 2 : Integer.highestOneBit(bufferSize - 1) << 1;
+            return this;
+        }
+
+        /**
+         * Configures what happens to an event, if the buffer is full. Default policy is {@link OverflowPolicy#DROP}.
+         *
+         * @param overflowPolicy the overflow policy
+         * @return the AsyncEventConsumerConfig.Builder
+         */
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            if (overflowPolicy == null) {
+                throw new IllegalArgumentException("overflowPolicy must not be null");
+            }
+            config.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * Configures the name of the dispatcher thread.
+         *
+         * @param threadName the name of the dispatcher thread
+         * @return the AsyncEventConsumerConfig.Builder
+         */
+        public Builder threadName(String threadName) {
+            if (threadName == null || threadName.isEmpty()) {
+                throw new IllegalArgumentException("threadName must not be empty");
+            }
+            config.threadName = threadName;
+            return this;
+        }
+
+        /**
+         * Builds an AsyncEventConsumerConfig
+         *
+         * @return the AsyncEventConsumerConfig
+         */
+        public AsyncEventConsumerConfig build() {
+            return config;
+        }
+    }
+}
@@ -18,45 +18,193 @@
  */
 package io.github.resilience4j.core;
 
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToIntFunction;
 
+/**
+ * Dispatches events to the registered consumers.
+ * <p>
+ * Any number of consumers can be registered for all events and for specific event types. The consumers are stored
+ * in copy-on-write arrays, so that dispatching an event neither locks nor allocates. By default the consumers of
+ * an event type are looked up by the class of the event. Publishers which know the types of their events in advance
+ * can look them up by a precomputed event type ordinal instead. Consumers for all events, which are usually
+ * registered by short-lived subscribers, can be removed again with {@link #removeEventConsumer(EventConsumer)}.
+ *
+ * @param <T> the type of the events
+ */
 public class EventProcessor<T> implements EventPublisher<T> {
 
+    @SuppressWarnings("rawtypes")
+    private static final EventConsumer[] NO_CONSUMERS = new EventConsumer[0];
+
     protected volatile boolean consumerRegistered;
-    private volatile EventConsumer<T> onEventConsumer;
-    private ConcurrentMap<Class<? extends T>, EventConsumer<Object>> eventConsumers = new ConcurrentHashMap<>();
+    private final ToIntFunction<? super T> eventTypeOrdinal;
+    private volatile EventConsumer<Object>[] onEventConsumers = noConsumers();
+    private volatile EventConsumer<Object>[][] eventConsumersByOrdinal;
+    private final ConcurrentMap<Class<? extends T>, EventConsumer<Object>[]> eventConsumers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an EventProcessor which looks up the consumers of an event by the class of the event.
+     */
+    public EventProcessor() {
+        this.eventTypeOrdinal = null;
+    }
+
+    /**
+     * Creates an EventProcessor which looks up the consumers of an event by the ordinal of its event type.
+     * Consumers of specific event types must be registered with {@link #registerConsumer(int, EventConsumer)}.
+     *
+     * @param eventTypeOrdinal   a function which returns the event type ordinal of an event
+     * @param numberOfEventTypes the number of event types, the ordinals must be between 0 and numberOfEventTypes - 1
+     */
+    @SuppressWarnings("unchecked")
+    public EventProcessor(ToIntFunction<? super T> eventTypeOrdinal, int numberOfEventTypes) {
+        this.eventTypeOrdinal = eventTypeOrdinal;
+        EventConsumer<Object>[][] consumersByOrdinal = new EventConsumer[numberOfEventTypes][];
+        Arrays.fill(consumersByOrdinal, NO_CONSUMERS);
+        this.eventConsumersByOrdinal = consumersByOrdinal;
+    }
 
     public boolean hasConsumers(){
         return consumerRegistered;
     }
 
+    /**
+     * Checks if an event of the given type would be consumed by any consumer.
+     * Publishers can use it to avoid the creation of events which nobody consumes.
+     *
+     * @param eventType the type of the event
+     * @return true, if a consumer for all events or a consumer for the given event type is registered
+     */
+    public boolean hasConsumers(Class<? extends T> eventType){
+        return consumerRegistered && (onEventConsumers.length > 0 || eventConsumers.containsKey(eventType));
+    }
+
+    /**
+     * Checks if an event with the given event type ordinal would be consumed by any consumer.
+     *
+     * @param eventTypeOrdinal the event type ordinal of the event
+     * @return true, if a consumer for all events or a consumer for the given event type ordinal is registered
+     */
+    public boolean hasConsumers(int eventTypeOrdinal){
+        return consumerRegistered && (onEventConsumers.length > 0
+            || (eventConsumersByOrdinal != null && eventConsumersByOrdinal[eventTypeOrdinal].length > 0));
+    }
+
+    /**
+     * Registers a consumer for events of the given class. Consumers which have been registered before are kept.
+     *
+     * @param eventType     the class of the events
+     * @param eventConsumer the consumer
+     * @param <E>           the type of the events
+     */
     @SuppressWarnings("unchecked")
-    public <E extends T> void registerConsumer(Class<E> eventType, EventConsumer<E> eventConsumer){
+    public synchronized <E extends T> void registerConsumer(Class<E> eventType, EventConsumer<E> eventConsumer){
+        eventConsumers.compute(eventType, (type, consumers) ->
+            append(consumers == null ? noConsumers() : consumers, (EventConsumer<Object>) eventConsumer));
         consumerRegistered = true;
-        eventConsumers.put(eventType, (EventConsumer<Object>) eventConsumer);
     }
 
+    /**
+     * Registers a consumer for events with the given event type ordinal. Consumers which have been registered before are kept.
+     *
+     * @param eventTypeOrdinal the event type ordinal of the events
+     * @param eventConsumer    the consumer
+     * @param <E>              the type of the events
+     * @throws IllegalStateException if the EventProcessor does not look up consumers by event type ordinal
+     */
     @SuppressWarnings("unchecked")
+    public synchronized <E extends T> void registerConsumer(int eventTypeOrdinal, EventConsumer<E> eventConsumer){
+        if (eventConsumersByOrdinal == null) {
+            throw new IllegalStateException("EventProcessor does not look up consumers by event type ordinal");
+        }
+        EventConsumer<Object>[][] consumersByOrdinal = eventConsumersByOrdinal.clone();
+        consumersByOrdinal[eventTypeOrdinal] = append(consumersByOrdinal[eventTypeOrdinal], (EventConsumer<Object>) eventConsumer);
+        eventConsumersByOrdinal = consumersByOrdinal;
+        consumerRegistered = true;
+    }
+
     public <E extends T> boolean processEvent(E event) {
-        boolean consumed = false;
-        if(onEventConsumer != null){
-            onEventConsumer.consumeEvent(event);
-            consumed = true;
+        boolean consumed = dispatch(onEventConsumers, event);
+        EventConsumer<Object>[][] consumersByOrdinal = eventConsumersByOrdinal;
+        if(consumersByOrdinal != null){
+            consumed |= dispatch(consumersByOrdinal[eventTypeOrdinal.applyAsInt(event)], event);
         }
         if(!eventConsumers.isEmpty()){
-            EventConsumer<T> eventConsumer = (EventConsumer<T>) eventConsumers.get(event.getClass());
-            if(eventConsumer != null){
-                eventConsumer.consumeEvent(event);
-                consumed = true;
+            EventConsumer<Object>[] consumers = eventConsumers.get(event.getClass());
+            if(consumers != null){
+                consumed |= dispatch(consumers, event);
             }
         }
         return consumed;
     }
 
+    /**
+     * Registers a consumer for all events. Consumers which have been registered before are kept.
+     *
+     * @param onEventConsumer the consumer
+     */
     @Override
-    public void onEvent(EventConsumer<T> onEventConsumer) {
+    @SuppressWarnings("unchecked")
+    public synchronized void onEvent(EventConsumer<T> onEventConsumer) {
+        onEventConsumers = append(onEventConsumers, (EventConsumer<Object>) onEventConsumer);
         consumerRegistered = true;
-        this.onEventConsumer = onEventConsumer;
+    }
+
+    /**
+     * Removes a consumer for all events. Other consumers are kept.
+     *
+     * @param onEventConsumer the consumer
+     */
+    @Override
+    public synchronized void removeEventConsumer(EventConsumer<T> onEventConsumer) {
+        onEventConsumers = remove(onEventConsumers, onEventConsumer);
+        consumerRegistered = onEventConsumers.length > 0 || !eventConsumers.isEmpty() || hasConsumersByOrdinal();
+    }
+
+    private boolean hasConsumersByOrdinal() {
+        if (eventConsumersByOrdinal == null) {
+            return false;
+        }
+        for (EventConsumer<Object>[] consumers : eventConsumersByOrdinal) {
+            if (consumers.length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean dispatch(EventConsumer<Object>[] consumers, Object event) {
+        for (EventConsumer<Object> consumer : consumers) {
+            consumer.consumeEvent(event);
+        }
+        return consumers.length > 0;
+    }
+
+    private static EventConsumer<Object>[] append(EventConsumer<Object>[] consumers, EventConsumer<Object> consumer) {
+        EventConsumer<Object>[] newConsumers = Arrays.copyOf(consumers, consumers.length + 1);
+        newConsumers[consumers.length] = consumer;
+        return newConsumers;
+    }
+
+    private static EventConsumer<Object>[] remove(EventConsumer<Object>[] consumers, EventConsumer<?> consumer) {
+        for (int i = 0; i < consumers.length; i++) {
+            if (consumers[i] == consumer) {
+                if (consumers.length == 1) {
+                    return noConsumers();
+                }
+                EventConsumer<Object>[] newConsumers = Arrays.copyOf(consumers, consumers.length - 1);
+                System.arraycopy(consumers, i + 1, newConsumers, i, consumers.length - i - 1);
+                return newConsumers;
+            }
+        }
+        return consumers;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EventConsumer<Object>[] noConsumers() {
+        return NO_CONSUMERS;
     }
 }
@@ -21,4 +21,14 @@ package io.github.resilience4j.core;
 public interface EventPublisher<T> {
 
     void onEvent(EventConsumer<T> onEventConsumer);
+
+    /**
+     * Removes a consumer which has been registered with {@link #onEvent(EventConsumer)}, so that it does not
+     * receive events anymore and can be garbage collected. The consumer is compared by identity.
+     * The default implementation does nothing.
+     *
+     * @param onEventConsumer the consumer
+     */
+    default void removeEventConsumer(EventConsumer<T> onEventConsumer) {
+    }
 }
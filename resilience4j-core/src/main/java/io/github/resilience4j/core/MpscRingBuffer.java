@@ -0,0 +1,127 @@
+/*
+ *
+ *  Copyright 2017: Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free ring buffer for multiple producers and a single consumer.
+ * <p>
+ * Every slot has a sequence number, which tells producers whether the slot is free and the consumer whether
+ * the slot has been published. Producers claim a slot with a CAS on the producer index.
+ * Only a single thread is allowed to call {@link #poll()}.
+ *
+ * @param <T> the type of the elements
+ */
+final class MpscRingBuffer<T> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private volatile long consumerIndex;
+
+    /**
+     * Creates a ring buffer.
+     *
+     * @param capacity the capacity, which must be a power of two and at least 2, so that the sequence
+     *                 of a published slot can be distinguished from the sequence of a free slot
+     */
+    MpscRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two and at least 2");
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element, if the ring buffer is not full. Can be called by any thread.
+     *
+     * @param element the element
+     * @return true, if the element has been added, false if the ring buffer is full
+     */
+    boolean offer(T element) {
+        while (true) {
+            long index = producerIndex.get();
+            int slot = (int) (index & mask);
+            long sequence = sequences.get(slot);
+            if (sequence == index) {
+                if (producerIndex.compareAndSet(index, index + 1)) {
+                    elements.lazySet(slot, element);
+                    // The volatile write publishes the element to the consumer
+                    sequences.set(slot, index + 1);
+                    return true;
+                }
+            } else if (sequence < index) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element. Must only be called by the single consumer thread.
+     *
+     * @return the oldest element or null, if the ring buffer is empty
+     */
+    T poll() {
+        long index = consumerIndex;
+        int slot = (int) (index & mask);
+        if (sequences.get(slot) != index + 1) {
+            return null;
+        }
+        T element = elements.get(slot);
+        elements.lazySet(slot, null);
+        consumerIndex = index + 1;
+        sequences.lazySet(slot, index + capacity);
+        return element;
+    }
+
+    /**
+     * Checks if the ring buffer contains no published elements.
+     *
+     * @return true, if the ring buffer is empty
+     */
+    boolean isEmpty() {
+        long index = consumerIndex;
+        return sequences.get((int) (index & mask)) != index + 1;
+    }
+
+    /**
+     * Returns the number of buffered elements, which is only an estimation under concurrent access.
+     *
+     * @return the number of buffered elements
+     */
+    int size() {
+        long size = producerIndex.get() - consumerIndex;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+}
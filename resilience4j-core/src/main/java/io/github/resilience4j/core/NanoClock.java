@@ -0,0 +1,58 @@
+/*
+ *
+ *  Copyright 2017: Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.core;
+
+/**
+ * A monotonic clock with nanosecond precision.
+ *
+ * The values are only meaningful relative to each other, like the values of {@link System#nanoTime()}.
+ * Reading the clock does not allocate, which makes it suitable for hot paths. Tests can inject their own clock
+ * to control the passing of time.
+ */
+@FunctionalInterface
+public interface NanoClock {
+
+    /**
+     * Returns the current value of this clock in nanoseconds.
+     *
+     * @return the current value of this clock in nanoseconds
+     */
+    long nanoTime();
+
+    /**
+     * Returns a clock which is backed by {@link System#nanoTime()}.
+     *
+     * @return a clock which is backed by {@link System#nanoTime()}
+     */
+    static NanoClock system() {
+        return SystemNanoClock.INSTANCE;
+    }
+
+    /**
+     * A {@link NanoClock} which is backed by {@link System#nanoTime()}.
+     */
+    enum SystemNanoClock implements NanoClock {
+        INSTANCE;
+
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    }
+}
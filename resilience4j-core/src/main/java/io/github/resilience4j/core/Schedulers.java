@@ -0,0 +1,64 @@
+/*
+ *
+ *  Copyright 2017: Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.core;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Creates the schedulers which are used to complete timed, asynchronous operations without blocking a caller thread.
+ * <p>
+ * A scheduler uses a single daemon thread and a delay queue, so that one scheduler can serve many thousands of pending
+ * timers. Tasks which are submitted to these schedulers must be short and must not block.
+ */
+public final class Schedulers {
+
+    private Schedulers() {
+    }
+
+    /**
+     * Creates a new scheduler with a single daemon thread. Cancelled tasks are removed from the delay queue immediately.
+     *
+     * @param threadName the name of the thread of the scheduler
+     * @return a new scheduler
+     */
+    public static ScheduledExecutorService newSingleThreadScheduler(String threadName) {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Returns the scheduler which is shared by all components which are not configured with a custom scheduler.
+     * The scheduler is created when it is used for the first time.
+     *
+     * @return the shared scheduler
+     */
+    public static ScheduledExecutorService shared() {
+        return SharedSchedulerHolder.INSTANCE;
+    }
+
+    private static final class SharedSchedulerHolder {
+        private static final ScheduledExecutorService INSTANCE = newSingleThreadScheduler("resilience4j-shared-scheduler");
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ *
+ *  Copyright 2017: Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.core;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class AsyncEventConsumerConfigTest {
+
+    @Test
+    public void shouldUseDefaults() {
+        AsyncEventConsumerConfig config = AsyncEventConsumerConfig.ofDefaults();
+        then(config.getBufferSize()).isEqualTo(AsyncEventConsumerConfig.DEFAULT_BUFFER_SIZE);
+        then(config.getOverflowPolicy()).isEqualTo(AsyncEventConsumerConfig.OverflowPolicy.DROP);
+    }
+
+    @Test
+    public void shouldRoundBufferSizeUpToPowerOfTwo() {
+        then(AsyncEventConsumerConfig.custom().bufferSize(1).build().getBufferSize()).isEqualTo(2);
+        then(AsyncEventConsumerConfig.custom().bufferSize(100).build().getBufferSize()).isEqualTo(128);
+        then(AsyncEventConsumerConfig.custom().bufferSize(128).build().getBufferSize()).isEqualTo(128);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroBufferSizeShouldFail() {
+        AsyncEventConsumerConfig.custom().bufferSize(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullOverflowPolicyShouldFail() {
+        AsyncEventConsumerConfig.custom().overflowPolicy(null);
+    }
+}
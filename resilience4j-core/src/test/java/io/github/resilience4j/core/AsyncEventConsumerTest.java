@@ -0,0 +1,138 @@
+/*
+ *
+ *  Copyright 2017: Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.core;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class AsyncEventConsumerTest {
+
+    @Test
+    public void shouldDispatchEventsOnDispatcherThread() {
+        List<Integer> events = new CopyOnWriteArrayList<>();
+        List<String> threadNames = new CopyOnWriteArrayList<>();
+        AsyncEventConsumer<Integer> consumer = AsyncEventConsumer.of(event -> {
+            events.add(event);
+            threadNames.add(Thread.currentThread().getName());
+        }, AsyncEventConsumerConfig.custom().threadName("test-dispatcher").build());
+
+        consumer.consumeEvent(1);
+        consumer.consumeEvent(2);
+        consumer.consumeEvent(3);
+
+        await().atMost(5, TimeUnit.SECONDS).until(consumer::getNumberOfDispatchedEvents, equalTo(3L));
+        assertThat(events).containsExactly(1, 2, 3);
+        assertThat(threadNames).containsOnly("test-dispatcher");
+        assertThat(consumer.getNumberOfDroppedEvents()).isEqualTo(0);
+        consumer.close();
+    }
+
+    @Test
+    public void shouldDropEventsWhenBufferIsFull() throws InterruptedException {
+        CountDownLatch blockDispatcher = new CountDownLatch(1);
+        CountDownLatch dispatcherBlocked = new CountDownLatch(1);
+        AsyncEventConsumer<Integer> consumer = AsyncEventConsumer.of(event -> {
+            dispatcherBlocked.countDown();
+            awaitUninterruptibly(blockDispatcher);
+        }, AsyncEventConsumerConfig.custom().bufferSize(2).build());
+
+        consumer.consumeEvent(1);
+        dispatcherBlocked.await(5, TimeUnit.SECONDS);
+        consumer.consumeEvent(2);
+        consumer.consumeEvent(3);
+        consumer.consumeEvent(4);
+
+        assertThat(consumer.getNumberOfDroppedEvents()).isEqualTo(1);
+        assertThat(consumer.getNumberOfBufferedEvents()).isEqualTo(2);
+
+        blockDispatcher.countDown();
+        await().atMost(5, TimeUnit.SECONDS).until(consumer::getNumberOfDispatchedEvents, equalTo(3L));
+        consumer.close();
+    }
+
+    @Test
+    public void shouldBlockPublisherWhenBufferIsFull() throws InterruptedException {
+        CountDownLatch blockDispatcher = new CountDownLatch(1);
+        CountDownLatch dispatcherBlocked = new CountDownLatch(1);
+        AsyncEventConsumer<Integer> consumer = AsyncEventConsumer.of(event -> {
+            dispatcherBlocked.countDown();
+            awaitUninterruptibly(blockDispatcher);
+        }, AsyncEventConsumerConfig.custom()
+                .bufferSize(2)
+                .overflowPolicy(AsyncEventConsumerConfig.OverflowPolicy.BLOCK)
+                .build());
+
+        consumer.consumeEvent(1);
+        dispatcherBlocked.await(5, TimeUnit.SECONDS);
+        consumer.consumeEvent(2);
+        consumer.consumeEvent(3);
+        Thread publisher = new Thread(() -> consumer.consumeEvent(4));
+        publisher.start();
+        publisher.join(100);
+
+        assertThat(publisher.isAlive()).isTrue();
+
+        blockDispatcher.countDown();
+        publisher.join(5000);
+        assertThat(publisher.isAlive()).isFalse();
+        await().atMost(5, TimeUnit.SECONDS).until(consumer::getNumberOfDispatchedEvents, equalTo(4L));
+        assertThat(consumer.getNumberOfDroppedEvents()).isEqualTo(0);
+        consumer.close();
+    }
+
+    @Test
+    public void shouldDropEventsWhenClosed() {
+        AsyncEventConsumer<Integer> consumer = AsyncEventConsumer.of(event -> {
+        });
+        consumer.close();
+
+        consumer.consumeEvent(1);
+
+        assertThat(consumer.getNumberOfDroppedEvents()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldConsumeEventsOfEventProcessorAsynchronously() {
+        List<Integer> events = new CopyOnWriteArrayList<>();
+        AsyncEventConsumer<Number> consumer = AsyncEventConsumer.of(event -> events.add(event.intValue()));
+        EventProcessor<Number> eventProcessor = new EventProcessor<>();
+        eventProcessor.onEvent(consumer);
+
+        eventProcessor.processEvent(1);
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> events.size(), equalTo(1));
+        consumer.close();
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -78,6 +78,97 @@ public class EventProcessorTest {
         assertThat(consumed).isEqualTo(false);
     }
 
+    @Test
+    public void testMultipleOnEventConsumers() {
+        EventProcessor<Number> eventProcessor = new EventProcessor<>();
+        eventProcessor.onEvent(event -> logger.info(event.toString()));
+        eventProcessor.onEvent(event -> logger.info(event.toString()));
+
+        boolean consumed = eventProcessor.processEvent(1);
+
+        then(logger).should(times(2)).info("1");
+        assertThat(consumed).isEqualTo(true);
+    }
+
+    @Test
+    public void testMultipleRegisteredConsumers() {
+        EventProcessor<Number> eventProcessor = new EventProcessor<>();
+        eventProcessor.registerConsumer(Integer.class, event -> logger.info(event.toString()));
+        eventProcessor.registerConsumer(Integer.class, event -> logger.info(event.toString()));
+
+        boolean consumed = eventProcessor.processEvent(1);
+
+        then(logger).should(times(2)).info("1");
+        assertThat(consumed).isEqualTo(true);
+    }
+
+    @Test
+    public void testRegisterConsumerByEventTypeOrdinal() {
+        EventProcessor<Number> eventProcessor = new EventProcessor<>(event -> event.intValue() % 2, 2);
+        eventProcessor.registerConsumer(1, event -> logger.info(event.toString()));
+        eventProcessor.registerConsumer(1, event -> logger.info(event.toString()));
+
+        boolean consumed = eventProcessor.processEvent(1);
+        boolean notConsumed = eventProcessor.processEvent(2);
+
+        then(logger).should(times(2)).info("1");
+        then(logger).should(times(0)).info("2");
+        assertThat(consumed).isEqualTo(true);
+        assertThat(notConsumed).isEqualTo(false);
+        assertThat(eventProcessor.hasConsumers(1)).isEqualTo(true);
+        assertThat(eventProcessor.hasConsumers(0)).isEqualTo(false);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRegisterConsumerByEventTypeOrdinalWithoutOrdinalFunction() {
+        EventProcessor<Number> eventProcessor = new EventProcessor<>();
+        eventProcessor.registerConsumer(1, event -> logger.info(event.toString()));
+    }
+
+    @Test
+    public void testHasConsumersOfEventType() {
+        EventProcessor<Number> eventProcessor = new EventProcessor<>();
+        assertThat(eventProcessor.hasConsumers(Integer.class)).isEqualTo(false);
+
+        eventProcessor.registerConsumer(Integer.class, event -> logger.info(event.toString()));
+
+        assertThat(eventProcessor.hasConsumers(Integer.class)).isEqualTo(true);
+        assertThat(eventProcessor.hasConsumers(Long.class)).isEqualTo(false);
+
+        eventProcessor.onEvent(event -> logger.info(event.toString()));
+
+        assertThat(eventProcessor.hasConsumers(Long.class)).isEqualTo(true);
+    }
+
+    @Test
+    public void testRemoveOnEventConsumer() {
+        EventProcessor<Number> eventProcessor = new EventProcessor<>();
+        EventConsumer<Number> removedConsumer = event -> logger.info("removed " + event);
+        eventProcessor.onEvent(removedConsumer);
+        eventProcessor.onEvent(event -> logger.info(event.toString()));
+
+        eventProcessor.removeEventConsumer(removedConsumer);
+        boolean consumed = eventProcessor.processEvent(1);
+
+        then(logger).should(times(1)).info("1");
+        then(logger).should(times(0)).info("removed 1");
+        assertThat(consumed).isEqualTo(true);
+    }
+
+    @Test
+    public void testHasNoConsumersWhenAllOnEventConsumersAreRemoved() {
+        EventProcessor<Number> eventProcessor = new EventProcessor<>();
+        EventConsumer<Number> eventConsumer = event -> logger.info(event.toString());
+        eventProcessor.onEvent(eventConsumer);
+
+        eventProcessor.removeEventConsumer(eventConsumer);
+        boolean consumed = eventProcessor.processEvent(1);
+
+        then(logger).should(times(0)).info("1");
+        assertThat(consumed).isEqualTo(false);
+        assertThat(eventProcessor.hasConsumers()).isEqualTo(false);
+    }
+
 
 
 }
@@ -0,0 +1,108 @@
+/*
+ *
+ *  Copyright 2017: Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MpscRingBufferTest {
+
+    @Test
+    public void shouldPollElementsInOrder() {
+        MpscRingBuffer<Integer> ringBuffer = new MpscRingBuffer<>(4);
+        assertThat(ringBuffer.isEmpty()).isTrue();
+        assertThat(ringBuffer.poll()).isNull();
+
+        ringBuffer.offer(1);
+        ringBuffer.offer(2);
+
+        assertThat(ringBuffer.isEmpty()).isFalse();
+        assertThat(ringBuffer.size()).isEqualTo(2);
+        assertThat(ringBuffer.poll()).isEqualTo(1);
+        assertThat(ringBuffer.poll()).isEqualTo(2);
+        assertThat(ringBuffer.poll()).isNull();
+        assertThat(ringBuffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void shouldRejectElementsWhenFull() {
+        MpscRingBuffer<Integer> ringBuffer = new MpscRingBuffer<>(2);
+
+        assertThat(ringBuffer.offer(1)).isTrue();
+        assertThat(ringBuffer.offer(2)).isTrue();
+        assertThat(ringBuffer.offer(3)).isFalse();
+
+        assertThat(ringBuffer.poll()).isEqualTo(1);
+        assertThat(ringBuffer.offer(3)).isTrue();
+        assertThat(ringBuffer.poll()).isEqualTo(2);
+        assertThat(ringBuffer.poll()).isEqualTo(3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequirePowerOfTwoCapacity() {
+        new MpscRingBuffer<>(3);
+    }
+
+    @Test
+    public void shouldNotLoseElementsOfConcurrentProducers() throws InterruptedException {
+        MpscRingBuffer<Integer> ringBuffer = new MpscRingBuffer<>(64);
+        int producers = 4;
+        int elementsPerProducer = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < elementsPerProducer; i++) {
+                    while (!ringBuffer.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+
+        long sum = 0;
+        int polled = 0;
+        while (polled < producers * elementsPerProducer) {
+            Integer element = ringBuffer.poll();
+            if (element != null) {
+                sum += element;
+                polled++;
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(sum).isEqualTo((long) producers * elementsPerProducer * (elementsPerProducer - 1) / 2);
+        assertThat(ringBuffer.isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ *
+ *  Copyright 2017: Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.core;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+public class NanoClockTest {
+
+    @Test
+    public void shouldReturnMonotonicSystemTime() throws InterruptedException {
+        NanoClock clock = NanoClock.system();
+        long start = clock.nanoTime();
+        Thread.sleep(10);
+        Assertions.assertThat(clock.nanoTime() - start).isGreaterThanOrEqualTo(10_000_000L);
+    }
+}
@@ -21,6 +21,7 @@ import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.MetricSet;
 import io.github.resilience4j.bulkhead.Bulkhead;
 import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.WaitTimeHistogram;
 import io.vavr.collection.Array;
 
 import java.util.Map;
@@ -34,6 +35,11 @@ import static java.util.Objects.requireNonNull;
 public class BulkheadMetrics implements MetricSet {
     private static final String DEFAULT_PREFIX = "resilience4j.bulkhead";
     private static final String AVAILABLE_CONCURRENT_CALLS = "available_concurrent_calls";
+    private static final String MAX_IN_FLIGHT_CALLS = "max_in_flight_calls";
+    private static final String PERMITTED_CALLS = "permitted_calls";
+    private static final String REJECTED_CALLS = "rejected_calls";
+    private static final String WAITED_CALLS = "waited_calls";
+    private static final String MEAN_WAIT_TIME = "mean_wait_time_in_millis";
 
     private final MetricRegistry metricRegistry = new MetricRegistry();
 
@@ -50,10 +56,27 @@ public class BulkheadMetrics implements MetricSet {
                     //number of available concurrent calls as an integer
                     metricRegistry.register(name(prefix, name, AVAILABLE_CONCURRENT_CALLS),
                             (Gauge<Integer>) metrics::getAvailableConcurrentCalls);
+                    metricRegistry.register(name(prefix, name, MAX_IN_FLIGHT_CALLS),
+                            (Gauge<Integer>) metrics::getMaxInFlightCalls);
+                    metricRegistry.register(name(prefix, name, PERMITTED_CALLS),
+                            (Gauge<Long>) metrics::getNumberOfPermittedCalls);
+                    metricRegistry.register(name(prefix, name, REJECTED_CALLS),
+                            (Gauge<Long>) metrics::getNumberOfRejectedCalls);
+                    //number of calls which had to wait to enter the bulkhead and their mean waiting time
+                    WaitTimeHistogram waitTimeHistogram = metrics.getWaitTimeHistogram();
+                    metricRegistry.register(name(prefix, name, WAITED_CALLS),
+                            (Gauge<Long>) waitTimeHistogram::getCount);
+                    metricRegistry.register(name(prefix, name, MEAN_WAIT_TIME),
+                            (Gauge<Double>) () -> meanWaitTimeInMillis(waitTimeHistogram));
                 }
         );
     }
 
+    private static double meanWaitTimeInMillis(WaitTimeHistogram waitTimeHistogram) {
+        long count = waitTimeHistogram.getCount();
+        return count == 0 ? 0.0 : waitTimeHistogram.getSumInNanos() / 1_000_000.0 / count;
+    }
+
     /**
      * Creates a new instance BulkheadMetrics {@link BulkheadMetrics} with specified metrics names prefix and
      * a {@link BulkheadRegistry} as a source.
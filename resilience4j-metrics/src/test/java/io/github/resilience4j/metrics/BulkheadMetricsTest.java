@@ -80,7 +80,7 @@ public class BulkheadMetricsTest {
         Future<String> future = executorService.submit(() -> bulkhead.executeSupplier(helloWorldService::returnHelloWorld));
 
         // Then metrics are present and show value
-        assertThat(metricRegistry.getMetrics()).hasSize(1);
+        assertThat(metricRegistry.getMetrics()).hasSize(6);
         assertThat(metricRegistry.getGauges().get("resilience4j.bulkhead.testBulkhead.available_concurrent_calls").getValue())
                 .isIn(DEFAULT_MAX_CONCURRENT_CALLS, DEFAULT_MAX_CONCURRENT_CALLS - 1);
 
@@ -90,9 +90,19 @@ public class BulkheadMetricsTest {
         BDDMockito.then(helloWorldService).should(times(1)).returnHelloWorld();
 
         // Then check metrics again
-        assertThat(metricRegistry.getMetrics()).hasSize(1);
+        assertThat(metricRegistry.getMetrics()).hasSize(6);
         assertThat(metricRegistry.getGauges().get("resilience4j.bulkhead.testBulkhead.available_concurrent_calls").getValue())
                 .isIn(DEFAULT_MAX_CONCURRENT_CALLS, DEFAULT_MAX_CONCURRENT_CALLS);
+        assertThat(metricRegistry.getGauges().get("resilience4j.bulkhead.testBulkhead.max_in_flight_calls").getValue())
+                .isEqualTo(1);
+        assertThat(metricRegistry.getGauges().get("resilience4j.bulkhead.testBulkhead.permitted_calls").getValue())
+                .isEqualTo(1L);
+        assertThat(metricRegistry.getGauges().get("resilience4j.bulkhead.testBulkhead.rejected_calls").getValue())
+                .isEqualTo(0L);
+        assertThat(metricRegistry.getGauges().get("resilience4j.bulkhead.testBulkhead.waited_calls").getValue())
+                .isEqualTo(0L);
+        assertThat(metricRegistry.getGauges().get("resilience4j.bulkhead.testBulkhead.mean_wait_time_in_millis").getValue())
+                .isEqualTo(0.0);
     }
 
     @Test
@@ -118,7 +128,7 @@ public class BulkheadMetricsTest {
         Future<String> future = executorService.submit(() -> bulkhead.executeSupplier(helloWorldService::returnHelloWorld));
 
         // Then metrics are present and show value
-        assertThat(metricRegistry.getMetrics()).hasSize(1);
+        assertThat(metricRegistry.getMetrics()).hasSize(6);
         assertThat(metricRegistry.getGauges().get("testPre.testBulkhead.available_concurrent_calls").getValue())
                 .isIn(DEFAULT_MAX_CONCURRENT_CALLS, DEFAULT_MAX_CONCURRENT_CALLS - 1);
 
@@ -128,7 +138,7 @@ public class BulkheadMetricsTest {
         BDDMockito.then(helloWorldService).should(times(1)).returnHelloWorld();
 
         // Then check metrics again
-        assertThat(metricRegistry.getMetrics()).hasSize(1);
+        assertThat(metricRegistry.getMetrics()).hasSize(6);
         assertThat(metricRegistry.getGauges().get("testPre.testBulkhead.available_concurrent_calls").getValue())
                 .isIn(DEFAULT_MAX_CONCURRENT_CALLS, DEFAULT_MAX_CONCURRENT_CALLS);
     }
@@ -0,0 +1,129 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.prometheus;
+
+import org.junit.Test;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.prometheus.client.CollectorRegistry;
+
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BulkheadExportsTest {
+
+    @Test
+    public void testExportsBulkheadMetrics() {
+        // Given
+        final CollectorRegistry registry = new CollectorRegistry();
+
+        final Bulkhead bulkhead = Bulkhead.of("foo", BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .build());
+
+        BulkheadExports.ofIterable("boo_bulkhead", singletonList(bulkhead)).register(registry);
+
+        // When
+        bulkhead.isCallPermitted();
+        bulkhead.isCallPermitted();
+
+        // Then
+        assertThat(stat(registry, "available_concurrent_calls")).isEqualTo(0.0);
+        assertThat(stat(registry, "max_in_flight_calls")).isEqualTo(1.0);
+        assertThat(calls(registry, "permitted")).isEqualTo(1.0);
+        assertThat(calls(registry, "rejected")).isEqualTo(1.0);
+    }
+
+    @Test
+    public void testExportsWaitTimeHistogram() {
+        // Given
+        final CollectorRegistry registry = new CollectorRegistry();
+
+        final Bulkhead bulkhead = Bulkhead.of("foo", BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitTime(10)
+                .build());
+
+        BulkheadExports.ofIterable("boo_bulkhead", singletonList(bulkhead)).register(registry);
+
+        // When
+        bulkhead.isCallPermitted();
+        bulkhead.isCallPermitted();
+
+        // Then
+        assertThat(registry.getSampleValue(
+                "boo_bulkhead_wait_time_seconds_count",
+                new String[]{"name"},
+                new String[]{"foo"})).isEqualTo(1.0);
+        assertThat(registry.getSampleValue(
+                "boo_bulkhead_wait_time_seconds_bucket",
+                new String[]{"name", "le"},
+                new String[]{"foo", "0.001"})).isEqualTo(0.0);
+        assertThat(registry.getSampleValue(
+                "boo_bulkhead_wait_time_seconds_bucket",
+                new String[]{"name", "le"},
+                new String[]{"foo", "+Inf"})).isEqualTo(1.0);
+        assertThat(registry.getSampleValue(
+                "boo_bulkhead_wait_time_seconds_sum",
+                new String[]{"name"},
+                new String[]{"foo"})).isGreaterThanOrEqualTo(0.01);
+    }
+
+    @Test
+    public void testConstructors() {
+        final BulkheadRegistry registry = BulkheadRegistry.ofDefaults();
+
+        BulkheadExports.ofIterable("boo_bulkheads", singleton(Bulkhead.ofDefaults("foo")));
+        BulkheadExports.ofBulkheadRegistry("boo_bulkheads", registry);
+        BulkheadExports.ofSupplier("boo_bulkheads", () -> singleton(Bulkhead.ofDefaults("foo")));
+        BulkheadExports.ofBulkhead("boo_bulkheads", Bulkhead.ofDefaults("foo"));
+
+        BulkheadExports.ofIterable(singleton(Bulkhead.ofDefaults("foo")));
+        BulkheadExports.ofBulkheadRegistry(registry);
+        BulkheadExports.ofSupplier(() -> singleton(Bulkhead.ofDefaults("foo")));
+        BulkheadExports.ofBulkhead(Bulkhead.ofDefaults("foo"));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorWithNullName() {
+        BulkheadExports.ofSupplier(null, () -> singleton(Bulkhead.ofDefaults("foo")));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorWithNullSupplier() {
+        BulkheadExports.ofSupplier("boo_bulkheads", null);
+    }
+
+    private static Double stat(CollectorRegistry registry, String param) {
+        return registry.getSampleValue(
+                "boo_bulkhead",
+                new String[]{"name", "param"},
+                new String[]{"foo", param});
+    }
+
+    private static Double calls(CollectorRegistry registry, String kind) {
+        return registry.getSampleValue(
+                "boo_bulkhead_calls_total",
+                new String[]{"name", "kind"},
+                new String[]{"foo", kind});
+    }
+}
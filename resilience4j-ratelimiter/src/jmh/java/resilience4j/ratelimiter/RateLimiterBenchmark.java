@@ -38,6 +38,7 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import io.github.resilience4j.ratelimiter.internal.AtomicRateLimiter;
 import io.github.resilience4j.ratelimiter.internal.SemaphoreBasedRateLimiter;
+import io.github.resilience4j.ratelimiter.internal.StripedAtomicRateLimiter;
 
 import java.time.Duration;
 import java.util.concurrent.TimeUnit;
@@ -52,18 +53,26 @@ public class RateLimiterBenchmark {
     private static final int WARMUP_COUNT = 10;
     private static final int ITERATION_COUNT = 10;
     private static final int THREAD_COUNT = 2;
+    private static final int[] SCALABILITY_THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
 
     private RateLimiter semaphoreBasedRateLimiter;
     private AtomicRateLimiter atomicRateLimiter;
+    private StripedAtomicRateLimiter stripedAtomicRateLimiter;
 
     private Supplier<String> semaphoreGuardedSupplier;
     private Supplier<String> atomicGuardedSupplier;
+    private Supplier<String> stripedAtomicGuardedSupplier;
+    private Duration timeoutDuration;
 
     public static void main(String[] args) throws RunnerException {
-        Options options = new OptionsBuilder()
-            .addProfiler(GCProfiler.class)
-            .build();
-        new Runner(options).run();
+        for (int threadCount : SCALABILITY_THREAD_COUNTS) {
+            Options options = new OptionsBuilder()
+                .include(RateLimiterBenchmark.class.getSimpleName())
+                .threads(threadCount)
+                .addProfiler(GCProfiler.class)
+                .build();
+            new Runner(options).run();
+        }
     }
 
     @Setup
@@ -74,7 +83,9 @@ public class RateLimiterBenchmark {
             .timeoutDuration(Duration.ofSeconds(5))
             .build();
         semaphoreBasedRateLimiter = new SemaphoreBasedRateLimiter("semaphoreBased", rateLimiterConfig);
+        timeoutDuration = rateLimiterConfig.getTimeoutDuration();
         atomicRateLimiter = new AtomicRateLimiter("atomicBased", rateLimiterConfig);
+        stripedAtomicRateLimiter = new StripedAtomicRateLimiter("stripedAtomicBased", rateLimiterConfig);
 
         Supplier<String> stringSupplier = () -> {
             Blackhole.consumeCPU(1);
@@ -82,6 +93,7 @@ public class RateLimiterBenchmark {
         };
         semaphoreGuardedSupplier = RateLimiter.decorateSupplier(semaphoreBasedRateLimiter, stringSupplier);
         atomicGuardedSupplier = RateLimiter.decorateSupplier(atomicRateLimiter, stringSupplier);
+        stripedAtomicGuardedSupplier = RateLimiter.decorateSupplier(stripedAtomicRateLimiter, stringSupplier);
     }
 
     @Benchmark
@@ -101,4 +113,35 @@ public class RateLimiterBenchmark {
     public String atomicPermission() {
         return atomicGuardedSupplier.get();
     }
-}
\ No newline at end of file
+
+    @Benchmark
+    @Threads(value = THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Fork(value = FORK_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public String stripedAtomicPermission() {
+        return stripedAtomicGuardedSupplier.get();
+    }
+
+    /**
+     * Acquires a permission without a decorator, so that the GC profiler reports
+     * the allocations of the {@link AtomicRateLimiter} itself.
+     */
+    @Benchmark
+    @Threads(value = THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Fork(value = FORK_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public boolean atomicPermissionWithoutDecorator() {
+        return atomicRateLimiter.getPermission(timeoutDuration);
+    }
+
+    @Benchmark
+    @Threads(value = THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Fork(value = FORK_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public int atomicAvailablePermissions() {
+        return atomicRateLimiter.getMetrics().getAvailablePermissions();
+    }
+}
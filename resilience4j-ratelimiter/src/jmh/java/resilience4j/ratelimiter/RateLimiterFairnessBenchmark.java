@@ -0,0 +1,103 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.ratelimiter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.github.resilience4j.ratelimiter.internal.AtomicRateLimiter;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the distribution of the wait times of an {@link AtomicRateLimiter} with and without fair call handling.
+ * The rate limiter is saturated, so that every caller has to wait. Look at the p0.99 and p0.999 percentiles
+ * of the sample time.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.SampleTime)
+public class RateLimiterFairnessBenchmark {
+
+    private static final int FORK_COUNT = 2;
+    private static final int WARMUP_COUNT = 10;
+    private static final int ITERATION_COUNT = 10;
+    private static final int THREAD_COUNT = 16;
+    private static final int[] SCALABILITY_THREAD_COUNTS = {4, 16, 64};
+
+    private AtomicRateLimiter atomicRateLimiter;
+    private AtomicRateLimiter fairAtomicRateLimiter;
+    private Duration timeoutDuration;
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threadCount : SCALABILITY_THREAD_COUNTS) {
+            Options options = new OptionsBuilder()
+                .include(RateLimiterFairnessBenchmark.class.getSimpleName())
+                .threads(threadCount)
+                .build();
+            new Runner(options).run();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        RateLimiterConfig rateLimiterConfig = RateLimiterConfig.custom()
+            .limitForPeriod(100)
+            .limitRefreshPeriod(Duration.ofMillis(1))
+            .timeoutDuration(Duration.ofSeconds(5))
+            .build();
+        timeoutDuration = rateLimiterConfig.getTimeoutDuration();
+        atomicRateLimiter = new AtomicRateLimiter("atomicBased", rateLimiterConfig);
+        fairAtomicRateLimiter = new AtomicRateLimiter("fairAtomicBased", RateLimiterConfig.from(rateLimiterConfig)
+            .fairCallHandling(true)
+            .build());
+    }
+
+    @Benchmark
+    @Threads(value = THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Fork(value = FORK_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public boolean atomicPermission() {
+        return atomicRateLimiter.getPermission(timeoutDuration);
+    }
+
+    @Benchmark
+    @Threads(value = THREAD_COUNT)
+    @Warmup(iterations = WARMUP_COUNT)
+    @Fork(value = FORK_COUNT)
+    @Measurement(iterations = ITERATION_COUNT)
+    public boolean fairAtomicPermission() {
+        return fairAtomicRateLimiter.getPermission(timeoutDuration);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.ratelimiter;
+
+import io.github.resilience4j.ratelimiter.internal.CurrentPeriodRateLimiter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Turns the permissions of a {@link RateLimiter} into CompletionStages, so that no thread is blocked while waiting.
+ * <p>A {@link CurrentPeriodRateLimiter} can't reserve the permissions of a later period, so a caller which
+ * doesn't get them immediately tries again at the start of the next period until its timeout has elapsed.
+ */
+final class AsyncPermissions {
+
+    private AsyncPermissions() {
+    }
+
+    /**
+     * Reserves the given number of permissions within the default timeout duration and returns a CompletionStage
+     * which is completed by the given executor when the reserved permissions are available.
+     *
+     * @param rateLimiter the RateLimiter to reserve the permissions from
+     * @param permits     the number of permissions to reserve
+     * @param scheduler   the scheduler which measures the time to wait
+     * @param executor    the executor which completes the CompletionStage after the time to wait
+     * @return a CompletionStage which is completed when the permissions are available or completed exceptionally
+     * with {@link RequestNotPermitted}, if the permissions could not be reserved within the timeout duration
+     */
+    static CompletionStage<Void> acquirePermission(final RateLimiter rateLimiter, final int permits,
+                                                   final ScheduledExecutorService scheduler, final Executor executor) {
+        if (rateLimiter instanceof CurrentPeriodRateLimiter) {
+            CompletableFuture<Void> permission = new CompletableFuture<>();
+            long deadline = System.nanoTime() + rateLimiter.getRateLimiterConfig().getTimeoutDuration().toNanos();
+            acquireInCurrentPeriod((CurrentPeriodRateLimiter) rateLimiter, permits, deadline, scheduler, executor, permission);
+            return permission;
+        }
+        long nanosToWait = permits == 1
+            ? rateLimiter.reservePermission(rateLimiter.getRateLimiterConfig().getTimeoutDuration())
+            : rateLimiter.reservePermission(permits, rateLimiter.getRateLimiterConfig().getTimeoutDuration());
+        return completeAfter(rateLimiter, nanosToWait, scheduler, executor);
+    }
+
+    /**
+     * Tries to acquire the permissions of the current period and tries again at the start of the next period,
+     * until the deadline has passed. The attempts after the first one are run by the given executor.
+     */
+    private static void acquireInCurrentPeriod(final CurrentPeriodRateLimiter rateLimiter, final int permits, final long deadline,
+                                               final ScheduledExecutorService scheduler, final Executor executor,
+                                               final CompletableFuture<Void> permission) {
+        long nanosToRetry = rateLimiter.acquireInCurrentPeriod(permits, Math.max(0L, deadline - System.nanoTime()));
+        if (nanosToRetry < 0) {
+            permission.completeExceptionally(new RequestNotPermitted("Request not permitted for limiter: " + rateLimiter.getName()));
+        } else if (nanosToRetry == 0) {
+            permission.complete(null);
+        } else {
+            scheduler.schedule(() -> executor.execute(
+                () -> acquireInCurrentPeriod(rateLimiter, permits, deadline, scheduler, executor, permission)),
+                nanosToRetry, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Invokes the supplier as soon as the permission is available and returns a CompletionStage which is completed
+     * like the CompletionStage of the supplier. Failures of the permission and of the supplier are propagated as they
+     * are, without being wrapped in a {@link java.util.concurrent.CompletionException}.
+     *
+     * @param permission the CompletionStage which is completed when the permission is available
+     * @param supplier   the original supplier
+     * @param <T> the type of the returned CompletionStage's result
+     * @return a CompletionStage which is completed with the result or the failure of the supplier
+     */
+    static <T> CompletionStage<T> executeWhenPermitted(final CompletionStage<Void> permission, final Supplier<CompletionStage<T>> supplier) {
+        final CompletableFuture<T> promise = new CompletableFuture<>();
+        permission.whenComplete((ignored, permissionError) -> {
+            if (permissionError != null) {
+                promise.completeExceptionally(permissionError);
+                return;
+            }
+            try {
+                supplier.get()
+                    .whenComplete(
+                        (result, throwable) -> {
+                            if (throwable != null) {
+                                promise.completeExceptionally(throwable);
+                            } else {
+                                promise.complete(result);
+                            }
+                        }
+                    );
+            } catch (Throwable throwable) {
+                promise.completeExceptionally(throwable);
+            }
+        });
+        return promise;
+    }
+
+    /**
+     * Returns a CompletionStage which is completed after the given time to wait. The scheduler only measures
+     * the time to wait, the CompletionStage and its dependent stages are completed by the given executor,
+     * so that they can not delay other tasks of the scheduler.
+     *
+     * @param rateLimiter the RateLimiter the time to wait was reserved from
+     * @param nanosToWait the time to wait in nanoseconds or a negative value, if no permission was reserved
+     * @param scheduler   the scheduler which measures the time to wait
+     * @param executor    the executor which completes the CompletionStage after the time to wait
+     * @return a CompletionStage which is completed when the time to wait has elapsed or completed exceptionally
+     * with {@link RequestNotPermitted}, if no permission was reserved
+     */
+    private static CompletionStage<Void> completeAfter(final RateLimiter rateLimiter, final long nanosToWait,
+                                                       final ScheduledExecutorService scheduler, final Executor executor) {
+        CompletableFuture<Void> permission = new CompletableFuture<>();
+        if (nanosToWait < 0) {
+            permission.completeExceptionally(new RequestNotPermitted("Request not permitted for limiter: " + rateLimiter.getName()));
+        } else if (nanosToWait == 0) {
+            permission.complete(null);
+        } else {
+            scheduler.schedule(() -> executor.execute(() -> permission.complete(null)), nanosToWait, TimeUnit.NANOSECONDS);
+        }
+        return permission;
+    }
+}
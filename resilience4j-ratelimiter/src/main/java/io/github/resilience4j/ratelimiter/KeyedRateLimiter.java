@@ -0,0 +1,294 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.ratelimiter;
+
+import io.github.resilience4j.ratelimiter.internal.SegmentedKeyedRateLimiter;
+import io.vavr.CheckedFunction0;
+import io.vavr.CheckedFunction1;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A KeyedRateLimiter limits the rate separately for each key, for example per API key or per client IP.
+ * <p>Every key gets {@link RateLimiterConfig#limitForPeriod} permissions per {@link RateLimiterConfig#limitRefreshPeriod}
+ * like an {@link io.github.resilience4j.ratelimiter.internal.AtomicRateLimiter}, but the state of a key is only a
+ * single long in a table with a fixed maximum number of keys. Keys which have been idle long enough to have all
+ * their permissions back are evicted, when the table is full. A new key is not permitted, as long as
+ * the table is full of active keys.
+ * <p>A KeyedRateLimiter instance is thread-safe can be used to decorate multiple requests.
+ *
+ * @param <K> the type of the keys
+ */
+public interface KeyedRateLimiter<K> {
+
+    /**
+     * Creates a KeyedRateLimiter with a custom RateLimiter configuration,
+     * which tracks up to the given number of keys.
+     *
+     * @param name              the name of the KeyedRateLimiter
+     * @param rateLimiterConfig a custom RateLimiter configuration, which is applied to every key
+     * @param maxNumberOfKeys   the maximum number of keys which are tracked at the same time
+     * @param <K>               the type of the keys
+     * @return The {@link KeyedRateLimiter}
+     */
+    static <K> KeyedRateLimiter<K> of(String name, RateLimiterConfig rateLimiterConfig, int maxNumberOfKeys) {
+        return new SegmentedKeyedRateLimiter<>(name, rateLimiterConfig, maxNumberOfKeys);
+    }
+
+    /**
+     * Creates a supplier which is restricted by the rate limit of the given key.
+     *
+     * @param rateLimiter the KeyedRateLimiter
+     * @param key         the key whose permissions are acquired
+     * @param supplier    the original supplier
+     * @param <K>         the type of the keys
+     * @param <T>         the type of results supplied supplier
+     * @return a supplier which is restricted by a KeyedRateLimiter.
+     */
+    static <K, T> Supplier<T> decorateSupplier(KeyedRateLimiter<K> rateLimiter, K key, Supplier<T> supplier) {
+        return () -> {
+            waitForPermission(rateLimiter, key);
+            return supplier.get();
+        };
+    }
+
+    /**
+     * Creates a supplier which is restricted by the rate limit of the given key.
+     *
+     * @param rateLimiter the KeyedRateLimiter
+     * @param key         the key whose permissions are acquired
+     * @param supplier    the original supplier
+     * @param <K>         the type of the keys
+     * @param <T>         the type of results supplied supplier
+     * @return a supplier which is restricted by a KeyedRateLimiter.
+     */
+    static <K, T> CheckedFunction0<T> decorateCheckedSupplier(KeyedRateLimiter<K> rateLimiter, K key, CheckedFunction0<T> supplier) {
+        return () -> {
+            waitForPermission(rateLimiter, key);
+            return supplier.apply();
+        };
+    }
+
+    /**
+     * Creates a callable which is restricted by the rate limit of the given key.
+     *
+     * @param rateLimiter the KeyedRateLimiter
+     * @param key         the key whose permissions are acquired
+     * @param callable    the original callable
+     * @param <K>         the type of the keys
+     * @param <T>         the type of results of the callable
+     * @return a callable which is restricted by a KeyedRateLimiter.
+     */
+    static <K, T> Callable<T> decorateCallable(KeyedRateLimiter<K> rateLimiter, K key, Callable<T> callable) {
+        return () -> {
+            waitForPermission(rateLimiter, key);
+            return callable.call();
+        };
+    }
+
+    /**
+     * Creates a runnable which is restricted by the rate limit of the given key.
+     *
+     * @param rateLimiter the KeyedRateLimiter
+     * @param key         the key whose permissions are acquired
+     * @param runnable    the original runnable
+     * @param <K>         the type of the keys
+     * @return a runnable which is restricted by a KeyedRateLimiter.
+     */
+    static <K> Runnable decorateRunnable(KeyedRateLimiter<K> rateLimiter, K key, Runnable runnable) {
+        return () -> {
+            waitForPermission(rateLimiter, key);
+            runnable.run();
+        };
+    }
+
+    /**
+     * Creates a function which is restricted by the rate limit of the key of its argument,
+     * for example the client of a request.
+     *
+     * @param rateLimiter  the KeyedRateLimiter
+     * @param keyExtractor extracts the key from the function argument
+     * @param function     the original function
+     * @param <K>          the type of the keys
+     * @param <T>          the type of the input to the function
+     * @param <R>          the type of the result of the function
+     * @return a function which is restricted by a KeyedRateLimiter.
+     */
+    static <K, T, R> Function<T, R> decorateFunction(KeyedRateLimiter<K> rateLimiter, Function<T, K> keyExtractor,
+                                                     Function<T, R> function) {
+        return (T t) -> {
+            waitForPermission(rateLimiter, keyExtractor.apply(t));
+            return function.apply(t);
+        };
+    }
+
+    /**
+     * Creates a function which is restricted by the rate limit of the key of its argument,
+     * for example the client of a request.
+     *
+     * @param rateLimiter  the KeyedRateLimiter
+     * @param keyExtractor extracts the key from the function argument
+     * @param function     the original function
+     * @param <K>          the type of the keys
+     * @param <T>          the type of the input to the function
+     * @param <R>          the type of the result of the function
+     * @return a function which is restricted by a KeyedRateLimiter.
+     */
+    static <K, T, R> CheckedFunction1<T, R> decorateCheckedFunction(KeyedRateLimiter<K> rateLimiter, Function<T, K> keyExtractor,
+                                                                    CheckedFunction1<T, R> function) {
+        return (T t) -> {
+            waitForPermission(rateLimiter, keyExtractor.apply(t));
+            return function.apply(t);
+        };
+    }
+
+    /**
+     * Will wait for a permission of the given key within default timeout duration.
+     *
+     * @param rateLimiter the KeyedRateLimiter to get permission from
+     * @param key         the key whose permission is acquired
+     * @param <K>         the type of the keys
+     * @throws RequestNotPermitted if waiting time elapsed before a permit was acquired.
+     * @throws IllegalStateException if thread was interrupted during permission wait
+     */
+    static <K> void waitForPermission(final KeyedRateLimiter<K> rateLimiter, final K key) throws IllegalStateException, RequestNotPermitted {
+        Duration timeoutDuration = rateLimiter.getRateLimiterConfig().getTimeoutDuration();
+        boolean permission = rateLimiter.getPermission(key, timeoutDuration);
+        if (Thread.interrupted()) {
+            throw new IllegalStateException("Thread was interrupted during permission wait");
+        }
+        if (!permission) {
+            throw new RequestNotPermitted("Request not permitted for limiter: " + rateLimiter.getName() + ", key: " + key);
+        }
+    }
+
+    /**
+     * Acquires a permission of the given key, blocking until one is available
+     * or the timeout elapses.
+     *
+     * @param key             the key whose permission is acquired
+     * @param timeoutDuration the maximum time to wait
+     * @return {@code true} if a permit was acquired and {@code false}
+     * if waiting timeoutDuration elapsed before a permit was acquired
+     */
+    boolean getPermission(K key, Duration timeoutDuration);
+
+    /**
+     * Acquires the given number of permissions of the given key, blocking until they are available
+     * or the timeout elapses.
+     *
+     * @param key             the key whose permissions are acquired
+     * @param permits         the number of permissions to acquire
+     * @param timeoutDuration the maximum time to wait
+     * @return {@code true} if the permits were acquired and {@code false}
+     * if waiting timeoutDuration elapsed before the permits were acquired
+     */
+    boolean getPermission(K key, int permits, Duration timeoutDuration);
+
+    /**
+     * Reserves the given number of permissions of the given key without blocking.
+     *
+     * @param key             the key whose permissions are reserved
+     * @param permits         the number of permissions to reserve
+     * @param timeoutDuration the maximum time the caller is willing to wait
+     * @return the nanoseconds to wait for the reserved permissions, or a negative value
+     * if the permissions can't be reserved within timeoutDuration
+     */
+    long reservePermission(K key, int permits, Duration timeoutDuration);
+
+    /**
+     * Estimates the available permissions of the given key.
+     * Can be negative if some permissions where reserved.
+     *
+     * @param key the key
+     * @return estimated count of permissions
+     */
+    int getAvailablePermissions(K key);
+
+    /**
+     * Get the name of this KeyedRateLimiter
+     *
+     * @return the name of this KeyedRateLimiter
+     */
+    String getName();
+
+    /**
+     * Get the RateLimiterConfig which is applied to every key
+     *
+     * @return the RateLimiterConfig which is applied to every key
+     */
+    RateLimiterConfig getRateLimiterConfig();
+
+    /**
+     * Get the Metrics of this KeyedRateLimiter.
+     *
+     * @return the Metrics of this KeyedRateLimiter
+     */
+    Metrics getMetrics();
+
+    /**
+     * Returns an EventPublisher which publishes the events of all keys.
+     *
+     * @return an EventPublisher
+     */
+    RateLimiter.EventPublisher getEventPublisher();
+
+    interface Metrics {
+        /**
+         * Returns an estimate of the number of threads waiting for permission
+         * in this JVM process.
+         *
+         * @return estimate of the number of threads waiting for permission.
+         */
+        int getNumberOfWaitingThreads();
+
+        /**
+         * Returns the number of keys which are tracked at the moment, including idle keys
+         * which have not been evicted yet.
+         *
+         * @return the number of tracked keys
+         */
+        int getNumberOfKeys();
+
+        /**
+         * Returns the maximum number of keys which can be tracked at the same time.
+         *
+         * @return the maximum number of tracked keys
+         */
+        int getMaxNumberOfKeys();
+
+        /**
+         * Returns the number of idle keys which have been evicted to make room for new keys.
+         *
+         * @return the number of evicted keys
+         */
+        long getNumberOfEvictedKeys();
+
+        /**
+         * Returns the number of requests of new keys which were not permitted,
+         * because the table was full of active keys.
+         *
+         * @return the number of rejected keys
+         */
+        long getNumberOfRejectedKeys();
+    }
+}
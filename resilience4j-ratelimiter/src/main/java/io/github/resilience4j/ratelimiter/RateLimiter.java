@@ -19,39 +19,58 @@
 package io.github.resilience4j.ratelimiter;
 
 import io.github.resilience4j.core.EventConsumer;
+import io.github.resilience4j.core.Schedulers;
 import io.github.resilience4j.ratelimiter.event.RateLimiterEvent;
+import io.github.resilience4j.ratelimiter.event.RateLimiterOnConfigChangedEvent;
 import io.github.resilience4j.ratelimiter.event.RateLimiterOnFailureEvent;
 import io.github.resilience4j.ratelimiter.event.RateLimiterOnSuccessEvent;
 import io.github.resilience4j.ratelimiter.internal.AtomicRateLimiter;
+import io.github.resilience4j.ratelimiter.internal.SemaphoreBasedRateLimiter;
+import io.github.resilience4j.ratelimiter.internal.StripedAtomicRateLimiter;
+import io.github.resilience4j.ratelimiter.internal.TokenBucketRateLimiter;
 import io.vavr.CheckedFunction0;
 import io.vavr.CheckedFunction1;
 import io.vavr.CheckedRunnable;
 
 import java.time.Duration;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 /**
  * A RateLimiter instance is thread-safe can be used to decorate multiple requests.
  *
  * A RateLimiter distributes permits at a configurable rate. {@link #getPermission} blocks if necessary
- * until a permit is available, and then takes it. Once acquired, permits need not be released.
+ * until a permit is available, and then takes it. {@link #reservePermission} reserves a permit without blocking
+ * and returns how long the caller has to wait for it. Once acquired, permits need not be released.
  */
 public interface RateLimiter {
 
     /**
      * Creates a RateLimiter with a custom RateLimiter configuration.
+     * The implementation is selected by {@link RateLimiterConfig#getRateLimiterType()}.
      *
      * @param name              the name of the RateLimiter
      * @param rateLimiterConfig a custom RateLimiter configuration
      * @return The {@link RateLimiter}
      */
     static RateLimiter of(String name, RateLimiterConfig rateLimiterConfig) {
-        return new AtomicRateLimiter(name, rateLimiterConfig);
+        switch (rateLimiterConfig.getRateLimiterType()) {
+            case STRIPED_ATOMIC:
+                return new StripedAtomicRateLimiter(name, rateLimiterConfig);
+            case TOKEN_BUCKET:
+                return new TokenBucketRateLimiter(name, rateLimiterConfig);
+            case SEMAPHORE_BASED:
+                return new SemaphoreBasedRateLimiter(name, rateLimiterConfig);
+            default:
+                return new AtomicRateLimiter(name, rateLimiterConfig);
+        }
     }
 
     /**
@@ -62,7 +81,7 @@ public interface RateLimiter {
      * @return The {@link RateLimiter}
      */
     static RateLimiter of(String name, Supplier<RateLimiterConfig> rateLimiterConfigSupplier) {
-        return new AtomicRateLimiter(name, rateLimiterConfigSupplier.get());
+        return of(name, rateLimiterConfigSupplier.get());
     }
 
     /**
@@ -77,6 +96,8 @@ public interface RateLimiter {
 
     /**
      * Returns a supplier which is decorated by a rateLimiter.
+     * The supplier is invoked as soon as the reserved permission is available, without blocking any thread while waiting.
+     * If the caller had to wait, the supplier is invoked by the {@link ForkJoinPool#commonPool()}.
      *
      * @param rateLimiter the rateLimiter
      * @param supplier the original supplier
@@ -84,26 +105,95 @@ public interface RateLimiter {
      * @return a supplier which is decorated by a RateLimiter.
      */
     static <T> Supplier<CompletionStage<T>> decorateCompletionStage(RateLimiter rateLimiter, Supplier<CompletionStage<T>> supplier) {
-        return () -> {
+        return decorateCompletionStage(rateLimiter, supplier, ForkJoinPool.commonPool());
+    }
 
-            final CompletableFuture<T> promise = new CompletableFuture<>();
-            try {
-                waitForPermission(rateLimiter);
-                supplier.get()
-                    .whenComplete(
-                        (result, throwable) -> {
-                            if (throwable != null) {
-                                promise.completeExceptionally(throwable);
-                            } else {
-                                promise.complete(result);
-                            }
-                        }
-                    );
-            } catch (Throwable throwable) {
-                promise.completeExceptionally(throwable);
-            }
-            return promise;
-        };
+    /**
+     * Returns a supplier which is decorated by a rateLimiter.
+     * The supplier is invoked as soon as the reserved permission is available, without blocking any thread while waiting.
+     * If the caller had to wait, the supplier is invoked by the given executor.
+     *
+     * @param rateLimiter the rateLimiter
+     * @param supplier the original supplier
+     * @param executor the executor which invokes the supplier after the time to wait
+     * @param <T> the type of the returned CompletionStage's result
+     * @return a supplier which is decorated by a RateLimiter.
+     */
+    static <T> Supplier<CompletionStage<T>> decorateCompletionStage(RateLimiter rateLimiter, Supplier<CompletionStage<T>> supplier, Executor executor) {
+        return () -> AsyncPermissions.executeWhenPermitted(
+            AsyncPermissions.acquirePermission(rateLimiter, 1, Schedulers.shared(), executor), supplier);
+    }
+
+    /**
+     * Returns a supplier which is decorated by a rateLimiter and acquires the given number of permissions for each call.
+     * The supplier is invoked as soon as the reserved permissions are available, without blocking any thread while waiting.
+     * If the caller had to wait, the supplier is invoked by the {@link ForkJoinPool#commonPool()}.
+     *
+     * @param rateLimiter the rateLimiter
+     * @param permits     the number of permissions which are acquired for each call
+     * @param supplier    the original supplier
+     * @param <T> the type of the returned CompletionStage's result
+     * @return a supplier which is decorated by a RateLimiter.
+     */
+    static <T> Supplier<CompletionStage<T>> decorateCompletionStage(RateLimiter rateLimiter, int permits, Supplier<CompletionStage<T>> supplier) {
+        return decorateCompletionStage(rateLimiter, permits, supplier, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a supplier which is decorated by a rateLimiter and acquires the given number of permissions for each call.
+     * The supplier is invoked as soon as the reserved permissions are available, without blocking any thread while waiting.
+     * If the caller had to wait, the supplier is invoked by the given executor.
+     *
+     * @param rateLimiter the rateLimiter
+     * @param permits     the number of permissions which are acquired for each call
+     * @param supplier    the original supplier
+     * @param executor    the executor which invokes the supplier after the time to wait
+     * @param <T> the type of the returned CompletionStage's result
+     * @return a supplier which is decorated by a RateLimiter.
+     */
+    static <T> Supplier<CompletionStage<T>> decorateCompletionStage(RateLimiter rateLimiter, int permits, Supplier<CompletionStage<T>> supplier, Executor executor) {
+        return () -> AsyncPermissions.executeWhenPermitted(
+            AsyncPermissions.acquirePermission(rateLimiter, permits, Schedulers.shared(), executor), supplier);
+    }
+
+    /**
+     * Reserves a permission within the default timeout duration and returns a CompletionStage which is completed
+     * by the {@link ForkJoinPool#commonPool()} when the reserved permission is available. The shared scheduler only
+     * measures the time to wait, so no thread is blocked while waiting.
+     *
+     * @param rateLimiter the RateLimiter to reserve the permission from
+     * @return a CompletionStage which is completed when the permission is available or completed exceptionally
+     * with {@link RequestNotPermitted}, if the permission could not be reserved within the timeout duration
+     */
+    static CompletionStage<Void> acquirePermissionAsync(final RateLimiter rateLimiter) {
+        return AsyncPermissions.acquirePermission(rateLimiter, 1, Schedulers.shared(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reserves a permission within the default timeout duration and returns a CompletionStage which is completed
+     * by the given scheduler when the reserved permission is available. No thread is blocked while waiting.
+     *
+     * @param rateLimiter the RateLimiter to reserve the permission from
+     * @param scheduler   the scheduler which completes the CompletionStage after the time to wait
+     * @return a CompletionStage which is completed when the permission is available or completed exceptionally
+     * with {@link RequestNotPermitted}, if the permission could not be reserved within the timeout duration
+     */
+    static CompletionStage<Void> acquirePermissionAsync(final RateLimiter rateLimiter, final ScheduledExecutorService scheduler) {
+        return AsyncPermissions.acquirePermission(rateLimiter, 1, scheduler, scheduler);
+    }
+
+    /**
+     * Reserves the given number of permissions within the default timeout duration and returns a CompletionStage
+     * which is completed by the given scheduler when the reserved permissions are available.
+     *
+     * @param rateLimiter the RateLimiter to reserve the permissions from
+     * @param permits     the number of permissions to reserve
+     * @param scheduler   the scheduler which completes the CompletionStage after the time to wait
+     * @return a CompletionStage which is completed when the permissions are available or completed exceptionally
+     * with {@link RequestNotPermitted}, if the permissions could not be reserved within the timeout duration
+     */
+    static CompletionStage<Void> acquirePermissionAsync(final RateLimiter rateLimiter, final int permits, final ScheduledExecutorService scheduler) {
+        return AsyncPermissions.acquirePermission(rateLimiter, permits, scheduler, scheduler);
     }
 
     /**
@@ -121,6 +211,22 @@ public interface RateLimiter {
         };
     }
 
+    /**
+     * Creates a supplier which is restricted by a RateLimiter and acquires the given number of permissions for each call.
+     *
+     * @param rateLimiter the RateLimiter
+     * @param permits     the number of permissions which are acquired for each call
+     * @param supplier    the original supplier
+     * @param <T> the type of results supplied supplier
+     * @return a supplier which is restricted by a RateLimiter.
+     */
+    static <T> CheckedFunction0<T> decorateCheckedSupplier(RateLimiter rateLimiter, int permits, CheckedFunction0<T> supplier) {
+        return () -> {
+            waitForPermission(rateLimiter, permits);
+            return supplier.apply();
+        };
+    }
+
     /**
      * Creates a runnable which is restricted by a RateLimiter.
      *
@@ -136,6 +242,21 @@ public interface RateLimiter {
         };
     }
 
+    /**
+     * Creates a runnable which is restricted by a RateLimiter and acquires the given number of permissions for each call.
+     *
+     * @param rateLimiter the RateLimiter
+     * @param permits     the number of permissions which are acquired for each call
+     * @param runnable    the original runnable
+     * @return a runnable which is restricted by a RateLimiter.
+     */
+    static CheckedRunnable decorateCheckedRunnable(RateLimiter rateLimiter, int permits, CheckedRunnable runnable) {
+        return () -> {
+            waitForPermission(rateLimiter, permits);
+            runnable.run();
+        };
+    }
+
     /**
      * Creates a function which is restricted by a RateLimiter.
      *
@@ -152,6 +273,25 @@ public interface RateLimiter {
         };
     }
 
+    /**
+     * Creates a function which is restricted by a RateLimiter and acquires a number of permissions
+     * which depends on the function argument, for example the size of a batch.
+     *
+     * @param rateLimiter        the RateLimiter
+     * @param permitsCalculator  calculates the number of permissions which are acquired for a function argument
+     * @param function           the original function
+     * @param <T> the type of function argument
+     * @param <R> the type of function results
+     * @return a function which is restricted by a RateLimiter.
+     */
+    static <T, R> CheckedFunction1<T, R> decorateCheckedFunction(RateLimiter rateLimiter, ToIntFunction<T> permitsCalculator,
+                                                                 CheckedFunction1<T, R> function) {
+        return (T t) -> {
+            waitForPermission(rateLimiter, permitsCalculator.applyAsInt(t));
+            return function.apply(t);
+        };
+    }
+
     /**
      * Creates a supplier which is restricted by a RateLimiter.
      *
@@ -167,6 +307,22 @@ public interface RateLimiter {
         };
     }
 
+    /**
+     * Creates a supplier which is restricted by a RateLimiter and acquires the given number of permissions for each call.
+     *
+     * @param rateLimiter the RateLimiter
+     * @param permits     the number of permissions which are acquired for each call
+     * @param supplier    the original supplier
+     * @param <T> the type of results supplied supplier
+     * @return a supplier which is restricted by a RateLimiter.
+     */
+    static <T> Supplier<T> decorateSupplier(RateLimiter rateLimiter, int permits, Supplier<T> supplier) {
+        return () -> {
+            waitForPermission(rateLimiter, permits);
+            return supplier.get();
+        };
+    }
+
     static <T> Callable<T> decorateCallable(RateLimiter rateLimiter, Callable<T> callable) {
         return () -> {
             waitForPermission(rateLimiter);
@@ -174,6 +330,22 @@ public interface RateLimiter {
         };
     }
 
+    /**
+     * Creates a callable which is restricted by a RateLimiter and acquires the given number of permissions for each call.
+     *
+     * @param rateLimiter the RateLimiter
+     * @param permits     the number of permissions which are acquired for each call
+     * @param callable    the original callable
+     * @param <T> the type of results of the callable
+     * @return a callable which is restricted by a RateLimiter.
+     */
+    static <T> Callable<T> decorateCallable(RateLimiter rateLimiter, int permits, Callable<T> callable) {
+        return () -> {
+            waitForPermission(rateLimiter, permits);
+            return callable.call();
+        };
+    }
+
     /**
      * Creates a consumer which is restricted by a RateLimiter.
      *
@@ -189,6 +361,23 @@ public interface RateLimiter {
         };
     }
 
+    /**
+     * Creates a consumer which is restricted by a RateLimiter and acquires a number of permissions
+     * which depends on the consumed value, for example the size of a batch.
+     *
+     * @param rateLimiter        the RateLimiter
+     * @param permitsCalculator  calculates the number of permissions which are acquired for a consumed value
+     * @param consumer           the original consumer
+     * @param <T> the type of the input to the consumer
+     * @return a consumer which is restricted by a RateLimiter.
+     */
+    static <T> Consumer<T> decorateConsumer(RateLimiter rateLimiter, ToIntFunction<T> permitsCalculator, Consumer<T> consumer) {
+        return (T t) -> {
+            waitForPermission(rateLimiter, permitsCalculator.applyAsInt(t));
+            consumer.accept(t);
+        };
+    }
+
     /**
      * Creates a runnable which is restricted by a RateLimiter.
      *
@@ -203,6 +392,21 @@ public interface RateLimiter {
         };
     }
 
+    /**
+     * Creates a runnable which is restricted by a RateLimiter and acquires the given number of permissions for each call.
+     *
+     * @param rateLimiter the RateLimiter
+     * @param permits     the number of permissions which are acquired for each call
+     * @param runnable    the original runnable
+     * @return a runnable which is restricted by a RateLimiter.
+     */
+    static Runnable decorateRunnable(RateLimiter rateLimiter, int permits, Runnable runnable) {
+        return () -> {
+            waitForPermission(rateLimiter, permits);
+            runnable.run();
+        };
+    }
+
 
     /**
      * Creates a function which is restricted by a RateLimiter.
@@ -220,6 +424,24 @@ public interface RateLimiter {
         };
     }
 
+    /**
+     * Creates a function which is restricted by a RateLimiter and acquires a number of permissions
+     * which depends on the function argument, for example the size of a batch.
+     *
+     * @param rateLimiter        the RateLimiter
+     * @param permitsCalculator  calculates the number of permissions which are acquired for a function argument
+     * @param function           the original function
+     * @param <T> the type of the input to the function
+     * @param <R> the type of the result of the function
+     * @return a function which is restricted by a RateLimiter.
+     */
+    static <T, R> Function<T, R> decorateFunction(RateLimiter rateLimiter, ToIntFunction<T> permitsCalculator, Function<T, R> function) {
+        return (T t) -> {
+            waitForPermission(rateLimiter, permitsCalculator.applyAsInt(t));
+            return function.apply(t);
+        };
+    }
+
     /**
      * Will wait for permission within default timeout duration.
      *
@@ -239,6 +461,26 @@ public interface RateLimiter {
         }
     }
 
+    /**
+     * Will wait for the given number of permissions within default timeout duration.
+     *
+     * @param rateLimiter the RateLimiter to get the permissions from
+     * @param permits     the number of permissions to acquire
+     * @throws RequestNotPermitted if waiting time elapsed before the permissions were acquired.
+     * @throws IllegalStateException if thread was interrupted during permission wait
+     */
+    static void waitForPermission(final RateLimiter rateLimiter, final int permits) throws IllegalStateException, RequestNotPermitted {
+        RateLimiterConfig rateLimiterConfig = rateLimiter.getRateLimiterConfig();
+        Duration timeoutDuration = rateLimiterConfig.getTimeoutDuration();
+        boolean permission = rateLimiter.getPermission(permits, timeoutDuration);
+        if (Thread.interrupted()) {
+            throw new IllegalStateException("Thread was interrupted during permission wait");
+        }
+        if (!permission) {
+            throw new RequestNotPermitted("Request not permitted for limiter: " + rateLimiter.getName());
+        }
+    }
+
     /**
      * Dynamic rate limiter configuration change.
      * This method allows to change timeout duration of current limiter.
@@ -255,6 +497,24 @@ public interface RateLimiter {
      */
     void changeLimitForPeriod(int limitForPeriod);
 
+    /**
+     * Dynamic rate limiter configuration change.
+     * This method allows to change the limit for period, the limit refresh period and the timeout duration at once.
+     * The new configuration is returned by {@link #getRateLimiterConfig()} immediately and the new timeout duration
+     * applies to all following calls. The new limit for period and limit refresh period apply atomically from the
+     * start of the next period, the permissions of the current period are not affected.
+     * Threads which are waiting for reserved permissions re-calculate their waiting time with the new limits,
+     * but they don't wait longer than their timeout.
+     * A {@link RateLimiterOnConfigChangedEvent} is published for every change.
+     * NOTE! The rate limiter type and the fair call handling are chosen when the rate limiter is created
+     * and can't be changed.
+     * Rate limiters which don't support dynamic configuration changes throw an {@link UnsupportedOperationException}.
+     * @param rateLimiterConfig new configuration
+     */
+    default void changeConfig(RateLimiterConfig rateLimiterConfig) {
+        throw new UnsupportedOperationException("RateLimiter '" + getName() + "' does not support configuration changes");
+    }
+
     /**
      * Acquires a permission from this rate limiter, blocking until one is
      * available.
@@ -268,6 +528,58 @@ public interface RateLimiter {
      */
     boolean getPermission(Duration timeoutDuration);
 
+    /**
+     * Acquires the given number of permissions from this rate limiter at once, blocking until they are
+     * available. A weighted request reserves all of its permissions in a single atomic update.
+     * The number of permissions may exceed the limit for period, the request then waits for several periods.
+     * <p>If the current thread is {@linkplain Thread#interrupt interrupted}
+     * while waiting for the permissions then it won't throw {@linkplain InterruptedException},
+     * but its interrupt status will be set.
+     *
+     * @param permits         the number of permissions to acquire, must be greater than 0
+     * @param timeoutDuration the maximum time to wait
+     * @return {@code true} if the permissions were acquired and {@code false}
+     * if waiting timeoutDuration elapsed before the permissions were acquired
+     * <p>The default implementation only supports a single permission, which it acquires with
+     * {@link #getPermission(Duration)}.
+     */
+    default boolean getPermission(int permits, Duration timeoutDuration) {
+        if (permits != 1) {
+            throw new UnsupportedOperationException("RateLimiter '" + getName() + "' does not support acquiring " + permits + " permissions at once");
+        }
+        return getPermission(timeoutDuration);
+    }
+
+    /**
+     * Reserves a permission from this rate limiter without blocking.
+     * The caller must wait for the returned duration before it uses the permission.
+     * The permission is only reserved, if it becomes available within the timeout duration.
+     *
+     * @param timeoutDuration the maximum time the caller is willing to wait
+     * @return {@code 0} if the permission can be used immediately, the time to wait in nanoseconds for the
+     * reserved permission, or a negative value if no permission could be reserved within timeoutDuration
+     * <p>The default implementation acquires the permission with {@link #getPermission(Duration)}, so it blocks
+     * like the synchronous call and only returns {@code 0} or a negative value.
+     */
+    default long reservePermission(Duration timeoutDuration) {
+        return getPermission(timeoutDuration) ? 0 : -1;
+    }
+
+    /**
+     * Reserves the given number of permissions from this rate limiter at once without blocking.
+     * The caller must wait for the returned duration before it uses the permissions.
+     *
+     * @param permits         the number of permissions to reserve, must be greater than 0
+     * @param timeoutDuration the maximum time the caller is willing to wait
+     * @return {@code 0} if the permissions can be used immediately, the time to wait in nanoseconds for the
+     * reserved permissions, or a negative value if the permissions could not be reserved within timeoutDuration
+     * <p>The default implementation acquires the permissions with {@link #getPermission(int, Duration)}, so it blocks
+     * like the synchronous call and only returns {@code 0} or a negative value.
+     */
+    default long reservePermission(int permits, Duration timeoutDuration) {
+        return getPermission(permits, timeoutDuration) ? 0 : -1;
+    }
+
     /**
      * Get the name of this RateLimiter
      *
@@ -359,5 +671,9 @@ public interface RateLimiter {
 
         EventPublisher onFailure(EventConsumer<RateLimiterOnFailureEvent> eventConsumer);
 
+        default EventPublisher onConfigChanged(EventConsumer<RateLimiterOnConfigChangedEvent> eventConsumer) {
+            return this;
+        }
+
     }
 }
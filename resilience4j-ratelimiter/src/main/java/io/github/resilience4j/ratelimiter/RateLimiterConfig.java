@@ -25,6 +25,7 @@ import static java.util.Objects.requireNonNull;
 public class RateLimiterConfig {
     private static final String TIMEOUT_DURATION_MUST_NOT_BE_NULL = "TimeoutDuration must not be null";
     private static final String LIMIT_REFRESH_PERIOD_MUST_NOT_BE_NULL = "LimitRefreshPeriod must not be null";
+    private static final String RATE_LIMITER_TYPE_MUST_NOT_BE_NULL = "RateLimiterType must not be null";
     private static final Duration ACCEPTABLE_REFRESH_PERIOD = Duration.ofNanos(1L);
 
     private final Duration timeoutDuration;
@@ -32,13 +33,20 @@ public class RateLimiterConfig {
     private final Duration limitRefreshPeriod;
     private final long limitRefreshPeriodInNanos;
     private final int limitForPeriod;
+    private final int burstCapacity;
+    private final RateLimiterType rateLimiterType;
+    private final boolean fairCallHandling;
 
-    private RateLimiterConfig(Duration timeoutDuration, Duration limitRefreshPeriod, int limitForPeriod) {
+    private RateLimiterConfig(Duration timeoutDuration, Duration limitRefreshPeriod, int limitForPeriod,
+                              int burstCapacity, RateLimiterType rateLimiterType, boolean fairCallHandling) {
         this.timeoutDuration = timeoutDuration;
         this.timeoutDurationInNanos = timeoutDuration.toNanos();
         this.limitRefreshPeriod = limitRefreshPeriod;
         this.limitRefreshPeriodInNanos = limitRefreshPeriod.toNanos();
         this.limitForPeriod = limitForPeriod;
+        this.burstCapacity = burstCapacity;
+        this.rateLimiterType = rateLimiterType;
+        this.fairCallHandling = fairCallHandling;
     }
 
     /**
@@ -88,11 +96,32 @@ public class RateLimiterConfig {
         return limitRefreshPeriodInNanos;
     }
 
+    /**
+     * Returns the maximum number of permissions a {@link RateLimiterType#TOKEN_BUCKET} rate limiter can accumulate.
+     * Defaults to {@link RateLimiterConfig#limitForPeriod}, if no burst capacity was configured.
+     *
+     * @return the burst capacity
+     */
+    public int getBurstCapacity() {
+        return burstCapacity > 0 ? burstCapacity : limitForPeriod;
+    }
+
+    public RateLimiterType getRateLimiterType() {
+        return rateLimiterType;
+    }
+
+    public boolean isFairCallHandling() {
+        return fairCallHandling;
+    }
+
     @Override public String toString() {
         return "RateLimiterConfig{" +
             "timeoutDuration=" + timeoutDuration +
             ", limitRefreshPeriod=" + limitRefreshPeriod +
             ", limitForPeriod=" + limitForPeriod +
+            ", burstCapacity=" + getBurstCapacity() +
+            ", rateLimiterType=" + rateLimiterType +
+            ", fairCallHandling=" + fairCallHandling +
             '}';
     }
 
@@ -100,6 +129,9 @@ public class RateLimiterConfig {
         private Duration timeoutDuration =  Duration.ofSeconds(5);
         private Duration limitRefreshPeriod = Duration.ofNanos(500);
         private int limitForPeriod = 50;
+        private int burstCapacity = 0;
+        private RateLimiterType rateLimiterType = RateLimiterType.ATOMIC;
+        private boolean fairCallHandling = false;
 
         public Builder() {
         }
@@ -108,6 +140,9 @@ public class RateLimiterConfig {
             this.timeoutDuration = prototype.timeoutDuration;
             this.limitRefreshPeriod = prototype.limitRefreshPeriod;
             this.limitForPeriod = prototype.limitForPeriod;
+            this.burstCapacity = prototype.burstCapacity;
+            this.rateLimiterType = prototype.rateLimiterType;
+            this.fairCallHandling = prototype.fairCallHandling;
         }
 
         /**
@@ -116,7 +151,7 @@ public class RateLimiterConfig {
          * @return the RateLimiterConfig
          */
         public RateLimiterConfig build() {
-            return new RateLimiterConfig(timeoutDuration, limitRefreshPeriod, limitForPeriod);
+            return new RateLimiterConfig(timeoutDuration, limitRefreshPeriod, limitForPeriod, burstCapacity, rateLimiterType, fairCallHandling);
         }
 
         /**
@@ -159,6 +194,48 @@ public class RateLimiterConfig {
             return this;
         }
 
+        /**
+         * Configures the maximum number of permissions a {@link RateLimiterType#TOKEN_BUCKET} rate limiter
+         * can accumulate while it is not used. It allows short bursts above the steady rate
+         * of {@link RateLimiterConfig#limitForPeriod} permissions per {@link RateLimiterConfig#limitRefreshPeriod}.
+         * Default value is the limit for period.
+         *
+         * @param burstCapacity the maximum number of accumulated permissions
+         * @return the RateLimiterConfig.Builder
+         */
+        public Builder burstCapacity(final int burstCapacity) {
+            this.burstCapacity = checkBurstCapacity(burstCapacity);
+            return this;
+        }
+
+        /**
+         * Configures the implementation which is created by {@link RateLimiter#of(String, RateLimiterConfig)}
+         * and the {@link RateLimiterRegistry}.
+         * Default value is {@link RateLimiterType#ATOMIC}.
+         *
+         * @param rateLimiterType the type of the rate limiter
+         * @return the RateLimiterConfig.Builder
+         */
+        public Builder rateLimiterType(final RateLimiterType rateLimiterType) {
+            this.rateLimiterType = requireNonNull(rateLimiterType, RATE_LIMITER_TYPE_MUST_NOT_BE_NULL);
+            return this;
+        }
+
+        /**
+         * Configures whether an {@link RateLimiterType#ATOMIC} rate limiter hands out permissions
+         * in the order in which the callers have arrived.
+         * By default the callers compete for the permissions and under heavy contention
+         * some of them may wait much longer than others.
+         * Default value is false.
+         *
+         * @param fairCallHandling true to hand out permissions in arrival order
+         * @return the RateLimiterConfig.Builder
+         */
+        public Builder fairCallHandling(final boolean fairCallHandling) {
+            this.fairCallHandling = fairCallHandling;
+            return this;
+        }
+
     }
 
     private static Duration checkTimeoutDuration(final Duration timeoutDuration) {
@@ -180,4 +257,25 @@ public class RateLimiterConfig {
         }
         return limitForPeriod;
     }
+
+    private static int checkBurstCapacity(final int burstCapacity) {
+        if (burstCapacity < 1) {
+            throw new IllegalArgumentException("BurstCapacity should be greater than 0");
+        }
+        return burstCapacity;
+    }
+
+    /**
+     * The implementation of a rate limiter.
+     */
+    public enum RateLimiterType {
+        /** Permissions are refreshed at the start of each cycle, see {@code AtomicRateLimiter}. */
+        ATOMIC,
+        /** Like {@link #ATOMIC}, but the permissions are split across stripes to reduce contention, see {@code StripedAtomicRateLimiter}. */
+        STRIPED_ATOMIC,
+        /** Permissions are refilled continuously up to the burst capacity, see {@code TokenBucketRateLimiter}. */
+        TOKEN_BUCKET,
+        /** Permissions are released to a semaphore by a scheduler after each period, see {@code SemaphoreBasedRateLimiter}. */
+        SEMAPHORE_BASED
+    }
 }
@@ -20,6 +20,7 @@ package io.github.resilience4j.ratelimiter;
 
 import io.github.resilience4j.ratelimiter.internal.InMemoryRateLimiterRegistry;
 import io.vavr.collection.Seq;
+import io.vavr.control.Option;
 
 import java.util.function.Supplier;
 
@@ -61,6 +62,18 @@ public interface RateLimiterRegistry {
      */
     RateLimiter rateLimiter(String name, Supplier<RateLimiterConfig> rateLimiterConfigSupplier);
 
+    /**
+     * Removes a managed {@link RateLimiter}. A rate limiter which refreshes its permissions with a scheduler
+     * is stopped, so that it can be released.
+     * Registries which don't support removing rate limiters throw an {@link UnsupportedOperationException}.
+     *
+     * @param name the name of the RateLimiter
+     * @return the removed {@link RateLimiter} or an empty Option, if no RateLimiter with this name is managed
+     */
+    default Option<RateLimiter> remove(String name) {
+        throw new UnsupportedOperationException("The RateLimiterRegistry does not support removing rate limiters");
+    }
+
     static RateLimiterRegistry of(RateLimiterConfig defaultRateLimiterConfig) {
         return new InMemoryRateLimiterRegistry(defaultRateLimiterConfig);
     }
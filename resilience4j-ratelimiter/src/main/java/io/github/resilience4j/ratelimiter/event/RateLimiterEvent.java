@@ -32,6 +32,7 @@ public interface RateLimiterEvent {
 
     enum Type {
         FAILED_ACQUIRE,
-        SUCCESSFUL_ACQUIRE
+        SUCCESSFUL_ACQUIRE,
+        CONFIG_CHANGED
     }
 }
@@ -0,0 +1,60 @@
+/*
+ *
+ *  Copyright 2016 Robert Winkler and Bohdan Storozhuk
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.ratelimiter.event;
+
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+
+/**
+ * A RateLimiterEvent which informs that the configuration of a rate limiter has been changed at runtime.
+ */
+public class RateLimiterOnConfigChangedEvent extends AbstractRateLimiterEvent {
+
+    private final RateLimiterConfig previousConfig;
+    private final RateLimiterConfig newConfig;
+
+    public RateLimiterOnConfigChangedEvent(String rateLimiterName, RateLimiterConfig previousConfig, RateLimiterConfig newConfig) {
+        super(rateLimiterName);
+        this.previousConfig = previousConfig;
+        this.newConfig = newConfig;
+    }
+
+    public RateLimiterConfig getPreviousConfig() {
+        return previousConfig;
+    }
+
+    public RateLimiterConfig getNewConfig() {
+        return newConfig;
+    }
+
+    @Override
+    public Type getEventType() {
+        return Type.CONFIG_CHANGED;
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimiterEvent{" +
+            "type=" + getEventType() +
+            ", rateLimiterName='" + getRateLimiterName() + '\'' +
+            ", previousConfig=" + previousConfig +
+            ", newConfig=" + newConfig +
+            ", creationTime=" + getCreationTime() +
+            '}';
+    }
+}
@@ -20,45 +20,76 @@ package io.github.resilience4j.ratelimiter.internal;
 
 import io.github.resilience4j.ratelimiter.RateLimiter;
 import io.github.resilience4j.ratelimiter.RateLimiterConfig;
-import io.github.resilience4j.ratelimiter.event.RateLimiterOnFailureEvent;
-import io.github.resilience4j.ratelimiter.event.RateLimiterOnSuccessEvent;
+import io.github.resilience4j.ratelimiter.event.RateLimiterOnConfigChangedEvent;
 
 import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.UnaryOperator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongUnaryOperator;
 
+import static io.github.resilience4j.ratelimiter.internal.RateLimiterSupport.publishRateLimiterEvent;
+import static io.github.resilience4j.ratelimiter.internal.RateLimiterSupport.requirePositive;
 import static java.lang.Long.min;
 import static java.lang.System.nanoTime;
 import static java.lang.Thread.currentThread;
+import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.locks.LockSupport.parkNanos;
 
 /**
  * {@link AtomicRateLimiter} splits all nanoseconds from the start of epoch into cycles.
  * <p>Each cycle has duration of {@link RateLimiterConfig#limitRefreshPeriod} in nanoseconds.
  * <p>By contract on start of each cycle {@link AtomicRateLimiter} should
- * set {@link State#activePermissions} to {@link RateLimiterConfig#limitForPeriod}.
+ * set the available permissions to {@link RateLimiterConfig#limitForPeriod}.
  * For the {@link AtomicRateLimiter} callers it is really looks so, but under the hood there is
  * some optimisations that will skip this refresh if {@link AtomicRateLimiter} is not used actively.
- * <p>All {@link AtomicRateLimiter} updates are atomic and state is encapsulated in {@link AtomicReference} to
- * {@link AtomicRateLimiter.State}
+ * <p>The mutable state is packed into a single long: the upper 32 bits hold the low bits of the active cycle,
+ * the lower 32 bits hold the active permissions, which can be negative if some permissions where reserved.
+ * Cycles are compared as unsigned 32 bit distances, so that a refresh is only missed if the rate limiter was idle
+ * for a multiple of 2^32 cycles. In that case it keeps the permissions of its last active cycle for a while.
+ * <p>All {@link AtomicRateLimiter} updates are atomic compare-and-set operations on an {@link AtomicLong}
+ * and don't allocate. The configuration is kept in a separate volatile field.
+ * <p>With {@link RateLimiterConfig#isFairCallHandling()} the permissions are handed out in arrival order instead.
+ * Every permission of every cycle gets a ticket number, ticket {@code n} becomes available at the start of
+ * {@link CycleSchedule#cycleOfPermission(long)}. A caller draws its tickets with a single
+ * {@link AtomicLong#getAndAdd(long)}, which can't fail like a compare-and-set, so a caller can't be overtaken
+ * by callers arriving after it. If the rate limiter was idle, the ticket counter is moved forward to the first
+ * permission of the current cycle.
+ * <p>The cycles are mapped to times by a {@link CycleSchedule}. A configuration change starts with the next cycle,
+ * so the permissions of the current cycle are not affected. Waiting callers remember which permissions they have
+ * reserved instead of a fixed deadline, they are woken up by a change and re-calculate their deadline.
  */
 public class AtomicRateLimiter implements RateLimiter {
+    private static final String CONFIG_MUST_NOT_BE_NULL = "RateLimiterConfig must not be null";
     private static final long nanoTimeStart = nanoTime();
+    private static final long PERMISSIONS_MASK = 0xFFFF_FFFFL;
+    private static final long NOT_RESERVED = Long.MIN_VALUE;
 
     private final String name;
     private final AtomicInteger waitingThreads;
-    private final AtomicReference<State> state;
+    private final Set<Thread> parkedThreads;
+    private final AtomicLong state;
+    private final AtomicLong tickets;
+    private final AtomicRateLimiterMetrics metrics;
     private final RateLimiterEventProcessor eventProcessor;
+    private final boolean fairCallHandling;
+    private volatile RateLimiterConfig config;
+    private volatile CycleSchedule schedule;
 
 
     public AtomicRateLimiter(String name, RateLimiterConfig rateLimiterConfig) {
         this.name = name;
+        this.config = rateLimiterConfig;
+        this.schedule = CycleSchedule.of(rateLimiterConfig);
 
         waitingThreads = new AtomicInteger(0);
-        state = new AtomicReference<>(new State(
-                rateLimiterConfig,0, rateLimiterConfig.getLimitForPeriod(), 0
-        ));
+        parkedThreads = ConcurrentHashMap.newKeySet();
+        state = new AtomicLong(pack(0, rateLimiterConfig.getLimitForPeriod()));
+        fairCallHandling = rateLimiterConfig.isFairCallHandling();
+        tickets = fairCallHandling ? new AtomicLong(0) : null;
+        metrics = new AtomicRateLimiterMetrics();
         eventProcessor = new RateLimiterEventProcessor();
     }
 
@@ -67,12 +98,9 @@ public class AtomicRateLimiter implements RateLimiter {
      */
     @Override
     public void changeTimeoutDuration(final Duration timeoutDuration) {
-        RateLimiterConfig newConfig = RateLimiterConfig.from(state.get().config)
+        changeConfig(RateLimiterConfig.from(config)
                 .timeoutDuration(timeoutDuration)
-                .build();
-        state.updateAndGet(currentState -> new State(
-                newConfig, currentState.activeCycle, currentState.activePermissions, currentState.nanosToWait
-        ));
+                .build());
     }
 
     /**
@@ -80,12 +108,33 @@ public class AtomicRateLimiter implements RateLimiter {
      */
     @Override
     public void changeLimitForPeriod(final int limitForPeriod) {
-        RateLimiterConfig newConfig = RateLimiterConfig.from(state.get().config)
+        changeConfig(RateLimiterConfig.from(config)
                 .limitForPeriod(limitForPeriod)
-                .build();
-        state.updateAndGet(currentState -> new State(
-                newConfig, currentState.activeCycle, currentState.activePermissions, currentState.nanosToWait
-        ));
+                .build());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Permissions which were reserved with {@link #reservePermission(Duration)} before the change can become
+     * available at a different time than the returned nanoseconds to wait.
+     */
+    @Override
+    public void changeConfig(final RateLimiterConfig rateLimiterConfig) {
+        requireNonNull(rateLimiterConfig, CONFIG_MUST_NOT_BE_NULL);
+        RateLimiterConfig previousConfig;
+        synchronized (this) {
+            previousConfig = config;
+            boolean limitsChanged = previousConfig.getLimitForPeriod() != rateLimiterConfig.getLimitForPeriod()
+                || previousConfig.getLimitRefreshPeriodInNanos() != rateLimiterConfig.getLimitRefreshPeriodInNanos();
+            if (limitsChanged) {
+                schedule = schedule.changedAt(currentNanoTime(), rateLimiterConfig);
+            }
+            config = rateLimiterConfig;
+        }
+        parkedThreads.forEach(LockSupport::unpark);
+        if (eventProcessor.hasConsumers()) {
+            eventProcessor.consumeEvent(new RateLimiterOnConfigChangedEvent(name, previousConfig, rateLimiterConfig));
+        }
     }
 
     /**
@@ -100,52 +149,139 @@ public class AtomicRateLimiter implements RateLimiter {
      */
     @Override
     public boolean getPermission(final Duration timeoutDuration) {
+        return getPermission(1, timeoutDuration);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getPermission(final int permits, final Duration timeoutDuration) {
+        requirePositive(permits);
         long timeoutInNanos = timeoutDuration.toNanos();
-        State modifiedState = updateStateWithBackOff(timeoutInNanos);
-        boolean result = waitForPermissionIfNecessary(timeoutInNanos, modifiedState.nanosToWait);
-        publishRateLimiterEvent(result);
+        long reservation = reserve(permits, timeoutInNanos);
+        boolean result = waitForPermissionIfNecessary(timeoutInNanos, reservation);
+        publishRateLimiterEvent(eventProcessor, name, result);
         return result;
     }
 
     /**
-     * Atomically updates the current {@link State} with the results of
-     * applying the {@link AtomicRateLimiter#calculateNextState}, returning the updated {@link State}.
-     * It differs from {@link AtomicReference#updateAndGet(UnaryOperator)} by constant back off.
-     * It means that after one try to {@link AtomicReference#compareAndSet(Object, Object)}
+     * {@inheritDoc}
+     */
+    @Override
+    public long reservePermission(final Duration timeoutDuration) {
+        return reservePermission(1, timeoutDuration);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long reservePermission(final int permits, final Duration timeoutDuration) {
+        requirePositive(permits);
+        long timeoutInNanos = timeoutDuration.toNanos();
+        long reservation = reserve(permits, timeoutInNanos);
+        if (reservation == NOT_RESERVED) {
+            publishRateLimiterEvent(eventProcessor, name, false);
+            return -1;
+        }
+        publishRateLimiterEvent(eventProcessor, name, true);
+        return nanosToWaitForReservation(reservation, currentNanoTime());
+    }
+
+    private long reserve(final int permits, final long timeoutInNanos) {
+        if (fairCallHandling) {
+            return reserveInArrivalOrder(permits, timeoutInNanos);
+        }
+        return updateStateWithBackOff(permits, timeoutInNanos);
+    }
+
+    /**
+     * Draws the tickets for the requested permissions, if the caller can wait long enough for them.
+     * If the tickets are already too late when they are drawn, they are returned unless another caller
+     * has drawn tickets in the meantime. In that case the permissions are not handed out at all.
+     *
+     * @param permits        the number of permissions to reserve
+     * @param timeoutInNanos max time that caller can wait for permission in nanoseconds
+     * @return the last drawn ticket or {@link #NOT_RESERVED}
+     */
+    private long reserveInArrivalOrder(final int permits, final long timeoutInNanos) {
+        while (true) {
+            CycleSchedule currentSchedule = schedule;
+            long currentNanos = currentNanoTime();
+            long firstTicketOfCycle = currentSchedule.firstPermissionOf(currentSchedule.cycleAt(currentNanos));
+            long nextTicket = tickets.get();
+            boolean wasIdle = nextTicket < firstTicketOfCycle;
+            long firstTicket = wasIdle ? firstTicketOfCycle : nextTicket;
+            if (nanosToWaitForTicket(currentSchedule, firstTicket + permits - 1, currentNanos) > timeoutInNanos) {
+                return NOT_RESERVED;
+            }
+            if (wasIdle) {
+                if (tickets.compareAndSet(nextTicket, firstTicketOfCycle + permits)) {
+                    return firstTicketOfCycle + permits - 1;
+                }
+                continue;
+            }
+            long ticket = tickets.getAndAdd(permits);
+            long lastTicket = ticket + permits - 1;
+            if (nanosToWaitForTicket(currentSchedule, lastTicket, currentNanos) > timeoutInNanos) {
+                tickets.compareAndSet(ticket + permits, ticket);
+                return NOT_RESERVED;
+            }
+            return lastTicket;
+        }
+    }
+
+    private static long nanosToWaitForTicket(final CycleSchedule schedule, final long ticket, final long currentNanos) {
+        return Math.max(0L, schedule.startOf(schedule.cycleOfPermission(ticket)) - currentNanos);
+    }
+
+    /**
+     * Atomically refreshes the current state and reserves the requested permissions,
+     * if the caller can wait long enough for them.
+     * It differs from {@link AtomicLong#updateAndGet(LongUnaryOperator)} by constant back off.
+     * It means that after one try to {@link AtomicLong#compareAndSet(long, long)}
      * this method will wait for a while before try one more time.
      * This technique was originally described in this
      * <a href="https://arxiv.org/abs/1305.5800"> paper</a>
      * and showed great results with {@link AtomicRateLimiter} in benchmark tests.
      *
-     * @param timeoutInNanos a side-effect-free function
-     * @return the updated value
+     * <p>The new state identifies the reservation: the permissions are available as soon as the missing
+     * permissions of its cycle are refreshed.
+     *
+     * @param permits        the number of permissions to reserve
+     * @param timeoutInNanos max time that caller can wait for permission in nanoseconds
+     * @return the new state or {@link #NOT_RESERVED}
      */
-    private State updateStateWithBackOff(final long timeoutInNanos) {
-        AtomicRateLimiter.State prev;
-        AtomicRateLimiter.State next;
+    private long updateStateWithBackOff(final int permits, final long timeoutInNanos) {
+        long prev;
+        long next;
+        boolean canAcquireInTime;
         do {
             prev = state.get();
-            next = calculateNextState(timeoutInNanos, prev);
+            CycleSchedule currentSchedule = schedule;
+            long currentNanos = currentNanoTime();
+            long currentCycle = currentSchedule.cycleAt(currentNanos);
+            int permissions = refreshPermissions(currentSchedule, prev, currentCycle);
+            long nanosToWait = nanosToWaitForPermission(currentSchedule, permits, permissions, currentNanos, currentCycle);
+            canAcquireInTime = timeoutInNanos >= nanosToWait;
+            next = reservePermissions(permits, currentCycle, permissions, canAcquireInTime);
         } while (!compareAndSet(prev, next));
-        return next;
+        return canAcquireInTime ? next : NOT_RESERVED;
     }
 
     /**
      * Atomically sets the value to the given updated value
      * if the current value {@code ==} the expected value.
-     * It differs from {@link AtomicReference#updateAndGet(UnaryOperator)} by constant back off.
-     * It means that after one try to {@link AtomicReference#compareAndSet(Object, Object)}
-     * this method will wait for a while before try one more time.
-     * This technique was originally described in this
-     * <a href="https://arxiv.org/abs/1305.5800"> paper</a>
-     * and showed great results with {@link AtomicRateLimiter} in benchmark tests.
+     * After a failed {@link AtomicLong#compareAndSet(long, long)} this method
+     * waits for a while before the caller tries one more time.
      *
      * @param current the expected value
      * @param next    the new value
      * @return {@code true} if successful. False return indicates that
      * the actual value was not equal to the expected value.
      */
-    private boolean compareAndSet(final State current, final State next) {
+    private boolean compareAndSet(final long current, final long next) {
         if (state.compareAndSet(current, next)) {
             return true;
         }
@@ -154,124 +290,201 @@ public class AtomicRateLimiter implements RateLimiter {
     }
 
     /**
-     * A side-effect-free function that can calculate next {@link State} from current.
-     * It determines time duration that you should wait for permission and reserves it for you,
-     * if you'll be able to wait long enough.
+     * Calculates the active permissions in the current cycle.
+     * If the state belongs to an earlier cycle, the permissions of the elapsed cycles are added,
+     * but not more than {@link RateLimiterConfig#limitForPeriod}.
      *
-     * @param timeoutInNanos max time that caller can wait for permission in nanoseconds
-     * @param activeState    current state of {@link AtomicRateLimiter}
-     * @return next {@link State}
+     * @param packedState         current state of {@link AtomicRateLimiter}
+     * @param currentCycle        current {@link AtomicRateLimiter} cycle
+     * @param permissionsPerCycle current configuration values
+     * @return the active permissions in the current cycle
      */
-    private State calculateNextState(final long timeoutInNanos, final State activeState) {
-        long cyclePeriodInNanos = activeState.config.getLimitRefreshPeriodInNanos();
-        int permissionsPerCycle = activeState.config.getLimitForPeriod();
+    static int refreshPermissions(final long packedState, final long currentCycle, final int permissionsPerCycle) {
+        int permissions = permissionsOf(packedState);
+        long elapsedCycles = (currentCycle - cycleOf(packedState)) & PERMISSIONS_MASK;
+        if (elapsedCycles == 0) {
+            return permissions;
+        }
+        long accumulatedPermissions = elapsedCycles * permissionsPerCycle;
+        return (int) min(permissions + accumulatedPermissions, permissionsPerCycle);
+    }
 
-        long currentNanos = currentNanoTime();
-        long currentCycle = currentNanos / cyclePeriodInNanos;
-
-        long nextCycle = activeState.activeCycle;
-        int nextPermissions = activeState.activePermissions;
-        if (nextCycle != currentCycle) {
-            long elapsedCycles = currentCycle - nextCycle;
-            long accumulatedPermissions = elapsedCycles * permissionsPerCycle;
-            nextCycle = currentCycle;
-            nextPermissions = (int) min(nextPermissions + accumulatedPermissions, permissionsPerCycle);
+    /**
+     * Calculates the active permissions in the current cycle like {@link #refreshPermissions(long, long, int)},
+     * but adds the permissions of each elapsed cycle according to the schedule.
+     */
+    private static int refreshPermissions(final CycleSchedule schedule, final long packedState, final long currentCycle) {
+        int permissions = permissionsOf(packedState);
+        long elapsedCycles = (currentCycle - cycleOf(packedState)) & PERMISSIONS_MASK;
+        if (elapsedCycles == 0) {
+            return permissions;
         }
-        long nextNanosToWait = nanosToWaitForPermission(
-                cyclePeriodInNanos, permissionsPerCycle, nextPermissions, currentNanos, currentCycle
-        );
-        State nextState = reservePermissions(activeState.config, timeoutInNanos, nextCycle, nextPermissions, nextNanosToWait);
-        return nextState;
+        long accumulatedPermissions = schedule.permissionsRefreshed(currentCycle - elapsedCycles, currentCycle);
+        int permissionsPerCycle = schedule.permissionsPerCycle(currentCycle);
+        if (accumulatedPermissions >= (long) permissionsPerCycle - permissions) {
+            return permissionsPerCycle;
+        }
+        return (int) (permissions + accumulatedPermissions);
+    }
+
+    static long pack(final long cycle, final int permissions) {
+        return (cycle << 32) | (permissions & PERMISSIONS_MASK);
+    }
+
+    private static int cycleOf(final long packedState) {
+        return (int) (packedState >>> 32);
+    }
+
+    private static int permissionsOf(final long packedState) {
+        return (int) packedState;
     }
 
     /**
-     * Calculates time to wait for next permission as
-     * [time to the next cycle] + [duration of full cycles until reserved permissions expire]
+     * Calculates time to wait for the requested permissions as
+     * [time to the next cycle] + [duration of full cycles until the missing permissions are refreshed]
      *
      *
-     * @param cyclePeriodInNanos current configuration values
-     * @param permissionsPerCycle current configuration values
-     *@param availablePermissions currently available permissions, can be negative if some permissions have been reserved
+     * @param permits              the number of requested permissions
+     * @param cyclePeriodInNanos   current configuration values
+     * @param permissionsPerCycle  current configuration values
+     * @param availablePermissions currently available permissions, can be negative if some permissions have been reserved
      * @param currentNanos         current time in nanoseconds
-     * @param currentCycle         current {@link AtomicRateLimiter} cycle    @return nanoseconds to wait for the next permission
+     * @param currentCycle         current {@link AtomicRateLimiter} cycle
+     * @return nanoseconds to wait for the requested permissions
      */
-    private long nanosToWaitForPermission(final long cyclePeriodInNanos, final int permissionsPerCycle,
-                                          final int availablePermissions, final long currentNanos, final long currentCycle) {
-        if (availablePermissions > 0) {
+    static long nanosToWaitForPermission(final int permits, final long cyclePeriodInNanos, final int permissionsPerCycle,
+                                         final int availablePermissions, final long currentNanos, final long currentCycle) {
+        if (availablePermissions >= permits) {
             return 0L;
         }
         long nextCycleTimeInNanos = (currentCycle + 1) * cyclePeriodInNanos;
         long nanosToNextCycle = nextCycleTimeInNanos - currentNanos;
-        int fullCyclesToWait = (-availablePermissions) / permissionsPerCycle;
+        long missingPermissions = (long) permits - availablePermissions;
+        long fullCyclesToWait = (missingPermissions - 1) / permissionsPerCycle;
         return (fullCyclesToWait * cyclePeriodInNanos) + nanosToNextCycle;
     }
 
     /**
-     * Determines whether caller can acquire permission before timeout or not and then creates corresponding {@link State}.
-     * Reserves permissions only if caller can successfully wait for permission.
+     * Calculates time to wait for the requested permissions like
+     * {@link #nanosToWaitForPermission(int, long, int, int, long, long)},
+     * but follows the schedule until the missing permissions are refreshed.
+     */
+    private static long nanosToWaitForPermission(final CycleSchedule schedule, final int permits,
+                                                 final int availablePermissions, final long currentNanos,
+                                                 final long currentCycle) {
+        if (availablePermissions >= permits) {
+            return 0L;
+        }
+        long missingPermissions = (long) permits - availablePermissions;
+        return schedule.startOf(schedule.cycleCovering(currentCycle, missingPermissions)) - currentNanos;
+    }
+
+    /**
+     * Calculates time to wait for the permissions of a reservation with the current schedule,
+     * which can have been changed after the permissions were reserved.
      *
+     * @param reservation  the last ticket in fair mode, the state after the reservation otherwise
+     * @param currentNanos current time in nanoseconds
+     * @return nanoseconds to wait for the reserved permissions, 0 if they are available
+     */
+    private long nanosToWaitForReservation(final long reservation, final long currentNanos) {
+        CycleSchedule currentSchedule = schedule;
+        if (fairCallHandling) {
+            return nanosToWaitForTicket(currentSchedule, reservation, currentNanos);
+        }
+        int permissions = permissionsOf(reservation);
+        if (permissions >= 0) {
+            return 0L;
+        }
+        long currentCycle = currentSchedule.cycleAt(currentNanos);
+        long reservationCycle = currentCycle - ((currentCycle - cycleOf(reservation)) & PERMISSIONS_MASK);
+        long availableAt = currentSchedule.startOf(currentSchedule.cycleCovering(reservationCycle, -(long) permissions));
+        return Math.max(0L, availableAt - currentNanos);
+    }
+
+    /**
+     * Creates the new state, which holds the reserved permissions only if caller can successfully wait for them.
      *
-     * @param config
-     * @param timeoutInNanos max time that caller can wait for permission in nanoseconds
-     * @param cycle          cycle for new {@link State}
-     * @param permissions    permissions for new {@link State}
-     * @param nanosToWait    nanoseconds to wait for the next permission
-     * @return new {@link State} with possibly reserved permissions and time to wait
+     * @param permits          the number of permissions to reserve
+     * @param cycle            cycle for new state
+     * @param permissions      permissions for new state
+     * @param canAcquireInTime true if caller can wait long enough for the requested permissions
+     * @return new state with possibly reserved permissions
      */
-    private State reservePermissions(final RateLimiterConfig config, final long timeoutInNanos,
-                                     final long cycle, final int permissions, final long nanosToWait) {
-        boolean canAcquireInTime = timeoutInNanos >= nanosToWait;
+    private static long reservePermissions(final int permits, final long cycle, final int permissions,
+                                           final boolean canAcquireInTime) {
         int permissionsWithReservation = permissions;
         if (canAcquireInTime) {
-            permissionsWithReservation--;
+            permissionsWithReservation -= permits;
         }
-        return new State(config, cycle, permissionsWithReservation, nanosToWait);
+        return pack(cycle, permissionsWithReservation);
     }
 
     /**
-     * If nanosToWait is bigger than 0 it tries to park {@link Thread} for nanosToWait but not longer then timeoutInNanos.
+     * If the reserved permissions are not available yet it tries to park {@link Thread} until they are available,
+     * but not longer then timeoutInNanos. A caller without reservation is parked for timeoutInNanos.
      *
      * @param timeoutInNanos max time that caller can wait
-     * @param nanosToWait    nanoseconds caller need to wait
-     * @return true if caller was able to wait for nanosToWait without {@link Thread#interrupt} and not exceed timeout
+     * @param reservation    the reservation of the caller or {@link #NOT_RESERVED}
+     * @return true if caller was able to wait for its permissions without {@link Thread#interrupt} and not exceed timeout
      */
-    private boolean waitForPermissionIfNecessary(final long timeoutInNanos, final long nanosToWait) {
-        boolean canAcquireImmediately = nanosToWait <= 0;
-        boolean canAcquireInTime = timeoutInNanos >= nanosToWait;
-
+    private boolean waitForPermissionIfNecessary(final long timeoutInNanos, final long reservation) {
+        long currentNanos = currentNanoTime();
+        if (reservation == NOT_RESERVED) {
+            if (timeoutInNanos > 0) {
+                waitForPermission(reservation, currentNanos, timeoutInNanos);
+            }
+            return false;
+        }
+        boolean canAcquireImmediately = nanosToWaitForReservation(reservation, currentNanos) <= 0;
         if (canAcquireImmediately) {
             return true;
         }
-        if (canAcquireInTime) {
-            return waitForPermission(nanosToWait);
-        }
-        waitForPermission(timeoutInNanos);
-        return false;
+        return waitForPermission(reservation, currentNanos, timeoutInNanos);
     }
 
     /**
-     * Parks {@link Thread} for nanosToWait.
+     * Parks {@link Thread} until the reserved permissions are available, but not longer than timeoutInNanos.
+     * The time to wait is re-calculated whenever the thread wakes up, because a configuration change
+     * wakes up all waiting threads.
      * <p>If the current thread is {@linkplain Thread#interrupted}
      * while waiting for a permit then it won't throw {@linkplain InterruptedException},
      * but its interrupt status will be set.
      *
-     * @param nanosToWait nanoseconds caller need to wait
-     * @return true if caller was not {@link Thread#interrupted} while waiting
+     * @param reservation    the reservation of the caller or {@link #NOT_RESERVED}
+     * @param startNanos     the time at which the caller started to wait
+     * @param timeoutInNanos max time that caller can wait
+     * @return true if the permissions became available before the timeout and caller was not {@link Thread#interrupted}
      */
-    private boolean waitForPermission(final long nanosToWait) {
+    private boolean waitForPermission(final long reservation, final long startNanos, final long timeoutInNanos) {
+        Thread thread = currentThread();
         waitingThreads.incrementAndGet();
-        long deadline = currentNanoTime() + nanosToWait;
+        parkedThreads.add(thread);
+        long deadline = timeoutInNanos > Long.MAX_VALUE - startNanos ? Long.MAX_VALUE : startNanos + timeoutInNanos;
+        long currentNanos = startNanos;
         boolean wasInterrupted = false;
-        while (currentNanoTime() < deadline && !wasInterrupted) {
-            long sleepBlockDuration = deadline - currentNanoTime();
-            parkNanos(sleepBlockDuration);
+        boolean permitted = false;
+        while (!wasInterrupted) {
+            long nanosToTimeout = deadline - currentNanos;
+            long nanosToWait = reservation == NOT_RESERVED
+                ? nanosToTimeout : nanosToWaitForReservation(reservation, currentNanos);
+            if (nanosToWait <= 0) {
+                permitted = reservation != NOT_RESERVED;
+                break;
+            }
+            if (nanosToTimeout <= 0) {
+                break;
+            }
+            parkNanos(min(nanosToWait, nanosToTimeout));
             wasInterrupted = Thread.interrupted();
+            currentNanos = currentNanoTime();
         }
+        parkedThreads.remove(thread);
         waitingThreads.decrementAndGet();
         if (wasInterrupted) {
-            currentThread().interrupt();
+            thread.interrupt();
         }
-        return !wasInterrupted;
+        return permitted;
     }
 
     /**
@@ -287,7 +500,7 @@ public class AtomicRateLimiter implements RateLimiter {
      */
     @Override
     public RateLimiterConfig getRateLimiterConfig() {
-        return state.get().config;
+        return config;
     }
 
     /**
@@ -295,7 +508,7 @@ public class AtomicRateLimiter implements RateLimiter {
      */
     @Override
     public Metrics getMetrics() {
-        return new AtomicRateLimiterMetrics();
+        return metrics;
     }
 
     @Override
@@ -306,7 +519,7 @@ public class AtomicRateLimiter implements RateLimiter {
     @Override public String toString() {
         return "AtomicRateLimiter{" +
             "name='" + name + '\'' +
-            ", rateLimiterConfig=" + state.get().config +
+            ", rateLimiterConfig=" + config +
             '}';
     }
 
@@ -316,49 +529,7 @@ public class AtomicRateLimiter implements RateLimiter {
      * @return the detailed metrics
      */
     public AtomicRateLimiterMetrics getDetailedMetrics() {
-        return new AtomicRateLimiterMetrics();
-    }
-
-    private void publishRateLimiterEvent(boolean permissionAcquired) {
-        if (!eventProcessor.hasConsumers()) {
-            return;
-        }
-        if (permissionAcquired) {
-            eventProcessor.consumeEvent(new RateLimiterOnSuccessEvent(name));
-            return;
-        }
-        eventProcessor.consumeEvent(new RateLimiterOnFailureEvent(name));
-    }
-
-    /**
-     * <p>{@link AtomicRateLimiter.State} represents immutable state of {@link AtomicRateLimiter} where:
-     * <ul>
-     * <li>activeCycle - {@link AtomicRateLimiter} cycle number that was used
-     * by the last {@link AtomicRateLimiter#getPermission(Duration)} call.</li>
-     * <p>
-     * <li>activePermissions - count of available permissions after
-     * the last {@link AtomicRateLimiter#getPermission(Duration)} call.
-     * Can be negative if some permissions where reserved.</li>
-     * <p>
-     * <li>nanosToWait - count of nanoseconds to wait for permission for
-     * the last {@link AtomicRateLimiter#getPermission(Duration)} call.</li>
-     * </ul>
-     */
-    private static class State {
-        private final RateLimiterConfig config;
-
-        private final long activeCycle;
-        private final int activePermissions;
-        private final long nanosToWait;
-
-        private State(RateLimiterConfig config,
-                      final long activeCycle, final int activePermissions, final long nanosToWait) {
-            this.config = config;
-            this.activeCycle = activeCycle;
-            this.activePermissions = activePermissions;
-            this.nanosToWait = nanosToWait;
-        }
-
+        return metrics;
     }
 
     /**
@@ -382,28 +553,37 @@ public class AtomicRateLimiter implements RateLimiter {
          */
         @Override
         public int getAvailablePermissions() {
-            State currentState = state.get();
-            State estimatedState = calculateNextState(-1, currentState);
-            return estimatedState.activePermissions;
+            CycleSchedule currentSchedule = schedule;
+            long currentCycle = currentSchedule.cycleAt(currentNanoTime());
+            if (fairCallHandling) {
+                long firstTicketOfCycle = currentSchedule.firstPermissionOf(currentCycle);
+                long nextTicket = Math.max(tickets.get(), firstTicketOfCycle);
+                long permissions = firstTicketOfCycle + currentSchedule.permissionsPerCycle(currentCycle) - nextTicket;
+                return (int) Math.max(permissions, Integer.MIN_VALUE);
+            }
+            return refreshPermissions(currentSchedule, state.get(), currentCycle);
         }
 
         /**
          * @return estimated time duration in nanos to wait for the next permission
          */
         public long getNanosToWait() {
-            State currentState = state.get();
-            State estimatedState = calculateNextState(-1, currentState);
-            return estimatedState.nanosToWait;
+            CycleSchedule currentSchedule = schedule;
+            long currentNanos = currentNanoTime();
+            long currentCycle = currentSchedule.cycleAt(currentNanos);
+            if (fairCallHandling) {
+                long nextTicket = Math.max(tickets.get(), currentSchedule.firstPermissionOf(currentCycle));
+                return nanosToWaitForTicket(currentSchedule, nextTicket, currentNanos);
+            }
+            int permissions = refreshPermissions(currentSchedule, state.get(), currentCycle);
+            return nanosToWaitForPermission(currentSchedule, 1, permissions, currentNanos, currentCycle);
         }
 
         /**
          * @return estimated current cycle
          */
         public long getCycle() {
-            State currentState = state.get();
-            State estimatedState = calculateNextState(-1, currentState);
-            return estimatedState.activeCycle;
+            return schedule.cycleAt(currentNanoTime());
         }
-
     }
 }
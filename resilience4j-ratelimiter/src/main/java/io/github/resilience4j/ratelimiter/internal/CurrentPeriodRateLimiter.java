@@ -0,0 +1,42 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.ratelimiter.internal;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+
+/**
+ * A {@link RateLimiter} which can only hand out the permissions of the current period.
+ * <p>Its {@link RateLimiter#reservePermission} can't reserve the permissions of a later period, so it either
+ * acquires them immediately or fails. An asynchronous caller which is willing to wait tries again, when the
+ * next period starts, until its timeout has elapsed.
+ */
+public interface CurrentPeriodRateLimiter extends RateLimiter {
+
+    /**
+     * Acquires the permissions of the current period without waiting. If they are not available, the time to the
+     * start of the next period is returned, as long as the permissions can be acquired then and the caller is
+     * willing to wait that long. Only an acquisition and a final failure are published as events.
+     *
+     * @param permits        the number of permissions to acquire, must be greater than 0
+     * @param timeoutInNanos the maximum time the caller is willing to wait in nanoseconds
+     * @return {@code 0} if the permissions were acquired, the time in nanoseconds after which the caller should try
+     * again, or a negative value if the permissions can't be acquired within timeoutInNanos
+     */
+    long acquireInCurrentPeriod(int permits, long timeoutInNanos);
+}
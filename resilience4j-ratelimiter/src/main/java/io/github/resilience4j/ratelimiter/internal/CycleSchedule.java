@@ -0,0 +1,188 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.ratelimiter.internal;
+
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+
+/**
+ * Splits the time of a rate limiter into cycles of {@link RateLimiterConfig#limitRefreshPeriod}
+ * with {@link RateLimiterConfig#limitForPeriod} permissions each.
+ * <p>The cycles are numbered from the start of the rate limiter. A changed configuration starts with the next cycle:
+ * the new schedule continues the numbering of the cycles and keeps the schedules before it,
+ * so that cycles and reservations from before the change are still mapped to the right times.
+ * Only the last {@value #MAX_SCHEDULES} schedules are kept.
+ * <p>The permissions of all cycles are numbered as well, which is used for the tickets of a fair
+ * {@link AtomicRateLimiter}: permission {@code n} becomes available at the start of {@link #cycleOfPermission(long)}.
+ * <p>A schedule is immutable, so it can be published with a single volatile write.
+ */
+final class CycleSchedule {
+    private static final int MAX_SCHEDULES = 8;
+
+    private final long firstCycle;
+    private final long originNanos;
+    private final long firstPermission;
+    private final long cyclePeriodInNanos;
+    private final int permissionsPerCycle;
+    private final CycleSchedule previous;
+
+    private CycleSchedule(final long firstCycle, final long originNanos, final long firstPermission,
+                          final long cyclePeriodInNanos, final int permissionsPerCycle, final CycleSchedule previous) {
+        this.firstCycle = firstCycle;
+        this.originNanos = originNanos;
+        this.firstPermission = firstPermission;
+        this.cyclePeriodInNanos = cyclePeriodInNanos;
+        this.permissionsPerCycle = permissionsPerCycle;
+        this.previous = previous;
+    }
+
+    /**
+     * Creates a schedule whose cycle 0 starts at 0 nanoseconds.
+     *
+     * @param config the configuration of the rate limiter
+     * @return the new schedule
+     */
+    static CycleSchedule of(final RateLimiterConfig config) {
+        return new CycleSchedule(0L, 0L, 0L, config.getLimitRefreshPeriodInNanos(), config.getLimitForPeriod(), null);
+    }
+
+    /**
+     * Creates the schedule for a new configuration, which starts with the cycle after the current one.
+     * A change which has not started yet is replaced.
+     *
+     * @param currentNanos current time in nanoseconds
+     * @param config       the new configuration
+     * @return the new schedule
+     */
+    CycleSchedule changedAt(final long currentNanos, final RateLimiterConfig config) {
+        CycleSchedule active = scheduleAt(currentNanos);
+        long nextCycle = active.cycleAt(currentNanos) + 1;
+        return new CycleSchedule(nextCycle, active.startOf(nextCycle), active.firstPermissionOf(nextCycle),
+            config.getLimitRefreshPeriodInNanos(), config.getLimitForPeriod(), active.copy(MAX_SCHEDULES - 1));
+    }
+
+    private CycleSchedule copy(final int schedules) {
+        CycleSchedule previousCopy = schedules > 1 && previous != null ? previous.copy(schedules - 1) : null;
+        return new CycleSchedule(firstCycle, originNanos, firstPermission, cyclePeriodInNanos, permissionsPerCycle, previousCopy);
+    }
+
+    private CycleSchedule scheduleAt(final long nanos) {
+        CycleSchedule schedule = this;
+        while (nanos < schedule.originNanos && schedule.previous != null) {
+            schedule = schedule.previous;
+        }
+        return schedule;
+    }
+
+    private CycleSchedule scheduleOf(final long cycle) {
+        CycleSchedule schedule = this;
+        while (cycle < schedule.firstCycle && schedule.previous != null) {
+            schedule = schedule.previous;
+        }
+        return schedule;
+    }
+
+    /**
+     * @return the cycle which contains the given time
+     */
+    long cycleAt(final long nanos) {
+        CycleSchedule schedule = scheduleAt(nanos);
+        return schedule.firstCycle + Math.floorDiv(nanos - schedule.originNanos, schedule.cyclePeriodInNanos);
+    }
+
+    /**
+     * @return the time in nanoseconds at which the given cycle starts
+     */
+    long startOf(final long cycle) {
+        CycleSchedule schedule = scheduleOf(cycle);
+        return schedule.originNanos + (cycle - schedule.firstCycle) * schedule.cyclePeriodInNanos;
+    }
+
+    /**
+     * @return the limit for period of the given cycle
+     */
+    int permissionsPerCycle(final long cycle) {
+        return scheduleOf(cycle).permissionsPerCycle;
+    }
+
+    /**
+     * @return the number of the first permission of the given cycle
+     */
+    long firstPermissionOf(final long cycle) {
+        CycleSchedule schedule = scheduleOf(cycle);
+        return schedule.firstPermission + (cycle - schedule.firstCycle) * schedule.permissionsPerCycle;
+    }
+
+    /**
+     * @return the cycle at whose start the permission with the given number becomes available
+     */
+    long cycleOfPermission(final long permission) {
+        CycleSchedule schedule = this;
+        while (permission < schedule.firstPermission && schedule.previous != null) {
+            schedule = schedule.previous;
+        }
+        return schedule.firstCycle + Math.floorDiv(permission - schedule.firstPermission, schedule.permissionsPerCycle);
+    }
+
+    /**
+     * Sums up the permissions which are refreshed at the starts of the cycles after the given cycle.
+     *
+     * @param cycle      the cycle after which the refreshes are counted
+     * @param untilCycle the last cycle whose refresh is counted
+     * @return the refreshed permissions, {@link Long#MAX_VALUE} if they don't fit into a long
+     */
+    long permissionsRefreshed(final long cycle, final long untilCycle) {
+        if (untilCycle <= cycle) {
+            return 0L;
+        }
+        if (previous == null || cycle + 1 >= firstCycle) {
+            return (untilCycle - cycle) * permissionsPerCycle;
+        }
+        long refreshedBefore = previous.permissionsRefreshed(cycle, Math.min(untilCycle, firstCycle - 1));
+        long refreshedSince = Math.max(0L, untilCycle - firstCycle + 1) * permissionsPerCycle;
+        long refreshed = refreshedBefore + refreshedSince;
+        return refreshed < 0 ? Long.MAX_VALUE : refreshed;
+    }
+
+    /**
+     * Finds the cycle in which the given number of permissions is refreshed,
+     * counting the refreshes of the cycles after the given cycle.
+     *
+     * @param cycle       the cycle after which the refreshes are counted
+     * @param permissions the number of permissions which have to be refreshed
+     * @return the cycle at whose start the permissions are refreshed, the given cycle if no permissions are needed
+     */
+    long cycleCovering(final long cycle, final long permissions) {
+        if (permissions <= 0) {
+            return cycle;
+        }
+        if (previous == null || cycle + 1 >= firstCycle) {
+            return cycle + cyclesFor(permissions);
+        }
+        long coveringCycle = previous.cycleCovering(cycle, permissions);
+        if (coveringCycle < firstCycle) {
+            return coveringCycle;
+        }
+        long missingPermissions = permissions - previous.permissionsRefreshed(cycle, firstCycle - 1);
+        return firstCycle - 1 + cyclesFor(missingPermissions);
+    }
+
+    private long cyclesFor(final long permissions) {
+        return (permissions - 1) / permissionsPerCycle + 1;
+    }
+}
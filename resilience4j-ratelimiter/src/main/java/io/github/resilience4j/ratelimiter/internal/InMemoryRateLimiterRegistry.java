@@ -20,11 +20,13 @@ package io.github.resilience4j.ratelimiter.internal;
 
 import static java.util.Objects.requireNonNull;
 
+import io.github.resilience4j.core.Schedulers;
 import io.github.resilience4j.ratelimiter.RateLimiter;
 import io.github.resilience4j.ratelimiter.RateLimiterConfig;
 import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
 import io.vavr.collection.Array;
 import io.vavr.collection.Seq;
+import io.vavr.control.Option;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -45,6 +47,7 @@ public class InMemoryRateLimiterRegistry implements RateLimiterRegistry {
      * The RateLimiters, indexed by name of the backend.
      */
     private final Map<String, RateLimiter> rateLimiters;
+    private volatile LimitRefreshScheduler limitRefreshScheduler;
 
     public InMemoryRateLimiterRegistry(final RateLimiterConfig defaultRateLimiterConfig) {
         this.defaultRateLimiterConfig = requireNonNull(defaultRateLimiterConfig, CONFIG_MUST_NOT_BE_NULL);
@@ -76,7 +79,7 @@ public class InMemoryRateLimiterRegistry implements RateLimiterRegistry {
         requireNonNull(rateLimiterConfig, CONFIG_MUST_NOT_BE_NULL);
         return rateLimiters.computeIfAbsent(
             name,
-            limitName -> new AtomicRateLimiter(name, rateLimiterConfig)
+            limitName -> createRateLimiter(name, rateLimiterConfig)
         );
     }
 
@@ -92,8 +95,43 @@ public class InMemoryRateLimiterRegistry implements RateLimiterRegistry {
             limitName -> {
                 RateLimiterConfig rateLimiterConfig = rateLimiterConfigSupplier.get();
                 requireNonNull(rateLimiterConfig, CONFIG_MUST_NOT_BE_NULL);
-                return new AtomicRateLimiter(limitName, rateLimiterConfig);
+                return createRateLimiter(limitName, rateLimiterConfig);
             }
         );
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Option<RateLimiter> remove(final String name) {
+        requireNonNull(name, NAME_MUST_NOT_BE_NULL);
+        RateLimiter rateLimiter = rateLimiters.remove(name);
+        if (rateLimiter instanceof SemaphoreBasedRateLimiter) {
+            ((SemaphoreBasedRateLimiter) rateLimiter).close();
+        }
+        return Option.of(rateLimiter);
+    }
+
+    private RateLimiter createRateLimiter(final String name, final RateLimiterConfig rateLimiterConfig) {
+        if (rateLimiterConfig.getRateLimiterType() == RateLimiterConfig.RateLimiterType.SEMAPHORE_BASED) {
+            return new SemaphoreBasedRateLimiter(name, rateLimiterConfig, getLimitRefreshScheduler());
+        }
+        return RateLimiter.of(name, rateLimiterConfig);
+    }
+
+    private LimitRefreshScheduler getLimitRefreshScheduler() {
+        LimitRefreshScheduler scheduler = limitRefreshScheduler;
+        if (scheduler == null) {
+            synchronized (this) {
+                scheduler = limitRefreshScheduler;
+                if (scheduler == null) {
+                    scheduler = new LimitRefreshScheduler(
+                        Schedulers.newSingleThreadScheduler("RateLimiterRegistry-refresh-scheduler"));
+                    limitRefreshScheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
 }
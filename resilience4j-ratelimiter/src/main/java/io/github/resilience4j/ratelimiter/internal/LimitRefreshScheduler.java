@@ -0,0 +1,172 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.ratelimiter.internal;
+
+import io.github.resilience4j.core.Schedulers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Refreshes the permissions of many {@link SemaphoreBasedRateLimiter} instances with a single scheduler.
+ * <p>All refreshes with the same period are coalesced into a single periodic tick, so that the number of
+ * scheduled tasks depends on the number of distinct periods and not on the number of rate limiters.
+ * A refresh which joins an existing tick runs for the first time on the next tick of that period,
+ * which is earlier than one full period after its registration.
+ * <p>Periods shorter than {@link #MIN_PERIOD} are clamped to it. Such refreshes share a single tick, which would
+ * otherwise run back to back and monopolise the thread of the scheduler.
+ */
+public class LimitRefreshScheduler {
+
+    /**
+     * The shortest period of a tick.
+     */
+    public static final Duration MIN_PERIOD = Duration.ofMillis(1);
+
+    private static final Logger LOG = LoggerFactory.getLogger(LimitRefreshScheduler.class);
+    private static final String SCHEDULER_MUST_NOT_BE_NULL = "Scheduler must not be null";
+    private static final long MIN_PERIOD_IN_NANOS = MIN_PERIOD.toNanos();
+
+    private final ScheduledExecutorService scheduler;
+    private final Map<Long, Tick> ticksByPeriod;
+
+    /**
+     * Creates a LimitRefreshScheduler which schedules its ticks on the given scheduler.
+     *
+     * @param scheduler the scheduler which runs the ticks
+     */
+    public LimitRefreshScheduler(ScheduledExecutorService scheduler) {
+        this.scheduler = requireNonNull(scheduler, SCHEDULER_MUST_NOT_BE_NULL);
+        this.ticksByPeriod = new HashMap<>();
+    }
+
+    /**
+     * Returns the LimitRefreshScheduler which is shared by all rate limiters which are not configured
+     * with a custom scheduler. It runs on its own daemon thread, so that the refreshes can not delay
+     * the tasks of {@link Schedulers#shared()}.
+     *
+     * @return the shared LimitRefreshScheduler
+     */
+    public static LimitRefreshScheduler shared() {
+        return SharedLimitRefreshSchedulerHolder.INSTANCE;
+    }
+
+    /**
+     * Runs the refresh after each period until the returned registration is cancelled.
+     * A period shorter than {@link #MIN_PERIOD} is clamped to it.
+     *
+     * @param refreshPeriodInNanos the refresh period in nanoseconds
+     * @param refresh              the refresh, must be short and must not block
+     * @return the registration of the refresh
+     */
+    public synchronized Registration schedule(long refreshPeriodInNanos, Runnable refresh) {
+        long periodInNanos = tickPeriodOf(refreshPeriodInNanos);
+        Tick tick = ticksByPeriod.get(periodInNanos);
+        if (tick == null) {
+            tick = new Tick(periodInNanos);
+            tick.future = scheduler.scheduleAtFixedRate(tick, periodInNanos, periodInNanos, TimeUnit.NANOSECONDS);
+            ticksByPeriod.put(periodInNanos, tick);
+        }
+        tick.refreshes.add(refresh);
+        return new Registration(tick, refresh);
+    }
+
+    /**
+     * Returns the period of the tick which runs a refresh with the given period.
+     */
+    static long tickPeriodOf(long refreshPeriodInNanos) {
+        return Long.max(refreshPeriodInNanos, MIN_PERIOD_IN_NANOS);
+    }
+
+    /**
+     * Returns the number of scheduled ticks, which is the number of distinct periods.
+     *
+     * @return the number of scheduled ticks
+     */
+    public synchronized int getNumberOfTicks() {
+        return ticksByPeriod.size();
+    }
+
+    private synchronized void cancel(Tick tick, Runnable refresh) {
+        if (!tick.refreshes.remove(refresh) || !tick.refreshes.isEmpty()) {
+            return;
+        }
+        ticksByPeriod.remove(tick.periodInNanos, tick);
+        if (tick.future != null) {
+            tick.future.cancel(false);
+        }
+    }
+
+    private static final class Tick implements Runnable {
+        private final long periodInNanos;
+        private final CopyOnWriteArrayList<Runnable> refreshes;
+        private ScheduledFuture<?> future;
+
+        private Tick(long periodInNanos) {
+            this.periodInNanos = periodInNanos;
+            this.refreshes = new CopyOnWriteArrayList<>();
+        }
+
+        @Override
+        public void run() {
+            for (Runnable refresh : refreshes) {
+                try {
+                    refresh.run();
+                } catch (RuntimeException e) {
+                    // a failing refresh must not cancel the tick of the other rate limiters
+                    LOG.warn("Failed to refresh the limit of a rate limiter", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * The registration of a refresh, which stops the refresh when it is cancelled.
+     */
+    public final class Registration {
+        private final Tick tick;
+        private final Runnable refresh;
+
+        private Registration(Tick tick, Runnable refresh) {
+            this.tick = tick;
+            this.refresh = refresh;
+        }
+
+        /**
+         * Stops the refresh. The tick is cancelled, when its last refresh is stopped.
+         */
+        public void cancel() {
+            LimitRefreshScheduler.this.cancel(tick, refresh);
+        }
+    }
+
+    private static final class SharedLimitRefreshSchedulerHolder {
+        private static final LimitRefreshScheduler INSTANCE = new LimitRefreshScheduler(
+            Schedulers.newSingleThreadScheduler("resilience4j-limit-refresh-scheduler"));
+    }
+}
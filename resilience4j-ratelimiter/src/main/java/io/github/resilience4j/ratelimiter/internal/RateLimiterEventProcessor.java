@@ -22,6 +22,7 @@ package io.github.resilience4j.ratelimiter.internal;
 import io.github.resilience4j.core.EventConsumer;
 import io.github.resilience4j.ratelimiter.RateLimiter;
 import io.github.resilience4j.ratelimiter.event.RateLimiterEvent;
+import io.github.resilience4j.ratelimiter.event.RateLimiterOnConfigChangedEvent;
 import io.github.resilience4j.ratelimiter.event.RateLimiterOnFailureEvent;
 import io.github.resilience4j.ratelimiter.event.RateLimiterOnSuccessEvent;
 
@@ -43,4 +44,10 @@ public class RateLimiterEventProcessor extends io.github.resilience4j.core.Event
         registerConsumer(RateLimiterOnFailureEvent.class, onOnFailureEventConsumer);
         return this;
     }
-}
\ No newline at end of file
+
+    @Override
+    public RateLimiter.EventPublisher onConfigChanged(EventConsumer<RateLimiterOnConfigChangedEvent> onConfigChangedEventConsumer) {
+        registerConsumer(RateLimiterOnConfigChangedEvent.class, onConfigChangedEventConsumer);
+        return this;
+    }
+}
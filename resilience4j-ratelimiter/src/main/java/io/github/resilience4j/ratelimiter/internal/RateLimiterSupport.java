@@ -0,0 +1,106 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.ratelimiter.internal;
+
+import io.github.resilience4j.core.NanoClock;
+import io.github.resilience4j.ratelimiter.event.RateLimiterOnFailureEvent;
+import io.github.resilience4j.ratelimiter.event.RateLimiterOnSuccessEvent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * Helpers which are shared by the {@link io.github.resilience4j.ratelimiter.RateLimiter} implementations.
+ */
+final class RateLimiterSupport {
+
+    private RateLimiterSupport() {
+    }
+
+    static void requirePositive(final int permits) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("Permits must be greater than 0");
+        }
+    }
+
+    /**
+     * If nanosToWait is bigger than 0 it tries to park {@link Thread} for nanosToWait but not longer then timeoutInNanos.
+     *
+     * @param clock          the clock of the rate limiter
+     * @param waitingThreads the counter of the threads waiting for permission
+     * @param timeoutInNanos max time that caller can wait
+     * @param nanosToWait    nanoseconds caller need to wait
+     * @return true if caller was able to wait for nanosToWait without {@link Thread#interrupt} and not exceed timeout
+     */
+    static boolean waitForPermissionIfNecessary(final NanoClock clock, final AtomicInteger waitingThreads,
+                                                final long timeoutInNanos, final long nanosToWait) {
+        boolean canAcquireImmediately = nanosToWait <= 0;
+        boolean canAcquireInTime = timeoutInNanos >= nanosToWait;
+
+        if (canAcquireImmediately) {
+            return true;
+        }
+        if (canAcquireInTime) {
+            return waitForPermission(clock, waitingThreads, nanosToWait);
+        }
+        waitForPermission(clock, waitingThreads, timeoutInNanos);
+        return false;
+    }
+
+    /**
+     * Parks {@link Thread} for nanosToWait.
+     * <p>If the current thread is {@linkplain Thread#interrupted}
+     * while waiting for a permit then it won't throw {@linkplain InterruptedException},
+     * but its interrupt status will be set.
+     *
+     * @param clock          the clock of the rate limiter
+     * @param waitingThreads the counter of the threads waiting for permission
+     * @param nanosToWait    nanoseconds caller need to wait
+     * @return true if caller was not {@link Thread#interrupted} while waiting
+     */
+    static boolean waitForPermission(final NanoClock clock, final AtomicInteger waitingThreads, final long nanosToWait) {
+        waitingThreads.incrementAndGet();
+        long deadline = clock.nanoTime() + nanosToWait;
+        boolean wasInterrupted = false;
+        while (clock.nanoTime() < deadline && !wasInterrupted) {
+            long sleepBlockDuration = deadline - clock.nanoTime();
+            parkNanos(sleepBlockDuration);
+            wasInterrupted = Thread.interrupted();
+        }
+        waitingThreads.decrementAndGet();
+        if (wasInterrupted) {
+            currentThread().interrupt();
+        }
+        return !wasInterrupted;
+    }
+
+    static void publishRateLimiterEvent(final RateLimiterEventProcessor eventProcessor, final String name,
+                                        final boolean permissionAcquired) {
+        if (!eventProcessor.hasConsumers()) {
+            return;
+        }
+        if (permissionAcquired) {
+            eventProcessor.consumeEvent(new RateLimiterOnSuccessEvent(name));
+            return;
+        }
+        eventProcessor.consumeEvent(new RateLimiterOnFailureEvent(name));
+    }
+}
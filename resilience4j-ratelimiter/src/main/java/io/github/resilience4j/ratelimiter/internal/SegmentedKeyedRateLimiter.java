@@ -0,0 +1,416 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.ratelimiter.internal;
+
+import io.github.resilience4j.core.NanoClock;
+import io.github.resilience4j.ratelimiter.KeyedRateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.resilience4j.ratelimiter.internal.AtomicRateLimiter.nanosToWaitForPermission;
+import static io.github.resilience4j.ratelimiter.internal.AtomicRateLimiter.pack;
+import static io.github.resilience4j.ratelimiter.internal.AtomicRateLimiter.refreshPermissions;
+import static io.github.resilience4j.ratelimiter.internal.RateLimiterSupport.publishRateLimiterEvent;
+import static io.github.resilience4j.ratelimiter.internal.RateLimiterSupport.requirePositive;
+import static io.github.resilience4j.ratelimiter.internal.RateLimiterSupport.waitForPermissionIfNecessary;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link SegmentedKeyedRateLimiter} keeps the state of every key in an open addressing hash table
+ * of primitive arrays, which is allocated once for the maximum number of keys.
+ * <p>The state of a key is packed into a single long like the state of the {@link AtomicRateLimiter},
+ * so that a key costs a key reference and a long per slot, and no objects are allocated per key or per request.
+ * <p>The table is split into segments, which are guarded by their own lock, so that requests of different keys
+ * rarely contend. A key which has been idle for long enough to have all its permissions back can't be distinguished
+ * from a new key, so such keys are evicted without any loss, when a segment is full and a new key arrives.
+ * If a segment is full of active keys, new keys are rejected without waiting for the timeout, until an active key
+ * becomes idle.
+ * The keys are spread evenly over the segments, so the number of keys which can be tracked at the same time
+ * can be a bit lower than the maximum number of keys for an unlucky distribution of keys.
+ *
+ * @param <K> the type of the keys
+ */
+public class SegmentedKeyedRateLimiter<K> implements KeyedRateLimiter<K> {
+
+    private static final String NAME_MUST_NOT_BE_NULL = "Name must not be null";
+    private static final String CONFIG_MUST_NOT_BE_NULL = "RateLimiterConfig must not be null";
+    private static final String KEY_MUST_NOT_BE_NULL = "Key must not be null";
+    private static final int MAX_SEGMENTS = 64;
+    private static final int MIN_KEYS_PER_SEGMENT = 64;
+    private static final long REJECTED = Long.MIN_VALUE;
+
+    private final String name;
+    private final RateLimiterConfig rateLimiterConfig;
+    private final int maxNumberOfKeys;
+    private final NanoClock clock;
+    private final long nanoTimeStart;
+    private final Segment[] segments;
+    private final AtomicInteger waitingThreads;
+    private final SegmentedKeyedRateLimiterMetrics metrics;
+    private final RateLimiterEventProcessor eventProcessor;
+
+    /**
+     * Creates a KeyedRateLimiter.
+     *
+     * @param name              the name of the KeyedRateLimiter
+     * @param rateLimiterConfig The RateLimiter configuration, which is applied to every key.
+     * @param maxNumberOfKeys   the maximum number of keys which are tracked at the same time
+     */
+    public SegmentedKeyedRateLimiter(String name, RateLimiterConfig rateLimiterConfig, int maxNumberOfKeys) {
+        this(name, rateLimiterConfig, maxNumberOfKeys, NanoClock.system());
+    }
+
+    SegmentedKeyedRateLimiter(String name, RateLimiterConfig rateLimiterConfig, int maxNumberOfKeys, NanoClock clock) {
+        this.name = requireNonNull(name, NAME_MUST_NOT_BE_NULL);
+        this.rateLimiterConfig = requireNonNull(rateLimiterConfig, CONFIG_MUST_NOT_BE_NULL);
+        if (maxNumberOfKeys < 1) {
+            throw new IllegalArgumentException("MaxNumberOfKeys must be greater than 0");
+        }
+        this.maxNumberOfKeys = maxNumberOfKeys;
+        this.clock = clock;
+        this.nanoTimeStart = clock.nanoTime();
+
+        int numberOfSegments = Integer.highestOneBit(Math.max(1, Math.min(maxNumberOfKeys / MIN_KEYS_PER_SEGMENT, MAX_SEGMENTS)));
+        this.segments = new Segment[numberOfSegments];
+        for (int i = 0; i < numberOfSegments; i++) {
+            int maxSize = maxNumberOfKeys / numberOfSegments + (i < maxNumberOfKeys % numberOfSegments ? 1 : 0);
+            segments[i] = new Segment(rateLimiterConfig, maxSize);
+        }
+
+        this.waitingThreads = new AtomicInteger(0);
+        this.metrics = new SegmentedKeyedRateLimiterMetrics();
+        this.eventProcessor = new RateLimiterEventProcessor();
+    }
+
+    /**
+     * Calculates time elapsed from the creation of the rate limiter.
+     */
+    private long currentNanoTime() {
+        return clock.nanoTime() - nanoTimeStart;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getPermission(final K key, final Duration timeoutDuration) {
+        return getPermission(key, 1, timeoutDuration);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getPermission(final K key, final int permits, final Duration timeoutDuration) {
+        long timeoutInNanos = timeoutDuration.toNanos();
+        long nanosToWait = reservePermissions(key, permits, timeoutInNanos);
+        boolean result = nanosToWait != REJECTED
+            && waitForPermissionIfNecessary(clock, waitingThreads, timeoutInNanos, nanosToWait);
+        publishRateLimiterEvent(eventProcessor, name, result);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long reservePermission(final K key, final int permits, final Duration timeoutDuration) {
+        long timeoutInNanos = timeoutDuration.toNanos();
+        long nanosToWait = reservePermissions(key, permits, timeoutInNanos);
+        boolean canAcquireInTime = nanosToWait != REJECTED && timeoutInNanos >= nanosToWait;
+        publishRateLimiterEvent(eventProcessor, name, canAcquireInTime);
+        return canAcquireInTime ? nanosToWait : -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAvailablePermissions(final K key) {
+        requireNonNull(key, KEY_MUST_NOT_BE_NULL);
+        int hash = spread(key.hashCode());
+        return segmentFor(hash).availablePermissions(key, hash, currentNanoTime());
+    }
+
+    private long reservePermissions(final K key, final int permits, final long timeoutInNanos) {
+        requireNonNull(key, KEY_MUST_NOT_BE_NULL);
+        requirePositive(permits);
+        int hash = spread(key.hashCode());
+        return segmentFor(hash).reserve(key, hash, permits, timeoutInNanos, currentNanoTime());
+    }
+
+    private static int spread(final int hashCode) {
+        int hash = hashCode * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Selects the segment by the upper bits of the hash, the slot in the segment is selected by the lower bits.
+     */
+    private Segment segmentFor(final int hash) {
+        return segments[(int) (((hash & 0xFFFF_FFFFL) * segments.length) >>> 32)];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RateLimiterConfig getRateLimiterConfig() {
+        return rateLimiterConfig;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RateLimiter.EventPublisher getEventPublisher() {
+        return eventProcessor;
+    }
+
+    @Override public String toString() {
+        return "SegmentedKeyedRateLimiter{" +
+            "name='" + name + '\'' +
+            ", maxNumberOfKeys=" + maxNumberOfKeys +
+            ", rateLimiterConfig=" + rateLimiterConfig +
+            '}';
+    }
+
+    /**
+     * A linear probing hash table with the keys in one array and their packed states in another one.
+     * Removed keys are replaced by shifting the following keys of their probe sequence backwards,
+     * so the table doesn't need tombstones.
+     */
+    private static final class Segment {
+        private final RateLimiterConfig rateLimiterConfig;
+        private final Object[] keys;
+        private final long[] states;
+        private final int mask;
+        private final int maxSize;
+        private int size;
+        private long fullOfActiveKeysInCycle = -1L;
+        private long evictedKeys;
+        private long rejectedKeys;
+
+        private Segment(RateLimiterConfig rateLimiterConfig, int maxSize) {
+            this.rateLimiterConfig = rateLimiterConfig;
+            int capacity = Integer.highestOneBit(Math.max(2, maxSize * 2 - 1)) << 1;
+            this.keys = new Object[capacity];
+            this.states = new long[capacity];
+            this.mask = capacity - 1;
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * Refreshes the state of the key and reserves the requested permissions,
+         * if the caller can wait long enough for them.
+         *
+         * @return nanoseconds to wait for the requested permissions,
+         * {@link #REJECTED} if the key can't be tracked because the segment is full of active keys
+         */
+        private synchronized long reserve(Object key, int hash, int permits, long timeoutInNanos, long currentNanos) {
+            long cyclePeriodInNanos = rateLimiterConfig.getLimitRefreshPeriodInNanos();
+            int permissionsPerCycle = rateLimiterConfig.getLimitForPeriod();
+            long currentCycle = currentNanos / cyclePeriodInNanos;
+
+            int index = indexOf(key, hash);
+            if (keys[index] == null) {
+                if (size == maxSize && !evictIdleKeys(currentCycle, permissionsPerCycle)) {
+                    rejectedKeys++;
+                    return REJECTED;
+                }
+                index = indexOf(key, hash);
+                keys[index] = key;
+                states[index] = pack(currentCycle, permissionsPerCycle);
+                size++;
+            }
+
+            int permissions = refreshPermissions(states[index], currentCycle, permissionsPerCycle);
+            long nanosToWait = nanosToWaitForPermission(
+                permits, cyclePeriodInNanos, permissionsPerCycle, permissions, currentNanos, currentCycle
+            );
+            if (timeoutInNanos >= nanosToWait) {
+                permissions -= permits;
+            }
+            states[index] = pack(currentCycle, permissions);
+            return nanosToWait;
+        }
+
+        private synchronized int availablePermissions(Object key, int hash, long currentNanos) {
+            int permissionsPerCycle = rateLimiterConfig.getLimitForPeriod();
+            int index = indexOf(key, hash);
+            if (keys[index] == null) {
+                return permissionsPerCycle;
+            }
+            long currentCycle = currentNanos / rateLimiterConfig.getLimitRefreshPeriodInNanos();
+            return refreshPermissions(states[index], currentCycle, permissionsPerCycle);
+        }
+
+        /**
+         * Returns the slot of the key, or the empty slot where it would be inserted.
+         */
+        private int indexOf(Object key, int hash) {
+            int index = hash & mask;
+            Object current;
+            while ((current = keys[index]) != null && !current.equals(key)) {
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+
+        /**
+         * Removes all keys which have all their permissions back.
+         * Keys only become idle at the start of a cycle, so a segment without idle keys
+         * is not swept again in the same cycle.
+         *
+         * @return true if at least one key was evicted
+         */
+        private boolean evictIdleKeys(long currentCycle, int permissionsPerCycle) {
+            if (fullOfActiveKeysInCycle == currentCycle) {
+                return false;
+            }
+            int evicted = 0;
+            int index = 0;
+            while (index < keys.length) {
+                // a removal shifts a following key into the slot, so it is checked again
+                if (keys[index] != null && refreshPermissions(states[index], currentCycle, permissionsPerCycle) >= permissionsPerCycle) {
+                    removeAt(index);
+                    evicted++;
+                } else {
+                    index++;
+                }
+            }
+            evictedKeys += evicted;
+            if (evicted == 0) {
+                fullOfActiveKeysInCycle = currentCycle;
+            }
+            return evicted > 0;
+        }
+
+        private void removeAt(int index) {
+            int hole = index;
+            int next = index;
+            while (true) {
+                next = (next + 1) & mask;
+                Object key = keys[next];
+                if (key == null) {
+                    break;
+                }
+                int home = spread(key.hashCode()) & mask;
+                // the key can fill the hole, if the hole lies between its home slot and its current slot
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = key;
+                    states[hole] = states[next];
+                    hole = next;
+                }
+            }
+            keys[hole] = null;
+            states[hole] = 0L;
+            size--;
+        }
+
+        private synchronized int getSize() {
+            return size;
+        }
+
+        private synchronized long getEvictedKeys() {
+            return evictedKeys;
+        }
+
+        private synchronized long getRejectedKeys() {
+            return rejectedKeys;
+        }
+    }
+
+    private final class SegmentedKeyedRateLimiterMetrics implements Metrics {
+
+        private SegmentedKeyedRateLimiterMetrics() {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getNumberOfWaitingThreads() {
+            return waitingThreads.get();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getNumberOfKeys() {
+            int numberOfKeys = 0;
+            for (Segment segment : segments) {
+                numberOfKeys += segment.getSize();
+            }
+            return numberOfKeys;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getMaxNumberOfKeys() {
+            return maxNumberOfKeys;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getNumberOfEvictedKeys() {
+            long evictedKeys = 0;
+            for (Segment segment : segments) {
+                evictedKeys += segment.getEvictedKeys();
+            }
+            return evictedKeys;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getNumberOfRejectedKeys() {
+            long rejectedKeys = 0;
+            for (Segment segment : segments) {
+                rejectedKeys += segment.getRejectedKeys();
+            }
+            return rejectedKeys;
+        }
+    }
+}
@@ -18,47 +18,58 @@
  */
 package io.github.resilience4j.ratelimiter.internal;
 
-import io.github.resilience4j.ratelimiter.RateLimiter;
 import io.github.resilience4j.ratelimiter.RateLimiterConfig;
-import io.github.resilience4j.ratelimiter.event.RateLimiterOnFailureEvent;
-import io.github.resilience4j.ratelimiter.event.RateLimiterOnSuccessEvent;
-import io.vavr.control.Option;
+import io.github.resilience4j.ratelimiter.event.RateLimiterOnConfigChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Semaphore;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static io.github.resilience4j.ratelimiter.internal.RateLimiterSupport.publishRateLimiterEvent;
+import static io.github.resilience4j.ratelimiter.internal.RateLimiterSupport.requirePositive;
 import static java.util.Objects.requireNonNull;
-import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 
 /**
  * A RateLimiter implementation that consists of {@link Semaphore}
  * and scheduler that will refresh permissions
  * after each {@link RateLimiterConfig#limitRefreshPeriod}.
+ * <p>The refreshes are scheduled by a {@link LimitRefreshScheduler}, which can be shared by many rate limiters.
+ * A rate limiter which is not used anymore must be closed, so that its refresh is stopped and it can be released.
+ * <p>A changed limit for period is applied by the next refresh, which grows or shrinks the semaphore.
+ * A changed limit refresh period moves the refresh to a tick of the new period after the next refresh.
+ * <p>The permissions are refreshed at most once per {@link LimitRefreshScheduler#MIN_PERIOD}. A shorter limit refresh
+ * period, like the default of 500 nanoseconds, is logged as a warning, because the rate limiter then permits
+ * fewer calls than configured.
  */
-public class SemaphoreBasedRateLimiter implements RateLimiter {
+public class SemaphoreBasedRateLimiter implements CurrentPeriodRateLimiter, AutoCloseable {
 
+    private static final Logger LOG = LoggerFactory.getLogger(SemaphoreBasedRateLimiter.class);
     private static final String NAME_MUST_NOT_BE_NULL = "Name must not be null";
     private static final String CONFIG_MUST_NOT_BE_NULL = "RateLimiterConfig must not be null";
 
     private final String name;
     private final AtomicReference<RateLimiterConfig> rateLimiterConfig;
-    private final ScheduledExecutorService scheduler;
-    private final Semaphore semaphore;
+    private final LimitRefreshScheduler limitRefreshScheduler;
+    private final ResizableSemaphore semaphore;
     private final SemaphoreBasedRateLimiterMetrics metrics;
     private final RateLimiterEventProcessor eventProcessor;
+    private LimitRefreshScheduler.Registration limitRefresh;
+    private volatile long limitRefreshPeriodInNanos;
+    private volatile long lastLimitRefreshNanos;
+    private boolean closed;
 
     /**
-     * Creates a RateLimiter.
+     * Creates a RateLimiter whose permissions are refreshed by the {@link LimitRefreshScheduler#shared()} scheduler.
      *
      * @param name              the name of the RateLimiter
      * @param rateLimiterConfig The RateLimiter configuration.
      */
     public SemaphoreBasedRateLimiter(final String name, final RateLimiterConfig rateLimiterConfig) {
-        this(name, rateLimiterConfig, null);
+        this(name, rateLimiterConfig, LimitRefreshScheduler.shared());
     }
 
     /**
@@ -66,43 +77,78 @@ public class SemaphoreBasedRateLimiter implements RateLimiter {
      *
      * @param name              the name of the RateLimiter
      * @param rateLimiterConfig The RateLimiter configuration.
-     * @param scheduler         executor that will refresh permissions
+     * @param scheduler         executor that will refresh permissions,
+     *                          the {@link LimitRefreshScheduler#shared()} scheduler is used if it is null
      */
     public SemaphoreBasedRateLimiter(String name, RateLimiterConfig rateLimiterConfig,
                                      ScheduledExecutorService scheduler) {
+        this(name, rateLimiterConfig,
+            scheduler == null ? LimitRefreshScheduler.shared() : new LimitRefreshScheduler(scheduler));
+    }
+
+    /**
+     * Creates a RateLimiter.
+     *
+     * @param name                  the name of the RateLimiter
+     * @param rateLimiterConfig     The RateLimiter configuration.
+     * @param limitRefreshScheduler the scheduler that will refresh permissions
+     */
+    public SemaphoreBasedRateLimiter(String name, RateLimiterConfig rateLimiterConfig,
+                                     LimitRefreshScheduler limitRefreshScheduler) {
         this.name = requireNonNull(name, NAME_MUST_NOT_BE_NULL);
         this.rateLimiterConfig = new AtomicReference<>(requireNonNull(rateLimiterConfig, CONFIG_MUST_NOT_BE_NULL));
 
-        this.scheduler = Option.of(scheduler).getOrElse(this::configureScheduler);
-        this.semaphore = new Semaphore(this.rateLimiterConfig.get().getLimitForPeriod(), true);
+        this.semaphore = new ResizableSemaphore(this.rateLimiterConfig.get().getLimitForPeriod());
         this.metrics = this.new SemaphoreBasedRateLimiterMetrics();
 
         this.eventProcessor = new RateLimiterEventProcessor();
 
-        scheduleLimitRefresh();
+        this.limitRefreshScheduler = limitRefreshScheduler;
+        this.limitRefreshPeriodInNanos = this.rateLimiterConfig.get().getLimitRefreshPeriodInNanos();
+        this.lastLimitRefreshNanos = System.nanoTime();
+        this.limitRefresh = scheduleLimitRefresh(limitRefreshPeriodInNanos);
     }
 
-    private ScheduledExecutorService configureScheduler() {
-        ThreadFactory threadFactory = target -> {
-            Thread thread = new Thread(target, "SchedulerForSemaphoreBasedRateLimiterImpl-" + name);
-            thread.setDaemon(true);
-            return thread;
-        };
-        return newSingleThreadScheduledExecutor(threadFactory);
+    void refreshLimit() {
+        lastLimitRefreshNanos = System.nanoTime();
+        RateLimiterConfig currentConfig = this.rateLimiterConfig.get();
+        int permissionsToRelease = currentConfig.getLimitForPeriod() - semaphore.availablePermits();
+        if (permissionsToRelease > 0) {
+            semaphore.release(permissionsToRelease);
+        } else if (permissionsToRelease < 0) {
+            semaphore.reducePermits(-permissionsToRelease);
+        }
+        if (currentConfig.getLimitRefreshPeriodInNanos() != limitRefreshPeriodInNanos) {
+            rescheduleLimitRefresh(currentConfig.getLimitRefreshPeriodInNanos());
+        }
     }
 
-    private void scheduleLimitRefresh() {
-        scheduler.scheduleAtFixedRate(
-            this::refreshLimit,
-            this.rateLimiterConfig.get().getLimitRefreshPeriodInNanos(),
-            this.rateLimiterConfig.get().getLimitRefreshPeriodInNanos(),
-            TimeUnit.NANOSECONDS
-        );
+    private synchronized void rescheduleLimitRefresh(long periodInNanos) {
+        if (closed || periodInNanos == limitRefreshPeriodInNanos) {
+            return;
+        }
+        limitRefresh.cancel();
+        limitRefresh = scheduleLimitRefresh(periodInNanos);
+        limitRefreshPeriodInNanos = periodInNanos;
     }
 
-    void refreshLimit() {
-        int permissionsToRelease = this.rateLimiterConfig.get().getLimitForPeriod() - semaphore.availablePermits();
-        semaphore.release(permissionsToRelease);
+    private LimitRefreshScheduler.Registration scheduleLimitRefresh(long periodInNanos) {
+        long tickPeriodInNanos = LimitRefreshScheduler.tickPeriodOf(periodInNanos);
+        if (tickPeriodInNanos != periodInNanos) {
+            LOG.warn("The limit refresh period of {}ns of RateLimiter '{}' is shorter than {}ns, "
+                + "its permissions are only refreshed every {}ns", periodInNanos, name, tickPeriodInNanos, tickPeriodInNanos);
+        }
+        return limitRefreshScheduler.schedule(periodInNanos, this::refreshLimit);
+    }
+
+    /**
+     * Stops the refresh of the permissions. The permissions which are left can still be acquired,
+     * but no new permissions are released after the rate limiter has been closed.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        limitRefresh.cancel();
     }
 
     /**
@@ -110,10 +156,9 @@ public class SemaphoreBasedRateLimiter implements RateLimiter {
      */
     @Override
     public void changeTimeoutDuration(Duration timeoutDuration) {
-        RateLimiterConfig newConfig = RateLimiterConfig.from(rateLimiterConfig.get())
+        changeConfig(RateLimiterConfig.from(rateLimiterConfig.get())
                 .timeoutDuration(timeoutDuration)
-                .build();
-        rateLimiterConfig.set(newConfig);
+                .build());
     }
 
     /**
@@ -121,10 +166,23 @@ public class SemaphoreBasedRateLimiter implements RateLimiter {
      */
     @Override
     public void changeLimitForPeriod(int limitForPeriod) {
-        RateLimiterConfig newConfig = RateLimiterConfig.from(rateLimiterConfig.get())
+        changeConfig(RateLimiterConfig.from(rateLimiterConfig.get())
                 .limitForPeriod(limitForPeriod)
-                .build();
-        rateLimiterConfig.set(newConfig);
+                .build());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Waiting callers wait for the released permissions, so they are served with the new limit from the next
+     * refresh on. Permissions which are acquired in the current period are not taken back.
+     */
+    @Override
+    public void changeConfig(RateLimiterConfig newConfig) {
+        requireNonNull(newConfig, CONFIG_MUST_NOT_BE_NULL);
+        RateLimiterConfig previousConfig = rateLimiterConfig.getAndSet(newConfig);
+        if (eventProcessor.hasConsumers()) {
+            eventProcessor.consumeEvent(new RateLimiterOnConfigChangedEvent(name, previousConfig, newConfig));
+        }
     }
 
     /**
@@ -132,17 +190,68 @@ public class SemaphoreBasedRateLimiter implements RateLimiter {
      */
     @Override
     public boolean getPermission(final Duration timeoutDuration) {
+        return getPermission(1, timeoutDuration);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getPermission(final int permits, final Duration timeoutDuration) {
+        requirePositive(permits);
         try {
-            boolean success = semaphore.tryAcquire(timeoutDuration.toNanos(), TimeUnit.NANOSECONDS);
-            publishRateLimiterEvent(success);
+            boolean success = semaphore.tryAcquire(permits, timeoutDuration.toNanos(), TimeUnit.NANOSECONDS);
+            publishRateLimiterEvent(eventProcessor, name, success);
             return success;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            publishRateLimiterEvent(false);
+            publishRateLimiterEvent(eventProcessor, name, false);
             return false;
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long reservePermission(final Duration timeoutDuration) {
+        return reservePermission(1, timeoutDuration);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>A SemaphoreBasedRateLimiter cannot reserve permissions of future periods,
+     * so it only returns permissions which are available immediately.
+     * Asynchronous callers try again after the next refresh, see {@link #acquireInCurrentPeriod(int, long)}.
+     */
+    @Override
+    public long reservePermission(final int permits, final Duration timeoutDuration) {
+        requirePositive(permits);
+        boolean success = semaphore.tryAcquire(permits);
+        publishRateLimiterEvent(eventProcessor, name, success);
+        return success ? 0 : -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The next period starts with the next refresh of the permissions.
+     */
+    @Override
+    public long acquireInCurrentPeriod(final int permits, final long timeoutInNanos) {
+        requirePositive(permits);
+        if (semaphore.tryAcquire(permits)) {
+            publishRateLimiterEvent(eventProcessor, name, true);
+            return 0;
+        }
+        long nanosToNextRefresh = Long.max(1L,
+            lastLimitRefreshNanos + LimitRefreshScheduler.tickPeriodOf(limitRefreshPeriodInNanos) - System.nanoTime());
+        if (permits <= rateLimiterConfig.get().getLimitForPeriod() && nanosToNextRefresh <= timeoutInNanos) {
+            return nanosToNextRefresh;
+        }
+        publishRateLimiterEvent(eventProcessor, name, false);
+        return -1;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -203,14 +312,18 @@ public class SemaphoreBasedRateLimiter implements RateLimiter {
         }
     }
 
-    private void publishRateLimiterEvent(boolean permissionAcquired) {
-        if (!eventProcessor.hasConsumers()) {
-            return;
+    /**
+     * A fair {@link Semaphore} which can be shrunk, so that a decreased limit for period is applied
+     * although some callers have not used the permissions of the last period.
+     */
+    private static final class ResizableSemaphore extends Semaphore {
+        private ResizableSemaphore(int permits) {
+            super(permits, true);
         }
-        if (permissionAcquired) {
-            eventProcessor.consumeEvent(new RateLimiterOnSuccessEvent(name));
-            return;
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
         }
-        eventProcessor.consumeEvent(new RateLimiterOnFailureEvent(name));
     }
 }
@@ -0,0 +1,403 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.ratelimiter.internal;
+
+import io.github.resilience4j.core.NanoClock;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.event.RateLimiterOnConfigChangedEvent;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static io.github.resilience4j.ratelimiter.internal.RateLimiterSupport.publishRateLimiterEvent;
+import static io.github.resilience4j.ratelimiter.internal.RateLimiterSupport.requirePositive;
+import static io.github.resilience4j.ratelimiter.internal.RateLimiterSupport.waitForPermission;
+import static java.lang.Thread.currentThread;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link StripedAtomicRateLimiter} splits time into cycles like the {@link AtomicRateLimiter},
+ * but splits the {@link RateLimiterConfig#limitForPeriod} of each cycle across several stripes.
+ * <p>Every thread acquires its permissions from its own home stripe first and steals the leftover permissions
+ * of the other stripes, if its home stripe is exhausted. Threads on different stripes don't contend with each other,
+ * which keeps the throughput of the rate limiter scaling on machines with many cores.
+ * <p>The state of each stripe is packed into a single long of an {@link AtomicLongArray}:
+ * the upper 32 bits hold the low bits of the stripe's cycle, the lower 32 bits hold its available permissions.
+ * Acquiring a permission does not allocate. Stripes are padded to avoid false sharing.
+ * <p>Unlike the {@link AtomicRateLimiter}, permissions of future cycles can't be reserved. A caller which doesn't
+ * get enough permissions in the current cycle waits for the next cycle and tries again within its timeout.
+ * Requests for more permissions than {@link RateLimiterConfig#limitForPeriod} are therefore never permitted.
+ * <p>The cycles are mapped to times by a {@link CycleSchedule}, so a configuration change starts with the next cycle.
+ */
+public class StripedAtomicRateLimiter implements CurrentPeriodRateLimiter {
+    private static final String CONFIG_MUST_NOT_BE_NULL = "RateLimiterConfig must not be null";
+    private static final int PADDING = 16; // 128 bytes between two stripes
+    private static final long PERMISSIONS_MASK = 0xFFFF_FFFFL;
+
+    private final String name;
+    private final NanoClock clock;
+    private final long nanoTimeStart;
+    private final int numberOfStripes;
+    private final int stripeMask;
+    private final AtomicLongArray stripes;
+    private final AtomicInteger waitingThreads;
+    private final RateLimiterEventProcessor eventProcessor;
+    private final StripedAtomicRateLimiterMetrics metrics;
+    private volatile RateLimiterConfig config;
+    private volatile CycleSchedule schedule;
+
+    public StripedAtomicRateLimiter(String name, RateLimiterConfig rateLimiterConfig) {
+        this(name, rateLimiterConfig, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a {@link StripedAtomicRateLimiter}.
+     *
+     * @param name              the name of the rate limiter
+     * @param rateLimiterConfig the configuration of the rate limiter
+     * @param numberOfStripes   the number of stripes, which is rounded up to the next power of two
+     */
+    public StripedAtomicRateLimiter(String name, RateLimiterConfig rateLimiterConfig, int numberOfStripes) {
+        this(name, rateLimiterConfig, numberOfStripes, NanoClock.system());
+    }
+
+    StripedAtomicRateLimiter(String name, RateLimiterConfig rateLimiterConfig, int numberOfStripes, NanoClock clock) {
+        if (numberOfStripes < 1) {
+            throw new IllegalArgumentException("NumberOfStripes must be greater than 0");
+        }
+        this.name = name;
+        this.config = rateLimiterConfig;
+        this.schedule = CycleSchedule.of(rateLimiterConfig);
+        this.clock = clock;
+        this.nanoTimeStart = clock.nanoTime();
+        this.numberOfStripes = numberOfStripes == 1 ? 1 : Integer.highestOneBit(numberOfStripes - 1) << 1;
+        this.stripeMask = this.numberOfStripes - 1;
+        this.stripes = new AtomicLongArray(this.numberOfStripes * PADDING);
+        for (int stripe = 0; stripe < this.numberOfStripes; stripe++) {
+            stripes.set(stripe * PADDING, pack(0, permissionsPerStripe(stripe, rateLimiterConfig.getLimitForPeriod())));
+        }
+        this.waitingThreads = new AtomicInteger(0);
+        this.eventProcessor = new RateLimiterEventProcessor();
+        this.metrics = new StripedAtomicRateLimiterMetrics();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void changeTimeoutDuration(final Duration timeoutDuration) {
+        changeConfig(RateLimiterConfig.from(config)
+            .timeoutDuration(timeoutDuration)
+            .build());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The new limit is distributed across the stripes from the next cycle on.
+     */
+    @Override
+    public void changeLimitForPeriod(final int limitForPeriod) {
+        changeConfig(RateLimiterConfig.from(config)
+            .limitForPeriod(limitForPeriod)
+            .build());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Waiting callers only wait for the start of the next cycle, which is not moved by a change.
+     */
+    @Override
+    public void changeConfig(final RateLimiterConfig rateLimiterConfig) {
+        requireNonNull(rateLimiterConfig, CONFIG_MUST_NOT_BE_NULL);
+        RateLimiterConfig previousConfig;
+        synchronized (this) {
+            previousConfig = config;
+            boolean limitsChanged = previousConfig.getLimitForPeriod() != rateLimiterConfig.getLimitForPeriod()
+                || previousConfig.getLimitRefreshPeriodInNanos() != rateLimiterConfig.getLimitRefreshPeriodInNanos();
+            if (limitsChanged) {
+                schedule = schedule.changedAt(currentNanoTime(), rateLimiterConfig);
+            }
+            config = rateLimiterConfig;
+        }
+        if (eventProcessor.hasConsumers()) {
+            eventProcessor.consumeEvent(new RateLimiterOnConfigChangedEvent(name, previousConfig, rateLimiterConfig));
+        }
+    }
+
+    /**
+     * Calculates time elapsed from the creation of the rate limiter.
+     */
+    private long currentNanoTime() {
+        return clock.nanoTime() - nanoTimeStart;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getPermission(final Duration timeoutDuration) {
+        return getPermission(1, timeoutDuration);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getPermission(final int permits, final Duration timeoutDuration) {
+        requirePositive(permits);
+        boolean result = acquirePermissions(permits, timeoutDuration.toNanos());
+        publishRateLimiterEvent(eventProcessor, name, result);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long reservePermission(final Duration timeoutDuration) {
+        return reservePermission(1, timeoutDuration);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Permissions of future cycles can't be reserved, so this method either acquires
+     * the permissions immediately or fails. Asynchronous callers try again in the next cycle,
+     * see {@link #acquireInCurrentPeriod(int, long)}.
+     */
+    @Override
+    public long reservePermission(final int permits, final Duration timeoutDuration) {
+        requirePositive(permits);
+        CycleSchedule currentSchedule = schedule;
+        long cycle = currentSchedule.cycleAt(currentNanoTime());
+        boolean result = acquireInCycle(permits, cycle, currentSchedule.permissionsPerCycle(cycle));
+        publishRateLimiterEvent(eventProcessor, name, result);
+        return result ? 0 : -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The next period is the next cycle.
+     */
+    @Override
+    public long acquireInCurrentPeriod(final int permits, final long timeoutInNanos) {
+        requirePositive(permits);
+        CycleSchedule currentSchedule = schedule;
+        long currentNanos = currentNanoTime();
+        long cycle = currentSchedule.cycleAt(currentNanos);
+        if (acquireInCycle(permits, cycle, currentSchedule.permissionsPerCycle(cycle))) {
+            publishRateLimiterEvent(eventProcessor, name, true);
+            return 0;
+        }
+        long nanosToNextCycle = currentSchedule.startOf(cycle + 1) - currentNanos;
+        if (permits <= currentSchedule.permissionsPerCycle(cycle + 1) && nanosToNextCycle <= timeoutInNanos) {
+            return nanosToNextCycle;
+        }
+        publishRateLimiterEvent(eventProcessor, name, false);
+        return -1;
+    }
+
+    /**
+     * Tries to acquire the permissions in the current cycle and waits for the next cycles,
+     * as long as the timeout allows it.
+     *
+     * @param permits        the number of permissions to acquire
+     * @param timeoutInNanos max time that caller can wait for permission in nanoseconds
+     * @return true if the permissions were acquired before the timeout elapsed
+     */
+    private boolean acquirePermissions(final int permits, final long timeoutInNanos) {
+        long remainingNanos = timeoutInNanos;
+        while (true) {
+            CycleSchedule currentSchedule = schedule;
+            long currentNanos = currentNanoTime();
+            long cycle = currentSchedule.cycleAt(currentNanos);
+            if (acquireInCycle(permits, cycle, currentSchedule.permissionsPerCycle(cycle))) {
+                return true;
+            }
+            long nanosToNextCycle = currentSchedule.startOf(cycle + 1) - currentNanos;
+            boolean canAcquireInTime = permits <= currentSchedule.permissionsPerCycle(cycle + 1)
+                && remainingNanos >= nanosToNextCycle;
+            if (!canAcquireInTime) {
+                if (remainingNanos > 0) {
+                    waitForPermission(clock, waitingThreads, remainingNanos);
+                }
+                return false;
+            }
+            if (!waitForPermission(clock, waitingThreads, nanosToNextCycle)) {
+                return false;
+            }
+            remainingNanos -= currentNanoTime() - currentNanos;
+        }
+    }
+
+    /**
+     * Acquires the permissions from the home stripe of the current thread
+     * and steals the missing permissions from the other stripes.
+     * If the stripes don't hold enough permissions, the collected permissions are given back to the home stripe.
+     * Requests for more permissions than the limit for period are rejected without touching the stripes.
+     *
+     * @param permits        the number of permissions to acquire
+     * @param cycle          the current cycle
+     * @param limitForPeriod the limit for period of the current cycle
+     * @return true if all permissions were acquired
+     */
+    private boolean acquireInCycle(final int permits, final long cycle, final int limitForPeriod) {
+        if (permits > limitForPeriod) {
+            return false;
+        }
+        int homeStripe = (int) currentThread().getId() & stripeMask;
+        int acquired = 0;
+        for (int i = 0; i < numberOfStripes && acquired < permits; i++) {
+            acquired += acquireFromStripe((homeStripe + i) & stripeMask, permits - acquired, cycle, limitForPeriod);
+        }
+        if (acquired == permits) {
+            return true;
+        }
+        if (acquired > 0) {
+            releaseToStripe(homeStripe, acquired, cycle, limitForPeriod);
+        }
+        return false;
+    }
+
+    private int acquireFromStripe(final int stripe, final int permits, final long cycle, final int limitForPeriod) {
+        int index = stripe * PADDING;
+        long prev;
+        int available;
+        int taken;
+        do {
+            prev = stripes.get(index);
+            available = availablePermissions(prev, stripe, cycle, limitForPeriod);
+            if (available <= 0) {
+                return 0;
+            }
+            taken = Math.min(available, permits);
+        } while (!stripes.compareAndSet(index, prev, pack(cycle, available - taken)));
+        return taken;
+    }
+
+    /**
+     * Gives permissions of the given cycle back to a stripe. A stripe which was last used in an earlier cycle
+     * is moved into the given cycle first, so the permissions are not lost, even if the stripe's own share is 0.
+     */
+    private void releaseToStripe(final int stripe, final int permits, final long cycle, final int limitForPeriod) {
+        int index = stripe * PADDING;
+        long prev;
+        int available;
+        do {
+            prev = stripes.get(index);
+            if (cycleOf(prev) - (int) cycle > 0) {
+                return; // the stripe is already in a later cycle, the permissions of an elapsed cycle are gone anyway
+            }
+            available = availablePermissions(prev, stripe, cycle, limitForPeriod);
+        } while (!stripes.compareAndSet(index, prev, pack(cycle, available + permits)));
+    }
+
+    /**
+     * Returns the available permissions of a stripe in the given cycle.
+     * A stripe which was last used in an earlier cycle gets its share of the limit for period.
+     */
+    private int availablePermissions(final long packedState, final int stripe, final long cycle, final int limitForPeriod) {
+        if (cycleOf(packedState) == (int) cycle) {
+            return (int) (packedState & PERMISSIONS_MASK);
+        }
+        return permissionsPerStripe(stripe, limitForPeriod);
+    }
+
+    /**
+     * Splits the limit for period evenly across the stripes, the first stripes get the remainder.
+     */
+    private int permissionsPerStripe(final int stripe, final int limitForPeriod) {
+        int share = limitForPeriod / numberOfStripes;
+        return stripe < limitForPeriod % numberOfStripes ? share + 1 : share;
+    }
+
+    private static long pack(final long cycle, final int permissions) {
+        return (cycle << 32) | (permissions & PERMISSIONS_MASK);
+    }
+
+    private static int cycleOf(final long packedState) {
+        return (int) (packedState >>> 32);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RateLimiterConfig getRateLimiterConfig() {
+        return config;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return eventProcessor;
+    }
+
+    @Override public String toString() {
+        return "StripedAtomicRateLimiter{" +
+            "name='" + name + '\'' +
+            ", numberOfStripes=" + numberOfStripes +
+            ", rateLimiterConfig=" + config +
+            '}';
+    }
+
+    private final class StripedAtomicRateLimiterMetrics implements Metrics {
+
+        private StripedAtomicRateLimiterMetrics() {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getNumberOfWaitingThreads() {
+            return waitingThreads.get();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getAvailablePermissions() {
+            CycleSchedule currentSchedule = schedule;
+            long cycle = currentSchedule.cycleAt(currentNanoTime());
+            int limitForPeriod = currentSchedule.permissionsPerCycle(cycle);
+            int availablePermissions = 0;
+            for (int stripe = 0; stripe < numberOfStripes; stripe++) {
+                availablePermissions += availablePermissions(stripes.get(stripe * PADDING), stripe, cycle, limitForPeriod);
+            }
+            return availablePermissions;
+        }
+    }
+}
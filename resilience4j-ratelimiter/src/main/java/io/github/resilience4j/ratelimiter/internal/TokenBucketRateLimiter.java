@@ -0,0 +1,268 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.ratelimiter.internal;
+
+import io.github.resilience4j.core.NanoClock;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.event.RateLimiterOnConfigChangedEvent;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.github.resilience4j.ratelimiter.internal.RateLimiterSupport.publishRateLimiterEvent;
+import static io.github.resilience4j.ratelimiter.internal.RateLimiterSupport.requirePositive;
+import static io.github.resilience4j.ratelimiter.internal.RateLimiterSupport.waitForPermissionIfNecessary;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * {@link TokenBucketRateLimiter} refills its permissions continuously with nanosecond granularity at a rate of
+ * {@link RateLimiterConfig#limitForPeriod} permissions per {@link RateLimiterConfig#limitRefreshPeriod}.
+ * <p>Unused permissions accumulate up to {@link RateLimiterConfig#getBurstCapacity()}, which allows short bursts
+ * above the steady rate. Like the {@link AtomicRateLimiter} it reserves permissions for callers
+ * which are willing to wait for them.
+ * <p>The whole state is the time at which the bucket is full again, which is updated with a single
+ * compare-and-set on an {@link AtomicLong}. A request for {@code n} permissions moves this time
+ * {@code n} emission intervals into the future. It is permitted immediately, as long as this time
+ * stays within the burst capacity from now, otherwise the caller has to wait for the difference.
+ */
+public class TokenBucketRateLimiter implements RateLimiter {
+
+    private static final String CONFIG_MUST_NOT_BE_NULL = "RateLimiterConfig must not be null";
+
+    private final String name;
+    private final NanoClock clock;
+    private final long nanoTimeStart;
+    private final AtomicLong bucketFullAt;
+    private final AtomicInteger waitingThreads;
+    private final RateLimiterEventProcessor eventProcessor;
+    private final TokenBucketRateLimiterMetrics metrics;
+    private volatile RateLimiterConfig config;
+
+    public TokenBucketRateLimiter(String name, RateLimiterConfig rateLimiterConfig) {
+        this(name, rateLimiterConfig, NanoClock.system());
+    }
+
+    TokenBucketRateLimiter(String name, RateLimiterConfig rateLimiterConfig, NanoClock clock) {
+        this.name = name;
+        this.config = rateLimiterConfig;
+        this.clock = clock;
+        this.nanoTimeStart = clock.nanoTime();
+        this.bucketFullAt = new AtomicLong(0);
+        this.waitingThreads = new AtomicInteger(0);
+        this.eventProcessor = new RateLimiterEventProcessor();
+        this.metrics = new TokenBucketRateLimiterMetrics();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void changeTimeoutDuration(final Duration timeoutDuration) {
+        changeConfig(RateLimiterConfig.from(config)
+            .timeoutDuration(timeoutDuration)
+            .build());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The missing permissions of the bucket are preserved, they are refilled at the new rate.
+     */
+    @Override
+    public void changeLimitForPeriod(final int limitForPeriod) {
+        changeConfig(RateLimiterConfig.from(config)
+            .limitForPeriod(limitForPeriod)
+            .build());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The bucket is refilled continuously and has no periods, so the new rate applies immediately.
+     * The missing permissions of the bucket are preserved, they are refilled at the new rate.
+     * Waiting callers keep the waiting time which was calculated when they reserved their permissions.
+     */
+    @Override
+    public void changeConfig(final RateLimiterConfig rateLimiterConfig) {
+        requireNonNull(rateLimiterConfig, CONFIG_MUST_NOT_BE_NULL);
+        RateLimiterConfig previousConfig;
+        synchronized (this) {
+            previousConfig = config;
+            double rateRatio = nanosPerPermission(rateLimiterConfig) / nanosPerPermission(previousConfig);
+            config = rateLimiterConfig;
+            long prev;
+            long next;
+            do {
+                prev = bucketFullAt.get();
+                long currentNanos = currentNanoTime();
+                long nanosToFullBucket = max(0L, prev - currentNanos);
+                next = currentNanos + Math.round(nanosToFullBucket * rateRatio);
+            } while (!bucketFullAt.compareAndSet(prev, next));
+        }
+        if (eventProcessor.hasConsumers()) {
+            eventProcessor.consumeEvent(new RateLimiterOnConfigChangedEvent(name, previousConfig, rateLimiterConfig));
+        }
+    }
+
+    /**
+     * Calculates time elapsed from the creation of the rate limiter.
+     */
+    private long currentNanoTime() {
+        return clock.nanoTime() - nanoTimeStart;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getPermission(final Duration timeoutDuration) {
+        return getPermission(1, timeoutDuration);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getPermission(final int permits, final Duration timeoutDuration) {
+        requirePositive(permits);
+        long timeoutInNanos = timeoutDuration.toNanos();
+        long nanosToWait = reservePermissions(permits, timeoutInNanos);
+        boolean result = waitForPermissionIfNecessary(clock, waitingThreads, timeoutInNanos, nanosToWait);
+        publishRateLimiterEvent(eventProcessor, name, result);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long reservePermission(final Duration timeoutDuration) {
+        return reservePermission(1, timeoutDuration);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long reservePermission(final int permits, final Duration timeoutDuration) {
+        requirePositive(permits);
+        long timeoutInNanos = timeoutDuration.toNanos();
+        long nanosToWait = reservePermissions(permits, timeoutInNanos);
+        boolean canAcquireInTime = timeoutInNanos >= nanosToWait;
+        publishRateLimiterEvent(eventProcessor, name, canAcquireInTime);
+        return canAcquireInTime ? nanosToWait : -1;
+    }
+
+    /**
+     * Takes the permissions from the bucket, if the caller can wait long enough for them.
+     * After a failed compare-and-set the caller backs off like in the {@link AtomicRateLimiter}.
+     *
+     * @param permits        the number of permissions to take
+     * @param timeoutInNanos max time that caller can wait for permission in nanoseconds
+     * @return nanoseconds to wait for the requested permissions
+     */
+    private long reservePermissions(final int permits, final long timeoutInNanos) {
+        while (true) {
+            long prev = bucketFullAt.get();
+            RateLimiterConfig currentConfig = config;
+            double nanosPerPermission = nanosPerPermission(currentConfig);
+            long currentNanos = currentNanoTime();
+
+            long next = max(prev, currentNanos) + Math.round(permits * nanosPerPermission);
+            long capacityInNanos = Math.round(currentConfig.getBurstCapacity() * nanosPerPermission);
+            long nanosToWait = max(0L, next - currentNanos - capacityInNanos);
+            if (timeoutInNanos < nanosToWait) {
+                return nanosToWait;
+            }
+            if (bucketFullAt.compareAndSet(prev, next)) {
+                return nanosToWait;
+            }
+            parkNanos(1); // back-off
+        }
+    }
+
+    private static double nanosPerPermission(final RateLimiterConfig config) {
+        return config.getLimitRefreshPeriodInNanos() / (double) config.getLimitForPeriod();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RateLimiterConfig getRateLimiterConfig() {
+        return config;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return eventProcessor;
+    }
+
+    @Override public String toString() {
+        return "TokenBucketRateLimiter{" +
+            "name='" + name + '\'' +
+            ", rateLimiterConfig=" + config +
+            '}';
+    }
+
+    private final class TokenBucketRateLimiterMetrics implements Metrics {
+
+        private TokenBucketRateLimiterMetrics() {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getNumberOfWaitingThreads() {
+            return waitingThreads.get();
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>The value is negative if permissions have been reserved for waiting callers.
+         */
+        @Override
+        public int getAvailablePermissions() {
+            RateLimiterConfig currentConfig = config;
+            double nanosPerPermission = nanosPerPermission(currentConfig);
+            long nanosToFullBucket = max(0L, bucketFullAt.get() - currentNanoTime());
+            long missingPermissions = (long) Math.ceil(nanosToFullBucket / nanosPerPermission);
+            return (int) (currentConfig.getBurstCapacity() - missingPermissions);
+        }
+    }
+}
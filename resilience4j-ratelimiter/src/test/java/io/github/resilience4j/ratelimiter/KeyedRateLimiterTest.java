@@ -0,0 +1,87 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.ratelimiter;
+
+import io.github.resilience4j.ratelimiter.internal.SegmentedKeyedRateLimiter;
+import io.vavr.control.Try;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class KeyedRateLimiterTest {
+
+    private KeyedRateLimiter<String> rateLimiter;
+
+    @Before
+    public void init() {
+        RateLimiterConfig config = RateLimiterConfig.custom()
+            .limitForPeriod(1)
+            .limitRefreshPeriod(Duration.ofMinutes(1))
+            .timeoutDuration(Duration.ZERO)
+            .build();
+        rateLimiter = KeyedRateLimiter.of("keyed", config, 10);
+    }
+
+    @Test
+    public void shouldCreateSegmentedKeyedRateLimiter() {
+        then(rateLimiter).isInstanceOf(SegmentedKeyedRateLimiter.class);
+        then(rateLimiter.getName()).isEqualTo("keyed");
+        then(rateLimiter.getMetrics().getMaxNumberOfKeys()).isEqualTo(10);
+    }
+
+    @Test
+    public void decorateSupplier() {
+        Supplier<String> supplier = KeyedRateLimiter.decorateSupplier(rateLimiter, "client", () -> "Hello");
+
+        then(supplier.get()).isEqualTo("Hello");
+        Try<String> secondTry = Try.ofSupplier(supplier);
+        then(secondTry.isFailure()).isTrue();
+        then(secondTry.getCause()).isInstanceOf(RequestNotPermitted.class);
+        then(KeyedRateLimiter.decorateSupplier(rateLimiter, "otherClient", () -> "World").get()).isEqualTo("World");
+    }
+
+    @Test
+    public void decorateFunctionWithKeyOfArgument() {
+        Function<String, Integer> function = KeyedRateLimiter.decorateFunction(rateLimiter, Function.identity(), String::length);
+
+        then(function.apply("first")).isEqualTo(5);
+        then(function.apply("second")).isEqualTo(6);
+        Try<Integer> secondTry = Try.of(() -> function.apply("first"));
+        then(secondTry.isFailure()).isTrue();
+        then(secondTry.getCause()).isInstanceOf(RequestNotPermitted.class);
+    }
+
+    @Test
+    public void decorateRunnable() {
+        int[] runs = new int[1];
+        Runnable runnable = KeyedRateLimiter.decorateRunnable(rateLimiter, "client", () -> runs[0]++);
+
+        runnable.run();
+        Try<Void> secondTry = Try.run(runnable::run);
+
+        then(runs[0]).isEqualTo(1);
+        then(secondTry.isFailure()).isTrue();
+        then(secondTry.getCause()).isInstanceOf(RequestNotPermitted.class);
+    }
+}
@@ -86,4 +86,56 @@ public class RateLimiterConfigTest {
         RateLimiterConfig.custom()
             .limitForPeriod(0);
     }
+
+    @Test
+    public void burstCapacityShouldDefaultToLimitForPeriod() throws Exception {
+        RateLimiterConfig config = RateLimiterConfig.custom()
+            .limitForPeriod(LIMIT)
+            .build();
+
+        then(config.getBurstCapacity()).isEqualTo(LIMIT);
+        then(config.getRateLimiterType()).isEqualTo(RateLimiterConfig.RateLimiterType.ATOMIC);
+        then(RateLimiterConfig.from(config).limitForPeriod(LIMIT * 2).build().getBurstCapacity()).isEqualTo(LIMIT * 2);
+    }
+
+    @Test
+    public void builderTokenBucketWithBurstCapacity() throws Exception {
+        RateLimiterConfig config = RateLimiterConfig.custom()
+            .limitForPeriod(LIMIT)
+            .burstCapacity(LIMIT * 3)
+            .rateLimiterType(RateLimiterConfig.RateLimiterType.TOKEN_BUCKET)
+            .build();
+
+        then(config.getBurstCapacity()).isEqualTo(LIMIT * 3);
+        then(config.getRateLimiterType()).isEqualTo(RateLimiterConfig.RateLimiterType.TOKEN_BUCKET);
+        then(RateLimiterConfig.from(config).build().getBurstCapacity()).isEqualTo(LIMIT * 3);
+    }
+
+    @Test
+    public void fairCallHandlingShouldBeDisabledByDefault() throws Exception {
+        RateLimiterConfig config = RateLimiterConfig.ofDefaults();
+        then(config.isFairCallHandling()).isFalse();
+
+        RateLimiterConfig fairConfig = RateLimiterConfig.custom()
+            .fairCallHandling(true)
+            .build();
+        then(fairConfig.isFairCallHandling()).isTrue();
+        then(RateLimiterConfig.from(fairConfig).limitForPeriod(LIMIT).build().isFairCallHandling()).isTrue();
+    }
+
+    @Test
+    public void builderBurstCapacityIsLessThanOne() throws Exception {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("BurstCapacity should be greater than 0");
+        RateLimiterConfig.custom()
+            .burstCapacity(0);
+    }
+
+    @Test
+    public void builderRateLimiterTypeIsNull() throws Exception {
+        exception.expect(NullPointerException.class);
+        exception.expectMessage("RateLimiterType must not be null");
+        RateLimiterConfig.custom()
+            .rateLimiterType(null);
+    }
 }
@@ -88,5 +88,16 @@ public class RateLimiterEventPublisherTest {
         then(logger).should(times(1)).info("FAILED_ACQUIRE");
     }
 
+    @Test
+    public void shouldConsumeOnConfigChangedEvent() throws Throwable {
+        rateLimiter.getEventPublisher()
+                .onConfigChanged(event ->
+                    logger.info(event.getEventType().toString()));
+
+        rateLimiter.changeLimitForPeriod(LIMIT + 1);
+
+        then(logger).should(times(1)).info("CONFIG_CHANGED");
+    }
+
 
 }
\ No newline at end of file
@@ -38,6 +38,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.BDDMockito;
 
+import io.github.resilience4j.ratelimiter.internal.AtomicRateLimiter;
+import io.github.resilience4j.ratelimiter.internal.StripedAtomicRateLimiter;
+import io.github.resilience4j.ratelimiter.internal.TokenBucketRateLimiter;
 import io.vavr.CheckedFunction0;
 import io.vavr.CheckedFunction1;
 import io.vavr.CheckedRunnable;
@@ -47,6 +50,8 @@ import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -78,6 +83,21 @@ public class RateLimiterTest {
             .thenReturn(config);
     }
 
+    @Test
+    public void shouldCreateRateLimiterOfConfiguredType() throws Exception {
+        RateLimiter atomicRateLimiter = RateLimiter.of("atomic", config);
+        RateLimiter stripedRateLimiter = RateLimiter.of("striped", RateLimiterConfig.from(config)
+            .rateLimiterType(RateLimiterConfig.RateLimiterType.STRIPED_ATOMIC)
+            .build());
+        RateLimiter tokenBucketRateLimiter = RateLimiter.of("tokenBucket", () -> RateLimiterConfig.from(config)
+            .rateLimiterType(RateLimiterConfig.RateLimiterType.TOKEN_BUCKET)
+            .build());
+
+        then(atomicRateLimiter).isInstanceOf(AtomicRateLimiter.class);
+        then(stripedRateLimiter).isInstanceOf(StripedAtomicRateLimiter.class);
+        then(tokenBucketRateLimiter).isInstanceOf(TokenBucketRateLimiter.class);
+    }
+
     @Test
     public void decorateCheckedSupplier() throws Throwable {
         CheckedFunction0 supplier = mock(CheckedFunction0.class);
@@ -226,8 +246,8 @@ public class RateLimiterTest {
 
         Supplier<CompletionStage<String>> decorated = RateLimiter.decorateCompletionStage(limit, completionStage);
 
-        when(limit.getPermission(config.getTimeoutDuration()))
-            .thenReturn(false);
+        when(limit.reservePermission(config.getTimeoutDuration()))
+            .thenReturn(-1L);
 
         AtomicReference<Throwable> error = new AtomicReference<>(null);
         CompletableFuture<String> notPermittedFuture = decorated.get()
@@ -240,8 +260,8 @@ public class RateLimiterTest {
         then(error.get()).isExactlyInstanceOf(RequestNotPermitted.class);
         verify(supplier, never()).get();
 
-        when(limit.getPermission(config.getTimeoutDuration()))
-            .thenReturn(true);
+        when(limit.reservePermission(config.getTimeoutDuration()))
+            .thenReturn(0L);
 
         AtomicReference<Throwable> shouldBeEmpty = new AtomicReference<>(null);
         CompletableFuture<String> success = decorated.get()
@@ -254,6 +274,94 @@ public class RateLimiterTest {
         verify(supplier).get();
     }
 
+    @Test
+    public void decorateCompletionStageShouldWaitWithoutBlocking() throws Exception {
+        RateLimiter rateLimiter = RateLimiter.of("async", RateLimiterConfig.custom()
+            .limitForPeriod(1)
+            .limitRefreshPeriod(Duration.ofMillis(200))
+            .timeoutDuration(Duration.ofSeconds(1))
+            .build());
+        rateLimiter.getPermission(Duration.ZERO);
+        Supplier<CompletionStage<String>> decorated = RateLimiter.decorateCompletionStage(rateLimiter,
+            () -> CompletableFuture.completedFuture("Resource"));
+
+        CompletableFuture<String> delayed = decorated.get().toCompletableFuture();
+
+        then(delayed.isDone()).isFalse();
+        then(delayed.get(1, TimeUnit.SECONDS)).isEqualTo("Resource");
+        then(rateLimiter.getMetrics().getNumberOfWaitingThreads()).isEqualTo(0);
+    }
+
+    @Test
+    public void decorateCompletionStageShouldWaitForRefreshOfSemaphoreBasedRateLimiter() throws Exception {
+        RateLimiter rateLimiter = RateLimiter.of("async", RateLimiterConfig.custom()
+            .rateLimiterType(RateLimiterConfig.RateLimiterType.SEMAPHORE_BASED)
+            .limitForPeriod(1)
+            .limitRefreshPeriod(Duration.ofMillis(200))
+            .timeoutDuration(Duration.ofSeconds(1))
+            .build());
+        rateLimiter.getPermission(Duration.ZERO);
+        Supplier<CompletionStage<String>> decorated = RateLimiter.decorateCompletionStage(rateLimiter,
+            () -> CompletableFuture.completedFuture("Resource"));
+
+        CompletableFuture<String> delayed = decorated.get().toCompletableFuture();
+
+        then(delayed.isDone()).isFalse();
+        then(delayed.get(1, TimeUnit.SECONDS)).isEqualTo("Resource");
+        then(rateLimiter.getMetrics().getNumberOfWaitingThreads()).isEqualTo(0);
+    }
+
+    @Test
+    public void decorateCompletionStageShouldInvokeSupplierOnExecutorAfterWaiting() throws Exception {
+        RateLimiter rateLimiter = RateLimiter.of("async", RateLimiterConfig.custom()
+            .limitForPeriod(1)
+            .limitRefreshPeriod(Duration.ofMillis(200))
+            .timeoutDuration(Duration.ofSeconds(1))
+            .build());
+        rateLimiter.getPermission(Duration.ZERO);
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "supplier-executor"));
+        Supplier<CompletionStage<String>> decorated = RateLimiter.decorateCompletionStage(rateLimiter,
+            () -> CompletableFuture.completedFuture(Thread.currentThread().getName()), executor);
+
+        try {
+            then(decorated.get().toCompletableFuture().get(1, TimeUnit.SECONDS)).isEqualTo("supplier-executor");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void decorateCompletionStageWithPermitsShouldPropagateFailuresUnwrapped() throws Exception {
+        when(limit.reservePermission(2, config.getTimeoutDuration()))
+            .thenReturn(0L);
+        IllegalStateException failure = new IllegalStateException("failure");
+        CompletableFuture<String> failedStage = new CompletableFuture<>();
+        failedStage.completeExceptionally(failure);
+
+        AtomicReference<Throwable> thrownError = new AtomicReference<>(null);
+        RateLimiter.decorateCompletionStage(limit, 2, (Supplier<CompletionStage<String>>) () -> {
+            throw failure;
+        }).get().whenComplete((v, e) -> thrownError.set(e));
+        AtomicReference<Throwable> stageError = new AtomicReference<>(null);
+        RateLimiter.decorateCompletionStage(limit, 2, () -> failedStage)
+            .get().whenComplete((v, e) -> stageError.set(e));
+
+        then(thrownError.get()).isSameAs(failure);
+        then(stageError.get()).isSameAs(failure);
+    }
+
+    @Test
+    public void acquirePermissionAsyncShouldFailWhenTimeoutIsExceeded() throws Exception {
+        when(limit.reservePermission(config.getTimeoutDuration()))
+            .thenReturn(-1L);
+
+        CompletableFuture<Void> permission = RateLimiter.acquirePermissionAsync(limit).toCompletableFuture();
+
+        then(permission.isCompletedExceptionally()).isTrue();
+        Try<Void> result = Try.of(permission::get);
+        then(result.getCause().getCause()).isExactlyInstanceOf(RequestNotPermitted.class);
+    }
+
     @Test
     public void waitForPermissionWithOne() throws Exception {
         when(limit.getPermission(config.getTimeoutDuration()))
@@ -73,6 +73,15 @@ public class AtomicRateLimiterTest {
         metrics = rateLimiter.getDetailedMetrics();
     }
 
+    private void useFairCallHandling() {
+        rateLimiterConfig = RateLimiterConfig.from(rateLimiterConfig)
+            .fairCallHandling(true)
+            .build();
+        AtomicRateLimiter testLimiter = new AtomicRateLimiter(LIMITER_NAME, rateLimiterConfig);
+        rateLimiter = PowerMockito.spy(testLimiter);
+        metrics = rateLimiter.getDetailedMetrics();
+    }
+
     @Test
     public void notSpyRawTest() {
         AtomicRateLimiter rawLimiter = new AtomicRateLimiter("rawLimiter", rateLimiterConfig);
@@ -149,6 +158,50 @@ public class AtomicRateLimiterTest {
         then(metrics.getNanosToWait()).isEqualTo(CYCLE_IN_NANOS);
     }
 
+    @Test
+    public void reservePermissionWithoutBlocking() throws Exception {
+        setTimeOnNanos(CYCLE_IN_NANOS);
+        long nanosToWait = rateLimiter.reservePermission(Duration.ZERO);
+        then(nanosToWait).isEqualTo(0);
+        then(metrics.getAvailablePermissions()).isEqualTo(0);
+
+        long declinedNanosToWait = rateLimiter.reservePermission(Duration.ofNanos(CYCLE_IN_NANOS - 1));
+        then(declinedNanosToWait).isNegative();
+        then(metrics.getAvailablePermissions()).isEqualTo(0);
+
+        long reservedNanosToWait = rateLimiter.reservePermission(Duration.ofNanos(CYCLE_IN_NANOS));
+        then(reservedNanosToWait).isEqualTo(CYCLE_IN_NANOS);
+        then(metrics.getAvailablePermissions()).isEqualTo(-1);
+        then(metrics.getNumberOfWaitingThreads()).isEqualTo(0);
+    }
+
+    @Test
+    public void reserveMultiplePermissionsAtOnce() throws Exception {
+        setTimeOnNanos(CYCLE_IN_NANOS);
+        long declinedNanosToWait = rateLimiter.reservePermission(3, Duration.ofNanos(CYCLE_IN_NANOS * 2 - 1));
+        then(declinedNanosToWait).isNegative();
+        then(metrics.getAvailablePermissions()).isEqualTo(1);
+
+        long reservedNanosToWait = rateLimiter.reservePermission(3, Duration.ofNanos(CYCLE_IN_NANOS * 2));
+        then(reservedNanosToWait).isEqualTo(CYCLE_IN_NANOS * 2);
+        then(metrics.getAvailablePermissions()).isEqualTo(-2);
+
+        setTimeOnNanos(CYCLE_IN_NANOS * 3);
+        boolean declinedPermission = rateLimiter.getPermission(1, Duration.ZERO);
+        then(declinedPermission).isFalse();
+        then(metrics.getAvailablePermissions()).isEqualTo(0);
+
+        setTimeOnNanos(CYCLE_IN_NANOS * 4);
+        boolean permission = rateLimiter.getPermission(1, Duration.ZERO);
+        then(permission).isTrue();
+        then(metrics.getAvailablePermissions()).isEqualTo(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptNonPositivePermits() throws Exception {
+        rateLimiter.getPermission(0, Duration.ZERO);
+    }
+
     @Test
     public void reserveAndRefresh() throws Exception {
         setTimeOnNanos(CYCLE_IN_NANOS);
@@ -330,6 +383,83 @@ public class AtomicRateLimiterTest {
         then(metrics.getNumberOfWaitingThreads()).isEqualTo(0);
     }
 
+    @Test
+    public void changeRefreshPeriodFromNextCycle() throws Exception {
+        setTimeOnNanos(CYCLE_IN_NANOS);
+        rateLimiter.changeConfig(RateLimiterConfig.from(rateLimiterConfig)
+            .limitForPeriod(PERMISSIONS_RER_CYCLE * 2)
+            .limitRefreshPeriod(Duration.ofNanos(CYCLE_IN_NANOS * 2))
+            .build());
+        then(rateLimiter.getRateLimiterConfig().getLimitRefreshPeriodInNanos()).isEqualTo(CYCLE_IN_NANOS * 2);
+        then(metrics.getAvailablePermissions()).isEqualTo(1);
+        then(rateLimiter.getPermission(Duration.ZERO)).isTrue();
+        then(rateLimiter.getPermission(Duration.ZERO)).isFalse();
+        then(metrics.getNanosToWait()).isEqualTo(CYCLE_IN_NANOS);
+
+        setTimeOnNanos(CYCLE_IN_NANOS * 2 + 10);
+        then(metrics.getCycle()).isEqualTo(2);
+        then(metrics.getAvailablePermissions()).isEqualTo(2);
+        then(rateLimiter.getPermission(2, Duration.ZERO)).isTrue();
+        then(metrics.getNanosToWait()).isEqualTo(CYCLE_IN_NANOS * 2 - 10);
+
+        setTimeOnNanos(CYCLE_IN_NANOS * 4);
+        then(metrics.getCycle()).isEqualTo(3);
+        then(metrics.getAvailablePermissions()).isEqualTo(2);
+    }
+
+    @Test
+    public void waitingThreadFollowsChangedLimit() throws Exception {
+        setTimeOnNanos(CYCLE_IN_NANOS);
+        then(rateLimiter.getPermission(Duration.ZERO)).isTrue();
+
+        AtomicReference<Boolean> reservedPermission = new AtomicReference<>(null);
+        Thread caller = new Thread(
+                () -> reservedPermission.set(rateLimiter.getPermission(2, Duration.ofNanos(CYCLE_IN_NANOS * 2))));
+        caller.setDaemon(true);
+        caller.start();
+        awaitImpatiently()
+                .atMost(5, SECONDS)
+                .until(caller::getState, equalTo(Thread.State.TIMED_WAITING));
+        then(metrics.getAvailablePermissions()).isEqualTo(-2);
+        then(metrics.getNumberOfWaitingThreads()).isEqualTo(1);
+
+        rateLimiter.changeLimitForPeriod(PERMISSIONS_RER_CYCLE * 2);
+        setTimeOnNanos(CYCLE_IN_NANOS * 2);
+        awaitImpatiently()
+                .atMost(5, SECONDS)
+                .until(reservedPermission::get, equalTo(true));
+        then(metrics.getAvailablePermissions()).isEqualTo(0);
+        then(metrics.getNumberOfWaitingThreads()).isEqualTo(0);
+    }
+
+    @Test
+    public void waitingThreadIsRejectedIfChangedLimitExceedsTimeout() throws Exception {
+        rateLimiterConfig = RateLimiterConfig.from(rateLimiterConfig)
+            .limitForPeriod(2)
+            .build();
+        AtomicRateLimiter testLimiter = new AtomicRateLimiter(LIMITER_NAME, rateLimiterConfig);
+        rateLimiter = PowerMockito.spy(testLimiter);
+        metrics = rateLimiter.getDetailedMetrics();
+        setTimeOnNanos(CYCLE_IN_NANOS);
+        then(rateLimiter.getPermission(2, Duration.ZERO)).isTrue();
+
+        AtomicReference<Boolean> reservedPermission = new AtomicReference<>(null);
+        Thread caller = new Thread(
+                () -> reservedPermission.set(rateLimiter.getPermission(2, Duration.ofNanos(CYCLE_IN_NANOS))));
+        caller.setDaemon(true);
+        caller.start();
+        awaitImpatiently()
+                .atMost(5, SECONDS)
+                .until(caller::getState, equalTo(Thread.State.TIMED_WAITING));
+
+        rateLimiter.changeLimitForPeriod(1);
+        setTimeOnNanos(CYCLE_IN_NANOS * 2);
+        awaitImpatiently()
+                .atMost(5, SECONDS)
+                .until(reservedPermission::get, equalTo(false));
+        then(metrics.getNumberOfWaitingThreads()).isEqualTo(0);
+    }
+
     @Test
     public void changeDefaultTimeoutDuration() throws Exception {
         RateLimiterConfig rateLimiterConfig = rateLimiter.getRateLimiterConfig();
@@ -368,6 +498,71 @@ public class AtomicRateLimiterTest {
         then(rateLimiterConfig.getLimitRefreshPeriodInNanos()).isEqualTo(CYCLE_IN_NANOS);
     }
 
+    @Test
+    public void fairReserveMultiplePermissionsAtOnce() throws Exception {
+        useFairCallHandling();
+        setTimeOnNanos(CYCLE_IN_NANOS);
+        long declinedNanosToWait = rateLimiter.reservePermission(3, Duration.ofNanos(CYCLE_IN_NANOS * 2 - 1));
+        then(declinedNanosToWait).isNegative();
+        then(metrics.getAvailablePermissions()).isEqualTo(1);
+
+        long reservedNanosToWait = rateLimiter.reservePermission(3, Duration.ofNanos(CYCLE_IN_NANOS * 2));
+        then(reservedNanosToWait).isEqualTo(CYCLE_IN_NANOS * 2);
+        then(metrics.getAvailablePermissions()).isEqualTo(-2);
+        then(metrics.getNanosToWait()).isEqualTo(CYCLE_IN_NANOS * 3);
+
+        setTimeOnNanos(CYCLE_IN_NANOS * 3);
+        boolean declinedPermission = rateLimiter.getPermission(1, Duration.ZERO);
+        then(declinedPermission).isFalse();
+        then(metrics.getAvailablePermissions()).isEqualTo(0);
+
+        setTimeOnNanos(CYCLE_IN_NANOS * 4);
+        boolean permission = rateLimiter.getPermission(1, Duration.ZERO);
+        then(permission).isTrue();
+        then(metrics.getAvailablePermissions()).isEqualTo(0);
+    }
+
+    @Test
+    public void fairPermissionsAreReservedInArrivalOrder() throws Exception {
+        useFairCallHandling();
+        setTimeOnNanos(CYCLE_IN_NANOS);
+        then(rateLimiter.reservePermission(Duration.ZERO)).isEqualTo(0);
+        then(rateLimiter.reservePermission(Duration.ofNanos(CYCLE_IN_NANOS))).isEqualTo(CYCLE_IN_NANOS);
+        then(rateLimiter.reservePermission(Duration.ofNanos(CYCLE_IN_NANOS))).isNegative();
+        then(rateLimiter.reservePermission(Duration.ofNanos(CYCLE_IN_NANOS * 2))).isEqualTo(CYCLE_IN_NANOS * 2);
+        then(metrics.getAvailablePermissions()).isEqualTo(-2);
+
+        setTimeOnNanos(CYCLE_IN_NANOS * 10);
+        then(metrics.getAvailablePermissions()).isEqualTo(1);
+        then(metrics.getNanosToWait()).isEqualTo(0);
+        then(rateLimiter.getPermission(Duration.ZERO)).isTrue();
+        then(rateLimiter.getPermission(Duration.ZERO)).isFalse();
+        then(metrics.getCycle()).isEqualTo(10);
+    }
+
+    @Test
+    public void fairChangePermissionsLimitBetweenCycles() throws Exception {
+        useFairCallHandling();
+        setTimeOnNanos(CYCLE_IN_NANOS);
+        boolean permission = rateLimiter.getPermission(Duration.ZERO);
+        then(permission).isTrue();
+        then(rateLimiter.reservePermission(Duration.ofNanos(CYCLE_IN_NANOS))).isEqualTo(CYCLE_IN_NANOS);
+        then(metrics.getAvailablePermissions()).isEqualTo(-1);
+        then(metrics.getNanosToWait()).isEqualTo(CYCLE_IN_NANOS * 2);
+
+        rateLimiter.changeLimitForPeriod(PERMISSIONS_RER_CYCLE * 2);
+        then(rateLimiter.getRateLimiterConfig().getLimitForPeriod()).isEqualTo(PERMISSIONS_RER_CYCLE * 2);
+        then(rateLimiter.getRateLimiterConfig().isFairCallHandling()).isTrue();
+        then(metrics.getAvailablePermissions()).isEqualTo(-1);
+        then(metrics.getNanosToWait()).isEqualTo(CYCLE_IN_NANOS);
+
+        setTimeOnNanos(CYCLE_IN_NANOS * 2 + 10);
+        then(metrics.getAvailablePermissions()).isEqualTo(1);
+        then(rateLimiter.getPermission(Duration.ZERO)).isTrue();
+        then(rateLimiter.getPermission(Duration.ZERO)).isFalse();
+        then(metrics.getNanosToWait()).isEqualTo(CYCLE_IN_NANOS - 10);
+    }
+
     @Test
     public void metricsTest() {
         RateLimiter.Metrics metrics = rateLimiter.getMetrics();
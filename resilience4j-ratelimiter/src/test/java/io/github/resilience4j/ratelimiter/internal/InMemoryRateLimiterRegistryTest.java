@@ -143,4 +143,33 @@ public class InMemoryRateLimiterRegistryTest {
         assertThat(registry.getAllRateLimiters().size()).isEqualTo(1);
         assertThat(registry.getAllRateLimiters().get(0).getName()).isEqualTo("foo");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void rateLimiterRemove() {
+        RateLimiterRegistry registry = RateLimiterRegistry.of(config);
+        RateLimiter rateLimiter = registry.rateLimiter("test");
+
+        then(registry.remove("test").get()).isSameAs(rateLimiter);
+        then(registry.remove("test").isEmpty()).isTrue();
+        then(registry.getAllRateLimiters()).isEmpty();
+        then(registry.rateLimiter("test")).isNotSameAs(rateLimiter);
+    }
+
+    @Test
+    public void rateLimiterRemoveStopsSemaphoreBasedRateLimiter() throws Exception {
+        RateLimiterConfig semaphoreBasedConfig = RateLimiterConfig.from(config)
+            .rateLimiterType(RateLimiterConfig.RateLimiterType.SEMAPHORE_BASED)
+            .build();
+        RateLimiterRegistry registry = RateLimiterRegistry.of(semaphoreBasedConfig);
+        RateLimiter rateLimiter = registry.rateLimiter("test");
+        then(rateLimiter).isInstanceOf(SemaphoreBasedRateLimiter.class);
+
+        registry.remove("test");
+        Thread.sleep(10);
+        rateLimiter.getPermission(Duration.ZERO);
+        Thread.sleep(10);
+        int availablePermissions = rateLimiter.getMetrics().getAvailablePermissions();
+
+        then(availablePermissions).isEqualTo(LIMIT - 1);
+    }
+}
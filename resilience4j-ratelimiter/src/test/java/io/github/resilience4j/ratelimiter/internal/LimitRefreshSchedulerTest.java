@@ -0,0 +1,109 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.ratelimiter.internal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class LimitRefreshSchedulerTest {
+
+    private static final long PERIOD = Duration.ofMillis(10).toNanos();
+    private static final long OTHER_PERIOD = Duration.ofMillis(20).toNanos();
+
+    private ScheduledThreadPoolExecutor executor;
+    private LimitRefreshScheduler scheduler;
+
+    @Before
+    public void init() {
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        scheduler = new LimitRefreshScheduler(executor);
+    }
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldCoalesceRefreshesWithTheSamePeriod() {
+        AtomicInteger first = new AtomicInteger();
+        AtomicInteger second = new AtomicInteger();
+        AtomicInteger other = new AtomicInteger();
+
+        scheduler.schedule(PERIOD, first::incrementAndGet);
+        scheduler.schedule(PERIOD, second::incrementAndGet);
+        scheduler.schedule(OTHER_PERIOD, other::incrementAndGet);
+
+        then(scheduler.getNumberOfTicks()).isEqualTo(2);
+        then(executor.getQueue().size()).isEqualTo(2);
+        await().atMost(1, SECONDS).until(first::get, greaterThan(1));
+        await().atMost(1, SECONDS).until(second::get, greaterThan(1));
+        await().atMost(1, SECONDS).until(other::get, greaterThan(1));
+    }
+
+    @Test
+    public void shouldCancelTickWithItsLastRefresh() {
+        LimitRefreshScheduler.Registration first = scheduler.schedule(PERIOD, () -> {
+        });
+        LimitRefreshScheduler.Registration second = scheduler.schedule(PERIOD, () -> {
+        });
+
+        first.cancel();
+        then(scheduler.getNumberOfTicks()).isEqualTo(1);
+        then(executor.getQueue().size()).isEqualTo(1);
+
+        second.cancel();
+        second.cancel();
+        then(scheduler.getNumberOfTicks()).isEqualTo(0);
+        then(executor.getQueue().size()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldClampTinyPeriods() {
+        AtomicInteger refreshes = new AtomicInteger();
+        scheduler.schedule(500, refreshes::incrementAndGet);
+        scheduler.schedule(LimitRefreshScheduler.MIN_PERIOD.toNanos() - 1, refreshes::incrementAndGet);
+
+        then(scheduler.getNumberOfTicks()).isEqualTo(1);
+        then(executor.getQueue().size()).isEqualTo(1);
+        await().atMost(1, SECONDS).until(refreshes::get, greaterThan(2));
+    }
+
+    @Test
+    public void shouldKeepRefreshingAfterFailingRefresh() {
+        AtomicInteger refreshes = new AtomicInteger();
+        scheduler.schedule(PERIOD, () -> {
+            throw new IllegalStateException("failing refresh");
+        });
+        scheduler.schedule(PERIOD, refreshes::incrementAndGet);
+
+        await().atMost(1, SECONDS).until(refreshes::get, greaterThan(2));
+    }
+}
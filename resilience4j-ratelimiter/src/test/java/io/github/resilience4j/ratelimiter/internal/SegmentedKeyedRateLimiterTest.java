@@ -0,0 +1,176 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.ratelimiter.internal;
+
+import io.github.resilience4j.ratelimiter.KeyedRateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class SegmentedKeyedRateLimiterTest {
+
+    private static final int LIMIT = 2;
+    private static final int MAX_NUMBER_OF_KEYS = 100;
+    private static final long CYCLE = Duration.ofMillis(500).toNanos();
+
+    private RateLimiterConfig config;
+    private AtomicLong nanoTime;
+    private SegmentedKeyedRateLimiter<String> rateLimiter;
+    private KeyedRateLimiter.Metrics metrics;
+
+    @Before
+    public void setup() {
+        config = RateLimiterConfig.custom()
+            .limitForPeriod(LIMIT)
+            .limitRefreshPeriod(Duration.ofNanos(CYCLE))
+            .timeoutDuration(Duration.ZERO)
+            .build();
+        nanoTime = new AtomicLong(0);
+        rateLimiter = new SegmentedKeyedRateLimiter<>("test", config, MAX_NUMBER_OF_KEYS, nanoTime::get);
+        metrics = rateLimiter.getMetrics();
+    }
+
+    @Test
+    public void shouldLimitEachKeySeparately() {
+        then(rateLimiter.getPermission("a", Duration.ZERO)).isTrue();
+        then(rateLimiter.getPermission("a", Duration.ZERO)).isTrue();
+        then(rateLimiter.getPermission("a", Duration.ZERO)).isFalse();
+        then(rateLimiter.getAvailablePermissions("a")).isEqualTo(0);
+
+        then(rateLimiter.getPermission("b", LIMIT, Duration.ZERO)).isTrue();
+        then(rateLimiter.getPermission("b", Duration.ZERO)).isFalse();
+        then(rateLimiter.getAvailablePermissions("c")).isEqualTo(LIMIT);
+        then(metrics.getNumberOfKeys()).isEqualTo(2);
+
+        nanoTime.set(CYCLE);
+        then(rateLimiter.getAvailablePermissions("a")).isEqualTo(LIMIT);
+        then(rateLimiter.getPermission("a", Duration.ZERO)).isTrue();
+    }
+
+    @Test
+    public void shouldReservePermissionsOfFutureCycles() {
+        then(rateLimiter.reservePermission("a", LIMIT, Duration.ZERO)).isEqualTo(0L);
+        then(rateLimiter.reservePermission("a", 1, Duration.ofNanos(CYCLE - 1))).isNegative();
+        then(rateLimiter.reservePermission("a", 1, Duration.ofNanos(CYCLE))).isEqualTo(CYCLE);
+        then(rateLimiter.getAvailablePermissions("a")).isEqualTo(-1);
+    }
+
+    @Test
+    public void shouldEvictIdleKeysWhenFull() {
+        for (int i = 0; i < MAX_NUMBER_OF_KEYS; i++) {
+            then(rateLimiter.getPermission("key-" + i, Duration.ZERO)).isTrue();
+        }
+        then(metrics.getNumberOfKeys()).isLessThanOrEqualTo(MAX_NUMBER_OF_KEYS);
+
+        nanoTime.set(CYCLE);
+        for (int i = 0; i < MAX_NUMBER_OF_KEYS; i++) {
+            then(rateLimiter.getPermission("other-" + i, LIMIT, Duration.ZERO)).isTrue();
+        }
+        then(metrics.getNumberOfKeys()).isLessThanOrEqualTo(MAX_NUMBER_OF_KEYS);
+        then(metrics.getNumberOfEvictedKeys()).isGreaterThan(0L);
+        then(metrics.getNumberOfRejectedKeys()).isEqualTo(0L);
+        for (int i = 0; i < MAX_NUMBER_OF_KEYS; i++) {
+            then(rateLimiter.getAvailablePermissions("other-" + i)).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void shouldRejectNewKeysWhenFullOfActiveKeys() {
+        SegmentedKeyedRateLimiter<Integer> singleKeyLimiter = new SegmentedKeyedRateLimiter<>("single", config, 1, nanoTime::get);
+
+        then(singleKeyLimiter.getPermission(1, Duration.ZERO)).isTrue();
+        then(singleKeyLimiter.getPermission(2, Duration.ZERO)).isFalse();
+        then(singleKeyLimiter.getMetrics().getNumberOfRejectedKeys()).isEqualTo(1L);
+
+        nanoTime.set(CYCLE);
+        then(singleKeyLimiter.getPermission(2, Duration.ZERO)).isTrue();
+        then(singleKeyLimiter.getMetrics().getNumberOfEvictedKeys()).isEqualTo(1L);
+        then(singleKeyLimiter.getMetrics().getNumberOfKeys()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRejectNewKeysWithoutWaitingWhenFullOfActiveKeys() {
+        SegmentedKeyedRateLimiter<Integer> singleKeyLimiter = new SegmentedKeyedRateLimiter<>("single", config, 1, nanoTime::get);
+        Duration timeout = Duration.ofSeconds(10);
+        then(singleKeyLimiter.getPermission(1, Duration.ZERO)).isTrue();
+
+        long start = System.nanoTime();
+        boolean permitted = singleKeyLimiter.getPermission(2, timeout);
+        long reservation = singleKeyLimiter.reservePermission(2, 1, timeout);
+        long elapsed = System.nanoTime() - start;
+
+        then(permitted).isFalse();
+        then(reservation).isEqualTo(-1L);
+        then(elapsed).isLessThan(timeout.toNanos());
+        then(singleKeyLimiter.getMetrics().getNumberOfRejectedKeys()).isEqualTo(2L);
+        then(singleKeyLimiter.getMetrics().getNumberOfWaitingThreads()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldKeepKeysWithCollidingHashes() {
+        SegmentedKeyedRateLimiter<CollidingKey> collidingLimiter = new SegmentedKeyedRateLimiter<>("colliding", config, 8, nanoTime::get);
+        for (int i = 0; i < 8; i++) {
+            then(collidingLimiter.getPermission(new CollidingKey(i), LIMIT, Duration.ZERO)).isTrue();
+        }
+
+        nanoTime.set(CYCLE);
+        for (int i = 0; i < 8; i += 2) {
+            then(collidingLimiter.getPermission(new CollidingKey(i), Duration.ZERO)).isTrue();
+        }
+        then(collidingLimiter.getPermission(new CollidingKey(8), Duration.ZERO)).isTrue();
+
+        then(collidingLimiter.getMetrics().getNumberOfEvictedKeys()).isEqualTo(4L);
+        for (int i = 0; i < 8; i += 2) {
+            then(collidingLimiter.getAvailablePermissions(new CollidingKey(i))).isEqualTo(LIMIT - 1);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptZeroMaxNumberOfKeys() {
+        new SegmentedKeyedRateLimiter<String>("test", config, 0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldNotAcceptNullKey() {
+        rateLimiter.getPermission(null, Duration.ZERO);
+    }
+
+    private static final class CollidingKey {
+        private final int id;
+
+        private CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.mockito.ArgumentCaptor;
 
 import java.time.Duration;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
@@ -113,6 +114,57 @@ public class SemaphoreBasedRateLimiterImplTest {
             .until(() -> limit.getPermission(ZERO), equalTo(true));
     }
 
+    @Test
+    public void closeStopsLimitRefresh() throws Exception {
+        ScheduledExecutorService scheduledExecutorService = mock(ScheduledExecutorService.class);
+        ScheduledFuture<?> refreshFuture = mock(ScheduledFuture.class);
+        doReturn(refreshFuture).when(scheduledExecutorService)
+            .scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+        SemaphoreBasedRateLimiter limit = new SemaphoreBasedRateLimiter("test", config, scheduledExecutorService);
+
+        limit.close();
+
+        verify(refreshFuture).cancel(false);
+    }
+
+    @Test
+    public void limitersWithSameRefreshPeriodShareOneTick() throws Exception {
+        ScheduledExecutorService scheduledExecutorService = mock(ScheduledExecutorService.class);
+        LimitRefreshScheduler limitRefreshScheduler = new LimitRefreshScheduler(scheduledExecutorService);
+        new SemaphoreBasedRateLimiter("first", config, limitRefreshScheduler);
+        new SemaphoreBasedRateLimiter("second", config, limitRefreshScheduler);
+
+        verify(scheduledExecutorService, times(1))
+            .scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+        then(limitRefreshScheduler.getNumberOfTicks()).isEqualTo(1);
+    }
+
+    @Test
+    public void changedConfigIsAppliedOnNextRefresh() throws Exception {
+        ScheduledExecutorService scheduledExecutorService = mock(ScheduledExecutorService.class);
+        LimitRefreshScheduler limitRefreshScheduler = new LimitRefreshScheduler(scheduledExecutorService);
+        SemaphoreBasedRateLimiter limit = new SemaphoreBasedRateLimiter("test", config, limitRefreshScheduler);
+        RateLimiter.Metrics metrics = limit.getMetrics();
+        Duration newRefreshPeriod = REFRESH_PERIOD.multipliedBy(2);
+
+        limit.changeConfig(RateLimiterConfig.from(config)
+            .limitForPeriod(1)
+            .limitRefreshPeriod(newRefreshPeriod)
+            .build());
+        then(limit.getRateLimiterConfig().getLimitForPeriod()).isEqualTo(1);
+        then(metrics.getAvailablePermissions()).isEqualTo(LIMIT);
+
+        limit.refreshLimit();
+        then(metrics.getAvailablePermissions()).isEqualTo(1);
+        verify(scheduledExecutorService).scheduleAtFixedRate(
+            any(Runnable.class),
+            eq(newRefreshPeriod.toNanos()),
+            eq(newRefreshPeriod.toNanos()),
+            eq(TimeUnit.NANOSECONDS)
+        );
+        then(limitRefreshScheduler.getNumberOfTicks()).isEqualTo(1);
+    }
+
     @Test
     public void getPermissionAndMetrics() throws Exception {
 
@@ -0,0 +1,185 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.ratelimiter.internal;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class StripedAtomicRateLimiterTest {
+
+    private static final String LIMITER_NAME = "test";
+    private static final long CYCLE_IN_NANOS = 500_000_000L;
+    private static final int PERMISSIONS_PER_CYCLE = 10;
+
+    private AtomicLong nanoTime;
+    private StripedAtomicRateLimiter rateLimiter;
+    private RateLimiter.Metrics metrics;
+
+    @Before
+    public void setup() {
+        RateLimiterConfig rateLimiterConfig = RateLimiterConfig.custom()
+            .limitForPeriod(PERMISSIONS_PER_CYCLE)
+            .limitRefreshPeriod(Duration.ofNanos(CYCLE_IN_NANOS))
+            .timeoutDuration(Duration.ZERO)
+            .build();
+        nanoTime = new AtomicLong(0);
+        rateLimiter = new StripedAtomicRateLimiter(LIMITER_NAME, rateLimiterConfig, 4, nanoTime::get);
+        metrics = rateLimiter.getMetrics();
+    }
+
+    @Test
+    public void shouldStealPermissionsFromOtherStripes() {
+        then(metrics.getAvailablePermissions()).isEqualTo(PERMISSIONS_PER_CYCLE);
+
+        for (int i = 0; i < PERMISSIONS_PER_CYCLE; i++) {
+            then(rateLimiter.getPermission(Duration.ZERO)).isTrue();
+        }
+        then(rateLimiter.getPermission(Duration.ZERO)).isFalse();
+        then(metrics.getAvailablePermissions()).isEqualTo(0);
+
+        nanoTime.set(CYCLE_IN_NANOS);
+        then(metrics.getAvailablePermissions()).isEqualTo(PERMISSIONS_PER_CYCLE);
+        then(rateLimiter.getPermission(Duration.ZERO)).isTrue();
+        then(metrics.getAvailablePermissions()).isEqualTo(PERMISSIONS_PER_CYCLE - 1);
+    }
+
+    @Test
+    public void shouldAcquireMultiplePermissionsFromSeveralStripes() {
+        then(rateLimiter.getPermission(7, Duration.ZERO)).isTrue();
+        then(metrics.getAvailablePermissions()).isEqualTo(3);
+
+        then(rateLimiter.getPermission(4, Duration.ZERO)).isFalse();
+        then(metrics.getAvailablePermissions()).isEqualTo(3);
+
+        then(rateLimiter.getPermission(3, Duration.ZERO)).isTrue();
+        then(metrics.getAvailablePermissions()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldNotPermitMorePermissionsThanLimitForPeriod() {
+        then(rateLimiter.getPermission(PERMISSIONS_PER_CYCLE + 1, Duration.ZERO)).isFalse();
+        then(metrics.getAvailablePermissions()).isEqualTo(PERMISSIONS_PER_CYCLE);
+    }
+
+    @Test
+    public void shouldNotLosePermissionsWithMoreStripesThanLimitForPeriod() {
+        RateLimiterConfig rateLimiterConfig = RateLimiterConfig.custom()
+            .limitForPeriod(2)
+            .limitRefreshPeriod(Duration.ofNanos(CYCLE_IN_NANOS))
+            .timeoutDuration(Duration.ZERO)
+            .build();
+        StripedAtomicRateLimiter limiter = new StripedAtomicRateLimiter(LIMITER_NAME, rateLimiterConfig, 8, nanoTime::get);
+        RateLimiter.Metrics limiterMetrics = limiter.getMetrics();
+
+        then(limiter.getPermission(3, Duration.ZERO)).isFalse();
+        then(limiterMetrics.getAvailablePermissions()).isEqualTo(2);
+
+        then(limiter.getPermission(1, Duration.ZERO)).isTrue();
+        then(limiter.getPermission(2, Duration.ZERO)).isFalse();
+        then(limiterMetrics.getAvailablePermissions()).isEqualTo(1);
+
+        then(limiter.getPermission(1, Duration.ZERO)).isTrue();
+        then(limiterMetrics.getAvailablePermissions()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldOnlyReservePermissionsOfTheCurrentCycle() {
+        then(rateLimiter.reservePermission(PERMISSIONS_PER_CYCLE, Duration.ZERO)).isEqualTo(0);
+        then(rateLimiter.reservePermission(Duration.ofNanos(CYCLE_IN_NANOS))).isNegative();
+        then(metrics.getAvailablePermissions()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldRetryInNextCycleIfItStartsWithinTheTimeout() {
+        then(rateLimiter.acquireInCurrentPeriod(PERMISSIONS_PER_CYCLE, 0)).isEqualTo(0);
+        then(rateLimiter.acquireInCurrentPeriod(1, CYCLE_IN_NANOS - 1)).isNegative();
+
+        nanoTime.set(CYCLE_IN_NANOS / 2);
+        then(rateLimiter.acquireInCurrentPeriod(1, CYCLE_IN_NANOS)).isEqualTo(CYCLE_IN_NANOS / 2);
+        then(rateLimiter.acquireInCurrentPeriod(PERMISSIONS_PER_CYCLE + 1, CYCLE_IN_NANOS)).isNegative();
+
+        nanoTime.set(CYCLE_IN_NANOS);
+        then(rateLimiter.acquireInCurrentPeriod(1, 0)).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldApplyChangedLimitForPeriodInNextCycle() {
+        rateLimiter.changeLimitForPeriod(PERMISSIONS_PER_CYCLE * 2);
+        then(rateLimiter.getRateLimiterConfig().getLimitForPeriod()).isEqualTo(PERMISSIONS_PER_CYCLE * 2);
+        then(rateLimiter.getPermission(PERMISSIONS_PER_CYCLE + 1, Duration.ZERO)).isFalse();
+
+        nanoTime.set(CYCLE_IN_NANOS);
+        then(rateLimiter.getPermission(PERMISSIONS_PER_CYCLE + 1, Duration.ZERO)).isTrue();
+        then(metrics.getAvailablePermissions()).isEqualTo(PERMISSIONS_PER_CYCLE - 1);
+    }
+
+    @Test
+    public void shouldApplyChangedRefreshPeriodInNextCycle() {
+        rateLimiter.changeConfig(RateLimiterConfig.from(rateLimiter.getRateLimiterConfig())
+            .limitRefreshPeriod(Duration.ofNanos(CYCLE_IN_NANOS * 2))
+            .build());
+        then(rateLimiter.getPermission(PERMISSIONS_PER_CYCLE, Duration.ZERO)).isTrue();
+
+        nanoTime.set(CYCLE_IN_NANOS);
+        then(rateLimiter.getPermission(PERMISSIONS_PER_CYCLE, Duration.ZERO)).isTrue();
+
+        nanoTime.set(CYCLE_IN_NANOS * 2);
+        then(metrics.getAvailablePermissions()).isEqualTo(0);
+        nanoTime.set(CYCLE_IN_NANOS * 3);
+        then(metrics.getAvailablePermissions()).isEqualTo(PERMISSIONS_PER_CYCLE);
+    }
+
+    @Test
+    public void shouldWaitForNextCycle() {
+        RateLimiterConfig rateLimiterConfig = RateLimiterConfig.custom()
+            .limitForPeriod(1)
+            .limitRefreshPeriod(Duration.ofMillis(50))
+            .timeoutDuration(Duration.ofSeconds(1))
+            .build();
+        StripedAtomicRateLimiter rawLimiter = new StripedAtomicRateLimiter("rawLimiter", rateLimiterConfig, 2);
+
+        then(rawLimiter.getPermission(Duration.ofSeconds(1))).isTrue();
+        then(rawLimiter.getPermission(Duration.ofSeconds(1))).isTrue();
+        then(rawLimiter.getPermission(Duration.ZERO)).isFalse();
+        then(rawLimiter.getMetrics().getNumberOfWaitingThreads()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldRoundNumberOfStripesUpToPowerOfTwo() {
+        StripedAtomicRateLimiter limiter = new StripedAtomicRateLimiter(LIMITER_NAME, RateLimiterConfig.ofDefaults(), 3);
+        then(limiter.toString()).contains("numberOfStripes=4");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptZeroStripes() {
+        new StripedAtomicRateLimiter(LIMITER_NAME, RateLimiterConfig.ofDefaults(), 0);
+    }
+
+    @Test
+    public void shouldReturnTheSameMetricsOnEveryCall() {
+        then(rateLimiter.getMetrics()).isSameAs(rateLimiter.getMetrics());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.ratelimiter.internal;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class TokenBucketRateLimiterTest {
+
+    private static final String LIMITER_NAME = "test";
+    private static final long NANOS_PER_PERMISSION = Duration.ofMillis(50).toNanos();
+    private static final int BURST_CAPACITY = 20;
+
+    private AtomicLong nanoTime;
+    private TokenBucketRateLimiter rateLimiter;
+    private RateLimiter.Metrics metrics;
+
+    @Before
+    public void setup() {
+        RateLimiterConfig rateLimiterConfig = RateLimiterConfig.custom()
+            .limitForPeriod(10)
+            .limitRefreshPeriod(Duration.ofMillis(500))
+            .burstCapacity(BURST_CAPACITY)
+            .timeoutDuration(Duration.ZERO)
+            .rateLimiterType(RateLimiterConfig.RateLimiterType.TOKEN_BUCKET)
+            .build();
+        nanoTime = new AtomicLong(0);
+        rateLimiter = new TokenBucketRateLimiter(LIMITER_NAME, rateLimiterConfig, nanoTime::get);
+        metrics = rateLimiter.getMetrics();
+    }
+
+    @Test
+    public void shouldPermitBurstUpToCapacity() {
+        then(metrics.getAvailablePermissions()).isEqualTo(BURST_CAPACITY);
+
+        for (int i = 0; i < BURST_CAPACITY; i++) {
+            then(rateLimiter.getPermission(Duration.ZERO)).isTrue();
+        }
+        then(rateLimiter.getPermission(Duration.ZERO)).isFalse();
+        then(metrics.getAvailablePermissions()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldRefillContinuously() {
+        then(rateLimiter.getPermission(BURST_CAPACITY, Duration.ZERO)).isTrue();
+
+        nanoTime.set(NANOS_PER_PERMISSION / 2);
+        then(metrics.getAvailablePermissions()).isEqualTo(0);
+        then(rateLimiter.getPermission(Duration.ZERO)).isFalse();
+
+        nanoTime.set(NANOS_PER_PERMISSION);
+        then(metrics.getAvailablePermissions()).isEqualTo(1);
+        then(rateLimiter.getPermission(Duration.ZERO)).isTrue();
+        then(rateLimiter.getPermission(Duration.ZERO)).isFalse();
+    }
+
+    @Test
+    public void shouldNotAccumulateMoreThanBurstCapacity() {
+        then(rateLimiter.getPermission(BURST_CAPACITY, Duration.ZERO)).isTrue();
+
+        nanoTime.set(NANOS_PER_PERMISSION * BURST_CAPACITY * 10);
+        then(metrics.getAvailablePermissions()).isEqualTo(BURST_CAPACITY);
+        then(rateLimiter.getPermission(BURST_CAPACITY + 1, Duration.ZERO)).isFalse();
+        then(rateLimiter.getPermission(BURST_CAPACITY, Duration.ZERO)).isTrue();
+    }
+
+    @Test
+    public void shouldReservePermissionsWithinTimeout() {
+        then(rateLimiter.getPermission(BURST_CAPACITY, Duration.ZERO)).isTrue();
+
+        long declinedNanosToWait = rateLimiter.reservePermission(Duration.ofNanos(NANOS_PER_PERMISSION - 1));
+        then(declinedNanosToWait).isNegative();
+        then(metrics.getAvailablePermissions()).isEqualTo(0);
+
+        long reservedNanosToWait = rateLimiter.reservePermission(Duration.ofNanos(NANOS_PER_PERMISSION));
+        then(reservedNanosToWait).isEqualTo(NANOS_PER_PERMISSION);
+        then(metrics.getAvailablePermissions()).isEqualTo(-1);
+
+        long weightedNanosToWait = rateLimiter.reservePermission(5, Duration.ofNanos(NANOS_PER_PERMISSION * 6));
+        then(weightedNanosToWait).isEqualTo(NANOS_PER_PERMISSION * 6);
+        then(metrics.getAvailablePermissions()).isEqualTo(-6);
+    }
+
+    @Test
+    public void shouldRefillFasterAfterChangeOfLimitForPeriod() {
+        then(rateLimiter.getPermission(BURST_CAPACITY, Duration.ZERO)).isTrue();
+
+        rateLimiter.changeLimitForPeriod(20);
+        then(rateLimiter.getRateLimiterConfig().getLimitForPeriod()).isEqualTo(20);
+        then(rateLimiter.getRateLimiterConfig().getBurstCapacity()).isEqualTo(BURST_CAPACITY);
+
+        nanoTime.set(NANOS_PER_PERMISSION);
+        then(metrics.getAvailablePermissions()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldWaitForReservedPermission() {
+        RateLimiterConfig rateLimiterConfig = RateLimiterConfig.custom()
+            .limitForPeriod(1)
+            .limitRefreshPeriod(Duration.ofMillis(50))
+            .build();
+        TokenBucketRateLimiter rawLimiter = new TokenBucketRateLimiter("rawLimiter", rateLimiterConfig);
+
+        then(rawLimiter.getPermission(Duration.ZERO)).isTrue();
+        long start = System.nanoTime();
+        then(rawLimiter.getPermission(Duration.ofSeconds(1))).isTrue();
+        then(System.nanoTime() - start).isGreaterThan(Duration.ofMillis(25).toNanos());
+        then(rawLimiter.getMetrics().getNumberOfWaitingThreads()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldReturnTheSameMetricsOnEveryCall() {
+        then(rateLimiter.getMetrics()).isSameAs(rateLimiter.getMetrics());
+    }
+}
@@ -1,40 +1,46 @@
 package io.github.resilience4j.adapter;
 
+import io.github.resilience4j.core.EventConsumer;
 import io.github.resilience4j.core.EventPublisher;
+import io.reactivex.BackpressureStrategy;
 import io.reactivex.Flowable;
+import io.reactivex.FlowableEmitter;
 import io.reactivex.Observable;
-import io.reactivex.processors.FlowableProcessor;
-import io.reactivex.processors.PublishProcessor;
-import io.reactivex.subjects.PublishSubject;
-import io.reactivex.subjects.Subject;
+import io.reactivex.ObservableEmitter;
 
 public class RxJava2Adapter {
 
     /**
      * Converts the EventPublisher into a Flowable.
+     * Every subscriber registers its own event consumer, which is removed when the subscription is cancelled.
      *
      * @param eventPublisher the event publisher
      * @param <T> the type of the event
      * @return the Flowable
      */
     public static <T> Flowable<T> toFlowable(EventPublisher<T> eventPublisher) {
-        PublishProcessor<T> publishProcessor = PublishProcessor.create();
-        FlowableProcessor<T> flowableProcessor = publishProcessor.toSerialized();
-        eventPublisher.onEvent(flowableProcessor::onNext);
-        return flowableProcessor;
+        return Flowable.create(emitter -> {
+            FlowableEmitter<T> serializedEmitter = emitter.serialize();
+            EventConsumer<T> eventConsumer = serializedEmitter::onNext;
+            serializedEmitter.setCancellable(() -> eventPublisher.removeEventConsumer(eventConsumer));
+            eventPublisher.onEvent(eventConsumer);
+        }, BackpressureStrategy.ERROR);
     }
 
     /**
      * Converts the EventPublisher into an Observable.
+     * Every observer registers its own event consumer, which is removed when the observer is disposed.
      *
      * @param eventPublisher the event publisher
      * @param <T> the type of the event
      * @return the Observable
      */
     public static <T> Observable<T> toObservable(EventPublisher<T> eventPublisher) {
-        PublishSubject<T> publishSubject = PublishSubject.create();
-        Subject<T> serializedSubject = publishSubject.toSerialized();
-        eventPublisher.onEvent(serializedSubject::onNext);
-        return serializedSubject;
+        return Observable.create(emitter -> {
+            ObservableEmitter<T> serializedEmitter = emitter.serialize();
+            EventConsumer<T> eventConsumer = serializedEmitter::onNext;
+            serializedEmitter.setCancellable(() -> eventPublisher.removeEventConsumer(eventConsumer));
+            eventPublisher.onEvent(eventConsumer);
+        });
     }
 }
@@ -0,0 +1,64 @@
+/*
+ *
+ *  Copyright 2017 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.resilience4j.adapter;
+
+import io.github.resilience4j.core.EventProcessor;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RxJava2AdapterTest {
+
+    @Test
+    public void shouldRemoveEventConsumerWhenFlowableSubscriptionIsCancelled() {
+        EventProcessor<String> eventProcessor = new EventProcessor<>();
+        TestSubscriber<String> testSubscriber = RxJava2Adapter.toFlowable(eventProcessor).test();
+        assertThat(eventProcessor.hasConsumers()).isTrue();
+
+        eventProcessor.processEvent("event");
+        testSubscriber.cancel();
+
+        testSubscriber.assertValues("event");
+        assertThat(eventProcessor.hasConsumers()).isFalse();
+        assertThat(eventProcessor.processEvent("event")).isFalse();
+    }
+
+    @Test
+    public void shouldRemoveEventConsumerWhenObserverIsDisposed() {
+        EventProcessor<String> eventProcessor = new EventProcessor<>();
+        TestObserver<String> testObserver = RxJava2Adapter.toObservable(eventProcessor).test();
+        assertThat(eventProcessor.hasConsumers()).isTrue();
+
+        eventProcessor.processEvent("event");
+        testObserver.dispose();
+
+        testObserver.assertValues("event");
+        assertThat(eventProcessor.hasConsumers()).isFalse();
+    }
+
+    @Test
+    public void shouldNotRegisterEventConsumerBeforeSubscription() {
+        EventProcessor<String> eventProcessor = new EventProcessor<>();
+        RxJava2Adapter.toFlowable(eventProcessor);
+
+        assertThat(eventProcessor.hasConsumers()).isFalse();
+    }
+}
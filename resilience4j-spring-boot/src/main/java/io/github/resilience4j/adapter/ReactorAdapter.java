@@ -16,6 +16,7 @@
 package io.github.resilience4j.adapter;
 
 
+import io.github.resilience4j.core.EventConsumer;
 import io.github.resilience4j.core.EventPublisher;
 import reactor.core.publisher.DirectProcessor;
 import reactor.core.publisher.Flux;
@@ -24,14 +25,22 @@ public class ReactorAdapter {
 
     /**
      * Converts the EventPublisher into a Flux.
+     * Every subscriber registers its own event consumer, which is removed when the subscription is cancelled
+     * or terminates.
      *
      * @param eventPublisher the event publisher
      * @param <T> the type of the event
      * @return the Flux
      */
     public static <T> Flux<T> toFlux(EventPublisher<T> eventPublisher) {
-        DirectProcessor<T> directProcessor = DirectProcessor.create();
-        eventPublisher.onEvent(directProcessor::onNext);
-        return directProcessor;
+        return Flux.defer(() -> {
+            DirectProcessor<T> directProcessor = DirectProcessor.create();
+            EventConsumer<T> eventConsumer = directProcessor::onNext;
+            Runnable removeEventConsumer = () -> eventPublisher.removeEventConsumer(eventConsumer);
+            eventPublisher.onEvent(eventConsumer);
+            return directProcessor
+                .doOnCancel(removeEventConsumer)
+                .doOnTerminate(removeEventConsumer);
+        });
     }
 }
@@ -69,6 +69,18 @@ public class RateLimiterProperties {
             rateLimiterConfigBuilder.timeoutDuration(Duration.ofMillis(limiterProperties.getTimeoutInMillis()));
         }
 
+        if (limiterProperties.getBurstCapacity() != null) {
+            rateLimiterConfigBuilder.burstCapacity(limiterProperties.getBurstCapacity());
+        }
+
+        if (limiterProperties.getRateLimiterType() != null) {
+            rateLimiterConfigBuilder.rateLimiterType(limiterProperties.getRateLimiterType());
+        }
+
+        if (limiterProperties.getFairCallHandling() != null) {
+            rateLimiterConfigBuilder.fairCallHandling(limiterProperties.getFairCallHandling());
+        }
+
         return rateLimiterConfigBuilder.build();
     }
 
@@ -84,6 +96,9 @@ public class RateLimiterProperties {
         private Integer limitForPeriod;
         private Integer limitRefreshPeriodInMillis;
         private Integer timeoutInMillis;
+        private Integer burstCapacity;
+        private RateLimiterConfig.RateLimiterType rateLimiterType;
+        private Boolean fairCallHandling;
         private Boolean subscribeForEvents = false;
         private Boolean registerHealthIndicator = false;
         private Integer eventConsumerBufferSize = 100;
@@ -156,6 +171,66 @@ public class RateLimiterProperties {
             this.timeoutInMillis = timeoutInMillis;
         }
 
+        /**
+         * Configures the maximum number of permissions a token bucket rate limiter can accumulate.
+         * Default value is the limit for period.
+         *
+         * @return the burst capacity
+         */
+        public Integer getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        /**
+         * Configures the maximum number of permissions a token bucket rate limiter can accumulate.
+         * Default value is the limit for period.
+         *
+         * @param burstCapacity the burst capacity
+         */
+        public void setBurstCapacity(Integer burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        /**
+         * Configures the implementation of the rate limiter.
+         * Default value is {@link RateLimiterConfig.RateLimiterType#ATOMIC}.
+         *
+         * @return the type of the rate limiter
+         */
+        public RateLimiterConfig.RateLimiterType getRateLimiterType() {
+            return rateLimiterType;
+        }
+
+        /**
+         * Configures the implementation of the rate limiter.
+         * Default value is {@link RateLimiterConfig.RateLimiterType#ATOMIC}.
+         *
+         * @param rateLimiterType the type of the rate limiter
+         */
+        public void setRateLimiterType(RateLimiterConfig.RateLimiterType rateLimiterType) {
+            this.rateLimiterType = rateLimiterType;
+        }
+
+        /**
+         * Configures whether an atomic rate limiter hands out permissions in arrival order.
+         * Default value is false.
+         *
+         * @return true if permissions are handed out in arrival order
+         */
+        public Boolean getFairCallHandling() {
+            return fairCallHandling;
+        }
+
+        /**
+         * Configures whether an atomic rate limiter hands out permissions in arrival order.
+         * Default value is false.
+         *
+         * @param fairCallHandling true to hand out permissions in arrival order
+         */
+        public void setFairCallHandling(Boolean fairCallHandling) {
+            this.fairCallHandling = fairCallHandling;
+        }
+
         public Boolean getSubscribeForEvents() {
             return subscribeForEvents;
         }